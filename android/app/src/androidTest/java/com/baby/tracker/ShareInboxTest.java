@@ -0,0 +1,115 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs on a device: the grants go through a ContentResolver that records them
+// instead of asking the system, and the queue lives in a scratch directory.
+@RunWith(AndroidJUnit4.class)
+public class ShareInboxTest {
+    private static final Uri SHARED = Uri.parse("content://com.example.documents/document/42");
+    private static final int PERSISTABLE_READ =
+        Intent.FLAG_GRANT_READ_URI_PERMISSION | Intent.FLAG_GRANT_PERSISTABLE_URI_PERMISSION;
+
+    private static class RecordingResolver extends ContentResolver {
+        final List<Uri> taken = new ArrayList<>();
+        final List<Uri> released = new ArrayList<>();
+        boolean refuseRelease;
+
+        RecordingResolver(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void takePersistableUriPermission(@NonNull Uri uri, int modeFlags) {
+            taken.add(uri);
+        }
+
+        @Override
+        public void releasePersistableUriPermission(@NonNull Uri uri, int modeFlags) {
+            if (refuseRelease) {
+                throw new SecurityException("No persistable permission on " + uri);
+            }
+            released.add(uri);
+        }
+    }
+
+    private File filesDir;
+    private RecordingResolver resolver;
+    private ShareInbox inbox;
+
+    @Before
+    public void setUp() {
+        Context target = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        filesDir = new File(target.getCacheDir(), "share-inbox-test-" + System.nanoTime());
+        resolver = new RecordingResolver(target);
+        inbox = new ShareInbox(new ContextWrapper(target) {
+            @Override
+            public File getFilesDir() {
+                return filesDir;
+            }
+
+            @Override
+            public ContentResolver getContentResolver() {
+                return resolver;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(filesDir);
+    }
+
+    @Test
+    public void ackReleasesThePersistedGrant() {
+        long id = inbox.add(SHARED, "image/jpeg", "card.jpg", null);
+        inbox.retain(id, SHARED, PERSISTABLE_READ);
+        assertEquals(1, resolver.taken.size());
+
+        inbox.ack(id);
+
+        assertEquals(1, resolver.released.size());
+        assertEquals(SHARED, resolver.released.get(0));
+        assertTrue(inbox.pending().isEmpty());
+    }
+
+    @Test
+    public void ackSurvivesAGrantThatIsAlreadyGone() {
+        long id = inbox.add(SHARED, "image/jpeg", "card.jpg", null);
+        inbox.retain(id, SHARED, PERSISTABLE_READ);
+        resolver.refuseRelease = true;
+
+        inbox.ack(id);
+
+        assertTrue(inbox.pending().isEmpty());
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,195 @@
+package com.baby.tracker;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// The set of active alarms AlarmScheduler persists for rescheduling after reboot,
+// keyed by reminderId. Serializes to the same JSON array the "active_alarms"
+// preference has always held. No Android types, so it can be benchmarked on the JVM.
+public class AlarmRegistry {
+
+    public static class AlarmInfo {
+        public final int reminderId;
+        public final String title;
+        public final String body;
+        public final String type;
+        public final int hour;
+        public final int minute;
+        public final boolean isDaily;
+        public final boolean wakeScreen;
+        public final boolean isAlarm;
+        // One-time alarms only, 0 otherwise
+        public final long triggerTime;
+        // The reminder a snoozed copy stands in for; the alarm's own id otherwise.
+        // Never persisted, since snoozed copies stay out of the registry.
+        public final int originalId;
+
+        public AlarmInfo(int reminderId, String title, String body, String type, int hour, int minute,
+                         boolean isDaily, boolean wakeScreen, boolean isAlarm, long triggerTime) {
+            this(reminderId, title, body, type, hour, minute, isDaily, wakeScreen, isAlarm, triggerTime, reminderId);
+        }
+
+        public AlarmInfo(int reminderId, String title, String body, String type, int hour, int minute,
+                         boolean isDaily, boolean wakeScreen, boolean isAlarm, long triggerTime, int originalId) {
+            this.reminderId = reminderId;
+            this.title = title;
+            this.body = body;
+            this.type = type;
+            this.hour = hour;
+            this.minute = minute;
+            this.isDaily = isDaily;
+            this.wakeScreen = wakeScreen;
+            this.isAlarm = isAlarm;
+            this.triggerTime = triggerTime;
+            this.originalId = originalId;
+        }
+
+        public JSONObject toJson() throws JSONException {
+            JSONObject alarmInfo = new JSONObject();
+            alarmInfo.put("reminderId", reminderId);
+            alarmInfo.put("title", title);
+            alarmInfo.put("body", body);
+            alarmInfo.put("type", type);
+            alarmInfo.put("hour", hour);
+            alarmInfo.put("minute", minute);
+            alarmInfo.put("isDaily", isDaily);
+            alarmInfo.put("wakeScreen", wakeScreen);
+            alarmInfo.put("isAlarm", isAlarm);
+            if (triggerTime > 0) {
+                alarmInfo.put("triggerTime", triggerTime);
+            }
+            return alarmInfo;
+        }
+
+        public static AlarmInfo fromJson(JSONObject alarm) throws JSONException {
+            return new AlarmInfo(
+                alarm.getInt("reminderId"),
+                alarm.optString("title", ""),
+                alarm.optString("body", ""),
+                alarm.optString("type", "custom"),
+                alarm.optInt("hour", 0),
+                alarm.optInt("minute", 0),
+                alarm.optBoolean("isDaily", false),
+                alarm.optBoolean("wakeScreen", false),
+                alarm.optBoolean("isAlarm", false),
+                alarm.optLong("triggerTime", 0)
+            );
+        }
+    }
+
+    // One-time alarms within the same minute count as the same time
+    static final long TRIGGER_BUCKET_MS = 60_000;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Title fingerprints (words sorted) that say nothing about the reminder
+    private static final Set<String> GENERIC_TITLES = new HashSet<>(Arrays.asList(
+        "", "alarm", "custom reminder", "reminder"));
+
+    private final Map<Integer, AlarmInfo> alarms = new LinkedHashMap<>();
+    // dedupKey -> reminderId, so a duplicate under another id is found without a scan
+    private final Map<String, Integer> byKey = new HashMap<>();
+
+    // What makes two alarms the same reminder whatever their ids: when it goes off
+    // (time of day for daily alarms, the minute for one-time ones), the type, and the title
+    // with case, punctuation and word order ignored. Under a generic title such as the
+    // settings screen's "Custom Reminder" the user's text is in the body, so it counts too.
+    public static String dedupKey(AlarmInfo alarm) {
+        String when = alarm.isDaily
+            ? "d" + (alarm.hour * 60 + alarm.minute)
+            : "o" + Math.floorDiv(alarm.triggerTime, TRIGGER_BUCKET_MS);
+        String title = titleFingerprint(alarm.title);
+        String key = when + '|' + alarm.type + '|' + title;
+        if (GENERIC_TITLES.contains(title)) {
+            key += '|' + titleFingerprint(alarm.body);
+        }
+        return key;
+    }
+
+    static String titleFingerprint(String title) {
+        if (title == null) {
+            return "";
+        }
+        String[] words = NON_WORD.split(title.toLowerCase(Locale.ROOT));
+        Arrays.sort(words);
+        StringBuilder fingerprint = new StringBuilder(title.length());
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                if (fingerprint.length() > 0) {
+                    fingerprint.append(' ');
+                }
+                fingerprint.append(word);
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    public static AlarmRegistry fromJson(String json) throws JSONException {
+        AlarmRegistry registry = new AlarmRegistry();
+        JSONArray array = new JSONArray(json);
+        for (int i = 0; i < array.length(); i++) {
+            registry.put(AlarmInfo.fromJson(array.getJSONObject(i)));
+        }
+        return registry;
+    }
+
+    // Replaces any alarm with the same reminderId
+    public void put(AlarmInfo alarm) {
+        remove(alarm.reminderId);
+        alarms.put(alarm.reminderId, alarm);
+        byKey.put(dedupKey(alarm), alarm.reminderId);
+    }
+
+    public AlarmInfo remove(int reminderId) {
+        AlarmInfo removed = alarms.remove(reminderId);
+        if (removed != null) {
+            byKey.remove(dedupKey(removed), reminderId);
+        }
+        return removed;
+    }
+
+    // An alarm under a different reminderId with the same dedupKey, or null
+    public AlarmInfo findDuplicate(AlarmInfo alarm) {
+        Integer reminderId = byKey.get(dedupKey(alarm));
+        return reminderId != null && reminderId != alarm.reminderId ? alarms.get(reminderId) : null;
+    }
+
+    public AlarmInfo get(int reminderId) {
+        return alarms.get(reminderId);
+    }
+
+    public int size() {
+        return alarms.size();
+    }
+
+    public void clear() {
+        alarms.clear();
+        byKey.clear();
+    }
+
+    public List<AlarmInfo> list() {
+        return new ArrayList<>(alarms.values());
+    }
+
+    public JSONArray toJsonArray() throws JSONException {
+        JSONArray array = new JSONArray();
+        for (AlarmInfo alarm : alarms.values()) {
+            array.put(alarm.toJson());
+        }
+        return array;
+    }
+
+    public String toJson() throws JSONException {
+        return toJsonArray().toString();
+    }
+}
@@ -1,6 +1,7 @@
 package com.baby.tracker;
 
 import android.app.AlarmManager;
+import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
@@ -12,275 +13,406 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.Calendar;
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 
+// Android side of ReminderEngine: alarms go to AlarmManager as broadcasts to
+// NotificationReceiver, the registry to SharedPreferences, events to ReminderDatabase
 public class AlarmScheduler {
     private static final String TAG = "AlarmScheduler";
     private static final String PREFS_NAME = "ReminderPrefs";
     private static final String KEY_ACTIVE_ALARMS = "active_alarms";
-    
-    private Context context;
-    private AlarmManager alarmManager;
-    private SharedPreferences prefs;
+
+    private static AlarmRegistry registry;
+
+    private final Context context;
+    private final ReminderDatabase database;
+    private final ReminderEngine engine;
 
     public AlarmScheduler(Context context) {
-        this.context = context;
-        this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        SharedPreferences prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.context = appContext;
+        this.database = ReminderDatabase.get(appContext);
+        // Zone read per instance so a time zone change applies to the next schedule
+        this.engine = new ReminderEngine(
+            Clock.systemDefaultZone(),
+            new PrefsAlarmStore(prefs),
+            new AlarmManagerSink(appContext),
+            new SystemNotificationSink(appContext, database),
+            new DatabaseEventLog(database)
+        );
     }
 
-    public boolean scheduleDailyAlarm(int reminderId, String title, String body, String type, int hour, int minute, boolean isAlarm) {
+    // Null on failure. Duplicates of an existing reminder under another id are merged into it or rejected.
+    public ReminderEngine.Scheduled scheduleDailyAlarm(int reminderId, String title, String body, String type, int hour, int minute, boolean isAlarm) {
         try {
-            // Create intent for the alarm
-            Intent intent = new Intent(context, NotificationReceiver.class);
-            intent.putExtra("reminderId", reminderId);
-            intent.putExtra("title", title);
-            intent.putExtra("body", body);
-            intent.putExtra("type", type);
-            intent.putExtra("isDaily", true);
-            intent.putExtra("hour", hour);
-            intent.putExtra("minute", minute);
-            intent.putExtra("isAlarm", isAlarm);
-            if (isAlarm) {
-                intent.putExtra("wakeScreen", true); // Always wake screen for alarms
+            ReminderEngine.Scheduled scheduled = engine.scheduleDaily(reminderId, title, body, type, hour, minute, isAlarm);
+            Log.d(TAG, "Daily alarm " + reminderId + " at " + hour + ":" + minute + ": " + scheduled.action
+                + (scheduled.reminderId != reminderId ? " into " + scheduled.reminderId : ""));
+            snapshotChanged();
+            return scheduled;
+        } catch (Exception e) {
+            Log.e(TAG, "Error scheduling daily alarm", e);
+            return null;
+        }
+    }
+
+    public ReminderEngine.Scheduled scheduleOneTimeAlarm(int reminderId, String title, String body, String type, long triggerTime, boolean wakeScreen, boolean isAlarm) {
+        try {
+            ReminderEngine.Scheduled scheduled = engine.scheduleOneTime(reminderId, title, body, type, triggerTime, wakeScreen, isAlarm);
+            if (scheduled == null) {
+                Log.w(TAG, "Cannot schedule exact alarms - permission not granted");
+                return null;
             }
+            Log.d(TAG, "One-time alarm " + reminderId + ": " + scheduled.action
+                + (scheduled.reminderId != reminderId ? " into " + scheduled.reminderId : ""));
+            snapshotChanged();
+            return scheduled;
+        } catch (Exception e) {
+            Log.e(TAG, "Error scheduling one-time alarm", e);
+            return null;
+        }
+    }
 
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                reminderId,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
+    public void cancelAlarm(int reminderId) {
+        try {
+            engine.cancel(reminderId);
+            snapshotChanged();
+            Log.d(TAG, "Cancelled alarm: " + reminderId);
+        } catch (Exception e) {
+            Log.e(TAG, "Error cancelling alarm", e);
+        }
+    }
 
-            // Calculate trigger time
-            Calendar calendar = Calendar.getInstance();
-            calendar.set(Calendar.HOUR_OF_DAY, hour);
-            calendar.set(Calendar.MINUTE, minute);
-            calendar.set(Calendar.SECOND, 0);
-            calendar.set(Calendar.MILLISECOND, 0);
+    public void cancelAllAlarms() {
+        try {
+            engine.cancelAll();
+            snapshotChanged();
+            Log.d(TAG, "Cancelled all alarms");
+        } catch (Exception e) {
+            Log.e(TAG, "Error cancelling all alarms", e);
+        }
+    }
 
-            // If time has passed today, schedule for tomorrow
-            if (calendar.getTimeInMillis() <= System.currentTimeMillis()) {
-                calendar.add(Calendar.DAY_OF_MONTH, 1);
+    public JSONArray getActiveAlarms() {
+        JSONArray array = new JSONArray();
+        try {
+            for (AlarmRegistry.AlarmInfo alarm : engine.activeAlarms()) {
+                array.put(alarm.toJson());
             }
+        } catch (JSONException e) {
+            Log.e(TAG, "Error reading active alarms", e);
+        }
+        return array;
+    }
 
-            // Schedule exact alarm (manual repetition in Receiver)
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-                if (alarmManager.canScheduleExactAlarms()) {
-                    alarmManager.setExactAndAllowWhileIdle(
-                        AlarmManager.RTC_WAKEUP,
-                        calendar.getTimeInMillis(),
-                        pendingIntent
-                    );
-                } else {
-                    Log.w(TAG, "Cannot schedule exact alarms - permission not granted");
-                    // Fallback to inexact
-                    alarmManager.setExact(
-                        AlarmManager.RTC_WAKEUP,
-                        calendar.getTimeInMillis(),
-                        pendingIntent
-                    );
-                }
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                alarmManager.setExactAndAllowWhileIdle(
-                    AlarmManager.RTC_WAKEUP,
-                    calendar.getTimeInMillis(),
-                    pendingIntent
-                );
-            } else {
-                alarmManager.setExact(
-                    AlarmManager.RTC_WAKEUP,
-                    calendar.getTimeInMillis(),
-                    pendingIntent
-                );
-            }
+    // NotificationReceiver
+    public void onAlarmFired(AlarmRegistry.AlarmInfo alarm) {
+        try {
+            engine.onFired(alarm);
+            snapshotChanged();
+        } catch (Exception e) {
+            Log.e(TAG, "Error handling fired alarm " + alarm.reminderId, e);
+        }
+    }
 
-            // Save alarm info for reboot
-            saveAlarmInfo(reminderId, title, body, type, hour, minute, true, isAlarm, isAlarm);
+    public void snoozeAlarm(int reminderId, int originalId, String title, String body, String type) {
+        try {
+            engine.snooze(reminderId, originalId, title, body, type);
+        } catch (Exception e) {
+            Log.e(TAG, "Error snoozing alarm " + reminderId, e);
+        }
+    }
 
-            Log.d(TAG, "Scheduled daily alarm: " + reminderId + " at " + hour + ":" + minute);
-            return true;
+    // TakenReceiver: records the dose for JS to pick up on its next sync. Returns the dose's row id, -1 on failure.
+    public long markTaken(int reminderId, int originalId, String type, String title) {
+        try {
+            long takenAt = engine.onTaken(reminderId, originalId, type, title);
+            long doseId = database.recordDose(originalId, type, title, takenAt);
+            snapshotChanged();
+            return doseId;
         } catch (Exception e) {
-            Log.e(TAG, "Error scheduling daily alarm", e);
-            return false;
+            Log.e(TAG, "Error marking " + reminderId + " as taken", e);
+            return -1;
+        }
+    }
+
+    public void onAlarmDismissed(int reminderId) {
+        try {
+            engine.onDismissed(reminderId);
+        } catch (Exception e) {
+            Log.e(TAG, "Error dismissing alarm " + reminderId, e);
+        }
+    }
+
+    public void rescheduleAllAlarms() {
+        try {
+            int armed = engine.rescheduleAll();
+            snapshotChanged();
+            Log.d(TAG, "Rescheduled " + armed + " alarms after reboot");
+        } catch (Exception e) {
+            Log.e(TAG, "Error rescheduling alarms", e);
+        }
+    }
+
+    // Backup restore: arms the alarms this device does not already have, in one batch
+    public int restoreAlarms(List<AlarmRegistry.AlarmInfo> alarms) {
+        try {
+            int armed = engine.restore(alarms);
+            Log.d(TAG, "Restored " + armed + " of " + alarms.size() + " alarms from backup");
+            snapshotChanged();
+            return armed;
+        } catch (Exception e) {
+            Log.e(TAG, "Error restoring alarms", e);
+            return 0;
+        }
+    }
+
+    // Next reminders from the registry, the coming week's appointments and today's doses, for
+    // the widget and tile. Medication reminders name the medications active today.
+    public ReminderSnapshot buildSnapshot(int limit) {
+        Clock clock = Clock.systemDefaultZone();
+        LocalDate today = LocalDate.now(clock);
+        long startOfDay = today.atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        String medications = medicationSummary(database, today);
+        List<AlarmRegistry.AlarmInfo> alarms = new ArrayList<>();
+        for (AlarmRegistry.AlarmInfo alarm : engine.activeAlarms()) {
+            alarms.add(medications.isEmpty() || !ReminderSnapshot.TYPE_MEDICATION.equals(alarm.type)
+                ? alarm : withText(alarm, alarm.title + ": " + medications, alarm.body));
+        }
+        return ReminderSnapshot.build(alarms, upcomingAppointments(today, clock), clock, limit,
+            database.countDoses(startOfDay));
+    }
+
+    // "Name (dosage), ..." for the medications with reminders on that are active on the
+    // given day, from the table JS mirrors. Empty when none are, or the read fails.
+    private static String medicationSummary(ReminderDatabase database, LocalDate day) {
+        try {
+            JSONArray rows = database.queryRange(ReminderDatabase.TABLE_MEDICATIONS, day.toString(), day.toString(), 0);
+            StringBuilder summary = new StringBuilder();
+            for (int i = 0; i < rows.length(); i++) {
+                JSONObject medication = rows.getJSONObject(i);
+                String name = medication.optString("name", "").trim();
+                if (!medication.optBoolean("reminderEnabled", false) || name.isEmpty()) {
+                    continue;
+                }
+                if (summary.length() > 0) {
+                    summary.append(", ");
+                }
+                summary.append(name);
+                String dosage = medication.optString("dosage", "").trim();
+                if (!dosage.isEmpty()) {
+                    summary.append(" (").append(dosage).append(')');
+                }
+            }
+            return summary.toString();
+        } catch (JSONException | RuntimeException e) {
+            Log.w(TAG, "Could not read medications", e);
+            return "";
         }
     }
 
-    public boolean scheduleOneTimeAlarm(int reminderId, String title, String body, String type, long triggerTime, boolean wakeScreen, boolean isAlarm) {
+    // Appointments from today through the next week; ones without a time are left out
+    private List<ReminderSnapshot.Appointment> upcomingAppointments(LocalDate today, Clock clock) {
+        List<ReminderSnapshot.Appointment> items = new ArrayList<>();
         try {
+            JSONArray rows = database.queryRange(ReminderDatabase.TABLE_APPOINTMENTS,
+                today.toString(), today.plusDays(7).toString(), 0);
+            for (int i = 0; i < rows.length(); i++) {
+                JSONObject appointment = rows.getJSONObject(i);
+                String time = appointment.optString("time", "");
+                if (time.isEmpty()) {
+                    continue;
+                }
+                try {
+                    long triggerTime = LocalDate.parse(appointment.getString("date"))
+                        .atTime(LocalTime.parse(time))
+                        .atZone(clock.getZone()).toInstant().toEpochMilli();
+                    // Narrowed like ReminderPlugin's getInt does with the id JS sends
+                    int reminderId = (int) appointment.optLong("notificationId", 0);
+                    items.add(new ReminderSnapshot.Appointment(appointment.getInt("id"), reminderId,
+                        appointment.optString("title", ""), triggerTime));
+                } catch (DateTimeParseException e) {
+                    Log.w(TAG, "Skipping appointment " + appointment.optInt("id") + " with date/time "
+                        + appointment.optString("date") + " " + time);
+                }
+            }
+        } catch (JSONException | RuntimeException e) {
+            Log.w(TAG, "Could not read appointments", e);
+        }
+        return items;
+    }
+
+    private static AlarmRegistry.AlarmInfo withText(AlarmRegistry.AlarmInfo alarm, String title, String body) {
+        return new AlarmRegistry.AlarmInfo(alarm.reminderId, title, body, alarm.type, alarm.hour, alarm.minute,
+            alarm.isDaily, alarm.wakeScreen, alarm.isAlarm, alarm.triggerTime, alarm.originalId);
+    }
+
+    // Batched by SnapshotWorker, so callers can report every change. A stale widget is not
+    // worth failing the alarm operation over.
+    private void snapshotChanged() {
+        try {
+            SnapshotWorker.requestUpdate(context);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not request a snapshot update", e);
+        }
+    }
+
+    // The registry is parsed from prefs once per process and shared by every scheduler,
+    // so saving an alarm is a map update plus one serialization
+    private static class PrefsAlarmStore implements ReminderEngine.AlarmStore {
+        private final SharedPreferences prefs;
+
+        PrefsAlarmStore(SharedPreferences prefs) {
+            this.prefs = prefs;
+        }
+
+        @Override
+        public AlarmRegistry load() {
+            synchronized (AlarmScheduler.class) {
+                if (registry == null) {
+                    try {
+                        registry = AlarmRegistry.fromJson(prefs.getString(KEY_ACTIVE_ALARMS, "[]"));
+                    } catch (JSONException e) {
+                        Log.e(TAG, "Error parsing active alarms", e);
+                        registry = new AlarmRegistry();
+                    }
+                }
+                return registry;
+            }
+        }
+
+        @Override
+        public void save(AlarmRegistry alarms) {
+            try {
+                prefs.edit().putString(KEY_ACTIVE_ALARMS, alarms.toJson()).apply();
+            } catch (JSONException e) {
+                Log.e(TAG, "Error saving alarm info", e);
+            }
+        }
+    }
+
+    private static class AlarmManagerSink implements ReminderEngine.AlarmSink {
+        private final Context context;
+        private final AlarmManager alarmManager;
+
+        AlarmManagerSink(Context context) {
+            this.context = context;
+            this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        }
+
+        @Override
+        public boolean canScheduleExact() {
+            return Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms();
+        }
+
+        @Override
+        public void set(int requestCode, AlarmRegistry.AlarmInfo alarm, long triggerTime, boolean exact) {
             Intent intent = new Intent(context, NotificationReceiver.class);
-            intent.putExtra("reminderId", reminderId);
-            intent.putExtra("title", title);
-            intent.putExtra("body", body);
-            intent.putExtra("type", type);
-            intent.putExtra("isDaily", false);
-            intent.putExtra("wakeScreen", wakeScreen || isAlarm);
-            intent.putExtra("isAlarm", isAlarm);
+            intent.putExtra("reminderId", alarm.reminderId);
+            intent.putExtra("title", alarm.title);
+            intent.putExtra("body", alarm.body);
+            intent.putExtra("type", alarm.type);
+            intent.putExtra("isDaily", alarm.isDaily);
+            if (alarm.isDaily) {
+                // Manual repetition in NotificationReceiver
+                intent.putExtra("hour", alarm.hour);
+                intent.putExtra("minute", alarm.minute);
+            }
+            intent.putExtra("wakeScreen", alarm.wakeScreen);
+            intent.putExtra("isAlarm", alarm.isAlarm);
+            intent.putExtra("originalId", alarm.originalId);
 
             PendingIntent pendingIntent = PendingIntent.getBroadcast(
                 context,
-                reminderId,
+                requestCode,
                 intent,
                 PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
             );
 
-            // Schedule one-time alarm
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-                if (alarmManager.canScheduleExactAlarms()) {
-                    alarmManager.setExactAndAllowWhileIdle(
-                        AlarmManager.RTC_WAKEUP,
-                        triggerTime,
-                        pendingIntent
-                    );
-                } else {
+            if (exact && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+            } else {
+                if (!exact) {
                     Log.w(TAG, "Cannot schedule exact alarms - permission not granted");
-                    return false;
                 }
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                alarmManager.setExactAndAllowWhileIdle(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerTime,
-                    pendingIntent
-                );
-            } else {
-                alarmManager.setExact(
-                    AlarmManager.RTC_WAKEUP,
-                    triggerTime,
-                    pendingIntent
-                );
+                // Fallback to inexact
+                alarmManager.setExact(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
             }
-
-            // Save alarm info
-            saveAlarmInfo(reminderId, title, body, type, 0, 0, false, wakeScreen || isAlarm, isAlarm);
-
-            Log.d(TAG, "Scheduled one-time alarm: " + reminderId);
-            return true;
-        } catch (Exception e) {
-            Log.e(TAG, "Error scheduling one-time alarm", e);
-            return false;
         }
-    }
 
-    public void cancelAlarm(int reminderId) {
-        try {
+        @Override
+        public void cancel(int requestCode) {
             Intent intent = new Intent(context, NotificationReceiver.class);
             PendingIntent pendingIntent = PendingIntent.getBroadcast(
                 context,
-                reminderId,
+                requestCode,
                 intent,
                 PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
             );
-
             alarmManager.cancel(pendingIntent);
             pendingIntent.cancel();
-
-            // Remove from saved alarms
-            removeAlarmInfo(reminderId);
-
-            Log.d(TAG, "Cancelled alarm: " + reminderId);
-        } catch (Exception e) {
-            Log.e(TAG, "Error cancelling alarm", e);
         }
     }
 
-    public void cancelAllAlarms() {
-        try {
-            JSONArray alarms = getActiveAlarms();
-            for (int i = 0; i < alarms.length(); i++) {
-                JSONObject alarm = alarms.getJSONObject(i);
-                cancelAlarm(alarm.getInt("reminderId"));
-            }
-            
-            // Clear all saved alarms
-            prefs.edit().remove(KEY_ACTIVE_ALARMS).apply();
-            
-            Log.d(TAG, "Cancelled all alarms");
-        } catch (Exception e) {
-            Log.e(TAG, "Error cancelling all alarms", e);
+    private static class SystemNotificationSink implements ReminderEngine.NotificationSink {
+        private final Context context;
+        private final ReminderDatabase database;
+
+        SystemNotificationSink(Context context, ReminderDatabase database) {
+            this.context = context;
+            this.database = database;
         }
-    }
 
-    private void saveAlarmInfo(int reminderId, String title, String body, String type, int hour, int minute, boolean isDaily, boolean wakeScreen, boolean isAlarm) {
-        try {
-            JSONArray alarms = getActiveAlarms();
-            JSONObject alarmInfo = new JSONObject();
-            alarmInfo.put("reminderId", reminderId);
-            alarmInfo.put("title", title);
-            alarmInfo.put("body", body);
-            alarmInfo.put("type", type);
-            alarmInfo.put("hour", hour);
-            alarmInfo.put("minute", minute);
-            alarmInfo.put("isDaily", isDaily);
-            alarmInfo.put("wakeScreen", wakeScreen);
-            alarmInfo.put("isAlarm", isAlarm);
-
-            // Remove existing alarm with same ID
-            for (int i = 0; i < alarms.length(); i++) {
-                JSONObject existing = alarms.getJSONObject(i);
-                if (existing.getInt("reminderId") == reminderId) {
-                    alarms.remove(i);
-                    break;
+        // A medication reminder lists what to take today; its title is kept, since Taken logs it
+        @Override
+        public void show(AlarmRegistry.AlarmInfo alarm) {
+            if (ReminderSnapshot.TYPE_MEDICATION.equals(alarm.type)) {
+                String medications = medicationSummary(database, LocalDate.now());
+                if (!medications.isEmpty()) {
+                    String body = alarm.body.isEmpty()
+                        ? "Time to take " + medications
+                        : alarm.body + " (" + medications + ")";
+                    alarm = withText(alarm, alarm.title, body);
                 }
             }
+            NotificationReceiver.show(context, alarm);
+        }
 
-            alarms.put(alarmInfo);
-            prefs.edit().putString(KEY_ACTIVE_ALARMS, alarms.toString()).apply();
-        } catch (JSONException e) {
-            Log.e(TAG, "Error saving alarm info", e);
+        @Override
+        public void showTaken(int reminderId, String title, long takenAt) {
+            NotificationReceiver.showTaken(context, reminderId, title, takenAt);
         }
-    }
 
-    private void removeAlarmInfo(int reminderId) {
-        try {
-            JSONArray alarms = getActiveAlarms();
-            for (int i = 0; i < alarms.length(); i++) {
-                JSONObject alarm = alarms.getJSONObject(i);
-                if (alarm.getInt("reminderId") == reminderId) {
-                    alarms.remove(i);
-                    break;
-                }
-            }
-            prefs.edit().putString(KEY_ACTIVE_ALARMS, alarms.toString()).apply();
-        } catch (JSONException e) {
-            Log.e(TAG, "Error removing alarm info", e);
+        @Override
+        public void cancel(int reminderId) {
+            NotificationManager notificationManager =
+                (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+            notificationManager.cancel(reminderId);
         }
     }
 
-    public JSONArray getActiveAlarms() {
-        String alarmsJson = prefs.getString(KEY_ACTIVE_ALARMS, "[]");
-        try {
-            return new JSONArray(alarmsJson);
-        } catch (JSONException e) {
-            Log.e(TAG, "Error parsing active alarms", e);
-            return new JSONArray();
+    // A batch runs in one SQLite transaction, so a boot reschedule is one commit rather than one per alarm
+    private static class DatabaseEventLog implements ReminderEngine.EventLog {
+        private final ReminderDatabase database;
+
+        DatabaseEventLog(ReminderDatabase database) {
+            this.database = database;
         }
-    }
 
-    public void rescheduleAllAlarms() {
-        try {
-            JSONArray alarms = getActiveAlarms();
-            Log.d(TAG, "Rescheduling " + alarms.length() + " alarms after reboot");
-
-            for (int i = 0; i < alarms.length(); i++) {
-                JSONObject alarm = alarms.getJSONObject(i);
-                int reminderId = alarm.getInt("reminderId");
-                String title = alarm.getString("title");
-                String body = alarm.getString("body");
-                String type = alarm.getString("type");
-                boolean isDaily = alarm.getBoolean("isDaily");
-                boolean isAlarm = alarm.optBoolean("isAlarm", false);
-
-                if (isDaily) {
-                    int hour = alarm.getInt("hour");
-                    int minute = alarm.getInt("minute");
-                    scheduleDailyAlarm(reminderId, title, body, type, hour, minute, isAlarm);
-                }
-                // One-time alarms that have passed won't be rescheduled
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error rescheduling alarms", e);
+        @Override
+        public void log(int reminderId, String type, String title, String event, long triggerTime) {
+            database.logEvent(reminderId, type, title, event, triggerTime);
+        }
+
+        @Override
+        public void batch(Runnable writes) {
+            database.runInTransaction(writes);
         }
     }
 }
@@ -0,0 +1,366 @@
+package com.baby.tracker;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+// The backup file: a zip whose last entry, manifest.json, lists every other entry
+// with its size and SHA-256. Entries are streamed through a fixed buffer in both
+// directions, so memory stays constant however many photos there are. Text is
+// deflated; media is stored at level 0, since JPEGs do not shrink and deflating
+// them only costs time. No Android types.
+public class BackupArchive {
+    public static final int FORMAT_VERSION = 1;
+    public static final String MANIFEST = "manifest.json";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static class Entry {
+        public final String name;
+        public final long size;
+        public final String sha256;
+
+        Entry(String name, long size, String sha256) {
+            this.name = name;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+    }
+
+    public static class Writer implements Closeable {
+        private final ZipOutputStream zip;
+        private final List<Entry> entries = new ArrayList<>();
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        public Writer(OutputStream out) {
+            this.zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        }
+
+        public void addText(String name, String text) throws IOException {
+            try (TextEntry entry = beginText(name)) {
+                entry.write(text);
+            }
+        }
+
+        // For text produced a row at a time; close the returned writer to end the entry
+        public TextEntry beginText(String name) throws IOException {
+            return new TextEntry(begin(name, Deflater.DEFAULT_COMPRESSION), name);
+        }
+
+        public void addFile(String name, File file, boolean compress) throws IOException {
+            EntryOutputStream out = begin(name, compress ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION);
+            try (FileChannel in = new FileInputStream(file).getChannel()) {
+                buffer.clear();
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    out.write(buffer.array(), 0, buffer.limit());
+                    buffer.clear();
+                }
+            }
+            end(name, out);
+        }
+
+        // Writes the manifest, with info merged in, and the zip directory
+        public void finish(JSONObject info) throws IOException {
+            try {
+                JSONObject manifest = info != null ? new JSONObject(info.toString()) : new JSONObject();
+                manifest.put("formatVersion", FORMAT_VERSION);
+                JSONArray list = new JSONArray();
+                for (Entry entry : entries) {
+                    JSONObject json = new JSONObject();
+                    json.put("name", entry.name);
+                    json.put("size", entry.size);
+                    json.put("sha256", entry.sha256);
+                    list.put(json);
+                }
+                manifest.put("entries", list);
+                zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+                zip.putNextEntry(new ZipEntry(MANIFEST));
+                zip.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+                zip.finish();
+            } catch (JSONException e) {
+                throw new IOException("Unable to write manifest", e);
+            }
+        }
+
+        public List<Entry> entries() {
+            return entries;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+
+        private EntryOutputStream begin(String name, int level) throws IOException {
+            if (MANIFEST.equals(name)) {
+                throw new IllegalArgumentException(MANIFEST + " is reserved");
+            }
+            zip.setLevel(level);
+            zip.putNextEntry(new ZipEntry(name));
+            return new EntryOutputStream(zip);
+        }
+
+        private void end(String name, EntryOutputStream out) throws IOException {
+            zip.closeEntry();
+            entries.add(new Entry(name, out.count, toHex(out.digest.digest())));
+        }
+
+        public class TextEntry implements Closeable {
+            private final java.io.Writer text;
+            private final EntryOutputStream out;
+            private final String name;
+
+            TextEntry(EntryOutputStream out, String name) {
+                this.out = out;
+                this.name = name;
+                this.text = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            }
+
+            public void write(String value) throws IOException {
+                text.write(value);
+            }
+
+            public void writeLine(String line) throws IOException {
+                text.write(line);
+                text.write('\n');
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Flush into the entry but leave the zip open
+                text.flush();
+                end(name, out);
+            }
+        }
+    }
+
+    public static class Reader implements Closeable {
+        private final ZipFile zip;
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+        public final JSONObject manifest;
+
+        public Reader(File file) throws IOException {
+            this.zip = new ZipFile(file);
+            try {
+                ZipEntry entry = zip.getEntry(MANIFEST);
+                if (entry == null) {
+                    throw new IOException("Not a backup: no " + MANIFEST);
+                }
+                StringBuilder json = new StringBuilder();
+                try (BufferedReader in = new BufferedReader(
+                        new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8))) {
+                    char[] chars = new char[8192];
+                    int n;
+                    while ((n = in.read(chars)) != -1) {
+                        json.append(chars, 0, n);
+                    }
+                }
+                manifest = new JSONObject(json.toString());
+                int version = manifest.optInt("formatVersion", 0);
+                if (version < 1 || version > FORMAT_VERSION) {
+                    throw new IOException("Unsupported backup format " + version);
+                }
+                JSONArray list = manifest.getJSONArray("entries");
+                for (int i = 0; i < list.length(); i++) {
+                    JSONObject item = list.getJSONObject(i);
+                    String name = item.getString("name");
+                    entries.put(name, new Entry(name, item.getLong("size"), item.getString("sha256")));
+                }
+            } catch (JSONException e) {
+                zip.close();
+                throw new IOException("Corrupt manifest", e);
+            } catch (IOException | RuntimeException e) {
+                zip.close();
+                throw e;
+            }
+        }
+
+        public Collection<Entry> entries() {
+            return entries.values();
+        }
+
+        public Entry entry(String name) {
+            return entries.get(name);
+        }
+
+        public String readText(String name) throws IOException {
+            StringBuilder text = new StringBuilder();
+            forEachLine(name, line -> text.append(line).append('\n'));
+            return text.toString();
+        }
+
+        // Streams the entry a line at a time. Throws once the whole entry has been read if
+        // its checksum does not match, so callers should apply lines in a transaction.
+        public void forEachLine(String name, LineConsumer consumer) throws IOException {
+            Entry entry = require(name);
+            MessageDigest digest = sha256();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new DigestInputStream(open(name), digest), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    consumer.accept(line);
+                }
+            }
+            check(entry, toHex(digest.digest()));
+        }
+
+        // Extracts through a temp file beside dest, renamed into place only when the checksum matches
+        public void extract(String name, File dest) throws IOException {
+            Entry entry = require(name);
+            File dir = dest.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Unable to create " + dir);
+            }
+            File temp = new File(dir, dest.getName() + ".restore");
+            MessageDigest digest = sha256();
+            byte[] bytes = new byte[BUFFER_SIZE];
+            try (InputStream in = open(name); FileChannel out = new FileOutputStream(temp).getChannel()) {
+                int n;
+                while ((n = in.read(bytes)) != -1) {
+                    digest.update(bytes, 0, n);
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, n);
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+                out.force(false);
+            } catch (IOException e) {
+                temp.delete();
+                throw e;
+            }
+            try {
+                check(entry, toHex(digest.digest()));
+            } catch (IOException e) {
+                temp.delete();
+                throw e;
+            }
+            if (!temp.renameTo(dest)) {
+                temp.delete();
+                throw new IOException("Unable to move " + name + " into " + dest);
+            }
+        }
+
+        // True when file already holds exactly this entry, so restoring it again can be skipped
+        public boolean matches(String name, File file) throws IOException {
+            Entry entry = require(name);
+            return file.isFile() && file.length() == entry.size && entry.sha256.equals(sha256(file));
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+
+        private Entry require(String name) throws IOException {
+            Entry entry = entries.get(name);
+            if (entry == null) {
+                throw new IOException("Backup has no " + name);
+            }
+            return entry;
+        }
+
+        private InputStream open(String name) throws IOException {
+            ZipEntry entry = zip.getEntry(name);
+            if (entry == null) {
+                throw new IOException("Backup is missing " + name);
+            }
+            return zip.getInputStream(entry);
+        }
+
+        private static void check(Entry entry, String actual) throws IOException {
+            if (!entry.sha256.equals(actual)) {
+                throw new IOException("Checksum mismatch for " + entry.name);
+            }
+        }
+    }
+
+    public interface LineConsumer {
+        void accept(String line) throws IOException;
+    }
+
+    public static String sha256(File file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel in = new FileInputStream(file).getChannel()) {
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    // Counts and hashes what goes into the current entry, leaving the zip open on close
+    private static class EntryOutputStream extends FilterOutputStream {
+        final MessageDigest digest = sha256();
+        long count;
+
+        EntryOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            digest.update((byte) b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            digest.update(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,215 @@
+package com.baby.tracker;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Writes and restores a BackupArchive of everything that lives natively: the alarm
+// registry, the reminder history and dose log from ReminderDatabase, and the photo and
+// file directories. JS adds its own IndexedDB export as app data. Restore is
+// incremental: files already present with the same checksum, log rows already logged
+// and alarms already registered are left alone, so running it twice is harmless.
+public class BackupEngine {
+    private static final String TAG = "BackupEngine";
+    static final String ALARMS_ENTRY = "reminders/active_alarms.json";
+    static final String HISTORY_ENTRY = "reminders/history.jsonl";
+    static final String DOSES_ENTRY = "reminders/doses.jsonl";
+    static final String APP_DATA_ENTRY = "app-data.json";
+    static final String FILES_PREFIX = "files/";
+    static final String[] MEDIA_DIRECTORIES = {"pregnancy-photos", "pregnancy-files"};
+    // Alarms are re-armed this many per registry save and history transaction
+    static final int RESTORE_BATCH_SIZE = 50;
+    // Already compressed; stored rather than deflated
+    private static final String[] STORED_EXTENSIONS = {
+        ".jpg", ".jpeg", ".png", ".webp", ".heic", ".gif", ".mp4", ".mov", ".pdf", ".zip"
+    };
+
+    public interface ProgressListener {
+        void onProgress(String phase, int done, int total);
+    }
+
+    public static class RestoreResult {
+        public int filesRestored;
+        public int filesSkipped;
+        public int historyAdded;
+        public int dosesAdded;
+        public int alarmsArmed;
+        public String appData;
+    }
+
+    private final Context context;
+    private final ReminderDatabase database;
+    private final AlarmScheduler scheduler;
+
+    public BackupEngine(Context context) {
+        this.context = context.getApplicationContext();
+        this.database = ReminderDatabase.get(this.context);
+        this.scheduler = new AlarmScheduler(this.context);
+    }
+
+    // Streams the archive to out and closes it. Returns the entries written, manifest aside.
+    public List<BackupArchive.Entry> backup(OutputStream out, String appData, ProgressListener progress)
+            throws IOException, JSONException {
+        List<String> media = listMedia();
+        try (BackupArchive.Writer writer = new BackupArchive.Writer(out)) {
+            writer.addText(ALARMS_ENTRY, scheduler.getActiveAlarms().toString());
+            writeLog(writer, HISTORY_ENTRY, ReminderDatabase.TABLE_HISTORY);
+            writeLog(writer, DOSES_ENTRY, ReminderDatabase.TABLE_DOSES);
+            if (appData != null) {
+                writer.addText(APP_DATA_ENTRY, appData);
+            }
+
+            for (int i = 0; i < media.size(); i++) {
+                String path = media.get(i);
+                writer.addFile(FILES_PREFIX + path, new File(context.getFilesDir(), path), !isStored(path));
+                progress.onProgress("files", i + 1, media.size());
+            }
+
+            JSONObject info = new JSONObject();
+            info.put("createdAt", System.currentTimeMillis());
+            info.put("packageName", context.getPackageName());
+            writer.finish(info);
+            Log.d(TAG, "Backed up " + writer.entries().size() + " entries, " + media.size() + " files");
+            return writer.entries();
+        }
+    }
+
+    public RestoreResult restore(File archive, ProgressListener progress) throws IOException, JSONException {
+        RestoreResult result = new RestoreResult();
+        try (BackupArchive.Reader reader = new BackupArchive.Reader(archive)) {
+            List<BackupArchive.Entry> files = new ArrayList<>();
+            for (BackupArchive.Entry entry : reader.entries()) {
+                if (entry.name.startsWith(FILES_PREFIX)) {
+                    files.add(entry);
+                }
+            }
+            // Each file is verified and renamed into place on its own, so an interrupted
+            // restore keeps what it finished and the next run skips it
+            for (int i = 0; i < files.size(); i++) {
+                BackupArchive.Entry entry = files.get(i);
+                File dest = mediaFile(entry.name.substring(FILES_PREFIX.length()));
+                if (dest == null) {
+                    Log.w(TAG, "Skipping " + entry.name + ": outside the media directories");
+                } else if (reader.matches(entry.name, dest)) {
+                    result.filesSkipped++;
+                } else {
+                    reader.extract(entry.name, dest);
+                    result.filesRestored++;
+                }
+                progress.onProgress("files", i + 1, files.size());
+            }
+
+            if (reader.entry(HISTORY_ENTRY) != null) {
+                result.historyAdded = restoreLog(reader, HISTORY_ENTRY, ReminderDatabase.TABLE_HISTORY);
+            }
+            if (reader.entry(DOSES_ENTRY) != null) {
+                result.dosesAdded = restoreLog(reader, DOSES_ENTRY, ReminderDatabase.TABLE_DOSES);
+            }
+
+            if (reader.entry(ALARMS_ENTRY) != null) {
+                List<AlarmRegistry.AlarmInfo> alarms = AlarmRegistry.fromJson(reader.readText(ALARMS_ENTRY)).list();
+                for (int start = 0; start < alarms.size(); start += RESTORE_BATCH_SIZE) {
+                    List<AlarmRegistry.AlarmInfo> batch =
+                        alarms.subList(start, Math.min(start + RESTORE_BATCH_SIZE, alarms.size()));
+                    result.alarmsArmed += scheduler.restoreAlarms(batch);
+                    progress.onProgress("alarms", start + batch.size(), alarms.size());
+                }
+            }
+
+            if (reader.entry(APP_DATA_ENTRY) != null) {
+                result.appData = reader.readText(APP_DATA_ENTRY);
+            }
+        }
+        Log.d(TAG, "Restored " + result.filesRestored + " files (" + result.filesSkipped + " unchanged), "
+            + result.historyAdded + " history rows, " + result.dosesAdded + " doses, " + result.alarmsArmed + " alarms");
+        return result;
+    }
+
+    private void writeLog(BackupArchive.Writer writer, String name, String table) throws IOException, JSONException {
+        try (BackupArchive.Writer.TextEntry entry = writer.beginText(name)) {
+            database.exportRows(table, row -> entry.writeLine(row.toString()));
+        }
+    }
+
+    // One transaction per log: a checksum mismatch, found at the end of the entry, rolls it all back
+    private int restoreLog(BackupArchive.Reader reader, String name, String table) throws IOException {
+        SQLiteDatabase db = database.getWritableDatabase();
+        int[] added = {0};
+        db.beginTransaction();
+        try {
+            reader.forEachLine(name, line -> {
+                if (line.isEmpty()) {
+                    return;
+                }
+                try {
+                    if (database.insertIfMissing(db, table, new JSONObject(line))) {
+                        added[0]++;
+                    }
+                } catch (JSONException e) {
+                    throw new IOException("Bad row in " + name, e);
+                }
+            });
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return added[0];
+    }
+
+    // Paths relative to filesDir of every file in the media directories
+    private List<String> listMedia() {
+        List<String> paths = new ArrayList<>();
+        for (String directory : MEDIA_DIRECTORIES) {
+            collect(new File(context.getFilesDir(), directory), directory, paths);
+        }
+        return paths;
+    }
+
+    private static void collect(File dir, String relative, List<String> paths) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            String path = relative + "/" + child.getName();
+            if (child.isDirectory()) {
+                collect(child, path, paths);
+            } else if (!child.getName().endsWith(".tmp") && !child.getName().endsWith(".restore")) {
+                // Skips half-written ingests and restores
+                paths.add(path);
+            }
+        }
+    }
+
+    // Null unless the path stays inside one of the media directories
+    private File mediaFile(String relative) throws IOException {
+        File root = context.getFilesDir().getCanonicalFile();
+        File file = new File(root, relative).getCanonicalFile();
+        for (String directory : MEDIA_DIRECTORIES) {
+            if (file.getPath().startsWith(new File(root, directory).getPath() + File.separator)) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isStored(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        for (String extension : STORED_EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
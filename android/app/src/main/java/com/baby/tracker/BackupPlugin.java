@@ -0,0 +1,192 @@
+package com.baby.tracker;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.activity.result.ActivityResult;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.ActivityCallback;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@CapacitorPlugin(name = "BackupPlugin")
+public class BackupPlugin extends Plugin {
+    private static final String TAG = "BackupPlugin";
+    private static final String MIME_TYPE = "application/zip";
+    // At most one backupProgress event per interval, plus the last of each phase
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
+    // One at a time: a restore must not interleave with a backup of the same files
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private BackupEngine engine;
+
+    @Override
+    public void load() {
+        super.load();
+        engine = new BackupEngine(getContext());
+    }
+
+    // uri: a writable content:// document; without one, asks where to save
+    // appData: JSON from JS stored alongside the native state
+    @PluginMethod
+    public void createBackup(PluginCall call) {
+        String uri = call.getString("uri");
+        if (uri != null) {
+            writeBackup(call, Uri.parse(uri));
+            return;
+        }
+        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType(MIME_TYPE);
+        intent.putExtra(Intent.EXTRA_TITLE, "pregnancy-backup-" + LocalDate.now() + ".zip");
+        startActivityForResult(call, intent, "handleCreateResult");
+    }
+
+    // uri: a backup previously written by createBackup; without one, asks which
+    @PluginMethod
+    public void restoreBackup(PluginCall call) {
+        String uri = call.getString("uri");
+        if (uri != null) {
+            readBackup(call, Uri.parse(uri));
+            return;
+        }
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType(MIME_TYPE);
+        startActivityForResult(call, intent, "handleOpenResult");
+    }
+
+    @ActivityCallback
+    private void handleCreateResult(PluginCall call, ActivityResult result) {
+        Uri uri = pickedUri(result);
+        if (uri == null) {
+            resolveCancelled(call);
+            return;
+        }
+        writeBackup(call, uri);
+    }
+
+    @ActivityCallback
+    private void handleOpenResult(PluginCall call, ActivityResult result) {
+        Uri uri = pickedUri(result);
+        if (uri == null) {
+            resolveCancelled(call);
+            return;
+        }
+        readBackup(call, uri);
+    }
+
+    private void writeBackup(PluginCall call, Uri uri) {
+        String appData = call.getString("appData");
+        executor.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            try (OutputStream out = getContext().getContentResolver().openOutputStream(uri, "w")) {
+                if (out == null) {
+                    throw new IOException("Unable to open " + uri);
+                }
+                List<BackupArchive.Entry> entries = engine.backup(out, appData, progress());
+
+                long bytes = 0;
+                for (BackupArchive.Entry entry : entries) {
+                    bytes += entry.size;
+                }
+                JSObject ret = new JSObject();
+                ret.put("uri", uri.toString());
+                ret.put("entries", entries.size());
+                ret.put("uncompressedBytes", bytes);
+                ret.put("durationMs", SystemClock.elapsedRealtime() - start);
+                call.resolve(ret);
+            } catch (IOException | JSONException | RuntimeException e) {
+                Log.e(TAG, "Backup failed", e);
+                call.reject("Backup failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void readBackup(PluginCall call, Uri uri) {
+        executor.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            // ZipFile needs random access, so a document is copied to cache first
+            File archive = "file".equals(uri.getScheme()) ? new File(uri.getPath()) : null;
+            File temp = null;
+            try {
+                if (archive == null) {
+                    temp = new File(getContext().getCacheDir(), "restore-" + System.currentTimeMillis() + ".zip");
+                    MediaFiles.copyAndHash(getContext().getContentResolver(), uri, temp);
+                    archive = temp;
+                }
+                BackupEngine.RestoreResult restored = engine.restore(archive, progress());
+
+                JSObject ret = new JSObject();
+                ret.put("filesRestored", restored.filesRestored);
+                ret.put("filesSkipped", restored.filesSkipped);
+                ret.put("historyAdded", restored.historyAdded);
+                ret.put("dosesAdded", restored.dosesAdded);
+                ret.put("alarmsArmed", restored.alarmsArmed);
+                if (restored.appData != null) {
+                    ret.put("appData", restored.appData);
+                }
+                ret.put("durationMs", SystemClock.elapsedRealtime() - start);
+                call.resolve(ret);
+            } catch (IOException | JSONException | RuntimeException e) {
+                Log.e(TAG, "Restore failed", e);
+                call.reject("Restore failed: " + e.getMessage());
+            } finally {
+                if (temp != null) {
+                    temp.delete();
+                }
+            }
+        });
+    }
+
+    private BackupEngine.ProgressListener progress() {
+        long[] last = {0};
+        return (phase, done, total) -> {
+            long now = SystemClock.elapsedRealtime();
+            if (done < total && now - last[0] < PROGRESS_INTERVAL_MS) {
+                return;
+            }
+            last[0] = now;
+            JSObject data = new JSObject();
+            data.put("phase", phase);
+            data.put("done", done);
+            data.put("total", total);
+            notifyListeners("backupProgress", data);
+        };
+    }
+
+    private static Uri pickedUri(ActivityResult result) {
+        if (result.getResultCode() != Activity.RESULT_OK || result.getData() == null) {
+            return null;
+        }
+        return result.getData().getData();
+    }
+
+    private static void resolveCancelled(PluginCall call) {
+        JSObject ret = new JSObject();
+        ret.put("cancelled", true);
+        call.resolve(ret);
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        executor.shutdown();
+        super.handleOnDestroy();
+    }
+}
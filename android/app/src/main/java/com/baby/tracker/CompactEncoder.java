@@ -0,0 +1,153 @@
+package com.baby.tracker;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Compact form of OCR block output for the bridge. Instead of one JSON object per
+// block, bounding box and line, the result carries:
+//   lines     - every line's text joined with '\n' (a block's text is its lines joined the same way)
+//   geometry  - base64 of little-endian int32s, 5 per block: lineCount, left, top, right, bottom
+//               (left = -1 when the block has no bounding box)
+// JS unpacks it with decodeCompactBlocks in ocr-plugin.ts.
+// Plain Java so the encoding can be benchmarked off-device.
+public class CompactEncoder {
+    public static final String FORMAT = "compact";
+    public static final int INTS_PER_BLOCK = 5;
+
+    private static final char[] BASE64 =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private final StringBuilder lines = new StringBuilder();
+    private int[] geometry = new int[INTS_PER_BLOCK * 16];
+    private int blockCount;
+    private int lineCount;
+
+    public void addBlock(List<String> blockLines, boolean hasBox, int left, int top, int right, int bottom) {
+        ensureCapacity((blockCount + 1) * INTS_PER_BLOCK);
+        int offset = blockCount * INTS_PER_BLOCK;
+        geometry[offset] = blockLines.size();
+        geometry[offset + 1] = hasBox ? left : -1;
+        geometry[offset + 2] = hasBox ? top : -1;
+        geometry[offset + 3] = hasBox ? right : -1;
+        geometry[offset + 4] = hasBox ? bottom : -1;
+        for (String line : blockLines) {
+            if (lineCount++ > 0) {
+                lines.append('\n');
+            }
+            lines.append(line);
+        }
+        blockCount++;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    public void writeTo(JSONObject target) throws JSONException {
+        target.put("format", FORMAT);
+        target.put("blockCount", blockCount);
+        target.put("lines", lines.toString());
+        target.put("geometry", packInts(geometry, blockCount * INTS_PER_BLOCK));
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > geometry.length) {
+            int[] grown = new int[Math.max(size, geometry.length * 2)];
+            System.arraycopy(geometry, 0, grown, 0, blockCount * INTS_PER_BLOCK);
+            geometry = grown;
+        }
+    }
+
+    // Base64 of the first count values as little-endian int32, ready for new Int32Array(buffer) in JS
+    public static String packInts(int[] values, int count) {
+        byte[] bytes = new byte[count * 4];
+        for (int i = 0; i < count; i++) {
+            int v = values[i];
+            int b = i * 4;
+            bytes[b] = (byte) v;
+            bytes[b + 1] = (byte) (v >> 8);
+            bytes[b + 2] = (byte) (v >> 16);
+            bytes[b + 3] = (byte) (v >> 24);
+        }
+        return base64(bytes);
+    }
+
+    public static int[] unpackInts(String packed) {
+        byte[] bytes = decodeBase64(packed);
+        int[] values = new int[bytes.length / 4];
+        for (int i = 0; i < values.length; i++) {
+            int b = i * 4;
+            values[i] = (bytes[b] & 0xFF)
+                | (bytes[b + 1] & 0xFF) << 8
+                | (bytes[b + 2] & 0xFF) << 16
+                | (bytes[b + 3] & 0xFF) << 24;
+        }
+        return values;
+    }
+
+    // Reverses writeTo; used by tests and the benchmark
+    public static List<List<String>> decodeLines(JSONObject compact) throws JSONException {
+        int[] geometry = unpackInts(compact.getString("geometry"));
+        String[] allLines = compact.getString("lines").split("\n", -1);
+        List<List<String>> blocks = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < compact.getInt("blockCount"); i++) {
+            int count = geometry[i * INTS_PER_BLOCK];
+            List<String> blockLines = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                blockLines.add(allLines[next++]);
+            }
+            blocks.add(blockLines);
+        }
+        return blocks;
+    }
+
+    // java.util.Base64 needs API 26 and android.util.Base64 is not on the JVM, so encode by hand
+    static String base64(byte[] bytes) {
+        StringBuilder out = new StringBuilder((bytes.length + 2) / 3 * 4);
+        int i = 0;
+        for (; i + 2 < bytes.length; i += 3) {
+            int chunk = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+            out.append(BASE64[chunk >> 18 & 0x3F])
+                .append(BASE64[chunk >> 12 & 0x3F])
+                .append(BASE64[chunk >> 6 & 0x3F])
+                .append(BASE64[chunk & 0x3F]);
+        }
+        int remaining = bytes.length - i;
+        if (remaining > 0) {
+            int chunk = (bytes[i] & 0xFF) << 16 | (remaining == 2 ? (bytes[i + 1] & 0xFF) << 8 : 0);
+            out.append(BASE64[chunk >> 18 & 0x3F]).append(BASE64[chunk >> 12 & 0x3F]);
+            out.append(remaining == 2 ? BASE64[chunk >> 6 & 0x3F] : '=').append('=');
+        }
+        return out.toString();
+    }
+
+    static byte[] decodeBase64(String text) {
+        int padding = text.endsWith("==") ? 2 : text.endsWith("=") ? 1 : 0;
+        byte[] out = new byte[text.length() / 4 * 3 - padding];
+        int o = 0;
+        for (int i = 0; i < text.length(); i += 4) {
+            int chunk = 0;
+            for (int j = 0; j < 4; j++) {
+                char c = text.charAt(i + j);
+                chunk = chunk << 6 | (c == '=' ? 0 : base64Value(c));
+            }
+            for (int shift = 16; shift >= 0 && o < out.length; shift -= 8) {
+                out[o++] = (byte) (chunk >> shift);
+            }
+        }
+        return out;
+    }
+
+    private static int base64Value(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= 'a' && c <= 'z') return c - 'a' + 26;
+        if (c >= '0' && c <= '9') return c - '0' + 52;
+        if (c == '+') return 62;
+        if (c == '/') return 63;
+        throw new IllegalArgumentException("Invalid base64 character " + c);
+    }
+}
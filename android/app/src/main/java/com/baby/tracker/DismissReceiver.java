@@ -15,10 +15,7 @@ public class DismissReceiver extends BroadcastReceiver {
         int reminderId = intent.getIntExtra("reminderId", 0);
 
         // Dismiss the notification
-        android.app.NotificationManager notificationManager = 
-            (android.app.NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
-        notificationManager.cancel(reminderId);
-
+        new AlarmScheduler(context).onAlarmDismissed(reminderId);
         Log.d(TAG, "Notification dismissed: " + reminderId);
     }
 }
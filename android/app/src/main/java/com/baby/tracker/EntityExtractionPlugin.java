@@ -1,5 +1,6 @@
 package com.baby.tracker;
 
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.getcapacitor.JSArray;
@@ -8,46 +9,42 @@ import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
 import com.google.mlkit.nl.entityextraction.DateTimeEntity;
 import com.google.mlkit.nl.entityextraction.Entity;
 import com.google.mlkit.nl.entityextraction.EntityAnnotation;
-import com.google.mlkit.nl.entityextraction.EntityExtraction;
 import com.google.mlkit.nl.entityextraction.EntityExtractor;
-import com.google.mlkit.nl.entityextraction.EntityExtractorOptions;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @CapacitorPlugin(name = "EntityExtractionPlugin")
 public class EntityExtractionPlugin extends Plugin {
     private static final String TAG = "EntityExtractionPlugin";
-    private EntityExtractor entityExtractor;
+    // Long texts are annotated in chunks of about this size, a few at a time
+    static final int CHUNK_CHARS = 2000;
+    private static final int ANNOTATE_PARALLELISM = 2;
+    // Work cap per call: text past this only goes through the offline rules
+    static final int MAX_ANNOTATED_CHARS = 24_000;
+    // DateTimeFormatter is immutable and thread-safe, unlike SimpleDateFormat
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.getDefault());
 
-    // Time patterns to match various formats
-    private static final Pattern[] TIME_PATTERNS = {
-        Pattern.compile("(?i)(\\d{1,2})\\s*[:\\.]?\\s*(\\d{2})\\s*(am|pm)", Pattern.CASE_INSENSITIVE),  // 9 30 PM, 9:30 PM, 9.30 PM
-        Pattern.compile("(?i)(\\d{1,2})\\s*(am|pm)", Pattern.CASE_INSENSITIVE),  // 9 PM, 9AM
-        Pattern.compile("(?i)time[:\\s]+(\\d{1,2})\\s*[:\\.]?\\s*(\\d{2})\\s*(am|pm)?", Pattern.CASE_INSENSITIVE),  // Time: 9 30 PM
-        Pattern.compile("(?i)at\\s+(\\d{1,2})\\s*[:\\.]?\\s*(\\d{2})\\s*(am|pm)?", Pattern.CASE_INSENSITIVE)  // at 9:30 PM
-    };
+    private final ExecutorService annotateExecutor = Executors.newFixedThreadPool(ANNOTATE_PARALLELISM);
 
     @Override
     public void load() {
         super.load();
-        EntityExtractorOptions options = new EntityExtractorOptions.Builder(EntityExtractorOptions.ENGLISH)
-                .build();
-        entityExtractor = EntityExtraction.getClient(options);
-        
-        // Download model if needed
-        entityExtractor.downloadModelIfNeeded()
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "Entity extraction model ready"))
-                .addOnFailureListener(e -> Log.e(TAG, "Model download failed", e));
-        
+        // The extractor and its model are owned by MlKitServices, which warms them after startup
         Log.d(TAG, "EntityExtractionPlugin loaded");
     }
 
@@ -60,10 +57,37 @@ public class EntityExtractionPlugin extends Plugin {
             return;
         }
 
-        entityExtractor.annotate(text)
+        // Without anything date-like there is nothing for the reminder flow, so skip ML Kit
+        if (call.getBoolean("prefilter", false) && !OfflineEntityExtractor.hasDateLikeTokens(text)) {
+            Log.d(TAG, "No date-like tokens, skipping ML Kit");
+            call.resolve(offlineResult(text, null));
+            return;
+        }
+
+        MlKitServices services = MlKitServices.get();
+        long startedAt = SystemClock.elapsedRealtime();
+        List<TextChunker.Chunk> chunks = TextChunker.split(text, CHUNK_CHARS, MAX_ANNOTATED_CHARS);
+        // Past the cap only the offline rules run; ML Kit latency grows with every chunk
+        boolean truncated = text.length() > MAX_ANNOTATED_CHARS;
+
+        // Queue behind the model download instead of failing while it is still in progress
+        services.whenEntityModelReady()
+                .onSuccessTask(aVoid -> {
+                    EntityExtractor extractor = services.acquireEntityExtractor();
+                    try {
+                        return annotateChunks(extractor, text, chunks)
+                                .addOnCompleteListener(task -> services.releaseEntityExtractor());
+                    } catch (RuntimeException e) {
+                        // No task to release it from, e.g. annotateExecutor refused it after handleOnDestroy
+                        services.releaseEntityExtractor();
+                        throw e;
+                    }
+                })
+                .addOnCompleteListener(task -> services.recordFirstExtraction(SystemClock.elapsedRealtime() - startedAt))
                 .addOnSuccessListener(entityAnnotations -> {
                     JSObject result = new JSObject();
                     result.put("success", true);
+                    result.put("source", "mlkit");
                     
                     JSArray dates = new JSArray();
                     JSArray addresses = new JSArray();
@@ -71,31 +95,38 @@ public class EntityExtractionPlugin extends Plugin {
                     JSArray emails = new JSArray();
                     JSArray urls = new JSArray();
 
-                    // Extract time from text using regex
-                    TimeInfo extractedTime = extractTimeFromText(text);
-                    Log.d(TAG, "Extracted time: " + (extractedTime != null ? extractedTime.toString() : "none"));
+                    // Find every time mention in one pass and pair each date with its nearest one
+                    List<TimeExtractor.TimeMention> times = TimeExtractor.extract(text);
+                    int[] timeForDate = TimeExtractor.assignToDates(times, dateSpans(entityAnnotations));
+                    Log.d(TAG, "Extracted times: " + times);
 
-                    for (EntityAnnotation annotation : entityAnnotations) {
-                        List<Entity> entities = annotation.getEntities();
-                        String annotatedText = text.substring(
-                                annotation.getStart(),
-                                annotation.getEnd()
-                        );
+                    int dateIndex = -1;
+                    for (Span annotation : entityAnnotations) {
+                        if (hasDateTime(annotation)) {
+                            dateIndex++;
+                        }
+                        String annotatedText = text.substring(annotation.start, annotation.end);
                         
-                        for (Entity entity : entities) {
+                        for (Entity entity : annotation.entities) {
                             JSObject entityObj = new JSObject();
                             entityObj.put("text", annotatedText);
-                            entityObj.put("start", annotation.getStart());
-                            entityObj.put("end", annotation.getEnd());
+                            entityObj.put("start", annotation.start);
+                            entityObj.put("end", annotation.end);
                             
                             switch (entity.getType()) {
                                 case Entity.TYPE_DATE_TIME:
                                     DateTimeEntity dateTimeEntity = entity.asDateTimeEntity();
                                     long timestamp = dateTimeEntity.getTimestampMillis();
                                     
-                                    // If we extracted a time, combine it with the date
-                                    if (extractedTime != null) {
-                                        timestamp = combineDateTime(timestamp, extractedTime);
+                                    // If a time was written near this date, combine the two
+                                    int timeIndex = timeForDate[dateIndex];
+                                    if (timeIndex >= 0) {
+                                        TimeExtractor.TimeMention time = times.get(timeIndex);
+                                        long dateTimestamp = timestamp;
+                                        timestamp = combineDateTime(dateTimestamp, time.hour, time.minute);
+                                        if (time.isRange()) {
+                                            entityObj.put("endTimestamp", combineDateTime(dateTimestamp, time.endHour, time.endMinute));
+                                        }
                                         Log.d(TAG, "Combined date+time timestamp: " + timestamp);
                                     }
                                     
@@ -103,9 +134,7 @@ public class EntityExtractionPlugin extends Plugin {
                                     entityObj.put("granularity", dateTimeEntity.getDateTimeGranularity());
                                     
                                     // Format the date for display
-                                    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
-                                    String formattedDate = sdf.format(new Date(timestamp));
-                                    entityObj.put("formatted", formattedDate);
+                                    entityObj.put("formatted", formatTimestamp(timestamp));
                                     
                                     dates.put(entityObj);
                                     break;
@@ -134,91 +163,189 @@ public class EntityExtractionPlugin extends Plugin {
                     result.put("phones", phones);
                     result.put("emails", emails);
                     result.put("urls", urls);
+                    result.put("times", timesToJson(text, times));
+                    result.put("chunkCount", chunks.size());
+                    if (truncated) {
+                        appendOfflineDates(dates, text, chunks.isEmpty() ? 0 : chunks.get(chunks.size() - 1).end);
+                        result.put("truncated", true);
+                    }
                     
-                    Log.d(TAG, "Entity extraction success. Found " + dates.length() + " dates");
+                    Log.d(TAG, "Entity extraction success. Found " + dates.length() + " dates in " + chunks.size() + " chunk(s)");
                     call.resolve(result);
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Entity extraction failed", e);
-                    JSObject result = new JSObject();
-                    result.put("success", false);
-                    result.put("error", e.getMessage());
-                    call.resolve(result);
+                    // Typically the model could not be downloaded yet; fall back to the rules
+                    Log.e(TAG, "Entity extraction failed, using offline rules", e);
+                    call.resolve(offlineResult(text, e.getMessage()));
                 });
     }
 
-    private TimeInfo extractTimeFromText(String text) {
-        for (Pattern pattern : TIME_PATTERNS) {
-            Matcher matcher = pattern.matcher(text);
-            if (matcher.find()) {
+    private JSObject offlineResult(String text, String fallbackReason) {
+        boolean dayFirst = !"US".equals(Locale.getDefault().getCountry());
+        OfflineEntityExtractor.Result extracted = OfflineEntityExtractor.extract(
+                text, LocalDate.now(), ZoneId.systemDefault(), dayFirst);
+
+        JSObject result = new JSObject();
+        result.put("success", true);
+        result.put("source", "rules");
+        if (fallbackReason != null) {
+            result.put("fallbackReason", fallbackReason);
+        }
+
+        JSArray dates = new JSArray();
+        for (OfflineEntityExtractor.Match match : extracted.dates) {
+            dates.put(dateMatchToJson(match, 0));
+        }
+
+        result.put("dates", dates);
+        result.put("addresses", new JSArray());
+        result.put("phones", matchesToJson(extracted.phones));
+        result.put("emails", matchesToJson(extracted.emails));
+        result.put("urls", matchesToJson(extracted.urls));
+        result.put("times", timesToJson(text, extracted.times));
+
+        Log.d(TAG, "Offline extraction found " + dates.length() + " dates");
+        return result;
+    }
+
+    // Dates in the text past the ML Kit cap, found by the rules so they are not lost entirely
+    private static void appendOfflineDates(JSArray dates, String text, int from) {
+        boolean dayFirst = !"US".equals(Locale.getDefault().getCountry());
+        OfflineEntityExtractor.Result extracted = OfflineEntityExtractor.extract(
+                text.substring(from), LocalDate.now(), ZoneId.systemDefault(), dayFirst);
+        for (OfflineEntityExtractor.Match match : extracted.dates) {
+            dates.put(dateMatchToJson(match, from));
+        }
+    }
+
+    private static JSObject dateMatchToJson(OfflineEntityExtractor.Match match, int offset) {
+        JSObject entityObj = new JSObject();
+        entityObj.put("text", match.text);
+        entityObj.put("start", match.start + offset);
+        entityObj.put("end", match.end + offset);
+        entityObj.put("timestamp", match.timestamp);
+        if (match.endTimestamp >= 0) {
+            entityObj.put("endTimestamp", match.endTimestamp);
+        }
+        entityObj.put("granularity", match.hasTime
+                ? DateTimeEntity.GRANULARITY_MINUTE
+                : DateTimeEntity.GRANULARITY_DAY);
+        entityObj.put("formatted", formatTimestamp(match.timestamp));
+        return entityObj;
+    }
+
+    private static JSObject matchToJson(OfflineEntityExtractor.Match match) {
+        JSObject entityObj = new JSObject();
+        entityObj.put("text", match.text);
+        entityObj.put("start", match.start);
+        entityObj.put("end", match.end);
+        return entityObj;
+    }
+
+    private static JSArray matchesToJson(List<OfflineEntityExtractor.Match> matches) {
+        JSArray array = new JSArray();
+        for (OfflineEntityExtractor.Match match : matches) {
+            array.put(matchToJson(match));
+        }
+        return array;
+    }
+
+    private static String formatTimestamp(long timestamp) {
+        return DISPLAY_FORMAT.format(Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault()));
+    }
+
+    // An annotation with its offsets in the whole text rather than in its chunk
+    private static class Span {
+        final int start;
+        final int end;
+        final List<Entity> entities;
+
+        Span(int start, int end, List<Entity> entities) {
+            this.start = start;
+            this.end = end;
+            this.entities = entities;
+        }
+    }
+
+    // Annotates the chunks at most ANNOTATE_PARALLELISM at a time and merges the
+    // annotations in text order, shifted back to offsets in the whole text
+    private Task<List<Span>> annotateChunks(EntityExtractor extractor, String text, List<TextChunker.Chunk> chunks) {
+        List<Task<List<Span>>> parts = new ArrayList<>(chunks.size());
+        for (TextChunker.Chunk chunk : chunks) {
+            TaskCompletionSource<List<Span>> part = new TaskCompletionSource<>();
+            annotateExecutor.execute(() -> {
                 try {
-                    int hour = Integer.parseInt(matcher.group(1));
-                    int minute = 0;
-                    String ampm = null;
-                    
-                    // Check if we have minutes
-                    if (matcher.groupCount() >= 2 && matcher.group(2) != null && !matcher.group(2).isEmpty()) {
-                        try {
-                            minute = Integer.parseInt(matcher.group(2));
-                        } catch (NumberFormatException e) {
-                            // Group 2 might be AM/PM
-                            ampm = matcher.group(2);
-                        }
-                    }
-                    
-                    // Check for AM/PM
-                    if (matcher.groupCount() >= 3 && matcher.group(3) != null) {
-                        ampm = matcher.group(3);
-                    }
-                    
-                    // Convert to 24-hour format if AM/PM is specified
-                    if (ampm != null) {
-                        ampm = ampm.toUpperCase();
-                        if (ampm.equals("PM") && hour < 12) {
-                            hour += 12;
-                        } else if (ampm.equals("AM") && hour == 12) {
-                            hour = 0;
-                        }
+                    List<EntityAnnotation> annotations = Tasks.await(
+                            extractor.annotate(text.substring(chunk.start, chunk.end)));
+                    List<Span> spans = new ArrayList<>(annotations.size());
+                    for (EntityAnnotation annotation : annotations) {
+                        spans.add(new Span(chunk.start + annotation.getStart(), chunk.start + annotation.getEnd(),
+                                annotation.getEntities()));
                     }
-                    
-                    Log.d(TAG, "Parsed time: " + hour + ":" + minute + " from pattern: " + pattern.pattern());
-                    return new TimeInfo(hour, minute);
+                    part.setResult(spans);
                 } catch (Exception e) {
-                    Log.e(TAG, "Error parsing time", e);
+                    part.setException(e);
                 }
+            });
+            parts.add(part.getTask());
+        }
+        // whenAllSuccess keeps the order of parts, which is text order
+        return Tasks.<List<Span>>whenAllSuccess(parts).continueWith(task -> {
+            List<Span> merged = new ArrayList<>();
+            for (List<Span> spans : task.getResult()) {
+                merged.addAll(spans);
+            }
+            return merged;
+        });
+    }
+
+    private static boolean hasDateTime(Span annotation) {
+        for (Entity entity : annotation.entities) {
+            if (entity.getType() == Entity.TYPE_DATE_TIME) {
+                return true;
             }
         }
-        return null;
-    }
-    
-    private long combineDateTime(long dateTimestamp, TimeInfo time) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(dateTimestamp);
-        calendar.set(Calendar.HOUR_OF_DAY, time.hour);
-        calendar.set(Calendar.MINUTE, time.minute);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return calendar.getTimeInMillis();
-    }
-    
-    private static class TimeInfo {
-        int hour;
-        int minute;
-        
-        TimeInfo(int hour, int minute) {
-            this.hour = hour;
-            this.minute = minute;
+        return false;
+    }
+
+    private static int[][] dateSpans(List<Span> annotations) {
+        List<int[]> spans = new ArrayList<>();
+        for (Span annotation : annotations) {
+            if (hasDateTime(annotation)) {
+                spans.add(new int[]{annotation.start, annotation.end});
+            }
         }
-        
-        @Override
-        public String toString() {
-            return String.format(Locale.getDefault(), "%02d:%02d", hour, minute);
+        return spans.toArray(new int[0][]);
+    }
+
+    private static JSArray timesToJson(String text, List<TimeExtractor.TimeMention> times) {
+        JSArray array = new JSArray();
+        for (TimeExtractor.TimeMention time : times) {
+            JSObject timeObj = new JSObject();
+            timeObj.put("text", text.substring(time.start, time.end));
+            timeObj.put("start", time.start);
+            timeObj.put("end", time.end);
+            timeObj.put("hour", time.hour);
+            timeObj.put("minute", time.minute);
+            if (time.isRange()) {
+                timeObj.put("endHour", time.endHour);
+                timeObj.put("endMinute", time.endMinute);
+            }
+            timeObj.put("formatted", time.toString());
+            array.put(timeObj);
         }
+        return array;
+    }
+
+    private static long combineDateTime(long dateTimestamp, int hour, int minute) {
+        return Instant.ofEpochMilli(dateTimestamp).atZone(ZoneId.systemDefault())
+                .with(LocalTime.of(hour, minute))
+                .toInstant().toEpochMilli();
     }
 
     @PluginMethod
     public void downloadModel(PluginCall call) {
-        entityExtractor.downloadModelIfNeeded()
+        MlKitServices.get().whenEntityModelReady()
                 .addOnSuccessListener(aVoid -> {
                     JSObject result = new JSObject();
                     result.put("success", true);
@@ -231,11 +358,23 @@ public class EntityExtractionPlugin extends Plugin {
                 });
     }
 
+    @PluginMethod
+    public void getModelStatus(PluginCall call) {
+        MlKitServices services = MlKitServices.get();
+        JSObject result = new JSObject();
+        result.put("textRecognizerReady", services.isTextRecognizerReady());
+        result.put("entityModelReady", services.isEntityModelReady());
+        result.put("firstFrameMs", StartupTrace.getFirstFrameMs());
+        result.put("warmUpScheduledAtMs", services.getWarmUpScheduledAtMs());
+        result.put("textWarmUpMs", services.getTextWarmUpMs());
+        result.put("entityWarmUpMs", services.getEntityWarmUpMs());
+        result.put("firstExtractionMs", services.getFirstExtractionMs());
+        call.resolve(result);
+    }
+
     @Override
     protected void handleOnDestroy() {
-        if (entityExtractor != null) {
-            entityExtractor.close();
-        }
+        annotateExecutor.shutdownNow();
         super.handleOnDestroy();
     }
 }
@@ -0,0 +1,62 @@
+package com.baby.tracker;
+
+// A single byte range from an HTTP Range header, resolved against the resource length.
+// Only "bytes=" with one range is understood; anything else is served whole, as a
+// server is allowed to do. No Android types.
+public class HttpRange {
+    // The header asked for bytes that do not exist; answer 416
+    public static final HttpRange UNSATISFIABLE = new HttpRange(-1, -1);
+
+    // Inclusive
+    public final long start;
+    public final long end;
+
+    HttpRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String contentRange(long total) {
+        return this == UNSATISFIABLE ? "bytes */" + total : "bytes " + start + "-" + end + "/" + total;
+    }
+
+    // Null when the whole resource should be sent
+    public static HttpRange parse(String header, long total) {
+        if (header == null) {
+            return null;
+        }
+        String value = header.trim();
+        if (!value.startsWith("bytes=") || value.indexOf(',') >= 0) {
+            return null;
+        }
+        value = value.substring("bytes=".length()).trim();
+        int dash = value.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = value.substring(0, dash).trim();
+        String last = value.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                // Suffix: the final N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || total == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new HttpRange(Math.max(0, total - suffix), total - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? total - 1 : Math.min(Long.parseLong(last), total - 1);
+            if (start >= total || end < start) {
+                return UNSATISFIABLE;
+            }
+            return new HttpRange(start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.baby.tracker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The most recently recognized images by perceptual hash, with their results, so a
+// near-identical image (the same confirmation screenshotted twice, a re-shared photo)
+// can reuse the result instead of going through recognition again. Least recently
+// used entries are evicted past the capacity; lookups are a scan of at most that many.
+public class ImageHashIndex<V> {
+
+    public static class Entry<V> {
+        public final String key;
+        public final long hash;
+        public final V value;
+
+        Entry(String key, long hash, V value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    public static class Match<V> {
+        public final Entry<V> entry;
+        public final int distance;
+
+        Match(Entry<V> entry, int distance) {
+            this.entry = entry;
+            this.distance = distance;
+        }
+    }
+
+    private final Map<String, Entry<V>> entries;
+
+    public ImageHashIndex(int capacity) {
+        entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // The closest entry within ImageHashes.NEAR_DUPLICATE_DISTANCE, or null. A hit counts as a use.
+    public synchronized Match<V> findNearDuplicate(long hash) {
+        Entry<V> best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Entry<V> entry : entries.values()) {
+            int distance = ImageHashes.distance(hash, entry.hash);
+            if (distance < bestDistance) {
+                best = entry;
+                bestDistance = distance;
+            }
+        }
+        if (best == null || bestDistance > ImageHashes.NEAR_DUPLICATE_DISTANCE) {
+            return null;
+        }
+        entries.get(best.key);
+        return new Match<>(best, bestDistance);
+    }
+
+    // Replaces any entry with the same key
+    public synchronized void put(String key, long hash, V value) {
+        entries.put(key, new Entry<>(key, hash, value));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
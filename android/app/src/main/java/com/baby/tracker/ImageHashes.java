@@ -0,0 +1,48 @@
+package com.baby.tracker;
+
+// Perceptual hashes for spotting near-identical frames and screenshots before
+// running OCR on them. Plain Java over ARGB pixels so the thresholds can be
+// tested on the JVM; callers scale their bitmaps down to the sample size first.
+public class ImageHashes {
+    // dHash compares horizontally adjacent pixels of a 9x8 sample: 8 x 8 = 64 bits
+    public static final int DHASH_WIDTH = 9;
+    public static final int DHASH_HEIGHT = 8;
+    // Hashes at most this many bits apart are treated as the same picture. Recompression,
+    // a status bar clock or a blinking cursor flip a few bits; a scrolled page flips dozens.
+    public static final int NEAR_DUPLICATE_DISTANCE = 6;
+
+    // argb is a DHASH_WIDTH x DHASH_HEIGHT sample, row by row. Each bit is set when a
+    // pixel is brighter than its right-hand neighbour.
+    public static long dHash(int[] argb) {
+        if (argb.length != DHASH_WIDTH * DHASH_HEIGHT) {
+            throw new IllegalArgumentException("Expected " + DHASH_WIDTH + "x" + DHASH_HEIGHT + " pixels, got " + argb.length);
+        }
+        long hash = 0;
+        for (int y = 0; y < DHASH_HEIGHT; y++) {
+            int row = y * DHASH_WIDTH;
+            for (int x = 0; x < DHASH_WIDTH - 1; x++) {
+                hash <<= 1;
+                if (luminance(argb[row + x]) > luminance(argb[row + x + 1])) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    public static boolean isNearDuplicate(long a, long b) {
+        return distance(a, b) <= NEAR_DUPLICATE_DISTANCE;
+    }
+
+    // Rec. 601 luma, in integer arithmetic
+    static int luminance(int argb) {
+        int r = (argb >> 16) & 0xff;
+        int g = (argb >> 8) & 0xff;
+        int b = argb & 0xff;
+        return (r * 299 + g * 587 + b * 114) / 1000;
+    }
+}
@@ -3,10 +3,6 @@ package com.baby.tracker;
 import android.content.Intent;
 import android.net.Uri;
 import android.util.Log;
-import android.content.ContentResolver;
-import android.database.Cursor;
-import android.provider.OpenableColumns;
-import android.media.MediaMetadataRetriever;
 
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
@@ -15,13 +11,56 @@ import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
 
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @CapacitorPlugin(name = "ImageSharePlugin")
 public class ImageSharePlugin extends Plugin {
     private static final String TAG = "ImageSharePlugin";
+    private static final int METADATA_THREADS = 2;
+    // URIs resolved per background task; MediaStore items in a batch share one query
+    private static final int METADATA_BATCH_SIZE = 25;
+    // Set on intents that are already in the inbox, since checkPendingIntent sees the launch intent again
+    private static final String EXTRA_QUEUED = "com.baby.tracker.SHARE_QUEUED";
+    // Shared text goes straight to entity extraction; anything longer than this is cut off
+    static final int MAX_SHARED_TEXT_CHARS = 64 * 1024;
     private JSObject pendingSingleIntent = null;
     private JSObject pendingMultipleIntent = null;
+    // Set from metadataExecutor when a shared text file has been read
+    private volatile JSObject pendingText = null;
+
+    // Resolved metadata per URI string, filled in by the background pool
+    private final Map<String, JSObject> metadataCache = new ConcurrentHashMap<>();
+    private final ExecutorService metadataExecutor = Executors.newFixedThreadPool(METADATA_THREADS);
+    // Copies shared content into the inbox in arrival order
+    private final ExecutorService inboxExecutor = Executors.newSingleThreadExecutor();
+    private MetadataResolver metadataResolver;
+
+    @Override
+    public void load() {
+        super.load();
+        metadataResolver = new MetadataResolver(getContext());
+        // The inbox reads its queue file, so it is opened on first use rather than during startup
+    }
+
+    private ShareInbox inbox() {
+        return ShareInbox.get(getContext());
+    }
 
     @Override
     protected void handleOnNewIntent(Intent intent) {
@@ -36,14 +75,21 @@ public class ImageSharePlugin extends Plugin {
         
         Log.d(TAG, "handleIntent - action: " + action + ", type: " + type);
         
-        if (type != null) {
+        if (type != null && !intent.getBooleanExtra(EXTRA_QUEUED, false)) {
+            intent.putExtra(EXTRA_QUEUED, true);
             if (Intent.ACTION_SEND.equals(action)) {
                 Uri uri = intent.getParcelableExtra(Intent.EXTRA_STREAM);
-                if (uri != null) {
+                if (type.startsWith("text/")) {
+                    handleSharedText(intent, uri, type);
+                } else if (uri != null) {
                     Log.d(TAG, "Received shared file: " + uri.toString());
-                    JSObject data = extractMetadata(uri);
+                    // Like a multi-file share: sent right away, metadata follows off the main thread
+                    JSObject data = enqueue(uri, cachedOrPlaceholder(uri, type), intent.getFlags());
                     pendingSingleIntent = data;
                     notifyListeners("sharedImage", data);
+                    resolveMetadataInBackground(Collections.singletonList(uri),
+                        Collections.singletonList(data.getLong("inboxId")));
+                    afterEnqueue();
                 }
             } else if (Intent.ACTION_SEND_MULTIPLE.equals(action)) {
                 ArrayList<Uri> uris = intent.getParcelableArrayListExtra(Intent.EXTRA_STREAM);
@@ -57,27 +103,96 @@ public class ImageSharePlugin extends Plugin {
                     }
                     data.put("imageUris", urisArray); // kept for backward compatibility
 
+                    // Send the list right away; names, dates and sizes follow as sharedFileMetadata events
                     JSArray filesArray = new JSArray();
+                    List<Long> inboxIds = new ArrayList<>();
                     for (Uri uri : uris) {
-                        filesArray.put(extractMetadata(uri));
+                        JSObject file = enqueue(uri, cachedOrPlaceholder(uri, type), intent.getFlags());
+                        inboxIds.add(file.getLong("inboxId"));
+                        filesArray.put(file);
                     }
                     data.put("files", filesArray);
                     
                     pendingMultipleIntent = data;
                     notifyListeners("sharedImages", data);
+                    resolveMetadataInBackground(uris, inboxIds);
+                    afterEnqueue();
                 }
             } else if (Intent.ACTION_VIEW.equals(action)) {
                 Uri uri = intent.getData();
                 if (uri != null) {
                     Log.d(TAG, "Received file to view: " + uri.toString());
-                    JSObject data = extractMetadata(uri);
+                    JSObject data = enqueue(uri, cachedOrPlaceholder(uri, type), intent.getFlags());
                     pendingSingleIntent = data;
                     notifyListeners("viewImage", data);
+                    resolveMetadataInBackground(Collections.singletonList(uri),
+                        Collections.singletonList(data.getLong("inboxId")));
+                    afterEnqueue();
                 }
             }
         }
     }
 
+    // Text needs no inbox copy, decode or OCR: EXTRA_TEXT is sent as is, text/* streams are read
+    // off the main thread. Either way JS gets a sharedText event and passes it to entity extraction.
+    private void handleSharedText(Intent intent, Uri uri, String type) {
+        String subject = intent.getStringExtra(Intent.EXTRA_SUBJECT);
+        if (uri == null) {
+            CharSequence text = intent.getCharSequenceExtra(Intent.EXTRA_TEXT);
+            if (text != null && text.length() > 0) {
+                boolean truncated = text.length() > MAX_SHARED_TEXT_CHARS;
+                emitSharedText(truncated ? text.subSequence(0, MAX_SHARED_TEXT_CHARS).toString() : text.toString(),
+                    subject, type, truncated);
+            }
+            return;
+        }
+        Log.d(TAG, "Received shared text file: " + uri);
+        metadataExecutor.execute(() -> {
+            try {
+                StringBuilder text = new StringBuilder();
+                boolean truncated = readText(uri, text);
+                emitSharedText(text.toString(), subject, type, truncated);
+            } catch (IOException | SecurityException e) {
+                Log.e(TAG, "Unable to read shared text " + uri, e);
+            }
+        });
+    }
+
+    // Reads in small chunks and stops at MAX_SHARED_TEXT_CHARS, so a huge file is never loaded
+    // whole. Returns true when the stream had more.
+    private boolean readText(Uri uri, StringBuilder out) throws IOException {
+        try (InputStream in = getContext().getContentResolver().openInputStream(uri)) {
+            if (in == null) {
+                throw new IOException("Unable to open " + uri);
+            }
+            Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer, 0, Math.min(buffer.length, MAX_SHARED_TEXT_CHARS - out.length()))) > 0) {
+                out.append(buffer, 0, read);
+                if (out.length() >= MAX_SHARED_TEXT_CHARS) {
+                    return reader.read() != -1;
+                }
+            }
+            return false;
+        }
+    }
+
+    private void emitSharedText(String text, String subject, String mimeType, boolean truncated) {
+        JSObject data = new JSObject();
+        data.put("text", text);
+        if (subject != null) {
+            data.put("subject", subject);
+        }
+        data.put("mimeType", mimeType);
+        data.put("truncated", truncated);
+        Log.d(TAG, "Received shared text: " + text.length() + " chars" + (truncated ? " (truncated)" : ""));
+        pendingText = data;
+        notifyListeners("sharedText", data);
+    }
+
+    // peek: report what is pending without handing it over, so the caller that only decides
+    // whether to open the share screen leaves the payload for the screen itself
     @PluginMethod
     public void checkPendingIntent(PluginCall call) {
         Log.d(TAG, "checkPendingIntent called");
@@ -87,23 +202,43 @@ public class ImageSharePlugin extends Plugin {
         if (intent != null) {
             handleIntent(intent);
         }
+
+        if (call.getBoolean("peek", false)) {
+            JSObject result = new JSObject();
+            result.put("hasImage", pendingSingleIntent != null);
+            result.put("hasImages", pendingMultipleIntent != null);
+            result.put("hasText", pendingText != null);
+            call.resolve(result);
+            return;
+        }
         
         JSObject result = new JSObject();
         if (pendingSingleIntent != null) {
+            JSObject file = withResolvedMetadata(pendingSingleIntent);
             result.put("hasImage", true);
-            result.put("imageUri", pendingSingleIntent.getString("imageUri"));
-            result.put("mimeType", pendingSingleIntent.getString("mimeType"));
-            result.put("timestamp", pendingSingleIntent.getString("timestamp"));
+            result.put("imageUri", file.getString("imageUri"));
+            result.put("mimeType", file.getString("mimeType"));
+            result.put("timestamp", file.getString("timestamp"));
+            result.put("name", file.getString("name"));
+            result.put("inboxId", file.getLong("inboxId"));
+            result.put("resolved", file.optBoolean("resolved", true));
             pendingSingleIntent = null;
         } else if (pendingMultipleIntent != null) {
             result.put("hasImages", true);
             try {
                 result.put("imageUris", pendingMultipleIntent.getJSONArray("imageUris"));
-                result.put("files", pendingMultipleIntent.getJSONArray("files"));
+                result.put("files", withResolvedMetadata(pendingMultipleIntent.getJSONArray("files")));
             } catch (Exception e) {
                 Log.e(TAG, "Error parsing multiple intent arrays", e);
             }
             pendingMultipleIntent = null;
+        } else if (pendingText != null) {
+            result.put("hasText", true);
+            for (Iterator<String> keys = pendingText.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                result.put(key, pendingText.opt(key));
+            }
+            pendingText = null;
         } else {
             result.put("hasImage", false);
         }
@@ -111,56 +246,198 @@ public class ImageSharePlugin extends Plugin {
         call.resolve(result);
     }
 
-    private JSObject extractMetadata(Uri uri) {
+    // Records the share in the inbox and returns the event payload carrying its inbox id
+    private JSObject enqueue(Uri uri, JSObject metadata, int intentFlags) {
+        long id = inbox().add(uri, metadata.getString("mimeType"), metadata.getString("name"), metadata.getString("timestamp"));
+        inboxExecutor.execute(() -> inbox().retain(id, uri, intentFlags));
+
         JSObject data = new JSObject();
-        data.put("imageUri", uri.toString()); // Keep named imageUri for backward compatibility with React code
-        
-        ContentResolver cR = getContext().getContentResolver();
-        String mimeType = cR.getType(uri);
-        if (mimeType == null) mimeType = "application/octet-stream";
-        data.put("mimeType", mimeType);
+        for (Iterator<String> keys = metadata.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            data.put(key, metadata.opt(key));
+        }
+        data.put("inboxId", id);
+        return data;
+    }
 
-        long timestamp = 0;
-        String name = null;
-        
-        // Try to get name and last modified from Cursor
-        try {
-            Cursor cursor = cR.query(uri, null, null, null, null);
-            if (cursor != null) {
-                if (cursor.moveToFirst()) {
-                    int nameIndex = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
-                    if (nameIndex != -1) {
-                        name = cursor.getString(nameIndex);
-                        data.put("name", name);
-                    }
-                    
-                    int lastModifiedIndex = cursor.getColumnIndex("last_modified");
-                    if (lastModifiedIndex != -1) {
-                        timestamp = cursor.getLong(lastModifiedIndex);
-                    }
-                }
-                cursor.close();
+    private void afterEnqueue() {
+        if (getConfig().getBoolean("prerunOcr", false)) {
+            // Queued behind the copies so the worker reads the retained files
+            inboxExecutor.execute(() -> InboxOcrWorker.enqueue(getContext()));
+        }
+    }
+
+    @PluginMethod
+    public void drainInbox(PluginCall call) {
+        JSArray items = new JSArray();
+        for (ShareInbox.Entry entry : inbox().pending()) {
+            JSObject item = new JSObject();
+            String originalUri = entry.data.optString("uri");
+            JSObject cached = metadataCache.get(originalUri);
+            JSONObject source = cached != null ? cached : entry.data;
+            for (Iterator<String> keys = source.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                item.put(key, source.opt(key));
+            }
+            item.put("inboxId", entry.id);
+            item.put("imageUri", entry.getReadableUri().toString());
+            item.put("originalUri", originalUri);
+            item.put("receivedAt", entry.data.optLong("receivedAt"));
+            if (entry.hasOcr()) {
+                item.put("ocrText", entry.data.optString("ocrText"));
+            }
+            items.put(item);
+        }
+        JSObject ret = new JSObject();
+        ret.put("items", items);
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void ackInbox(PluginCall call) {
+        JSArray ids = call.getArray("ids");
+        if (ids == null) {
+            call.reject("ids is required");
+            return;
+        }
+        // Acks delete retained copies, so keep them behind any copy still in progress
+        inboxExecutor.execute(() -> {
+            for (int i = 0; i < ids.length(); i++) {
+                inbox().ack(ids.optLong(i));
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error reading Cursor metadata", e);
+            call.resolve();
+        });
+    }
+
+    @PluginMethod
+    public void getFileMetadata(PluginCall call) {
+        String uriString = call.getString("uri");
+        if (uriString == null) {
+            call.reject("uri is required");
+            return;
+        }
+        // Metadata belongs to the URI; the caller's inbox id is carried over so the result can be acked
+        Long inboxId = call.getLong("inboxId");
+        JSObject cached = metadataCache.get(uriString);
+        if (cached != null) {
+            call.resolve(withInboxId(cached, inboxId));
+            return;
         }
+        metadataExecutor.execute(() -> call.resolve(withInboxId(resolveMetadata(Uri.parse(uriString)), inboxId)));
+    }
 
-        // For video files, try MediaMetadataRetriever
-        if (mimeType.startsWith("video/")) {
-            MediaMetadataRetriever retriever = new MediaMetadataRetriever();
-            try {
-                retriever.setDataSource(getContext(), uri);
-                String dateStr = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DATE);
-                if (dateStr != null) {
-                    // Could parse dateStr here if needed
-                }
-                retriever.release();
-            } catch (Exception e) {
-                Log.e(TAG, "Error getting video metadata", e);
+    // inboxIds[i] is the inbox entry of uris[i]; each gets the resolved type and name recorded,
+    // so a share drained after process death is not left with the placeholder
+    private void resolveMetadataInBackground(List<Uri> uris, List<Long> inboxIds) {
+        final int total = uris.size();
+        final Map<String, Integer> indexes = new HashMap<>();
+        List<Uri> pending = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            Uri uri = uris.get(i);
+            JSObject cached = metadataCache.get(uri.toString());
+            if (cached != null) {
+                recordMetadata(inboxIds.get(i), cached);
+            } else {
+                indexes.put(uri.toString(), i);
+                pending.add(uri);
             }
         }
-        
-        data.put("timestamp", String.valueOf(timestamp));
+
+        for (int from = 0; from < pending.size(); from += METADATA_BATCH_SIZE) {
+            final List<Uri> batch = new ArrayList<>(pending.subList(from, Math.min(pending.size(), from + METADATA_BATCH_SIZE)));
+            metadataExecutor.execute(() -> {
+                for (Map.Entry<String, JSObject> entry : metadataResolver.resolve(batch).entrySet()) {
+                    int index = indexes.get(entry.getKey());
+                    long inboxId = inboxIds.get(index);
+                    JSObject file = copyOf(cache(entry.getKey(), entry.getValue()));
+                    file.put("inboxId", inboxId);
+                    recordMetadata(inboxId, file);
+                    JSObject event = new JSObject();
+                    event.put("index", index);
+                    event.put("total", total);
+                    event.put("file", file);
+                    notifyListeners("sharedFileMetadata", event);
+                }
+            });
+        }
+    }
+
+    private void recordMetadata(long inboxId, JSObject metadata) {
+        inbox().setMetadata(inboxId, metadata.getString("mimeType"), metadata.getString("name"), metadata.getString("timestamp"));
+    }
+
+    private JSObject resolveMetadata(Uri uri) {
+        JSObject cached = metadataCache.get(uri.toString());
+        if (cached != null) {
+            return cached;
+        }
+        return cache(uri.toString(), metadataResolver.resolve(uri));
+    }
+
+    // Cached entries are metadata of the URI only; per-share fields like inboxId go on copies
+    private JSObject cache(String uri, JSObject data) {
+        data.put("resolved", true);
+        metadataCache.put(uri, data);
+        return data;
+    }
+
+    // What is known without touching the provider: the URI and the intent's MIME type,
+    // keeping the major type of a wildcard so image/* shares still count as images
+    private JSObject cachedOrPlaceholder(Uri uri, String intentType) {
+        JSObject cached = metadataCache.get(uri.toString());
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        JSObject data = new JSObject();
+        data.put("imageUri", uri.toString());
+        data.put("mimeType", intentType.startsWith("*") ? "application/octet-stream" : intentType);
+        data.put("timestamp", "0");
+        data.put("resolved", false);
         return data;
     }
+
+    // Each file with whatever metadata has been resolved since, keeping its inboxId
+    private JSArray withResolvedMetadata(JSArray files) throws JSONException {
+        JSArray updated = new JSArray();
+        for (int i = 0; i < files.length(); i++) {
+            updated.put(withResolvedMetadata(files.getJSONObject(i)));
+        }
+        return updated;
+    }
+
+    private JSObject withResolvedMetadata(JSONObject source) {
+        JSObject file = copyOf(source);
+        JSObject cached = metadataCache.get(file.getString("imageUri"));
+        if (cached != null) {
+            for (Iterator<String> keys = cached.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                file.put(key, cached.opt(key));
+            }
+        }
+        return file;
+    }
+
+    private static JSObject withInboxId(JSObject metadata, Long inboxId) {
+        JSObject file = copyOf(metadata);
+        if (inboxId != null) {
+            file.put("inboxId", inboxId);
+        }
+        return file;
+    }
+
+    private static JSObject copyOf(JSONObject source) {
+        JSObject copy = new JSObject();
+        for (Iterator<String> keys = source.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            copy.put(key, source.opt(key));
+        }
+        return copy;
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        metadataExecutor.shutdownNow();
+        inboxExecutor.shutdown();
+        super.handleOnDestroy();
+    }
 }
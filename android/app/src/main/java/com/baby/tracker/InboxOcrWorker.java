@@ -0,0 +1,72 @@
+package com.baby.tracker;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+// Runs OCR on queued share-inbox images in the background, so the text is ready
+// by the time the UI drains the inbox
+public class InboxOcrWorker extends Worker {
+    private static final String TAG = "InboxOcrWorker";
+    private static final String WORK_NAME = "share-inbox-ocr";
+
+    public InboxOcrWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void enqueue(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(InboxOcrWorker.class).build();
+        // Shares that arrive while a run is in progress get picked up by the appended run
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        ShareInbox inbox = ShareInbox.get(getApplicationContext());
+        int processed = 0;
+        for (ShareInbox.Entry entry : inbox.pending()) {
+            if (isStopped()) {
+                break;
+            }
+            if (entry.hasOcr() || !entry.getMimeType().startsWith("image/")) {
+                continue;
+            }
+            MlKitServices services = MlKitServices.get();
+            try {
+                InputImage image = InputImage.fromFilePath(getApplicationContext(), entry.getReadableUri());
+                Text text;
+                try {
+                    text = Tasks.await(services.acquireTextRecognizer().process(image));
+                } finally {
+                    services.releaseTextRecognizer();
+                }
+                inbox.setOcrText(entry.id, text.getText());
+                processed++;
+            } catch (IOException | SecurityException e) {
+                // The share can no longer be read; the UI will report it when it gets there
+                Log.w(TAG, "Cannot open inbox item " + entry.id, e);
+            } catch (ExecutionException e) {
+                Log.e(TAG, "OCR failed for inbox item " + entry.id, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Result.retry();
+            }
+        }
+        Log.d(TAG, "Pre-ran OCR on " + processed + " inbox items");
+        return Result.success();
+    }
+}
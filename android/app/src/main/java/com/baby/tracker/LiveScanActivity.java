@@ -0,0 +1,237 @@
+package com.baby.tracker;
+
+import android.Manifest;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.media.Image;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.Size;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ExperimentalGetImage;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.Preview;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.camera.view.PreviewView;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.mlkit.vision.common.InputImage;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LiveScanActivity extends AppCompatActivity {
+    private static final String TAG = "LiveScanActivity";
+    private static final int REQUEST_CAMERA = 1001;
+
+    public static final String EXTRA_STABLE_FRAMES = "stableFrames";
+    public static final String EXTRA_TEXT = "text";
+    public static final String EXTRA_DATE_TEXT = "dateText";
+    public static final String EXTRA_TIME_TEXT = "timeText";
+    public static final String EXTRA_STABLE = "stable";
+    public static final String EXTRA_FRAMES_ANALYZED = "framesAnalyzed";
+    public static final String EXTRA_ELAPSED_MS = "elapsedMs";
+
+    private static final int DEFAULT_STABLE_FRAMES = 3;
+
+    // Cheap date/time detectors, only used to decide when the frame has settled
+    private static final String MONTH = "(?:jan|feb|mar|apr|may|jun|jul|aug|sep|sept|oct|nov|dec)[a-z]*\\.?";
+    private static final Pattern DATE_PATTERN = Pattern.compile(
+        "(?i)\\b(?:\\d{4}-\\d{1,2}-\\d{1,2}"
+            + "|\\d{1,2}[/.-]\\d{1,2}[/.-]\\d{2,4}"
+            + "|" + MONTH + "\\s+\\d{1,2}(?:st|nd|rd|th)?(?:,?\\s+\\d{4})?"
+            + "|\\d{1,2}(?:st|nd|rd|th)?\\s+" + MONTH + "(?:,?\\s+\\d{4})?)"
+    );
+    private static final Pattern TIME_PATTERN = Pattern.compile(
+        "(?i)\\b\\d{1,2}[:.]\\d{2}(?:\\s*[ap]\\.?m\\.?)?|\\b\\d{1,2}\\s*[ap]\\.?m\\.?"
+    );
+
+    private PreviewView previewView;
+    private TextView statusView;
+    private ExecutorService analysisExecutor;
+    private ProcessCameraProvider cameraProvider;
+
+    private final AtomicBoolean busy = new AtomicBoolean(false);
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+
+    private int stableFramesRequired;
+    private String lastKey;
+    private int stableCount;
+    private int framesAnalyzed;
+    private int framesSkipped;
+    private long startedAt;
+
+    private volatile String lastText = "";
+    private volatile String lastDate;
+    private volatile String lastTime;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_live_scan);
+
+        previewView = findViewById(R.id.preview_view);
+        statusView = findViewById(R.id.scan_status);
+        stableFramesRequired = Math.max(1, getIntent().getIntExtra(EXTRA_STABLE_FRAMES, DEFAULT_STABLE_FRAMES));
+
+        analysisExecutor = Executors.newSingleThreadExecutor();
+
+        // Tap to accept whatever is currently recognized
+        previewView.setOnClickListener(v -> finishWithResult(false));
+
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED) {
+            startCamera();
+        } else {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.CAMERA}, REQUEST_CAMERA);
+        }
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode == REQUEST_CAMERA) {
+            if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+                startCamera();
+            } else {
+                Log.w(TAG, "Camera permission denied");
+                setResult(RESULT_CANCELED);
+                finish();
+            }
+        }
+    }
+
+    private void startCamera() {
+        ListenableFuture<ProcessCameraProvider> providerFuture = ProcessCameraProvider.getInstance(this);
+        providerFuture.addListener(() -> {
+            try {
+                cameraProvider = providerFuture.get();
+
+                Preview preview = new Preview.Builder().build();
+                preview.setSurfaceProvider(previewView.getSurfaceProvider());
+
+                // Keep-latest: frames arriving while a frame is being recognized are dropped
+                ImageAnalysis analysis = new ImageAnalysis.Builder()
+                    .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                    .setTargetResolution(new Size(1280, 720))
+                    .build();
+                analysis.setAnalyzer(analysisExecutor, this::analyzeFrame);
+
+                cameraProvider.unbindAll();
+                cameraProvider.bindToLifecycle(this, CameraSelector.DEFAULT_BACK_CAMERA, preview, analysis);
+                startedAt = SystemClock.elapsedRealtime();
+                Log.d(TAG, "Live scan started");
+            } catch (Exception e) {
+                Log.e(TAG, "Error starting camera", e);
+                setResult(RESULT_CANCELED);
+                finish();
+            }
+        }, ContextCompat.getMainExecutor(this));
+    }
+
+    @OptIn(markerClass = ExperimentalGetImage.class)
+    private void analyzeFrame(ImageProxy imageProxy) {
+        Image mediaImage = imageProxy.getImage();
+        if (finished.get() || mediaImage == null || !busy.compareAndSet(false, true)) {
+            framesSkipped++;
+            imageProxy.close();
+            return;
+        }
+
+        InputImage image = InputImage.fromMediaImage(mediaImage, imageProxy.getImageInfo().getRotationDegrees());
+        // Taken per frame, so a memory trim while scanning waits for the frame instead of closing it
+        MlKitServices services = MlKitServices.get();
+        // Completes on the main thread, where onDestroy runs, since analysisExecutor may already be
+        // shut down by then (accepting mid-frame is the usual case) and the cleanup must still happen
+        services.acquireTextRecognizer().process(image)
+            .addOnCompleteListener(ContextCompat.getMainExecutor(this), task -> {
+                // The frame must stay open until ML Kit is done reading it
+                services.releaseTextRecognizer();
+                imageProxy.close();
+                busy.set(false);
+                if (!task.isSuccessful()) {
+                    Log.w(TAG, "Frame recognition failed", task.getException());
+                } else if (!finished.get() && !analysisExecutor.isShutdown()) {
+                    String text = task.getResult().getText();
+                    analysisExecutor.execute(() -> onFrameText(text));
+                }
+            });
+    }
+
+    private void onFrameText(String text) {
+        framesAnalyzed++;
+        lastText = text;
+
+        Matcher dateMatcher = DATE_PATTERN.matcher(text);
+        if (!dateMatcher.find()) {
+            lastKey = null;
+            stableCount = 0;
+            return;
+        }
+        String date = dateMatcher.group().trim();
+        Matcher timeMatcher = TIME_PATTERN.matcher(text);
+        String time = timeMatcher.find() ? timeMatcher.group().trim() : null;
+
+        String key = normalize(date) + "|" + (time != null ? normalize(time) : "");
+        if (key.equals(lastKey)) {
+            stableCount++;
+        } else {
+            lastKey = key;
+            stableCount = 1;
+        }
+        lastDate = date;
+        lastTime = time;
+
+        String found = time != null ? date + " " + time : date;
+        runOnUiThread(() -> statusView.setText(getString(R.string.live_scan_found, found)));
+
+        if (stableCount >= stableFramesRequired) {
+            Log.d(TAG, "Stable date/time after " + framesAnalyzed + " frames (" + framesSkipped + " skipped)");
+            runOnUiThread(() -> finishWithResult(true));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private void finishWithResult(boolean stable) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        if (cameraProvider != null) {
+            cameraProvider.unbindAll();
+        }
+
+        Intent data = new Intent();
+        data.putExtra(EXTRA_TEXT, lastText);
+        data.putExtra(EXTRA_DATE_TEXT, lastDate);
+        data.putExtra(EXTRA_TIME_TEXT, lastTime);
+        data.putExtra(EXTRA_STABLE, stable);
+        data.putExtra(EXTRA_FRAMES_ANALYZED, framesAnalyzed);
+        data.putExtra(EXTRA_ELAPSED_MS, SystemClock.elapsedRealtime() - startedAt);
+        setResult(RESULT_OK, data);
+        finish();
+    }
+
+    @Override
+    protected void onDestroy() {
+        finished.set(true);
+        if (analysisExecutor != null) {
+            analysisExecutor.shutdown();
+        }
+        super.onDestroy();
+    }
+}
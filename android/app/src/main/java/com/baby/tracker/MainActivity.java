@@ -4,12 +4,30 @@ import android.os.Bundle;
 import com.getcapacitor.BridgeActivity;
 
 public class MainActivity extends BridgeActivity {
+    // The first native frame comes before the WebView has painted the app,
+    // so give it a moment more before loading the ML Kit models
+    private static final long ML_WARM_UP_DELAY_MS = 1000;
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
-        registerPlugin(ReminderPlugin.class);
-        registerPlugin(OcrPlugin.class);
-        registerPlugin(EntityExtractionPlugin.class);
-        registerPlugin(ImageSharePlugin.class);
-        super.onCreate(savedInstanceState);
+        StartupTrace.begin("MainActivity.onCreate");
+        try {
+            // Plugins only do cheap setup in load(); ML Kit clients, the alarm scheduler
+            // and the share inbox are created on first use
+            registerPlugin(ReminderPlugin.class);
+            registerPlugin(OcrPlugin.class);
+            registerPlugin(EntityExtractionPlugin.class);
+            registerPlugin(ImageSharePlugin.class);
+            registerPlugin(PhotoIngestPlugin.class);
+            registerPlugin(ReminderStorePlugin.class);
+            registerPlugin(BackupPlugin.class);
+            super.onCreate(savedInstanceState);
+            // Serves /_thumb_/ image thumbnails; all other requests still reach Capacitor
+            getBridge().setWebViewClient(new ThumbnailWebViewClient(getBridge()));
+        } finally {
+            StartupTrace.end();
+        }
+        StartupTrace.onFirstFrame(getWindow().getDecorView(),
+            () -> MlKitServices.get().warmUp(getApplicationContext(), ML_WARM_UP_DELAY_MS));
     }
 }
@@ -0,0 +1,228 @@
+package com.baby.tracker;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Streaming file helpers shared by the plugins that bring media into app storage
+public class MediaFiles {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int THUMBNAIL_QUALITY = 70;
+    // Perceptual hashes only look at 9x8 pixels, so a tiny decode is plenty
+    private static final int HASH_DECODE_SIZE = 64;
+
+    public static class CopyResult {
+        public final long size;
+        public final String sha256;
+
+        CopyResult(long size, String sha256) {
+            this.size = size;
+            this.sha256 = sha256;
+        }
+    }
+
+    // Copies the content behind uri into dest through NIO channels, hashing the bytes on the way
+    public static CopyResult copyAndHash(ContentResolver contentResolver, Uri uri, File dest) throws IOException {
+        MessageDigest digest = sha256();
+        ParcelFileDescriptor pfd = null;
+        InputStream stream = null;
+        ReadableByteChannel in;
+        try {
+            // A file descriptor gives a real FileChannel; fall back to a stream for providers without one
+            pfd = contentResolver.openFileDescriptor(uri, "r");
+            if (pfd != null) {
+                in = new FileInputStream(pfd.getFileDescriptor()).getChannel();
+            } else {
+                stream = contentResolver.openInputStream(uri);
+                if (stream == null) {
+                    throw new IOException("Unable to open " + uri);
+                }
+                in = Channels.newChannel(stream);
+            }
+
+            long size = 0;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            try (FileChannel out = new FileOutputStream(dest).getChannel()) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        size += out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(false);
+            } finally {
+                in.close();
+            }
+            return new CopyResult(size, toHex(digest.digest()));
+        } finally {
+            if (stream != null) {
+                stream.close();
+            }
+            if (pfd != null) {
+                pfd.close();
+            }
+        }
+    }
+
+    // Returns {width, height} of an image file without decoding its pixels
+    public static int[] readImageSize(File file) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        return new int[]{options.outWidth, options.outHeight};
+    }
+
+    public static int sampleSizeFor(int width, int height, int maxSize) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= maxSize && height / (sampleSize * 2) >= maxSize) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // Writes a JPEG thumbnail whose longest edge is at most maxSize. Returns false if the source can't be decoded.
+    public static boolean writeThumbnail(File source, File dest, int maxSize) throws IOException {
+        Bitmap thumbnail = decodeThumbnail(source, maxSize);
+        if (thumbnail == null) {
+            return false;
+        }
+        try (FileOutputStream out = new FileOutputStream(dest)) {
+            thumbnail.compress(Bitmap.CompressFormat.JPEG, THUMBNAIL_QUALITY, out);
+        } finally {
+            thumbnail.recycle();
+        }
+        return true;
+    }
+
+    // JPEG bytes of a thumbnail whose longest edge is at most maxSize, or null if the source can't be decoded
+    public static byte[] encodeThumbnail(File source, int maxSize) {
+        Bitmap thumbnail = decodeThumbnail(source, maxSize);
+        if (thumbnail == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            thumbnail.compress(Bitmap.CompressFormat.JPEG, THUMBNAIL_QUALITY, out);
+        } finally {
+            thumbnail.recycle();
+        }
+        return out.toByteArray();
+    }
+
+    // Decodes at the largest power-of-two subsample that still covers maxSize, then scales
+    // the rest of the way and applies the EXIF rotation. Null if the source can't be decoded.
+    public static Bitmap decodeThumbnail(File source, int maxSize) {
+        int[] size = readImageSize(source);
+        if (size[0] <= 0 || size[1] <= 0) {
+            return null;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(size[0], size[1], maxSize);
+        Bitmap decoded = BitmapFactory.decodeFile(source.getAbsolutePath(), options);
+        if (decoded == null) {
+            return null;
+        }
+
+        float scale = Math.min(1f, (float) maxSize / Math.max(decoded.getWidth(), decoded.getHeight()));
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        int rotation = exifRotation(source);
+        if (rotation != 0) {
+            matrix.postRotate(rotation);
+        }
+
+        Bitmap thumbnail = Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(), matrix, true);
+        if (thumbnail != decoded) {
+            decoded.recycle();
+        }
+        return thumbnail;
+    }
+
+    public static int exifRotation(File file) {
+        try {
+            ExifInterface exif = new ExifInterface(file.getAbsolutePath());
+            switch (exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // dHash of the bitmap, scaled down to the 9x8 sample ImageHashes expects
+    public static long perceptualHash(Bitmap bitmap) {
+        Bitmap sample = Bitmap.createScaledBitmap(bitmap, ImageHashes.DHASH_WIDTH, ImageHashes.DHASH_HEIGHT, true);
+        int[] pixels = new int[ImageHashes.DHASH_WIDTH * ImageHashes.DHASH_HEIGHT];
+        sample.getPixels(pixels, 0, ImageHashes.DHASH_WIDTH, 0, 0, ImageHashes.DHASH_WIDTH, ImageHashes.DHASH_HEIGHT);
+        if (sample != bitmap) {
+            sample.recycle();
+        }
+        return ImageHashes.dHash(pixels);
+    }
+
+    // dHash of an image, decoded at a small power-of-two sample size; costs a fraction of recognizing it
+    public static long perceptualHash(ContentResolver contentResolver, Uri uri) throws IOException {
+        int[] size = TiledTextRecognizer.readImageSize(contentResolver, uri);
+        if (size[0] <= 0 || size[1] <= 0) {
+            throw new IOException("Unable to decode " + uri);
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(size[0], size[1], HASH_DECODE_SIZE);
+        Bitmap decoded;
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            decoded = in != null ? BitmapFactory.decodeStream(in, null, options) : null;
+        }
+        if (decoded == null) {
+            throw new IOException("Unable to decode " + uri);
+        }
+        try {
+            return perceptualHash(decoded);
+        } finally {
+            decoded.recycle();
+        }
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
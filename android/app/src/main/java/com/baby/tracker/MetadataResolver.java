@@ -0,0 +1,320 @@
+package com.baby.tracker;
+
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.Context;
+import android.database.Cursor;
+import android.graphics.BitmapFactory;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Looks up name, date, size, MIME type and dimensions for shared URIs with as few
+// provider round trips as possible. MediaStore image/video URIs from the same
+// collection are fetched with one "_id IN (...)" query per batch; anything else
+// gets a single query that asks only for the columns we read.
+public class MetadataResolver {
+    private static final String TAG = "MetadataResolver";
+    // Stay well below SQLite's bound-argument limit
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    private static final String[] MEDIA_PROJECTION = {
+        MediaStore.MediaColumns._ID,
+        MediaStore.MediaColumns.DISPLAY_NAME,
+        MediaStore.MediaColumns.SIZE,
+        MediaStore.MediaColumns.DATE_MODIFIED,
+        MediaStore.Images.ImageColumns.DATE_TAKEN,
+        MediaStore.MediaColumns.MIME_TYPE,
+        MediaStore.MediaColumns.WIDTH,
+        MediaStore.MediaColumns.HEIGHT
+    };
+
+    private static final String[] OPENABLE_PROJECTION = {
+        OpenableColumns.DISPLAY_NAME,
+        OpenableColumns.SIZE,
+        DocumentsContract.Document.COLUMN_LAST_MODIFIED
+    };
+
+    // Not every provider knows last_modified; some reject unknown columns outright
+    private static final String[] OPENABLE_FALLBACK_PROJECTION = {
+        OpenableColumns.DISPLAY_NAME,
+        OpenableColumns.SIZE
+    };
+
+    // METADATA_KEY_DATE, e.g. 20250314T101502.000Z, with or without the milliseconds
+    private static final DateTimeFormatter VIDEO_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss[.SSS]['Z']");
+
+    private final Context context;
+    private final ContentResolver contentResolver;
+
+    public MetadataResolver(Context context) {
+        this.context = context.getApplicationContext();
+        this.contentResolver = this.context.getContentResolver();
+    }
+
+    // Returns metadata keyed by URI string, in the order the URIs were given
+    public Map<String, JSObject> resolve(List<Uri> uris) {
+        Map<String, JSObject> results = new LinkedHashMap<>();
+        Map<Uri, List<Long>> mediaBatches = new LinkedHashMap<>();
+
+        for (Uri uri : uris) {
+            results.put(uri.toString(), null);
+            Uri collection = mediaCollection(uri);
+            if (collection != null) {
+                List<Long> ids = mediaBatches.get(collection);
+                if (ids == null) {
+                    ids = new ArrayList<>();
+                    mediaBatches.put(collection, ids);
+                }
+                ids.add(ContentUris.parseId(uri));
+            }
+        }
+
+        for (Map.Entry<Uri, List<Long>> batch : mediaBatches.entrySet()) {
+            List<Long> ids = batch.getValue();
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                queryMediaStore(batch.getKey(), ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY)), results);
+            }
+        }
+
+        for (Map.Entry<String, JSObject> entry : results.entrySet()) {
+            if (entry.getValue() == null) {
+                // Not a MediaStore item, or missing from its batch (e.g. pending or trashed): query it directly
+                entry.setValue(resolveSingle(Uri.parse(entry.getKey())));
+            }
+        }
+        return results;
+    }
+
+    public JSObject resolve(Uri uri) {
+        List<Uri> single = new ArrayList<>();
+        single.add(uri);
+        return resolve(single).get(uri.toString());
+    }
+
+    // content://media/<volume>/images|video/media/<id> -> the collection URI, otherwise null
+    private static Uri mediaCollection(Uri uri) {
+        if (!MediaStore.AUTHORITY.equals(uri.getAuthority())) {
+            return null;
+        }
+        List<String> segments = uri.getPathSegments();
+        if (segments.size() != 4 || !"media".equals(segments.get(2))
+                || !("images".equals(segments.get(1)) || "video".equals(segments.get(1)))
+                || !TextUtils.isDigitsOnly(segments.get(3))) {
+            return null;
+        }
+        return new Uri.Builder()
+            .scheme(uri.getScheme())
+            .authority(uri.getAuthority())
+            .appendPath(segments.get(0)).appendPath(segments.get(1)).appendPath(segments.get(2))
+            .build();
+    }
+
+    private void queryMediaStore(Uri collection, List<Long> ids, Map<String, JSObject> results) {
+        boolean video = "video".equals(collection.getPathSegments().get(1));
+        String[] projection = MEDIA_PROJECTION;
+        if (video) {
+            projection = new String[MEDIA_PROJECTION.length + 1];
+            System.arraycopy(MEDIA_PROJECTION, 0, projection, 0, MEDIA_PROJECTION.length);
+            projection[MEDIA_PROJECTION.length] = MediaStore.Video.VideoColumns.DURATION;
+        }
+
+        StringBuilder selection = new StringBuilder(MediaStore.MediaColumns._ID).append(" IN (");
+        String[] args = new String[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            selection.append(i == 0 ? "?" : ",?");
+            args[i] = String.valueOf(ids.get(i));
+        }
+        selection.append(')');
+
+        try (Cursor cursor = contentResolver.query(collection, projection, selection.toString(), args, null)) {
+            if (cursor == null) {
+                return;
+            }
+            int idColumn = cursor.getColumnIndexOrThrow(MediaStore.MediaColumns._ID);
+            int nameColumn = cursor.getColumnIndexOrThrow(MediaStore.MediaColumns.DISPLAY_NAME);
+            int sizeColumn = cursor.getColumnIndexOrThrow(MediaStore.MediaColumns.SIZE);
+            int modifiedColumn = cursor.getColumnIndexOrThrow(MediaStore.MediaColumns.DATE_MODIFIED);
+            int takenColumn = cursor.getColumnIndexOrThrow(MediaStore.Images.ImageColumns.DATE_TAKEN);
+            int mimeColumn = cursor.getColumnIndexOrThrow(MediaStore.MediaColumns.MIME_TYPE);
+            int widthColumn = cursor.getColumnIndexOrThrow(MediaStore.MediaColumns.WIDTH);
+            int heightColumn = cursor.getColumnIndexOrThrow(MediaStore.MediaColumns.HEIGHT);
+            int durationColumn = video ? cursor.getColumnIndex(MediaStore.Video.VideoColumns.DURATION) : -1;
+
+            while (cursor.moveToNext()) {
+                Uri uri = ContentUris.withAppendedId(collection, cursor.getLong(idColumn));
+                if (!results.containsKey(uri.toString())) {
+                    continue;
+                }
+                String mimeType = cursor.getString(mimeColumn);
+                // DATE_TAKEN is in milliseconds, DATE_MODIFIED in seconds
+                long timestamp = cursor.getLong(takenColumn);
+                if (timestamp <= 0) {
+                    timestamp = cursor.getLong(modifiedColumn) * 1000L;
+                }
+
+                JSObject data = baseMetadata(uri, mimeType);
+                putIfPresent(data, "name", cursor.getString(nameColumn));
+                data.put("timestamp", String.valueOf(timestamp));
+                data.put("size", cursor.getLong(sizeColumn));
+                data.put("width", cursor.getInt(widthColumn));
+                data.put("height", cursor.getInt(heightColumn));
+                if (durationColumn >= 0 && !cursor.isNull(durationColumn)) {
+                    data.put("durationMs", cursor.getLong(durationColumn));
+                }
+                results.put(uri.toString(), data);
+            }
+        } catch (RuntimeException e) {
+            // The per-URI fallback in resolve() picks these up
+            Log.e(TAG, "Batched MediaStore query failed for " + collection, e);
+        }
+    }
+
+    private JSObject resolveSingle(Uri uri) {
+        JSObject data = baseMetadata(uri, contentResolver.getType(uri));
+        long timestamp = 0;
+
+        if (ContentResolver.SCHEME_CONTENT.equals(uri.getScheme())) {
+            Cursor cursor = null;
+            try {
+                try {
+                    cursor = contentResolver.query(uri, OPENABLE_PROJECTION, null, null, null);
+                } catch (IllegalArgumentException e) {
+                    cursor = contentResolver.query(uri, OPENABLE_FALLBACK_PROJECTION, null, null, null);
+                }
+                if (cursor != null && cursor.moveToFirst()) {
+                    int nameColumn = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                    int sizeColumn = cursor.getColumnIndex(OpenableColumns.SIZE);
+                    int modifiedColumn = cursor.getColumnIndex(DocumentsContract.Document.COLUMN_LAST_MODIFIED);
+                    if (nameColumn != -1) {
+                        putIfPresent(data, "name", cursor.getString(nameColumn));
+                    }
+                    if (sizeColumn != -1 && !cursor.isNull(sizeColumn)) {
+                        data.put("size", cursor.getLong(sizeColumn));
+                    }
+                    if (modifiedColumn != -1 && !cursor.isNull(modifiedColumn)) {
+                        timestamp = cursor.getLong(modifiedColumn);
+                    }
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error reading metadata for " + uri, e);
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                }
+            }
+        }
+
+        String mimeType = data.getString("mimeType");
+        if (mimeType.startsWith("video/")) {
+            long videoDate = readVideoMetadata(uri, data);
+            if (videoDate > 0) {
+                timestamp = videoDate;
+            }
+        } else if (mimeType.startsWith("image/")) {
+            readImageBounds(uri, data);
+        }
+
+        data.put("timestamp", String.valueOf(timestamp));
+        return data;
+    }
+
+    // Fills in width, height and duration; returns the recording date in epoch millis, or -1
+    private long readVideoMetadata(Uri uri, JSObject data) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(context, uri);
+            int width = parseInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_WIDTH));
+            int height = parseInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_HEIGHT));
+            int rotation = parseInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_ROTATION));
+            boolean sideways = rotation == 90 || rotation == 270;
+            data.put("width", sideways ? height : width);
+            data.put("height", sideways ? width : height);
+            String duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            if (duration != null) {
+                data.put("durationMs", Long.parseLong(duration));
+            }
+            return parseVideoDate(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DATE));
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error getting video metadata", e);
+            return -1;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                Log.w(TAG, "Error releasing MediaMetadataRetriever", e);
+            }
+        }
+    }
+
+    // Reads just the image header for its dimensions
+    private void readImageBounds(Uri uri, JSObject data) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            if (in == null) {
+                return;
+            }
+            BitmapFactory.decodeStream(in, null, options);
+            if (options.outWidth > 0 && options.outHeight > 0) {
+                data.put("width", options.outWidth);
+                data.put("height", options.outHeight);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not read image bounds for " + uri, e);
+        }
+    }
+
+    // Containers without a recording date report 1904-01-01, the MP4 epoch
+    static long parseVideoDate(String value) {
+        if (value == null || value.isEmpty() || value.startsWith("1904")) {
+            return -1;
+        }
+        try {
+            return LocalDateTime.parse(value, VIDEO_DATE).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            Log.w(TAG, "Unrecognised video date: " + value);
+            return -1;
+        }
+    }
+
+    private static JSObject baseMetadata(Uri uri, String mimeType) {
+        JSObject data = new JSObject();
+        data.put("imageUri", uri.toString()); // Keep named imageUri for backward compatibility with React code
+        data.put("mimeType", mimeType != null ? mimeType : "application/octet-stream");
+        return data;
+    }
+
+    private static void putIfPresent(JSObject data, String key, String value) {
+        if (value != null) {
+            data.put(key, value);
+        }
+    }
+
+    private static int parseInt(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
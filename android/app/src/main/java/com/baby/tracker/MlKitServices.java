@@ -0,0 +1,246 @@
+package com.baby.tracker;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.mlkit.nl.entityextraction.EntityExtraction;
+import com.google.mlkit.nl.entityextraction.EntityExtractor;
+import com.google.mlkit.nl.entityextraction.EntityExtractorOptions;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.TextRecognizer;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Process-wide holder for the ML Kit clients shared by the plugins and LiveScanActivity.
+// Every use takes a client with acquire... and hands it back with release..., so a
+// memory trim never closes a client another job is still running on.
+public class MlKitServices implements ComponentCallbacks2 {
+    private static final String TAG = "MlKitServices";
+    private static MlKitServices instance;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private TextRecognizer textRecognizer;
+    private EntityExtractor entityExtractor;
+    private Task<Void> entityModelTask;
+    // Jobs currently holding each client, and whether a trim is waiting for them to finish
+    private int textRecognizerUsers = 0;
+    private int entityExtractorUsers = 0;
+    private boolean textRecognizerTrimmed = false;
+    private boolean entityExtractorTrimmed = false;
+    private boolean callbacksRegistered = false;
+    private boolean warmUpScheduled = false;
+    private volatile boolean textRecognizerReady = false;
+    private volatile boolean entityModelReady = false;
+
+    // Timings, in millis; -1 until known
+    private volatile long warmUpScheduledAtMs = -1;
+    private volatile long warmUpStartedAtMs = -1;
+    private volatile long textWarmUpMs = -1;
+    private volatile long entityWarmUpMs = -1;
+    private volatile long firstExtractionMs = -1;
+
+    private MlKitServices() {
+    }
+
+    public static synchronized MlKitServices get() {
+        if (instance == null) {
+            instance = new MlKitServices();
+        }
+        return instance;
+    }
+
+    // Pair with releaseTextRecognizer once the last process() call on it has completed
+    public synchronized TextRecognizer acquireTextRecognizer() {
+        textRecognizerUsers++;
+        return getTextRecognizer();
+    }
+
+    public synchronized void releaseTextRecognizer() {
+        textRecognizerUsers--;
+        if (textRecognizerTrimmed && textRecognizerUsers == 0) {
+            closeTextRecognizer();
+        }
+    }
+
+    // Pair with releaseEntityExtractor once the last task on it has completed
+    public synchronized EntityExtractor acquireEntityExtractor() {
+        entityExtractorUsers++;
+        return getEntityExtractor();
+    }
+
+    public synchronized void releaseEntityExtractor() {
+        entityExtractorUsers--;
+        if (entityExtractorTrimmed && entityExtractorUsers == 0) {
+            closeEntityExtractor();
+        }
+    }
+
+    private synchronized TextRecognizer getTextRecognizer() {
+        if (textRecognizer == null) {
+            StartupTrace.begin("MlKitServices.createTextRecognizer");
+            textRecognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+            StartupTrace.end();
+        }
+        return textRecognizer;
+    }
+
+    private synchronized EntityExtractor getEntityExtractor() {
+        if (entityExtractor == null) {
+            StartupTrace.begin("MlKitServices.createEntityExtractor");
+            EntityExtractorOptions options = new EntityExtractorOptions.Builder(EntityExtractorOptions.ENGLISH)
+                    .build();
+            entityExtractor = EntityExtraction.getClient(options);
+            StartupTrace.end();
+        }
+        return entityExtractor;
+    }
+
+    // Completes once the entity model is on the device. Callers chain their work onto it,
+    // so requests made during the download wait instead of failing. A failed download is
+    // retried by the next caller.
+    public synchronized Task<Void> whenEntityModelReady() {
+        if (entityModelTask == null || (entityModelTask.isComplete() && !entityModelTask.isSuccessful())) {
+            final long startedAt = SystemClock.elapsedRealtime();
+            entityModelTask = acquireEntityExtractor().downloadModelIfNeeded()
+                    .addOnCompleteListener(task -> releaseEntityExtractor())
+                    .addOnSuccessListener(aVoid -> {
+                        entityModelReady = true;
+                        if (entityWarmUpMs < 0) {
+                            entityWarmUpMs = SystemClock.elapsedRealtime() - startedAt;
+                        }
+                        Log.d(TAG, "Entity extraction model ready in " + (SystemClock.elapsedRealtime() - startedAt) + "ms");
+                    })
+                    .addOnFailureListener(e -> Log.e(TAG, "Model download failed", e));
+        }
+        return entityModelTask;
+    }
+
+    public boolean isTextRecognizerReady() {
+        return textRecognizerReady;
+    }
+
+    public boolean isEntityModelReady() {
+        return entityModelReady;
+    }
+
+    // Loads both models in the background once startup has settled; MainActivity calls this after the first frame
+    public synchronized void warmUp(Context context, long delayMs) {
+        if (!callbacksRegistered) {
+            context.getApplicationContext().registerComponentCallbacks(this);
+            callbacksRegistered = true;
+        }
+        if (warmUpScheduled) {
+            return;
+        }
+        warmUpScheduled = true;
+        warmUpScheduledAtMs = SystemClock.elapsedRealtime();
+        new Handler(Looper.getMainLooper()).postDelayed(() -> executor.execute(this::runWarmUp), delayMs);
+        Log.d(TAG, "Warm-up scheduled " + (warmUpScheduledAtMs - Process.getStartElapsedRealtime())
+                + "ms after process start, delay " + delayMs + "ms");
+    }
+
+    private void runWarmUp() {
+        warmUpStartedAtMs = SystemClock.elapsedRealtime();
+        Log.d(TAG, "Warm-up started " + StartupTrace.sinceProcessStart() + "ms after process start");
+
+        // Recognizing a blank bitmap forces the recognizer pipeline to load
+        Bitmap blank = Bitmap.createBitmap(32, 32, Bitmap.Config.ARGB_8888);
+        acquireTextRecognizer().process(InputImage.fromBitmap(blank, 0))
+                .addOnCompleteListener(executor, task -> {
+                    releaseTextRecognizer();
+                    blank.recycle();
+                    textRecognizerReady = true;
+                    textWarmUpMs = SystemClock.elapsedRealtime() - warmUpStartedAtMs;
+                    Log.d(TAG, "Text recognizer warmed up in " + textWarmUpMs + "ms");
+                });
+
+        whenEntityModelReady();
+    }
+
+    public void recordFirstExtraction(long latencyMs) {
+        if (firstExtractionMs < 0) {
+            firstExtractionMs = latencyMs;
+            Log.d(TAG, "First entity extraction took " + latencyMs + "ms (model ready: " + entityModelReady + ")");
+        }
+    }
+
+    public long getWarmUpScheduledAtMs() {
+        return warmUpScheduledAtMs < 0 ? -1 : warmUpScheduledAtMs - Process.getStartElapsedRealtime();
+    }
+
+    public long getTextWarmUpMs() {
+        return textWarmUpMs;
+    }
+
+    public long getEntityWarmUpMs() {
+        return entityWarmUpMs;
+    }
+
+    public long getFirstExtractionMs() {
+        return firstExtractionMs;
+    }
+
+    // Closes the clients nothing holds now and the rest as their last user releases them;
+    // they are recreated lazily on the next acquire
+    public synchronized void release() {
+        if (textRecognizer != null) {
+            textRecognizerTrimmed = true;
+            if (textRecognizerUsers == 0) {
+                closeTextRecognizer();
+            }
+        }
+        if (entityExtractor != null) {
+            entityExtractorTrimmed = true;
+            if (entityExtractorUsers == 0) {
+                closeEntityExtractor();
+            }
+        }
+    }
+
+    private void closeTextRecognizer() {
+        textRecognizer.close();
+        textRecognizer = null;
+        textRecognizerReady = false;
+        textRecognizerTrimmed = false;
+        Log.d(TAG, "Text recognizer released");
+    }
+
+    private void closeEntityExtractor() {
+        entityExtractor.close();
+        entityExtractor = null;
+        entityModelTask = null;
+        entityModelReady = false;
+        entityExtractorTrimmed = false;
+        Log.d(TAG, "Entity extractor released");
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        // Only give the models up when the process is next in line to be killed
+        if (level >= TRIM_MEMORY_COMPLETE) {
+            release();
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    @Override
+    public void onLowMemory() {
+    }
+}
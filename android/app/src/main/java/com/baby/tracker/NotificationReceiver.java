@@ -15,10 +15,15 @@ import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
 
+import java.text.DateFormat;
+import java.util.Date;
+
 public class NotificationReceiver extends BroadcastReceiver {
     private static final String TAG = "NotificationReceiver";
     private static final String CHANNEL_ID = "pregnancy_reminders";
     private static final String CHANNEL_NAME = "Pregnancy Reminders";
+    // The confirmation left after "Taken" clears itself after a while
+    private static final long TAKEN_TIMEOUT_MS = 30 * 60 * 1000;
 
     @Override
     public void onReceive(Context context, Intent intent) {
@@ -31,23 +36,24 @@ public class NotificationReceiver extends BroadcastReceiver {
         boolean isDaily = intent.getBooleanExtra("isDaily", false);
         boolean wakeScreen = intent.getBooleanExtra("wakeScreen", false);
         boolean isAlarm = intent.getBooleanExtra("isAlarm", false);
+        // Alarms armed before snoozed copies carried it are their own reminder
+        int originalId = intent.getIntExtra("originalId", reminderId);
+
+        // AlarmScheduler shows the notification, then daily alarms re-arm for the next day
+        // and one-time alarms leave the registry
+        int hour = intent.getIntExtra("hour", 9);
+        int minute = intent.getIntExtra("minute", 0);
+        AlarmRegistry.AlarmInfo alarm = new AlarmRegistry.AlarmInfo(
+            reminderId, title, body, type, hour, minute, isDaily, wakeScreen, isAlarm, 0, originalId);
+        new AlarmScheduler(context).onAlarmFired(alarm);
+    }
 
-        // Create notification channel
-        createNotificationChannel(context, isAlarm);
-
-        // Show notification
-        showNotification(context, reminderId, title, body, type, wakeScreen, isAlarm);
-
-        // If it's a daily alarm, reschedule for next day
-        if (isDaily) {
-            int hour = intent.getIntExtra("hour", 9);
-            int minute = intent.getIntExtra("minute", 0);
-            AlarmScheduler scheduler = new AlarmScheduler(context);
-            scheduler.scheduleDailyAlarm(reminderId, title, body, type, hour, minute, isAlarm);
-        }
+    static void show(Context context, AlarmRegistry.AlarmInfo alarm) {
+        createNotificationChannel(context, alarm.isAlarm);
+        showNotification(context, alarm.reminderId, alarm.originalId, alarm.title, alarm.body, alarm.type, alarm.wakeScreen, alarm.isAlarm);
     }
 
-    private void createNotificationChannel(Context context, boolean isAlarm) {
+    private static void createNotificationChannel(Context context, boolean isAlarm) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationManager notificationManager = 
                 (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
@@ -76,7 +82,7 @@ public class NotificationReceiver extends BroadcastReceiver {
         }
     }
 
-    private void showNotification(Context context, int reminderId, String title, String body, String type, boolean wakeScreen, boolean isAlarm) {
+    private static void showNotification(Context context, int reminderId, int originalId, String title, String body, String type, boolean wakeScreen, boolean isAlarm) {
         NotificationManager notificationManager = 
             (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
 
@@ -93,6 +99,7 @@ public class NotificationReceiver extends BroadcastReceiver {
         // Snooze action
         Intent snoozeIntent = new Intent(context, SnoozeReceiver.class);
         snoozeIntent.putExtra("reminderId", reminderId);
+        snoozeIntent.putExtra("originalId", originalId);
         snoozeIntent.putExtra("title", title);
         snoozeIntent.putExtra("body", body);
         snoozeIntent.putExtra("type", type);
@@ -132,6 +139,22 @@ public class NotificationReceiver extends BroadcastReceiver {
             .setVibrate(new long[]{0, 500, 200, 500, 200, 500})
             .setLights(0xFFFFC0CB, 1000, 3000); // Pink color
 
+        // Medications can be marked taken from the notification without opening the app
+        if ("medication".equals(type)) {
+            Intent takenIntent = new Intent(context, TakenReceiver.class);
+            takenIntent.putExtra("reminderId", reminderId);
+            takenIntent.putExtra("originalId", originalId);
+            takenIntent.putExtra("title", title);
+            takenIntent.putExtra("type", type);
+            PendingIntent takenPendingIntent = PendingIntent.getBroadcast(
+                context,
+                reminderId + 40000,
+                takenIntent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+            );
+            builder.addAction(0, "Taken", takenPendingIntent);
+        }
+
         if (isAlarm) {
             builder.setSound(RingtoneManager.getDefaultUri(RingtoneManager.TYPE_ALARM));
         } else {
@@ -162,7 +185,34 @@ public class NotificationReceiver extends BroadcastReceiver {
         Log.d(TAG, "Notification shown: " + reminderId + " (Alarm: " + isAlarm + ")");
     }
 
-    private int getIconForType(String type) {
+    // Replaces the reminder's notification in place: no sound, no actions, and no
+    // full-screen intent, so an insistent alarm stops and nothing launches the app
+    static void showTaken(Context context, int reminderId, String title, long takenAt) {
+        createNotificationChannel(context, false);
+        NotificationManager notificationManager =
+            (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+
+        String time = DateFormat.getTimeInstance(DateFormat.SHORT).format(new Date(takenAt));
+        Notification notification = new NotificationCompat.Builder(context, CHANNEL_ID)
+            .setSmallIcon(getIconForType("medication"))
+            .setContentTitle(title)
+            .setContentText("Taken at " + time)
+            .setPriority(NotificationCompat.PRIORITY_LOW)
+            .setCategory(NotificationCompat.CATEGORY_STATUS)
+            .setSilent(true)
+            .setOnlyAlertOnce(true)
+            .setAutoCancel(true)
+            .setWhen(takenAt)
+            .setShowWhen(true)
+            .setTimeoutAfter(TAKEN_TIMEOUT_MS)
+            .build();
+
+        notificationManager.notify(reminderId, notification);
+
+        Log.d(TAG, "Notification marked taken: " + reminderId);
+    }
+
+    private static int getIconForType(String type) {
         // Use default notification icon
         // You can customize this based on type
         return android.R.drawable.ic_dialog_info;
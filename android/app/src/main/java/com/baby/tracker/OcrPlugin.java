@@ -4,6 +4,7 @@ import android.app.Activity;
 import android.content.Intent;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Rect;
 import android.net.Uri;
 import android.provider.MediaStore;
 import android.util.Log;
@@ -19,25 +20,39 @@ import com.getcapacitor.annotation.ActivityCallback;
 import com.getcapacitor.annotation.CapacitorPlugin;
 import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.text.Text;
-import com.google.mlkit.vision.text.TextRecognition;
 import com.google.mlkit.vision.text.TextRecognizer;
-import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import org.json.JSONException;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 @CapacitorPlugin(name = "OcrPlugin")
 public class OcrPlugin extends Plugin {
     private static final String TAG = "OcrPlugin";
+    private static final long MIN_VIDEO_INTERVAL_MS = 100;
+    // Images recognized with dedupe, kept for reuse by near-identical ones in the same batch
+    private static final int RECENT_IMAGE_CAPACITY = 64;
     
-    private TextRecognizer recognizer;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ImageHashIndex<JSObject> recentImages = new ImageHashIndex<>(RECENT_IMAGE_CAPACITY);
+    // Batch recentImages belongs to; only touched on the executor
+    private String recentBatch;
 
     @Override
     public void load() {
         super.load();
-        recognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
         Log.d(TAG, "OcrPlugin loaded with ML Kit Text Recognition");
     }
 
@@ -58,6 +73,16 @@ public class OcrPlugin extends Plugin {
         }
     }
 
+    @PluginMethod
+    public void scanTextLive(PluginCall call) {
+        Intent liveScanIntent = new Intent(getContext(), LiveScanActivity.class);
+        Integer stableFrames = call.getInt("stableFrames");
+        if (stableFrames != null) {
+            liveScanIntent.putExtra(LiveScanActivity.EXTRA_STABLE_FRAMES, stableFrames);
+        }
+        startActivityForResult(call, liveScanIntent, "handleLiveScanResult");
+    }
+
     @PluginMethod
     public void scanTextFromGallery(PluginCall call) {
         Intent pickPhotoIntent = new Intent(Intent.ACTION_PICK, MediaStore.Images.Media.EXTERNAL_CONTENT_URI);
@@ -77,20 +102,30 @@ public class OcrPlugin extends Plugin {
             return;
         }
 
-        try {
-            InputImage image;
-            if (imagePath.startsWith("content://") || imagePath.startsWith("file://")) {
-                Uri uri = Uri.parse(imagePath);
-                image = InputImage.fromFilePath(getContext(), uri);
-            } else {
-                File file = new File(imagePath);
-                if (!file.exists()) {
-                    call.reject("Image file not found");
-                    return;
-                }
-                image = InputImage.fromFilePath(getContext(), Uri.fromFile(file));
-            }
+        Uri uri = toUri(imagePath);
+        if (uri == null) {
+            call.reject("Image file not found");
+            return;
+        }
+
+        Rect crop = parseCrop(call.getObject("crop"));
+        Boolean tiled = call.getBoolean("tiled");
+
+        if (call.getBoolean("dedupe", false) && crop == null) {
+            String batchId = call.getString("batchId");
+            executor.execute(() -> scanUnlessDuplicate(uri, tiled, batchId, call));
+            return;
+        }
+
+        // Crops and tall screenshots go through the region decoder so that only
+        // the requested bands are ever decoded
+        if (crop != null || !Boolean.FALSE.equals(tiled)) {
+            executor.execute(() -> scanRegions(uri, crop, tiled, call, call::resolve));
+            return;
+        }
 
+        try {
+            InputImage image = InputImage.fromFilePath(getContext(), uri);
             processImage(image, call);
         } catch (IOException e) {
             Log.e(TAG, "Error loading image", e);
@@ -98,6 +133,220 @@ public class OcrPlugin extends Plugin {
         }
     }
 
+    // Hashes the image first and, if a near-identical one was recognized earlier in the same
+    // batch, resolves with its result and duplicateOf instead of recognizing it again. Matches
+    // never cross batches: the copy's dates were only suggested within the batch they came from.
+    private void scanUnlessDuplicate(Uri uri, Boolean tiled, String batchId, PluginCall call) {
+        if (batchId == null || !batchId.equals(recentBatch)) {
+            recentImages.clear();
+            recentBatch = batchId;
+        }
+        long hash;
+        try {
+            hash = MediaFiles.perceptualHash(getContext().getContentResolver(), uri);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Unable to hash " + uri + ", recognizing without dedupe", e);
+            scanRegions(uri, null, tiled, call, call::resolve);
+            return;
+        }
+
+        ImageHashIndex.Match<JSObject> duplicate = recentImages.findNearDuplicate(hash);
+        if (duplicate != null) {
+            Log.d(TAG, uri + " is a near-duplicate of " + duplicate.entry.key + " (" + duplicate.distance + " bits apart)");
+            JSObject result = copyOf(duplicate.entry.value);
+            result.put("duplicateOf", duplicate.entry.key);
+            result.put("hashDistance", duplicate.distance);
+            call.resolve(result);
+            return;
+        }
+
+        scanRegions(uri, null, tiled, call, result -> {
+            if (Boolean.TRUE.equals(result.getBool("success"))) {
+                recentImages.put(uri.toString(), hash, copyOf(result));
+            }
+            call.resolve(result);
+        });
+    }
+
+    private static JSObject copyOf(JSObject source) {
+        JSObject copy = new JSObject();
+        for (Iterator<String> keys = source.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            copy.put(key, source.opt(key));
+        }
+        return copy;
+    }
+
+    @PluginMethod
+    public void scanTextFromPdf(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null || path.isEmpty()) {
+            call.reject("Path is required");
+            return;
+        }
+        Uri uri = toUri(path);
+        if (uri == null) {
+            call.reject("PDF file not found");
+            return;
+        }
+        int maxPages = call.getInt("maxPages", PdfTextExtractor.DEFAULT_MAX_PAGES);
+        int maxDimension = call.getInt("maxDimension", PdfTextExtractor.DEFAULT_MAX_DIMENSION);
+        boolean stopOnDates = call.getBoolean("stopOnDates", true);
+        executor.execute(() -> scanPdf(uri, maxPages, maxDimension, stopOnDates, call));
+    }
+
+    // Pages are reported through pdfPageText as they finish. With stopOnDates the scan ends
+    // after the first page mentioning a date from today on, which is all the reminder flow needs.
+    private void scanPdf(Uri uri, int maxPages, int maxDimension, boolean stopOnDates, PluginCall call) {
+        boolean dayFirst = !"US".equals(Locale.getDefault().getCountry());
+        LocalDate today = LocalDate.now();
+        ZoneId zone = ZoneId.systemDefault();
+        long startOfToday = today.atStartOfDay(zone).toInstant().toEpochMilli();
+        try {
+            PdfTextExtractor.Result pdf = withRecognizer(recognizer -> new PdfTextExtractor(recognizer, getContext().getContentResolver())
+                .extract(uri, maxPages, maxDimension, (pageIndex, pageCount, text) -> {
+                    boolean hasDates = false;
+                    if (OfflineEntityExtractor.hasDateLikeTokens(text)) {
+                        for (OfflineEntityExtractor.Match date : OfflineEntityExtractor.extract(text, today, zone, dayFirst).dates) {
+                            if (date.timestamp >= startOfToday) {
+                                hasDates = true;
+                                break;
+                            }
+                        }
+                    }
+                    JSObject page = new JSObject();
+                    page.put("pageIndex", pageIndex);
+                    page.put("pageCount", pageCount);
+                    page.put("text", text);
+                    page.put("hasDates", hasDates);
+                    notifyListeners("pdfPageText", page);
+                    return !(stopOnDates && hasDates);
+                }));
+
+            JSObject result = new JSObject();
+            result.put("success", true);
+            result.put("text", pdf.text);
+            result.put("pageCount", pdf.pageCount);
+            result.put("pagesProcessed", pdf.pagesProcessed);
+            result.put("stoppedEarly", pdf.stoppedEarly);
+            call.resolve(result);
+        } catch (Exception e) {
+            // Also covers password-protected documents, which PdfRenderer rejects with SecurityException
+            Log.e(TAG, "PDF OCR failed", e);
+            JSObject result = new JSObject();
+            result.put("success", false);
+            result.put("text", "");
+            result.put("error", e.getMessage());
+            call.resolve(result);
+        }
+    }
+
+    @PluginMethod
+    public void scanTextFromVideo(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null || path.isEmpty()) {
+            call.reject("Path is required");
+            return;
+        }
+        Uri uri = toUri(path);
+        if (uri == null) {
+            call.reject("Video file not found");
+            return;
+        }
+        long intervalMs = Math.max(MIN_VIDEO_INTERVAL_MS, call.getInt("intervalMs", (int) VideoTextExtractor.DEFAULT_INTERVAL_MS));
+        int maxFrames = call.getInt("maxFrames", VideoTextExtractor.DEFAULT_MAX_FRAMES);
+        int maxDimension = call.getInt("maxDimension", VideoTextExtractor.DEFAULT_MAX_DIMENSION);
+        executor.execute(() -> {
+            try {
+                VideoTextExtractor.Result video = withRecognizer(recognizer -> new VideoTextExtractor(recognizer, getContext())
+                    .extract(uri, intervalMs, maxFrames, maxDimension));
+                JSObject result = new JSObject();
+                result.put("success", true);
+                result.put("text", video.text);
+                result.put("durationMs", video.durationMs);
+                result.put("framesSampled", video.framesSampled);
+                result.put("framesRecognized", video.framesRecognized);
+                call.resolve(result);
+            } catch (Exception e) {
+                Log.e(TAG, "Video OCR failed", e);
+                JSObject result = new JSObject();
+                result.put("success", false);
+                result.put("text", "");
+                result.put("error", e.getMessage());
+                call.resolve(result);
+            }
+        });
+    }
+
+    // Content and file URIs as given, bare paths only if the file exists
+    private static Uri toUri(String path) {
+        if (path.startsWith("content://") || path.startsWith("file://")) {
+            return Uri.parse(path);
+        }
+        File file = new File(path);
+        return file.exists() ? Uri.fromFile(file) : null;
+    }
+
+    private void scanRegions(Uri uri, Rect crop, Boolean tiled, PluginCall call, Consumer<JSObject> done) {
+        try {
+            boolean useTiles;
+            if (tiled != null) {
+                useTiles = tiled;
+            } else {
+                int[] size = TiledTextRecognizer.readImageSize(getContext().getContentResolver(), uri);
+                // Only the cropped part is recognized, so its shape decides; a crop outside
+                // the image is left for the recognizer to reject
+                Rect region = new Rect(0, 0, size[0], size[1]);
+                if (crop != null) {
+                    region.intersect(crop);
+                }
+                useTiles = TiledTextRecognizer.shouldTile(region.width(), region.height());
+            }
+
+            if (!useTiles && crop == null) {
+                processImage(InputImage.fromFilePath(getContext(), uri), call, done);
+                return;
+            }
+
+            TiledTextRecognizer.Result tiledResult = withRecognizer(recognizer ->
+                new TiledTextRecognizer(recognizer, getContext().getContentResolver()).recognize(uri, crop, useTiles));
+
+            JSObject result = new JSObject();
+            result.put("success", true);
+            result.put("text", tiledResult.text);
+            BlockWriter writer = new BlockWriter(isCompact(call));
+            for (TiledTextRecognizer.RecognizedBlock recognized : tiledResult.blocks) {
+                writer.add(recognized.block, recognized.boundingBox);
+            }
+            writer.writeTo(result);
+            result.put("tileCount", tiledResult.tileCount);
+
+            Log.d(TAG, "Tiled OCR success: " + tiledResult.blocks.size() + " blocks from " + tiledResult.tileCount + " tile(s)");
+            done.accept(result);
+        } catch (Exception e) {
+            Log.e(TAG, "Tiled OCR failed", e);
+            JSObject result = new JSObject();
+            result.put("success", false);
+            result.put("text", "");
+            result.put("error", e.getMessage());
+            done.accept(result);
+        }
+    }
+
+    private Rect parseCrop(JSObject crop) {
+        if (crop == null) {
+            return null;
+        }
+        int left = crop.getInteger("left", 0);
+        int top = crop.getInteger("top", 0);
+        int width = crop.getInteger("width", 0);
+        int height = crop.getInteger("height", 0);
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        return new Rect(left, top, left + width, top + height);
+    }
+
     @ActivityCallback
     private void handleCameraResult(PluginCall call, ActivityResult result) {
         if (result.getResultCode() == Activity.RESULT_OK && result.getData() != null) {
@@ -118,6 +367,24 @@ public class OcrPlugin extends Plugin {
         }
     }
 
+    @ActivityCallback
+    private void handleLiveScanResult(PluginCall call, ActivityResult result) {
+        if (result.getResultCode() == Activity.RESULT_OK && result.getData() != null) {
+            Intent data = result.getData();
+            JSObject ret = new JSObject();
+            ret.put("success", true);
+            ret.put("text", data.getStringExtra(LiveScanActivity.EXTRA_TEXT));
+            ret.put("detectedDate", data.getStringExtra(LiveScanActivity.EXTRA_DATE_TEXT));
+            ret.put("detectedTime", data.getStringExtra(LiveScanActivity.EXTRA_TIME_TEXT));
+            ret.put("stable", data.getBooleanExtra(LiveScanActivity.EXTRA_STABLE, false));
+            ret.put("framesAnalyzed", data.getIntExtra(LiveScanActivity.EXTRA_FRAMES_ANALYZED, 0));
+            ret.put("elapsedMs", data.getLongExtra(LiveScanActivity.EXTRA_ELAPSED_MS, 0));
+            call.resolve(ret);
+        } else {
+            call.reject("Live scan cancelled");
+        }
+    }
+
     @ActivityCallback
     private void handleGalleryResult(PluginCall call, ActivityResult result) {
         if (result.getResultCode() == Activity.RESULT_OK && result.getData() != null) {
@@ -139,41 +406,26 @@ public class OcrPlugin extends Plugin {
     }
 
     private void processImage(InputImage image, PluginCall call) {
-        recognizer.process(image)
+        processImage(image, call, call::resolve);
+    }
+
+    private void processImage(InputImage image, PluginCall call, Consumer<JSObject> done) {
+        MlKitServices services = MlKitServices.get();
+        services.acquireTextRecognizer().process(image)
+            .addOnCompleteListener(task -> services.releaseTextRecognizer())
             .addOnSuccessListener(visionText -> {
                 JSObject result = new JSObject();
                 result.put("success", true);
                 result.put("text", visionText.getText());
                 
-                JSArray blocks = new JSArray();
+                BlockWriter writer = new BlockWriter(isCompact(call));
                 for (Text.TextBlock block : visionText.getTextBlocks()) {
-                    JSObject blockObj = new JSObject();
-                    blockObj.put("text", block.getText());
-                    
-                    if (block.getBoundingBox() != null) {
-                        JSObject bbox = new JSObject();
-                        bbox.put("left", block.getBoundingBox().left);
-                        bbox.put("top", block.getBoundingBox().top);
-                        bbox.put("right", block.getBoundingBox().right);
-                        bbox.put("bottom", block.getBoundingBox().bottom);
-                        blockObj.put("boundingBox", bbox);
-                    }
-                    
-                    // Add lines within the block
-                    JSArray lines = new JSArray();
-                    for (Text.Line line : block.getLines()) {
-                        JSObject lineObj = new JSObject();
-                        lineObj.put("text", line.getText());
-                        lines.put(lineObj);
-                    }
-                    blockObj.put("lines", lines);
-                    
-                    blocks.put(blockObj);
+                    writer.add(block, block.getBoundingBox());
                 }
-                result.put("blocks", blocks);
+                writer.writeTo(result);
                 
                 Log.d(TAG, "OCR Success: " + visionText.getText());
-                call.resolve(result);
+                done.accept(result);
             })
             .addOnFailureListener(e -> {
                 Log.e(TAG, "OCR failed", e);
@@ -181,15 +433,96 @@ public class OcrPlugin extends Plugin {
                 result.put("success", false);
                 result.put("text", "");
                 result.put("error", e.getMessage());
-                call.resolve(result);
+                done.accept(result);
             });
     }
 
+    private static boolean isCompact(PluginCall call) {
+        return CompactEncoder.FORMAT.equals(call.getString("format"));
+    }
+
+    // Collects blocks either as the JSON tree or in CompactEncoder's packed form
+    private class BlockWriter {
+        private final CompactEncoder encoder;
+        private final JSArray blocks;
+
+        BlockWriter(boolean compact) {
+            encoder = compact ? new CompactEncoder() : null;
+            blocks = compact ? null : new JSArray();
+        }
+
+        void add(Text.TextBlock block, Rect boundingBox) {
+            if (encoder == null) {
+                blocks.put(blockToJson(block, boundingBox));
+                return;
+            }
+            List<String> lines = new ArrayList<>(block.getLines().size());
+            for (Text.Line line : block.getLines()) {
+                lines.add(line.getText());
+            }
+            if (boundingBox != null) {
+                encoder.addBlock(lines, true, boundingBox.left, boundingBox.top, boundingBox.right, boundingBox.bottom);
+            } else {
+                encoder.addBlock(lines, false, 0, 0, 0, 0);
+            }
+        }
+
+        void writeTo(JSObject result) {
+            if (encoder == null) {
+                result.put("blocks", blocks);
+                return;
+            }
+            try {
+                encoder.writeTo(result);
+            } catch (JSONException e) {
+                // Only thrown for non-finite numbers, which int geometry never produces
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private JSObject blockToJson(Text.TextBlock block, Rect boundingBox) {
+        JSObject blockObj = new JSObject();
+        blockObj.put("text", block.getText());
+
+        if (boundingBox != null) {
+            JSObject bbox = new JSObject();
+            bbox.put("left", boundingBox.left);
+            bbox.put("top", boundingBox.top);
+            bbox.put("right", boundingBox.right);
+            bbox.put("bottom", boundingBox.bottom);
+            blockObj.put("boundingBox", bbox);
+        }
+
+        // Add lines within the block
+        JSArray lines = new JSArray();
+        for (Text.Line line : block.getLines()) {
+            JSObject lineObj = new JSObject();
+            lineObj.put("text", line.getText());
+            lines.put(lineObj);
+        }
+        blockObj.put("lines", lines);
+        return blockObj;
+    }
+
+    private interface RecognizerJob<T> {
+        T run(TextRecognizer recognizer) throws Exception;
+    }
+
+    // The recognizer is shared process-wide, so it is acquired per job rather than cached,
+    // and held until the job's last page, frame or tile is recognized
+    private static <T> T withRecognizer(RecognizerJob<T> job) throws Exception {
+        MlKitServices services = MlKitServices.get();
+        try {
+            return job.run(services.acquireTextRecognizer());
+        } finally {
+            services.releaseTextRecognizer();
+        }
+    }
+
     @Override
     protected void handleOnDestroy() {
-        if (recognizer != null) {
-            recognizer.close();
-        }
+        executor.shutdownNow();
         super.handleOnDestroy();
     }
 }
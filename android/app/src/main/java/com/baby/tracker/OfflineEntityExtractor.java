@@ -0,0 +1,287 @@
+package com.baby.tracker;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Rule-based extraction of dates, times, phone numbers, emails and URLs.
+// Used when the ML Kit model is not on the device, and as a cheap check for
+// whether a text is worth sending to ML Kit at all.
+public class OfflineEntityExtractor {
+
+    public static class Match {
+        public final int start;
+        public final int end;
+        public final String text;
+        // Dates only
+        public final long timestamp;
+        public final long endTimestamp;
+        public final boolean hasTime;
+
+        Match(int start, int end, String text, long timestamp, long endTimestamp, boolean hasTime) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+            this.timestamp = timestamp;
+            this.endTimestamp = endTimestamp;
+            this.hasTime = hasTime;
+        }
+    }
+
+    public static class Result {
+        public final List<Match> dates = new ArrayList<>();
+        public final List<Match> phones = new ArrayList<>();
+        public final List<Match> emails = new ArrayList<>();
+        public final List<Match> urls = new ArrayList<>();
+        public List<TimeExtractor.TimeMention> times = new ArrayList<>();
+    }
+
+    private static final String MONTH_NAMES =
+        "(jan(?:uary)?|feb(?:ruary)?|mar(?:ch)?|apr(?:il)?|may|june?|july?|aug(?:ust)?|sep(?:t(?:ember)?)?|oct(?:ober)?|nov(?:ember)?|dec(?:ember)?)";
+    private static final String WEEKDAY_NAMES =
+        "(mon(?:day)?|tue(?:s(?:day)?)?|wed(?:nesday)?|thu(?:r(?:s(?:day)?)?)?|fri(?:day)?|sat(?:urday)?|sun(?:day)?)";
+    private static final String ORDINAL = "(?:st|nd|rd|th)?";
+
+    // One alternation per supported date shape; the group numbers are read in parseDate
+    private static final Pattern DATE_PATTERN = Pattern.compile(
+        "(?i)\\b(?:"
+            // 1-3: 2025-06-03
+            + "(\\d{4})-(\\d{1,2})-(\\d{1,2})"
+            // 4-7: 14/04/2025, 04.14.25, 3-10-2025
+            + "|(\\d{1,2})([/.-])(\\d{1,2})\\5(\\d{4}|\\d{2})"
+            // 8-10: March 11, 2025 / Mar 11th
+            + "|" + MONTH_NAMES + "\\.?\\s+(\\d{1,2})" + ORDINAL + "(?:,?\\s+(\\d{4}))?"
+            // 11-13: 11 March 2025 / 2nd of May
+            + "|(\\d{1,2})" + ORDINAL + "(?:\\s+of)?\\s+" + MONTH_NAMES + "\\.?(?:,?\\s+(\\d{4}))?"
+            // 14: today / tomorrow
+            + "|(today|tomorrow)"
+            // 15-16: next Monday / on Friday
+            + "|(next|on|this)\\s+" + WEEKDAY_NAMES
+            + ")\\b"
+    );
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+        "[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}"
+    );
+    private static final Pattern URL_PATTERN = Pattern.compile(
+        "(?i)\\b(?:https?://|www\\.)[^\\s<>\"]+"
+    );
+    private static final Pattern PHONE_PATTERN = Pattern.compile(
+        "(?<![\\w/.-])(?:\\+\\d{1,3}[\\s.-]?)?(?:\\(\\d{2,5}\\)[\\s.-]?)?\\d{2,5}(?:[\\s.-]\\d{2,5}){0,4}(?![\\w/])"
+    );
+
+    // Anything that could start a date: digit groups with separators, month or weekday names, relative days
+    private static final Pattern DATE_HINT = Pattern.compile(
+        "(?i)\\d{1,4}[/.-]\\d{1,2}|\\b" + MONTH_NAMES + "\\b|\\b" + WEEKDAY_NAMES + "\\b|\\btoday\\b|\\btomorrow\\b"
+    );
+
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final int MAX_PHONE_DIGITS = 15;
+
+    public static boolean hasDateLikeTokens(CharSequence text) {
+        return DATE_HINT.matcher(text).find();
+    }
+
+    public static Result extract(String text, LocalDate today, ZoneId zone, boolean dayFirst) {
+        Result result = new Result();
+
+        List<int[]> spans = new ArrayList<>();
+        List<LocalDate> parsedDates = new ArrayList<>();
+        Matcher dateMatcher = DATE_PATTERN.matcher(text);
+        while (dateMatcher.find()) {
+            LocalDate date = parseDate(dateMatcher, today, dayFirst);
+            if (date != null) {
+                spans.add(new int[]{dateMatcher.start(), dateMatcher.end()});
+                parsedDates.add(date);
+            }
+        }
+
+        result.times = TimeExtractor.extract(text);
+        int[][] dateSpans = spans.toArray(new int[0][]);
+        int[] timeForDate = TimeExtractor.assignToDates(result.times, dateSpans);
+
+        for (int i = 0; i < parsedDates.size(); i++) {
+            LocalDate date = parsedDates.get(i);
+            int start = dateSpans[i][0];
+            int end = dateSpans[i][1];
+            long timestamp;
+            long endTimestamp = -1;
+            boolean hasTime = timeForDate[i] >= 0;
+            if (hasTime) {
+                TimeExtractor.TimeMention time = result.times.get(timeForDate[i]);
+                timestamp = toMillis(date, time.hour, time.minute, zone);
+                if (time.isRange()) {
+                    endTimestamp = toMillis(date, time.endHour, time.endMinute, zone);
+                }
+            } else {
+                timestamp = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            }
+            result.dates.add(new Match(start, end, text.substring(start, end), timestamp, endTimestamp, hasTime));
+        }
+
+        Matcher emailMatcher = EMAIL_PATTERN.matcher(text);
+        while (emailMatcher.find()) {
+            result.emails.add(simpleMatch(text, emailMatcher.start(), emailMatcher.end()));
+        }
+
+        Matcher urlMatcher = URL_PATTERN.matcher(text);
+        while (urlMatcher.find()) {
+            int end = urlMatcher.end();
+            // Sentence punctuation after a link is not part of it
+            while (end > urlMatcher.start() && ".,;:!?)".indexOf(text.charAt(end - 1)) >= 0) {
+                end--;
+            }
+            result.urls.add(simpleMatch(text, urlMatcher.start(), end));
+        }
+
+        Matcher phoneMatcher = PHONE_PATTERN.matcher(text);
+        while (phoneMatcher.find()) {
+            int start = phoneMatcher.start();
+            int end = phoneMatcher.end();
+            int digits = countDigits(text, start, end);
+            if (digits < MIN_PHONE_DIGITS || digits > MAX_PHONE_DIGITS) {
+                continue;
+            }
+            if (overlapsAny(start, end, dateSpans) || overlapsAnyTime(start, end, result.times)
+                    || overlapsAny(start, end, result.urls) || overlapsAny(start, end, result.emails)) {
+                continue;
+            }
+            result.phones.add(simpleMatch(text, start, end));
+        }
+
+        return result;
+    }
+
+    private static LocalDate parseDate(Matcher m, LocalDate today, boolean dayFirst) {
+        try {
+            if (m.group(1) != null) {
+                return LocalDate.of(parseInt(m.group(1)), parseInt(m.group(2)), parseInt(m.group(3)));
+            }
+            if (m.group(4) != null) {
+                int first = parseInt(m.group(4));
+                int second = parseInt(m.group(6));
+                int year = parseInt(m.group(7));
+                if (year < 100) {
+                    year += 2000;
+                }
+                // Settle the day/month order from the values when they make it unambiguous
+                boolean useDayFirst = first > 12 || (second <= 12 && dayFirst);
+                int day = useDayFirst ? first : second;
+                int month = useDayFirst ? second : first;
+                return LocalDate.of(year, month, day);
+            }
+            if (m.group(8) != null) {
+                return withYear(monthNumber(m.group(8)), parseInt(m.group(9)), m.group(10), today);
+            }
+            if (m.group(11) != null) {
+                return withYear(monthNumber(m.group(12)), parseInt(m.group(11)), m.group(13), today);
+            }
+            if (m.group(14) != null) {
+                return m.group(14).equalsIgnoreCase("today") ? today : today.plusDays(1);
+            }
+            if (m.group(15) != null) {
+                DayOfWeek day = weekday(m.group(16));
+                return m.group(15).equalsIgnoreCase("next")
+                    ? today.with(TemporalAdjusters.next(day))
+                    : today.with(TemporalAdjusters.nextOrSame(day));
+            }
+        } catch (DateTimeException | NumberFormatException e) {
+            // Not a real calendar date, e.g. 31/02
+        }
+        return null;
+    }
+
+    // A date written without a year is the next one on or after today
+    private static LocalDate withYear(int month, int day, String year, LocalDate today) {
+        if (year != null) {
+            return LocalDate.of(parseInt(year), month, day);
+        }
+        LocalDate date = LocalDate.of(today.getYear(), month, day);
+        return date.isBefore(today) ? date.plusYears(1) : date;
+    }
+
+    private static int monthNumber(String name) {
+        switch (name.substring(0, 3).toLowerCase(Locale.ROOT)) {
+            case "jan": return 1;
+            case "feb": return 2;
+            case "mar": return 3;
+            case "apr": return 4;
+            case "may": return 5;
+            case "jun": return 6;
+            case "jul": return 7;
+            case "aug": return 8;
+            case "sep": return 9;
+            case "oct": return 10;
+            case "nov": return 11;
+            default: return 12;
+        }
+    }
+
+    private static DayOfWeek weekday(String name) {
+        switch (name.substring(0, 2).toLowerCase(Locale.ROOT)) {
+            case "mo": return DayOfWeek.MONDAY;
+            case "tu": return DayOfWeek.TUESDAY;
+            case "we": return DayOfWeek.WEDNESDAY;
+            case "th": return DayOfWeek.THURSDAY;
+            case "fr": return DayOfWeek.FRIDAY;
+            case "sa": return DayOfWeek.SATURDAY;
+            default: return DayOfWeek.SUNDAY;
+        }
+    }
+
+    private static long toMillis(LocalDate date, int hour, int minute, ZoneId zone) {
+        return date.atTime(hour, minute).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static Match simpleMatch(String text, int start, int end) {
+        return new Match(start, end, text.substring(start, end), -1, -1, false);
+    }
+
+    private static int parseInt(String value) {
+        return Integer.parseInt(value);
+    }
+
+    private static int countDigits(String text, int start, int end) {
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            if (Character.isDigit(text.charAt(i))) {
+                digits++;
+            }
+        }
+        return digits;
+    }
+
+    private static boolean overlapsAny(int start, int end, int[][] spans) {
+        for (int[] span : spans) {
+            if (start < span[1] && span[0] < end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean overlapsAnyTime(int start, int end, List<TimeExtractor.TimeMention> times) {
+        for (TimeExtractor.TimeMention time : times) {
+            if (start < time.end && time.start < end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean overlapsAny(int start, int end, List<Match> matches) {
+        for (Match match : matches) {
+            if (start < match.end && match.start < end) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
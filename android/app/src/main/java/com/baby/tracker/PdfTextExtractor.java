@@ -0,0 +1,124 @@
+package com.baby.tracker;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.pdf.PdfRenderer;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognizer;
+
+import java.io.IOException;
+
+// OCR for shared PDFs, one page at a time: each page is rendered into the same
+// bitmap and recognized before the next is opened, so memory stays flat however
+// long the document is, and callers see each page's text as soon as it is ready.
+public class PdfTextExtractor {
+    private static final String TAG = "PdfTextExtractor";
+
+    // Pages are rendered at about 200 dpi (PDF units are 1/72 inch)...
+    private static final float RENDER_SCALE = 200f / 72f;
+    // ...but never larger than this on the long side; ML Kit gains nothing from more
+    static final int DEFAULT_MAX_DIMENSION = 2048;
+    static final int DEFAULT_MAX_PAGES = 50;
+
+    public interface PageListener {
+        // Return false to stop after this page
+        boolean onPage(int pageIndex, int pageCount, String text);
+    }
+
+    public static class Result {
+        public final String text;
+        public final int pageCount;
+        public final int pagesProcessed;
+        // Fewer pages processed than the document has, by the listener or maxPages
+        public final boolean stoppedEarly;
+
+        Result(String text, int pageCount, int pagesProcessed, boolean stoppedEarly) {
+            this.text = text;
+            this.pageCount = pageCount;
+            this.pagesProcessed = pagesProcessed;
+            this.stoppedEarly = stoppedEarly;
+        }
+    }
+
+    private final TextRecognizer recognizer;
+    private final ContentResolver contentResolver;
+
+    public PdfTextExtractor(TextRecognizer recognizer, ContentResolver contentResolver) {
+        this.recognizer = recognizer;
+        this.contentResolver = contentResolver;
+    }
+
+    public Result extract(Uri uri, int maxPages, int maxDimension, PageListener listener) throws Exception {
+        ParcelFileDescriptor fd = contentResolver.openFileDescriptor(uri, "r");
+        if (fd == null) {
+            throw new IOException("Unable to open " + uri);
+        }
+        // PdfRenderer takes ownership of the descriptor and closes it
+        try (PdfRenderer renderer = new PdfRenderer(fd)) {
+            int pageCount = renderer.getPageCount();
+            int limit = Math.min(pageCount, maxPages);
+            StringBuilder text = new StringBuilder();
+            Bitmap bitmap = null;
+            int processed = 0;
+            try {
+                while (processed < limit) {
+                    String pageText;
+                    try (PdfRenderer.Page page = renderer.openPage(processed)) {
+                        bitmap = render(page, bitmap, maxDimension);
+                        Text recognized = Tasks.await(recognizer.process(InputImage.fromBitmap(bitmap, 0)));
+                        pageText = recognized.getText();
+                    }
+                    if (pageText.length() > 0) {
+                        if (text.length() > 0) {
+                            text.append("\n\n");
+                        }
+                        text.append(pageText);
+                    }
+                    processed++;
+                    if (listener != null && !listener.onPage(processed - 1, pageCount, pageText)) {
+                        break;
+                    }
+                }
+            } finally {
+                if (bitmap != null) {
+                    bitmap.recycle();
+                }
+            }
+            Log.d(TAG, "Recognized " + processed + " of " + pageCount + " page(s)");
+            return new Result(text.toString(), pageCount, processed, processed < pageCount);
+        }
+    }
+
+    // Renders the page into reuse when its allocation is big enough, otherwise into a new bitmap.
+    // Every page is capped at maxDimension, so the allocation never exceeds maxDimension squared.
+    private static Bitmap render(PdfRenderer.Page page, Bitmap reuse, int maxDimension) {
+        float scale = Math.min(RENDER_SCALE, (float) maxDimension / Math.max(page.getWidth(), page.getHeight()));
+        int width = Math.max(1, Math.round(page.getWidth() * scale));
+        int height = Math.max(1, Math.round(page.getHeight() * scale));
+
+        Bitmap bitmap = reuse;
+        if (bitmap != null && (long) width * height * 4 <= bitmap.getAllocationByteCount()) {
+            bitmap.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+
+        // PDF pages are transparent where nothing is drawn; OCR wants dark text on white
+        bitmap.eraseColor(Color.WHITE);
+        Matrix matrix = new Matrix();
+        matrix.setScale(scale, scale);
+        page.render(bitmap, null, matrix, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
+        return bitmap;
+    }
+}
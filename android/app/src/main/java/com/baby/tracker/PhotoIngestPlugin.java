@@ -0,0 +1,171 @@
+package com.baby.tracker;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Copies shared photos straight from their content URI into app storage so the
+// bytes never cross the bridge; JS only gets back paths and metadata.
+@CapacitorPlugin(name = "PhotoIngestPlugin")
+public class PhotoIngestPlugin extends Plugin {
+    private static final String TAG = "PhotoIngestPlugin";
+    private static final String PREFS_NAME = "photo_ingest_hashes";
+    private static final String DEFAULT_DIRECTORY = "pregnancy-photos";
+    private static final int DEFAULT_THUMBNAIL_SIZE = 200;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @PluginMethod
+    public void ingestPhoto(PluginCall call) {
+        String uriString = call.getString("uri");
+        String photoId = call.getString("photoId");
+        if (uriString == null || photoId == null) {
+            call.reject("uri and photoId are required");
+            return;
+        }
+        String directory = call.getString("directory", DEFAULT_DIRECTORY);
+        int thumbnailSize = call.getInt("thumbnailSize", DEFAULT_THUMBNAIL_SIZE);
+
+        executor.execute(() -> {
+            try {
+                call.resolve(ingest(Uri.parse(uriString), photoId, directory, thumbnailSize));
+            } catch (IOException | RuntimeException e) {
+                // Runtime failures too, e.g. a malformed uri or a provider error; the call must not hang
+                Log.e(TAG, "Failed to ingest " + uriString, e);
+                call.reject("Failed to ingest photo: " + e.getMessage());
+            }
+        });
+    }
+
+    private JSObject ingest(Uri uri, String photoId, String directory, int thumbnailSize) throws IOException {
+        File dir = new File(getContext().getFilesDir(), directory);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+
+        String filepath = directory + "/" + photoId + ".jpg";
+        String thumbnailPath = directory + "/" + photoId + "_thumb.jpg";
+        File dest = new File(dir, photoId + ".jpg");
+        File thumbnail = new File(dir, photoId + "_thumb.jpg");
+
+        File temp = File.createTempFile("ingest-", ".tmp", dir);
+        MediaFiles.CopyResult copy;
+        try {
+            copy = MediaFiles.copyAndHash(getContext().getContentResolver(), uri, temp);
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        }
+
+        JSObject ret = new JSObject();
+        String existingPath = findByHash(copy.sha256);
+        File existing = existingPath != null ? new File(getContext().getFilesDir(), existingPath) : null;
+
+        if (existing != null && !existing.equals(dest)) {
+            // Same bytes are already stored; point the new name at them instead of keeping a second copy
+            temp.delete();
+            linkOrCopy(existing, dest);
+            File existingThumbnail = thumbnailFor(existing);
+            if (existingThumbnail.exists()) {
+                linkOrCopy(existingThumbnail, thumbnail);
+            } else {
+                MediaFiles.writeThumbnail(dest, thumbnail, thumbnailSize);
+            }
+            ret.put("duplicate", true);
+            ret.put("duplicateOf", existingPath);
+        } else {
+            if (!temp.renameTo(dest)) {
+                temp.delete();
+                throw new IOException("Unable to move photo into " + dest);
+            }
+            if (!MediaFiles.writeThumbnail(dest, thumbnail, thumbnailSize)) {
+                Log.w(TAG, "Could not decode " + filepath + " for a thumbnail");
+            }
+            rememberHash(copy.sha256, filepath);
+            ret.put("duplicate", false);
+        }
+
+        int[] size = MediaFiles.readImageSize(dest);
+        ret.put("filepath", filepath);
+        if (thumbnail.exists()) {
+            ret.put("thumbnail", thumbnailPath);
+        }
+        ret.put("hash", copy.sha256);
+        ret.put("size", copy.size);
+        ret.put("width", Math.max(size[0], 0));
+        ret.put("height", Math.max(size[1], 0));
+        ret.put("mimeType", getContext().getContentResolver().getType(uri));
+        Log.d(TAG, "Ingested " + filepath + " (" + copy.size + " bytes, duplicate=" + ret.getBool("duplicate") + ")");
+        return ret;
+    }
+
+    // Returns the stored path for a content hash, dropping entries whose file was deleted since
+    private String findByHash(String hash) {
+        SharedPreferences prefs = prefs();
+        String path = prefs.getString(hash, null);
+        if (path != null && !new File(getContext().getFilesDir(), path).exists()) {
+            prefs.edit().remove(hash).apply();
+            return null;
+        }
+        return path;
+    }
+
+    private void rememberHash(String hash, String path) {
+        prefs().edit().putString(hash, path).apply();
+    }
+
+    private SharedPreferences prefs() {
+        return getContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    private static File thumbnailFor(File photo) {
+        String name = photo.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return new File(photo.getParentFile(), base + "_thumb.jpg");
+    }
+
+    // A hard link shares the bytes and survives deletion of either name
+    private static void linkOrCopy(File source, File dest) throws IOException {
+        if (dest.exists() && !dest.delete()) {
+            throw new IOException("Unable to replace " + dest);
+        }
+        try {
+            Os.link(source.getAbsolutePath(), dest.getAbsolutePath());
+            return;
+        } catch (ErrnoException e) {
+            Log.w(TAG, "Hard link failed, copying " + source.getName() + ": " + e.getMessage());
+        }
+        try (FileChannel in = new FileInputStream(source).getChannel();
+             FileChannel out = new FileOutputStream(dest).getChannel()) {
+            long position = 0;
+            long size = in.size();
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        executor.shutdown();
+        super.handleOnDestroy();
+    }
+}
@@ -0,0 +1,422 @@
+package com.baby.tracker;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Native copy of the reminder-relevant data: medications and appointments mirrored
+// from the WebView's IndexedDB (same ids), plus the reminder history written by the
+// alarm receivers and the doses marked taken from a notification, which JS copies
+// into IndexedDB when it next opens. Receivers and plugins read it without going through JS:
+// medication notifications and the widget snapshot name today's medications and list the
+// coming appointments from it.
+public class ReminderDatabase extends SQLiteOpenHelper {
+    private static final String TAG = "ReminderDatabase";
+    private static final String DATABASE_NAME = "reminders.db";
+    private static final int DATABASE_VERSION = 2;
+
+    public static final String TABLE_MEDICATIONS = "medications";
+    public static final String TABLE_APPOINTMENTS = "appointments";
+    public static final String TABLE_HISTORY = "reminder_history";
+    public static final String TABLE_DOSES = "dose_log";
+
+    public static final String EVENT_SCHEDULED = ReminderEngine.EVENT_SCHEDULED;
+    public static final String EVENT_FIRED = ReminderEngine.EVENT_FIRED;
+    public static final String EVENT_SNOOZED = ReminderEngine.EVENT_SNOOZED;
+    public static final String EVENT_DISMISSED = ReminderEngine.EVENT_DISMISSED;
+    public static final String EVENT_CANCELLED = ReminderEngine.EVENT_CANCELLED;
+    public static final String EVENT_TAKEN = ReminderEngine.EVENT_TAKEN;
+
+    private static final int TEXT = 0;
+    private static final int INTEGER = 1;
+    private static final int BOOLEAN = 2;
+    // JSON array stored as text
+    private static final int ARRAY = 3;
+
+    // JS field name, column name, type
+    private static class Column {
+        final String field;
+        final String name;
+        final int type;
+
+        Column(String field, String name, int type) {
+            this.field = field;
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    private static final Column[] MEDICATION_COLUMNS = {
+        new Column("id", "id", INTEGER),
+        new Column("name", "name", TEXT),
+        new Column("dosage", "dosage", TEXT),
+        new Column("frequency", "frequency", TEXT),
+        new Column("customSchedule", "custom_schedule", ARRAY),
+        new Column("startDate", "start_date", TEXT),
+        new Column("endDate", "end_date", TEXT),
+        new Column("reminderEnabled", "reminder_enabled", BOOLEAN),
+        new Column("notificationIds", "notification_ids", ARRAY),
+        new Column("notes", "notes", TEXT),
+        new Column("createdAt", "created_at", TEXT),
+        new Column("updatedAt", "updated_at", TEXT)
+    };
+
+    private static final Column[] APPOINTMENT_COLUMNS = {
+        new Column("id", "id", INTEGER),
+        new Column("title", "title", TEXT),
+        new Column("date", "date", TEXT),
+        new Column("time", "time", TEXT),
+        new Column("location", "location", TEXT),
+        new Column("notes", "notes", TEXT),
+        new Column("reminderMinutes", "reminder_minutes", INTEGER),
+        new Column("reminderEnabled", "reminder_enabled", BOOLEAN),
+        new Column("notificationId", "notification_id", INTEGER),
+        new Column("createdAt", "created_at", TEXT),
+        new Column("updatedAt", "updated_at", TEXT)
+    };
+
+    private static final Column[] HISTORY_COLUMNS = {
+        new Column("id", "id", INTEGER),
+        new Column("reminderId", "reminder_id", INTEGER),
+        new Column("type", "type", TEXT),
+        new Column("title", "title", TEXT),
+        new Column("event", "event", TEXT),
+        new Column("eventTime", "event_time", INTEGER),
+        new Column("triggerTime", "trigger_time", INTEGER)
+    };
+
+    private static final Column[] DOSE_COLUMNS = {
+        new Column("id", "id", INTEGER),
+        new Column("reminderId", "reminder_id", INTEGER),
+        new Column("type", "type", TEXT),
+        new Column("title", "title", TEXT),
+        new Column("takenAt", "taken_at", INTEGER),
+        new Column("synced", "synced", BOOLEAN)
+    };
+
+    private static ReminderDatabase instance;
+
+    public static synchronized ReminderDatabase get(Context context) {
+        if (instance == null) {
+            instance = new ReminderDatabase(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ReminderDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // Receivers write history while the plugin reads; WAL keeps them from blocking each other
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_MEDICATIONS + " ("
+            + "id INTEGER PRIMARY KEY, name TEXT NOT NULL, dosage TEXT, frequency TEXT, custom_schedule TEXT, "
+            + "start_date TEXT NOT NULL, end_date TEXT, reminder_enabled INTEGER NOT NULL DEFAULT 0, "
+            + "notification_ids TEXT, notes TEXT, created_at TEXT, updated_at TEXT)");
+        db.execSQL("CREATE INDEX idx_medications_dates ON " + TABLE_MEDICATIONS + " (start_date, end_date)");
+
+        db.execSQL("CREATE TABLE " + TABLE_APPOINTMENTS + " ("
+            + "id INTEGER PRIMARY KEY, title TEXT NOT NULL, date TEXT NOT NULL, time TEXT, location TEXT, notes TEXT, "
+            + "reminder_minutes INTEGER, reminder_enabled INTEGER NOT NULL DEFAULT 0, notification_id INTEGER, "
+            + "created_at TEXT, updated_at TEXT)");
+        db.execSQL("CREATE INDEX idx_appointments_date ON " + TABLE_APPOINTMENTS + " (date, time)");
+
+        db.execSQL("CREATE TABLE " + TABLE_HISTORY + " ("
+            + "id INTEGER PRIMARY KEY AUTOINCREMENT, reminder_id INTEGER NOT NULL, type TEXT, title TEXT, "
+            + "event TEXT NOT NULL, event_time INTEGER NOT NULL, trigger_time INTEGER)");
+        db.execSQL("CREATE INDEX idx_history_time ON " + TABLE_HISTORY + " (event_time)");
+        db.execSQL("CREATE INDEX idx_history_reminder ON " + TABLE_HISTORY + " (reminder_id, event_time)");
+
+        createDoseLog(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createDoseLog(db);
+        }
+    }
+
+    // Version 2
+    private static void createDoseLog(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_DOSES + " ("
+            + "id INTEGER PRIMARY KEY AUTOINCREMENT, reminder_id INTEGER NOT NULL, type TEXT, title TEXT, "
+            + "taken_at INTEGER NOT NULL, synced INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX idx_doses_synced ON " + TABLE_DOSES + " (synced, taken_at)");
+    }
+
+    // Inserts or replaces a record by id. Batches run this inside the caller's transaction.
+    public void put(SQLiteDatabase db, String table, JSONObject record) throws JSONException {
+        Column[] columns = columnsFor(table);
+        if (!record.has("id")) {
+            throw new JSONException("Record for " + table + " has no id");
+        }
+        db.replaceOrThrow(table, null, toValues(columns, record));
+    }
+
+    public void delete(SQLiteDatabase db, String table, long id) {
+        columnsFor(table);
+        db.delete(table, "id = ?", new String[]{String.valueOf(id)});
+    }
+
+    public void clear(SQLiteDatabase db, String table) {
+        columnsFor(table);
+        db.delete(table, null, null);
+    }
+
+    // Appends to the reminder history; never throws, since receivers must not fail on logging
+    public void logEvent(int reminderId, String type, String title, String event, long triggerTime) {
+        try {
+            ContentValues values = new ContentValues();
+            values.put("reminder_id", reminderId);
+            values.put("type", type);
+            values.put("title", title);
+            values.put("event", event);
+            values.put("event_time", System.currentTimeMillis());
+            if (triggerTime > 0) {
+                values.put("trigger_time", triggerTime);
+            }
+            getWritableDatabase().insert(TABLE_HISTORY, null, values);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to log " + event + " for " + reminderId, e);
+        }
+    }
+
+    // A dose marked taken from the notification. Returns the row id, -1 on failure.
+    public long recordDose(int reminderId, String type, String title, long takenAt) {
+        try {
+            ContentValues values = new ContentValues();
+            values.put("reminder_id", reminderId);
+            values.put("type", type);
+            values.put("title", title);
+            values.put("taken_at", takenAt);
+            return getWritableDatabase().insert(TABLE_DOSES, null, values);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to record dose for " + reminderId, e);
+            return -1;
+        }
+    }
+
+    // Doses marked taken at or after the given time
+    public int countDoses(long from) {
+        return (int) DatabaseUtils.queryNumEntries(getReadableDatabase(), TABLE_DOSES,
+            "taken_at >= ?", new String[]{String.valueOf(from)});
+    }
+
+    // Doses JS has not copied yet, oldest first
+    public JSONArray unsyncedDoses(int limit) throws JSONException {
+        JSONArray rows = new JSONArray();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_DOSES, null, "synced = 0", null, null, null,
+                "taken_at", limit > 0 ? String.valueOf(limit) : null)) {
+            while (cursor.moveToNext()) {
+                rows.put(fromCursor(DOSE_COLUMNS, cursor));
+            }
+        }
+        return rows;
+    }
+
+    // Called once JS has stored the doses, so a sync interrupted before then is repeated
+    public int markDosesSynced(long[] ids) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        StringBuilder placeholders = new StringBuilder();
+        String[] args = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+            args[i] = String.valueOf(ids[i]);
+        }
+        ContentValues values = new ContentValues();
+        values.put("synced", 1);
+        return getWritableDatabase().update(TABLE_DOSES, values, "id IN (" + placeholders + ")", args);
+    }
+
+    public interface RowConsumer {
+        void accept(JSONObject row) throws IOException;
+    }
+
+    // Streams every row of the history or dose log, oldest first, for a backup
+    public void exportRows(String table, RowConsumer consumer) throws IOException, JSONException {
+        Column[] columns = logColumnsFor(table);
+        try (Cursor cursor = getReadableDatabase().query(table, null, null, null, null, null, "id")) {
+            while (cursor.moveToNext()) {
+                consumer.accept(fromCursor(columns, cursor));
+            }
+        }
+    }
+
+    // Backup restore of a history or dose row, skipped when the same event is already logged.
+    // Rows get new ids; restored doses count as unsynced so JS copies them again.
+    public boolean insertIfMissing(SQLiteDatabase db, String table, JSONObject row) throws JSONException {
+        Column[] columns = logColumnsFor(table);
+        String selection;
+        String[] args;
+        if (TABLE_HISTORY.equals(table)) {
+            selection = "reminder_id = ? AND event_time = ? AND event = ?";
+            args = new String[]{row.getString("reminderId"), row.getString("eventTime"), row.getString("event")};
+        } else {
+            selection = "reminder_id = ? AND taken_at = ?";
+            args = new String[]{row.getString("reminderId"), row.getString("takenAt")};
+        }
+        if (DatabaseUtils.queryNumEntries(db, table, selection, args) > 0) {
+            return false;
+        }
+        ContentValues values = toValues(columns, row);
+        values.remove("id");
+        if (TABLE_DOSES.equals(table)) {
+            values.put("synced", 0);
+        }
+        return db.insert(table, null, values) != -1;
+    }
+
+    private static Column[] logColumnsFor(String table) {
+        switch (table) {
+            case TABLE_HISTORY:
+                return HISTORY_COLUMNS;
+            case TABLE_DOSES:
+                return DOSE_COLUMNS;
+            default:
+                throw new IllegalArgumentException("Table " + table + " is not a log");
+        }
+    }
+
+    // Runs writes (typically a burst of logEvent calls) as one transaction
+    public void runInTransaction(Runnable writes) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            writes.run();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Range read over each table's indexed column. from/to are inclusive; either may be null.
+    //   appointments: date (yyyy-MM-dd)
+    //   medications: active between from and to (start_date <= to, end_date missing or >= from)
+    //   reminder_history: event_time (epoch millis), newest first
+    public JSONArray queryRange(String table, String from, String to, int limit) throws JSONException {
+        Column[] columns = columnsFor(table);
+        StringBuilder selection = new StringBuilder();
+        List<String> args = new ArrayList<>();
+        String orderBy;
+
+        switch (table) {
+            case TABLE_APPOINTMENTS:
+                appendBound(selection, args, "date >= ?", from);
+                appendBound(selection, args, "date <= ?", to);
+                orderBy = "date, time";
+                break;
+            case TABLE_MEDICATIONS:
+                appendBound(selection, args, "start_date <= ?", to);
+                appendBound(selection, args, "(end_date IS NULL OR end_date = '' OR end_date >= ?)", from);
+                orderBy = "start_date DESC";
+                break;
+            default:
+                appendBound(selection, args, "event_time >= ?", from);
+                appendBound(selection, args, "event_time <= ?", to);
+                orderBy = "event_time DESC";
+                break;
+        }
+
+        JSONArray rows = new JSONArray();
+        try (Cursor cursor = getReadableDatabase().query(table, null,
+                selection.length() > 0 ? selection.toString() : null,
+                args.toArray(new String[0]), null, null, orderBy,
+                limit > 0 ? String.valueOf(limit) : null)) {
+            while (cursor.moveToNext()) {
+                rows.put(fromCursor(columns, cursor));
+            }
+        }
+        return rows;
+    }
+
+    private static void appendBound(StringBuilder selection, List<String> args, String clause, String value) {
+        if (value == null) {
+            return;
+        }
+        if (selection.length() > 0) {
+            selection.append(" AND ");
+        }
+        selection.append(clause);
+        args.add(value);
+    }
+
+    private static Column[] columnsFor(String table) {
+        switch (table) {
+            case TABLE_MEDICATIONS:
+                return MEDICATION_COLUMNS;
+            case TABLE_APPOINTMENTS:
+                return APPOINTMENT_COLUMNS;
+            case TABLE_HISTORY:
+                return HISTORY_COLUMNS;
+            default:
+                throw new IllegalArgumentException("Unknown table " + table);
+        }
+    }
+
+    private static ContentValues toValues(Column[] columns, JSONObject record) throws JSONException {
+        ContentValues values = new ContentValues();
+        for (Column column : columns) {
+            if (!record.has(column.field) || record.isNull(column.field)) {
+                values.putNull(column.name);
+                continue;
+            }
+            switch (column.type) {
+                case INTEGER:
+                    values.put(column.name, record.getLong(column.field));
+                    break;
+                case BOOLEAN:
+                    values.put(column.name, record.getBoolean(column.field) ? 1 : 0);
+                    break;
+                case ARRAY:
+                    values.put(column.name, record.getJSONArray(column.field).toString());
+                    break;
+                default:
+                    values.put(column.name, record.getString(column.field));
+                    break;
+            }
+        }
+        return values;
+    }
+
+    private static JSONObject fromCursor(Column[] columns, Cursor cursor) throws JSONException {
+        JSONObject row = new JSONObject();
+        for (Column column : columns) {
+            int index = cursor.getColumnIndexOrThrow(column.name);
+            if (cursor.isNull(index)) {
+                continue;
+            }
+            switch (column.type) {
+                case INTEGER:
+                    row.put(column.field, cursor.getLong(index));
+                    break;
+                case BOOLEAN:
+                    row.put(column.field, cursor.getInt(index) != 0);
+                    break;
+                case ARRAY:
+                    row.put(column.field, new JSONArray(cursor.getString(index)));
+                    break;
+                default:
+                    row.put(column.field, cursor.getString(index));
+                    break;
+            }
+        }
+        return row;
+    }
+}
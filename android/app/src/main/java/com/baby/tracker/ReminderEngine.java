@@ -0,0 +1,351 @@
+package com.baby.tracker;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Objects;
+
+// Scheduling rules for reminders without any Android types: when alarms trigger,
+// what the registry holds, and what happens on fire, snooze, dismiss and boot.
+// AlarmScheduler and the receivers adapt it to AlarmManager, SharedPreferences
+// and ReminderDatabase; tests drive it with a simulated clock.
+public class ReminderEngine {
+    public static final String EVENT_SCHEDULED = "scheduled";
+    public static final String EVENT_FIRED = "fired";
+    public static final String EVENT_SNOOZED = "snoozed";
+    public static final String EVENT_DISMISSED = "dismissed";
+    public static final String EVENT_CANCELLED = "cancelled";
+    public static final String EVENT_TAKEN = "taken";
+
+    // What a schedule call did, reported back to JS
+    public static final String ACTION_CREATED = "created";
+    public static final String ACTION_UPDATED = "updated"; // same reminderId, re-armed
+    public static final String ACTION_MERGED = "merged"; // duplicate under another id, which took over its changes
+    public static final String ACTION_REJECTED = "rejected"; // duplicate adding nothing; nothing armed
+
+    public static final long SNOOZE_DURATION = 10 * 60 * 1000; // 10 minutes
+    // Snoozed copies use their own request code so the original daily alarm stays armed
+    public static final int SNOOZE_ID_OFFSET = 50000;
+
+    // Where the registry lives between process starts
+    public interface AlarmStore {
+        AlarmRegistry load();
+
+        void save(AlarmRegistry registry);
+    }
+
+    // What actually wakes the device
+    public interface AlarmSink {
+        // False when exact alarms are not permitted (Android 12+ without SCHEDULE_EXACT_ALARM)
+        boolean canScheduleExact();
+
+        // Arms the alarm under requestCode, replacing any pending one with that code
+        void set(int requestCode, AlarmRegistry.AlarmInfo alarm, long triggerTime, boolean exact);
+
+        void cancel(int requestCode);
+    }
+
+    // What the user sees when an alarm goes off
+    public interface NotificationSink {
+        void show(AlarmRegistry.AlarmInfo alarm);
+
+        // Replaces the reminder's notification with a quiet confirmation, without actions
+        void showTaken(int reminderId, String title, long takenAt);
+
+        void cancel(int reminderId);
+    }
+
+    // Same shape as ReminderDatabase.logEvent
+    public interface EventLog {
+        void log(int reminderId, String type, String title, String event, long triggerTime);
+
+        // Runs a burst of log calls as a single write where the log can
+        default void batch(Runnable writes) {
+            writes.run();
+        }
+    }
+
+    public static class Scheduled {
+        public final String action;
+        // The id the reminder is armed under; the existing one when merged or rejected
+        public final int reminderId;
+        public final long triggerTime;
+
+        Scheduled(String action, int reminderId, long triggerTime) {
+            this.action = action;
+            this.reminderId = reminderId;
+            this.triggerTime = triggerTime;
+        }
+    }
+
+    private final Clock clock;
+    private final AlarmStore store;
+    private final AlarmSink sink;
+    private final NotificationSink notifications;
+    private final EventLog log;
+    private AlarmRegistry registry;
+
+    public ReminderEngine(Clock clock, AlarmStore store, AlarmSink sink, NotificationSink notifications, EventLog log) {
+        this.clock = clock;
+        this.store = store;
+        this.sink = sink;
+        this.notifications = notifications;
+        this.log = log;
+    }
+
+    // Next hour:minute strictly after now in the zone: today if still ahead, otherwise tomorrow.
+    // A time inside a DST gap moves forward by the length of the gap.
+    public static long nextDailyTrigger(Instant now, ZoneId zone, int hour, int minute) {
+        ZonedDateTime trigger = now.atZone(zone).with(LocalTime.of(hour, minute));
+        if (!trigger.toInstant().isAfter(now)) {
+            trigger = trigger.plusDays(1).with(LocalTime.of(hour, minute));
+        }
+        return trigger.toInstant().toEpochMilli();
+    }
+
+    // Loaded once; stores may hand several engines the same registry, so it is also the lock
+    private AlarmRegistry registry() {
+        if (registry == null) {
+            registry = store.load();
+        }
+        return registry;
+    }
+
+    // Falls back to an inexact alarm when exact ones are not permitted
+    public Scheduled scheduleDaily(int reminderId, String title, String body, String type, int hour, int minute, boolean isAlarm) {
+        AlarmRegistry alarms = registry();
+        synchronized (alarms) {
+            // Alarms always wake the screen
+            return schedule(new AlarmRegistry.AlarmInfo(
+                reminderId, title, body, type, hour, minute, true, isAlarm, isAlarm, 0));
+        }
+    }
+
+    // Null when exact alarms are not permitted; a one-time reminder is not worth arming late
+    public Scheduled scheduleOneTime(int reminderId, String title, String body, String type, long triggerTime,
+                                     boolean wakeScreen, boolean isAlarm) {
+        if (!sink.canScheduleExact()) {
+            return null;
+        }
+        AlarmRegistry alarms = registry();
+        synchronized (alarms) {
+            return schedule(new AlarmRegistry.AlarmInfo(
+                reminderId, title, body, type, 0, 0, false, wakeScreen || isAlarm, isAlarm, triggerTime));
+        }
+    }
+
+    // Checks the registry's dedup index before arming, so re-importing the same appointment
+    // or re-running a medication sync under new ids does not stack up alarms. A registered
+    // reminder rescheduled onto another one's slot gives up its own alarm to it.
+    private Scheduled schedule(AlarmRegistry.AlarmInfo alarm) {
+        String action = registry.get(alarm.reminderId) != null ? ACTION_UPDATED : ACTION_CREATED;
+        AlarmRegistry.AlarmInfo existing = registry.findDuplicate(alarm);
+        if (existing != null) {
+            if (ACTION_UPDATED.equals(action)) {
+                sink.cancel(alarm.reminderId);
+                registry.remove(alarm.reminderId);
+                log.log(alarm.reminderId, alarm.type, alarm.title, EVENT_CANCELLED, 0);
+            }
+            AlarmRegistry.AlarmInfo merged = merge(existing, alarm);
+            if (sameAlarm(merged, existing)) {
+                if (ACTION_UPDATED.equals(action)) {
+                    store.save(registry);
+                }
+                return new Scheduled(ACTION_REJECTED, existing.reminderId, triggerTimeOf(existing));
+            }
+            alarm = merged;
+            action = ACTION_MERGED;
+        }
+        long triggerTime = alarm.isDaily ? armDaily(alarm) : armOneTime(alarm);
+        store.save(registry);
+        return new Scheduled(action, alarm.reminderId, triggerTime);
+    }
+
+    // The existing alarm's id and schedule, taking what the duplicate adds: a body where there
+    // was none, and alarm or wake-screen behaviour when either asked for it
+    private static AlarmRegistry.AlarmInfo merge(AlarmRegistry.AlarmInfo existing, AlarmRegistry.AlarmInfo duplicate) {
+        String body = existing.body == null || existing.body.isEmpty() ? duplicate.body : existing.body;
+        return new AlarmRegistry.AlarmInfo(existing.reminderId, existing.title, body, existing.type,
+            existing.hour, existing.minute, existing.isDaily,
+            existing.wakeScreen || duplicate.wakeScreen, existing.isAlarm || duplicate.isAlarm, existing.triggerTime);
+    }
+
+    private static boolean sameAlarm(AlarmRegistry.AlarmInfo a, AlarmRegistry.AlarmInfo b) {
+        return Objects.equals(a.body, b.body) && a.wakeScreen == b.wakeScreen && a.isAlarm == b.isAlarm;
+    }
+
+    private long triggerTimeOf(AlarmRegistry.AlarmInfo alarm) {
+        return alarm.isDaily
+            ? nextDailyTrigger(clock.instant(), clock.getZone(), alarm.hour, alarm.minute)
+            : alarm.triggerTime;
+    }
+
+    // Arm and register without saving; callers save once per operation
+    private long armDaily(AlarmRegistry.AlarmInfo alarm) {
+        long triggerTime = nextDailyTrigger(clock.instant(), clock.getZone(), alarm.hour, alarm.minute);
+        sink.set(alarm.reminderId, alarm, triggerTime, sink.canScheduleExact());
+        registry.put(alarm);
+        log.log(alarm.reminderId, alarm.type, alarm.title, EVENT_SCHEDULED, triggerTime);
+        return triggerTime;
+    }
+
+    // Callers check canScheduleExact first
+    private long armOneTime(AlarmRegistry.AlarmInfo alarm) {
+        sink.set(alarm.reminderId, alarm, alarm.triggerTime, true);
+        registry.put(alarm);
+        log.log(alarm.reminderId, alarm.type, alarm.title, EVENT_SCHEDULED, alarm.triggerTime);
+        return alarm.triggerTime;
+    }
+
+    public void cancel(int reminderId) {
+        AlarmRegistry alarms = registry();
+        synchronized (alarms) {
+            sink.cancel(reminderId);
+            if (alarms.remove(reminderId) != null) {
+                store.save(alarms);
+            }
+            log.log(reminderId, null, null, EVENT_CANCELLED, 0);
+        }
+    }
+
+    public void cancelAll() {
+        AlarmRegistry alarms = registry();
+        synchronized (alarms) {
+            List<AlarmRegistry.AlarmInfo> saved = alarms.list();
+            log.batch(() -> {
+                for (AlarmRegistry.AlarmInfo alarm : saved) {
+                    sink.cancel(alarm.reminderId);
+                    log.log(alarm.reminderId, null, null, EVENT_CANCELLED, 0);
+                }
+            });
+            alarms.clear();
+            store.save(alarms);
+        }
+    }
+
+    // NotificationReceiver: shows the notification, then daily alarms re-arm for the
+    // next day and one-time ones leave the registry
+    public void onFired(AlarmRegistry.AlarmInfo alarm) {
+        notifications.show(alarm);
+        log.log(alarm.reminderId, alarm.type, alarm.title, EVENT_FIRED, 0);
+        if (alarm.isDaily) {
+            scheduleDaily(alarm.reminderId, alarm.title, alarm.body, alarm.type, alarm.hour, alarm.minute, alarm.isAlarm);
+            return;
+        }
+        AlarmRegistry alarms = registry();
+        synchronized (alarms) {
+            if (alarms.remove(alarm.reminderId) != null) {
+                store.save(alarms);
+            }
+        }
+    }
+
+    // SnoozeReceiver: clears the notification and arms a copy. Returns the snoozed trigger time.
+    public long snooze(int reminderId, String title, String body, String type) {
+        return snooze(reminderId, reminderId, title, body, type);
+    }
+
+    // Snoozing a snoozed notification re-arms the same copy of originalId rather than a copy of the copy
+    public long snooze(int reminderId, int originalId, String title, String body, String type) {
+        notifications.cancel(reminderId);
+        long triggerTime = clock.millis() + SNOOZE_DURATION;
+        AlarmRegistry.AlarmInfo snoozed = new AlarmRegistry.AlarmInfo(
+            originalId + SNOOZE_ID_OFFSET, title, body, type, 0, 0, false, false, false, triggerTime, originalId);
+        sink.set(snoozed.reminderId, snoozed, triggerTime, true);
+        log.log(originalId, type, title, EVENT_SNOOZED, triggerTime);
+        return triggerTime;
+    }
+
+    public long onTaken(int reminderId, String type, String title) {
+        return onTaken(reminderId, reminderId, type, title);
+    }
+
+    // TakenReceiver: the dose is recorded by the caller under originalId, which the snoozed
+    // copy's intents carry; ids themselves say nothing, as JS may hand out any int. This
+    // confirms it in the notification tapped and drops a pending snoozed copy, which would
+    // only ask again. Returns the time taken.
+    public long onTaken(int reminderId, int originalId, String type, String title) {
+        long takenAt = clock.millis();
+        sink.cancel(originalId + SNOOZE_ID_OFFSET);
+        notifications.showTaken(reminderId, title, takenAt);
+        log.log(originalId, type, title, EVENT_TAKEN, 0);
+        return takenAt;
+    }
+
+    public void onDismissed(int reminderId) {
+        notifications.cancel(reminderId);
+        log.log(reminderId, null, null, EVENT_DISMISSED, 0);
+    }
+
+    // After a reboot AlarmManager has forgotten everything: re-arm daily alarms and
+    // one-time alarms still ahead, and drop one-time alarms whose time passed while off.
+    // The registry is saved and the history written once for the whole pass, not per alarm.
+    // Returns the number of alarms armed.
+    public int rescheduleAll() {
+        AlarmRegistry alarms = registry();
+        synchronized (alarms) {
+            List<AlarmRegistry.AlarmInfo> saved = alarms.list();
+            long now = clock.millis();
+            boolean exact = sink.canScheduleExact();
+            int[] armed = {0};
+            log.batch(() -> {
+                for (AlarmRegistry.AlarmInfo alarm : saved) {
+                    if (alarm.isDaily) {
+                        armDaily(alarm);
+                        armed[0]++;
+                    } else if (alarm.triggerTime > now) {
+                        if (exact) {
+                            armOneTime(alarm);
+                            armed[0]++;
+                        }
+                    } else {
+                        alarms.remove(alarm.reminderId);
+                    }
+                }
+            });
+            store.save(alarms);
+            return armed[0];
+        }
+    }
+
+    // Backup restore: adds alarms the registry does not already have, by id or as a duplicate,
+    // and arms them. Like rescheduleAll, one registry save and one history write for the lot.
+    // One-time alarms already past, or needing exact alarms without permission, are skipped.
+    // Returns the number armed.
+    public int restore(List<AlarmRegistry.AlarmInfo> restored) {
+        AlarmRegistry alarms = registry();
+        synchronized (alarms) {
+            long now = clock.millis();
+            boolean exact = sink.canScheduleExact();
+            int[] armed = {0};
+            log.batch(() -> {
+                for (AlarmRegistry.AlarmInfo alarm : restored) {
+                    if (alarms.get(alarm.reminderId) != null || alarms.findDuplicate(alarm) != null) {
+                        continue;
+                    }
+                    if (alarm.isDaily) {
+                        armDaily(alarm);
+                        armed[0]++;
+                    } else if (alarm.triggerTime > now && exact) {
+                        armOneTime(alarm);
+                        armed[0]++;
+                    }
+                }
+            });
+            if (armed[0] > 0) {
+                store.save(alarms);
+            }
+            return armed[0];
+        }
+    }
+
+    public List<AlarmRegistry.AlarmInfo> activeAlarms() {
+        AlarmRegistry alarms = registry();
+        synchronized (alarms) {
+            return alarms.list();
+        }
+    }
+}
@@ -23,10 +23,17 @@ public class ReminderPlugin extends Plugin {
     @Override
     public void load() {
         super.load();
-        alarmScheduler = new AlarmScheduler(getContext());
+        // The scheduler is created on the first reminder call, not during startup
         Log.d(TAG, "ReminderPlugin loaded");
     }
 
+    private synchronized AlarmScheduler scheduler() {
+        if (alarmScheduler == null) {
+            alarmScheduler = new AlarmScheduler(getContext());
+        }
+        return alarmScheduler;
+    }
+
     @PluginMethod
     public void scheduleDailyReminder(PluginCall call) {
         String title = call.getString("title");
@@ -48,7 +55,7 @@ public class ReminderPlugin extends Plugin {
             int minute = Integer.parseInt(timeParts[1]);
 
             // Schedule the alarm
-            boolean success = alarmScheduler.scheduleDailyAlarm(
+            ReminderEngine.Scheduled scheduled = scheduler().scheduleDailyAlarm(
                 reminderId,
                 title,
                 body != null ? body : "",
@@ -58,11 +65,8 @@ public class ReminderPlugin extends Plugin {
                 isAlarm
             );
 
-            if (success) {
-                JSObject ret = new JSObject();
-                ret.put("success", true);
-                ret.put("reminderId", reminderId);
-                call.resolve(ret);
+            if (scheduled != null) {
+                call.resolve(scheduledToJson(scheduled));
             } else {
                 call.reject("Failed to schedule alarm");
             }
@@ -90,7 +94,7 @@ public class ReminderPlugin extends Plugin {
         try {
             long triggerTime = Long.parseLong(dateTime);
             
-            boolean success = alarmScheduler.scheduleOneTimeAlarm(
+            ReminderEngine.Scheduled scheduled = scheduler().scheduleOneTimeAlarm(
                 reminderId,
                 title,
                 body != null ? body : "",
@@ -100,11 +104,8 @@ public class ReminderPlugin extends Plugin {
                 isAlarm
             );
 
-            if (success) {
-                JSObject ret = new JSObject();
-                ret.put("success", true);
-                ret.put("reminderId", reminderId);
-                call.resolve(ret);
+            if (scheduled != null) {
+                call.resolve(scheduledToJson(scheduled));
             } else {
                 call.reject("Failed to schedule alarm");
             }
@@ -114,6 +115,16 @@ public class ReminderPlugin extends Plugin {
         }
     }
 
+    // reminderId is the id the reminder is armed under: the existing one when it was merged or rejected
+    private static JSObject scheduledToJson(ReminderEngine.Scheduled scheduled) {
+        JSObject ret = new JSObject();
+        ret.put("success", true);
+        ret.put("reminderId", scheduled.reminderId);
+        ret.put("action", scheduled.action);
+        ret.put("triggerTime", scheduled.triggerTime);
+        return ret;
+    }
+
     @PluginMethod
     public void cancelReminder(PluginCall call) {
         int reminderId = call.getInt("reminderId", 0);
@@ -124,7 +135,7 @@ public class ReminderPlugin extends Plugin {
         }
 
         try {
-            alarmScheduler.cancelAlarm(reminderId);
+            scheduler().cancelAlarm(reminderId);
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
@@ -137,7 +148,7 @@ public class ReminderPlugin extends Plugin {
     @PluginMethod
     public void cancelAllReminders(PluginCall call) {
         try {
-            alarmScheduler.cancelAllAlarms();
+            scheduler().cancelAllAlarms();
             JSObject ret = new JSObject();
             ret.put("success", true);
             call.resolve(ret);
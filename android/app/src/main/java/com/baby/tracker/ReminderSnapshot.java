@@ -0,0 +1,175 @@
+package com.baby.tracker;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// What the home-screen widget and quick-settings tile show: the next few reminders
+// and appointments and today's medication doses, computed from the alarm registry and
+// ReminderDatabase ahead of time so rendering is a preference read. No Android types.
+public class ReminderSnapshot {
+    public static final String TYPE_MEDICATION = "medication";
+    public static final String TYPE_APPOINTMENT = "appointment";
+
+    public static class Item {
+        public final int reminderId;
+        public final String title;
+        public final String type;
+        public final long triggerTime;
+
+        Item(int reminderId, String title, String type, long triggerTime) {
+            this.reminderId = reminderId;
+            this.title = title;
+            this.type = type;
+            this.triggerTime = triggerTime;
+        }
+    }
+
+    // A row of the mirrored appointments table. reminderId is its notificationId, the alarm
+    // that announces it, or 0 when it has none.
+    public static class Appointment {
+        public final int id;
+        public final int reminderId;
+        public final String title;
+        public final long time;
+
+        public Appointment(int id, int reminderId, String title, long time) {
+            this.id = id;
+            this.reminderId = reminderId;
+            this.title = title;
+            this.time = time;
+        }
+    }
+
+    public final long computedAt;
+    // yyyy-MM-dd the dose counts belong to
+    public final String day;
+    // Soonest first. Daily reminders appear once, at their next trigger.
+    public final List<Item> upcoming;
+    // Daily medication reminders whose time has come today, and doses marked taken today
+    public final int dosesDue;
+    public final int dosesTaken;
+
+    ReminderSnapshot(long computedAt, String day, List<Item> upcoming, int dosesDue, int dosesTaken) {
+        this.computedAt = computedAt;
+        this.day = day;
+        this.upcoming = upcoming;
+        this.dosesDue = dosesDue;
+        this.dosesTaken = dosesTaken;
+    }
+
+    public static ReminderSnapshot empty() {
+        return new ReminderSnapshot(0, "", Collections.emptyList(), 0, 0);
+    }
+
+    public static ReminderSnapshot build(List<AlarmRegistry.AlarmInfo> alarms, Clock clock, int limit, int dosesTaken) {
+        return build(alarms, Collections.emptyList(), clock, limit, dosesTaken);
+    }
+
+    // appointments: from the mirrored appointments table. Past ones are dropped, and so are ones
+    // whose own alarm is in the registry, since that alarm already lists them.
+    public static ReminderSnapshot build(List<AlarmRegistry.AlarmInfo> alarms, List<Appointment> appointments,
+                                         Clock clock, int limit, int dosesTaken) {
+        ZonedDateTime now = clock.instant().atZone(clock.getZone());
+        long nowMillis = now.toInstant().toEpochMilli();
+        Set<Integer> alarmIds = new HashSet<>();
+        for (AlarmRegistry.AlarmInfo alarm : alarms) {
+            alarmIds.add(alarm.reminderId);
+        }
+        List<Item> upcoming = new ArrayList<>();
+        for (Appointment appointment : appointments) {
+            if (appointment.time > nowMillis && !alarmIds.contains(appointment.reminderId)) {
+                upcoming.add(new Item(appointment.id, appointment.title, TYPE_APPOINTMENT, appointment.time));
+            }
+        }
+        int dosesDue = 0;
+        for (AlarmRegistry.AlarmInfo alarm : alarms) {
+            long triggerTime;
+            if (alarm.isDaily) {
+                triggerTime = ReminderEngine.nextDailyTrigger(now.toInstant(), clock.getZone(), alarm.hour, alarm.minute);
+                if (TYPE_MEDICATION.equals(alarm.type)
+                        && !now.toLocalTime().isBefore(LocalTime.of(alarm.hour, alarm.minute))) {
+                    dosesDue++;
+                }
+            } else if (alarm.triggerTime > nowMillis) {
+                triggerTime = alarm.triggerTime;
+            } else {
+                continue;
+            }
+            upcoming.add(new Item(alarm.reminderId, alarm.title, alarm.type, triggerTime));
+        }
+        upcoming.sort(Comparator.comparingLong(item -> item.triggerTime));
+        if (upcoming.size() > limit) {
+            upcoming = new ArrayList<>(upcoming.subList(0, limit));
+        }
+        return new ReminderSnapshot(nowMillis, now.toLocalDate().toString(), upcoming, dosesDue, dosesTaken);
+    }
+
+    // Items still ahead at the given time; the snapshot may be read a while after it was built
+    public List<Item> upcomingAfter(long now) {
+        List<Item> ahead = new ArrayList<>();
+        for (Item item : upcoming) {
+            if (item.triggerTime > now) {
+                ahead.add(item);
+            }
+        }
+        return ahead;
+    }
+
+    // Dose counts only describe the day they were computed on
+    public boolean isFor(LocalDate date) {
+        return day.equals(date.toString());
+    }
+
+    public String toJson() throws JSONException {
+        JSONArray items = new JSONArray();
+        for (Item item : upcoming) {
+            JSONObject json = new JSONObject();
+            json.put("reminderId", item.reminderId);
+            json.put("title", item.title);
+            json.put("type", item.type);
+            json.put("triggerTime", item.triggerTime);
+            items.put(json);
+        }
+        JSONObject snapshot = new JSONObject();
+        snapshot.put("computedAt", computedAt);
+        snapshot.put("day", day);
+        snapshot.put("upcoming", items);
+        snapshot.put("dosesDue", dosesDue);
+        snapshot.put("dosesTaken", dosesTaken);
+        return snapshot.toString();
+    }
+
+    public static ReminderSnapshot fromJson(String json) throws JSONException {
+        JSONObject snapshot = new JSONObject(json);
+        JSONArray items = snapshot.optJSONArray("upcoming");
+        List<Item> upcoming = new ArrayList<>();
+        for (int i = 0; items != null && i < items.length(); i++) {
+            JSONObject item = items.getJSONObject(i);
+            upcoming.add(new Item(
+                item.getInt("reminderId"),
+                item.optString("title", ""),
+                item.optString("type", "custom"),
+                item.getLong("triggerTime")
+            ));
+        }
+        return new ReminderSnapshot(
+            snapshot.optLong("computedAt", 0),
+            snapshot.optString("day", ""),
+            upcoming,
+            snapshot.optInt("dosesDue", 0),
+            snapshot.optInt("dosesTaken", 0)
+        );
+    }
+}
@@ -0,0 +1,157 @@
+package com.baby.tracker;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@CapacitorPlugin(name = "ReminderStorePlugin")
+public class ReminderStorePlugin extends Plugin {
+    private static final String TAG = "ReminderStorePlugin";
+
+    // One writer thread keeps batches in the order JS sent them
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private ReminderDatabase database;
+
+    @Override
+    public void load() {
+        super.load();
+        database = ReminderDatabase.get(getContext());
+    }
+
+    // ops: [{ op: 'put', table, record } | { op: 'delete', table, id }]
+    // clear: tables to empty first, for a full resync
+    @PluginMethod
+    public void writeBatch(PluginCall call) {
+        JSArray ops = call.getArray("ops", new JSArray());
+        JSArray clear = call.getArray("clear", new JSArray());
+
+        executor.execute(() -> {
+            SQLiteDatabase db = database.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < clear.length(); i++) {
+                    database.clear(db, writableTable(clear.getString(i)));
+                }
+                for (int i = 0; i < ops.length(); i++) {
+                    JSONObject op = ops.getJSONObject(i);
+                    String table = writableTable(op.getString("table"));
+                    if ("delete".equals(op.getString("op"))) {
+                        database.delete(db, table, op.getLong("id"));
+                    } else {
+                        database.put(db, table, op.getJSONObject("record"));
+                    }
+                }
+                db.setTransactionSuccessful();
+
+                JSObject ret = new JSObject();
+                ret.put("written", ops.length());
+                call.resolve(ret);
+            } catch (JSONException | RuntimeException e) {
+                Log.e(TAG, "Batch write failed", e);
+                call.reject("Batch write failed: " + e.getMessage());
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    @PluginMethod
+    public void queryRange(PluginCall call) {
+        String table = call.getString("table");
+        if (table == null) {
+            call.reject("table is required");
+            return;
+        }
+        // Dates for appointments and medications, epoch millis for history
+        String from = rangeBound(call, "from");
+        String to = rangeBound(call, "to");
+        int limit = call.getInt("limit", 0);
+
+        executor.execute(() -> {
+            try {
+                JSONArray rows = database.queryRange(table, from, to, limit);
+                JSObject ret = new JSObject();
+                ret.put("rows", rows);
+                call.resolve(ret);
+            } catch (JSONException | RuntimeException e) {
+                Log.e(TAG, "Range query on " + table + " failed", e);
+                call.reject("Query failed: " + e.getMessage());
+            }
+        });
+    }
+
+    // Doses marked taken from a notification since JS last synced, oldest first
+    @PluginMethod
+    public void getUnsyncedDoses(PluginCall call) {
+        int limit = call.getInt("limit", 0);
+
+        executor.execute(() -> {
+            try {
+                JSObject ret = new JSObject();
+                ret.put("doses", database.unsyncedDoses(limit));
+                call.resolve(ret);
+            } catch (JSONException | RuntimeException e) {
+                Log.e(TAG, "Reading unsynced doses failed", e);
+                call.reject("Query failed: " + e.getMessage());
+            }
+        });
+    }
+
+    @PluginMethod
+    public void markDosesSynced(PluginCall call) {
+        JSArray ids = call.getArray("ids", new JSArray());
+
+        executor.execute(() -> {
+            try {
+                long[] doseIds = new long[ids.length()];
+                for (int i = 0; i < doseIds.length; i++) {
+                    doseIds[i] = ids.getLong(i);
+                }
+                JSObject ret = new JSObject();
+                ret.put("updated", database.markDosesSynced(doseIds));
+                call.resolve(ret);
+            } catch (JSONException | RuntimeException e) {
+                Log.e(TAG, "Marking doses synced failed", e);
+                call.reject("Update failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private static String rangeBound(PluginCall call, String key) {
+        Object value = call.getData().opt(key);
+        if (value == null || value == JSONObject.NULL) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return String.valueOf(((Number) value).longValue());
+        }
+        return value.toString();
+    }
+
+    // History is only ever written natively
+    private static String writableTable(String table) {
+        if (ReminderDatabase.TABLE_MEDICATIONS.equals(table) || ReminderDatabase.TABLE_APPOINTMENTS.equals(table)) {
+            return table;
+        }
+        throw new IllegalArgumentException("Table " + table + " is not writable");
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        executor.shutdown();
+        super.handleOnDestroy();
+    }
+}
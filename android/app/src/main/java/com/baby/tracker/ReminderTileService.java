@@ -0,0 +1,64 @@
+package com.baby.tracker;
+
+import android.annotation.SuppressLint;
+import android.app.PendingIntent;
+import android.content.Intent;
+import android.os.Build;
+import android.service.quicksettings.Tile;
+import android.service.quicksettings.TileService;
+
+import java.util.List;
+
+// Quick-settings tile showing the next reminder from the ReminderSnapshot preference.
+// It is refreshed only while the shade is open; tapping it opens the app.
+public class ReminderTileService extends TileService {
+
+    @Override
+    public void onTileAdded() {
+        // The tile may be added before anything has built a snapshot
+        SnapshotWorker.requestUpdate(this);
+    }
+
+    @Override
+    public void onStartListening() {
+        Tile tile = getQsTile();
+        if (tile == null) {
+            return;
+        }
+        List<ReminderSnapshot.Item> upcoming = SnapshotWorker.read(this).upcomingAfter(System.currentTimeMillis());
+        if (upcoming.isEmpty()) {
+            tile.setLabel(getString(R.string.tile_label));
+            tile.setState(Tile.STATE_INACTIVE);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                tile.setSubtitle(getString(R.string.widget_empty));
+            }
+        } else {
+            ReminderSnapshot.Item next = upcoming.get(0);
+            tile.setState(Tile.STATE_ACTIVE);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                tile.setLabel(next.title);
+                tile.setSubtitle(ReminderWidgetProvider.formatTime(this, next.triggerTime));
+            } else {
+                tile.setLabel(ReminderWidgetProvider.formatItem(this, next));
+            }
+        }
+        tile.updateTile();
+    }
+
+    @SuppressLint("StartActivityAndCollapseDeprecated")
+    @Override
+    public void onClick() {
+        Intent openAppIntent = new Intent(this, MainActivity.class);
+        openAppIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) {
+            startActivityAndCollapse(PendingIntent.getActivity(
+                this,
+                0,
+                openAppIntent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+            ));
+        } else {
+            startActivityAndCollapse(openAppIntent);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.baby.tracker;
+
+import android.app.PendingIntent;
+import android.appwidget.AppWidgetManager;
+import android.appwidget.AppWidgetProvider;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.text.format.DateUtils;
+import android.view.View;
+import android.widget.RemoteViews;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Home-screen widget: the next reminders and today's doses, rendered from the
+// ReminderSnapshot preference. Nothing here touches the registry, the database or
+// the WebView; SnapshotWorker pushes updates, and there is no periodic refresh.
+public class ReminderWidgetProvider extends AppWidgetProvider {
+    private static final int[] ITEM_VIEWS = {R.id.widget_item_1, R.id.widget_item_2, R.id.widget_item_3};
+
+    @Override
+    public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
+        RemoteViews views = render(context);
+        for (int appWidgetId : appWidgetIds) {
+            appWidgetManager.updateAppWidget(appWidgetId, views);
+        }
+    }
+
+    @Override
+    public void onEnabled(Context context) {
+        // The first widget may be placed before anything has built a snapshot
+        SnapshotWorker.requestUpdate(context);
+    }
+
+    static void updateAll(Context context) {
+        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
+        int[] appWidgetIds = appWidgetManager.getAppWidgetIds(new ComponentName(context, ReminderWidgetProvider.class));
+        if (appWidgetIds.length > 0) {
+            appWidgetManager.updateAppWidget(appWidgetIds, render(context));
+        }
+    }
+
+    private static RemoteViews render(Context context) {
+        ReminderSnapshot snapshot = SnapshotWorker.read(context);
+        RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_reminders);
+
+        List<ReminderSnapshot.Item> upcoming = snapshot.upcomingAfter(System.currentTimeMillis());
+        for (int i = 0; i < ITEM_VIEWS.length; i++) {
+            if (i < upcoming.size()) {
+                views.setTextViewText(ITEM_VIEWS[i], formatItem(context, upcoming.get(i)));
+                views.setViewVisibility(ITEM_VIEWS[i], View.VISIBLE);
+            } else {
+                views.setViewVisibility(ITEM_VIEWS[i], View.GONE);
+            }
+        }
+        views.setViewVisibility(R.id.widget_empty, upcoming.isEmpty() ? View.VISIBLE : View.GONE);
+
+        if (snapshot.isFor(LocalDate.now()) && snapshot.dosesDue > 0) {
+            views.setTextViewText(R.id.widget_doses,
+                context.getString(R.string.widget_doses, snapshot.dosesTaken, snapshot.dosesDue));
+            views.setViewVisibility(R.id.widget_doses, View.VISIBLE);
+        } else {
+            views.setViewVisibility(R.id.widget_doses, View.GONE);
+        }
+
+        Intent openAppIntent = new Intent(context, MainActivity.class);
+        openAppIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        views.setOnClickPendingIntent(R.id.widget_root, PendingIntent.getActivity(
+            context,
+            0,
+            openAppIntent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        ));
+        return views;
+    }
+
+    static String formatItem(Context context, ReminderSnapshot.Item item) {
+        return formatTime(context, item.triggerTime) + "  " + item.title;
+    }
+
+    // Time alone for today, with the weekday otherwise
+    static String formatTime(Context context, long time) {
+        int flags = DateUtils.FORMAT_SHOW_TIME;
+        if (!DateUtils.isToday(time)) {
+            flags |= DateUtils.FORMAT_SHOW_WEEKDAY | DateUtils.FORMAT_ABBREV_WEEKDAY;
+        }
+        return DateUtils.formatDateTime(context, time, flags);
+    }
+}
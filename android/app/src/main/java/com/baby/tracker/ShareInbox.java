@@ -0,0 +1,348 @@
+package com.baby.tracker;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Durable, ordered queue of incoming shares. Every change is appended as one JSON
+// line to share_inbox/queue.jsonl, so a share survives process death between the
+// intent arriving and the WebView picking it up. Records:
+//   {"op":"add","id":..,"uri":..,"mimeType":..,"name":..,"timestamp":..,"receivedAt":..}
+//   {"op":"update","id":..,"localUri"|"ocrText"|"mimeType"/"name"/"timestamp":..}
+//   {"op":"ack","id":..} / {"op":"seq","id":..}
+// The file is rewritten with only the pending entries after every few acknowledgements.
+public class ShareInbox {
+    private static final String TAG = "ShareInbox";
+    private static final String DIRECTORY = "share_inbox";
+    private static final String QUEUE_FILE = "queue.jsonl";
+    private static final String FILES_DIRECTORY = "files";
+    private static final int COMPACT_AFTER_ACKS = 32;
+
+    private static ShareInbox instance;
+
+    public static class Entry {
+        public final long id;
+        public final JSONObject data;
+        public boolean acked;
+
+        Entry(long id, JSONObject data) {
+            this.id = id;
+            this.data = data;
+        }
+
+        public String getMimeType() {
+            return data.optString("mimeType", "application/octet-stream");
+        }
+
+        // The app's own copy when there is one, otherwise the shared URI
+        public Uri getReadableUri() {
+            String local = data.optString("localUri", null);
+            return Uri.parse(local != null ? local : data.optString("uri"));
+        }
+
+        public boolean hasOcr() {
+            return data.has("ocrText");
+        }
+    }
+
+    private final Context context;
+    private final File directory;
+    private final File queueFile;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>();
+    private long nextId = 1;
+    private int ackedLines;
+
+    public static synchronized ShareInbox get(Context context) {
+        if (instance == null) {
+            instance = new ShareInbox(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Tests build their own over a wrapped context; the app goes through get()
+    ShareInbox(Context context) {
+        this.context = context;
+        this.directory = new File(context.getFilesDir(), DIRECTORY);
+        this.queueFile = new File(directory, QUEUE_FILE);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(TAG, "Unable to create " + directory);
+        }
+        load();
+    }
+
+    // Adds a share and returns its inbox id. Only appends one line, so it is cheap enough for the intent callback.
+    public synchronized long add(Uri uri, String mimeType, String name, String timestamp) {
+        long id = nextId++;
+        JSONObject data = new JSONObject();
+        try {
+            data.put("id", id);
+            data.put("uri", uri.toString());
+            data.put("mimeType", mimeType);
+            if (name != null) {
+                data.put("name", name);
+            }
+            data.put("timestamp", timestamp != null ? timestamp : "0");
+            data.put("receivedAt", System.currentTimeMillis());
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        entries.put(id, new Entry(id, data));
+        append("add", id, data);
+        return id;
+    }
+
+    // Keeps the shared content readable after the granting activity is gone:
+    // a persisted grant when the provider offers one, otherwise a private copy.
+    public void retain(long id, Uri uri, int intentFlags) {
+        if ((intentFlags & Intent.FLAG_GRANT_PERSISTABLE_URI_PERMISSION) != 0) {
+            try {
+                context.getContentResolver().takePersistableUriPermission(uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+                return;
+            } catch (SecurityException e) {
+                Log.w(TAG, "Persistable permission refused for " + uri);
+            }
+        }
+
+        File filesDir = new File(directory, FILES_DIRECTORY);
+        if (!filesDir.isDirectory() && !filesDir.mkdirs()) {
+            Log.e(TAG, "Unable to create " + filesDir);
+            return;
+        }
+        File copy = new File(filesDir, String.valueOf(id));
+        try {
+            MediaFiles.copyAndHash(context.getContentResolver(), uri, copy);
+            update(id, "localUri", Uri.fromFile(copy).toString());
+        } catch (IOException | SecurityException e) {
+            copy.delete();
+            Log.e(TAG, "Failed to copy shared file " + uri, e);
+        }
+    }
+
+    public synchronized void setOcrText(long id, String text) {
+        update(id, "ocrText", text);
+    }
+
+    // Replaces the placeholder type and name recorded for a multi-file share once they are resolved
+    public synchronized void setMetadata(long id, String mimeType, String name, String timestamp) {
+        try {
+            JSONObject change = new JSONObject();
+            change.put("mimeType", mimeType);
+            if (name != null) {
+                change.put("name", name);
+            }
+            if (timestamp != null) {
+                change.put("timestamp", timestamp);
+            }
+            update(id, change);
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to record metadata for " + id, e);
+        }
+    }
+
+    private synchronized void update(long id, String key, String value) {
+        try {
+            JSONObject change = new JSONObject();
+            change.put(key, value);
+            update(id, change);
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to record update for " + id, e);
+        }
+    }
+
+    private synchronized void update(long id, JSONObject change) throws JSONException {
+        Entry entry = entries.get(id);
+        if (entry == null || entry.acked) {
+            return;
+        }
+        for (Iterator<String> keys = change.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            entry.data.put(key, change.get(key));
+        }
+        append("update", id, change);
+    }
+
+    // Unacknowledged entries, oldest first
+    public synchronized List<Entry> pending() {
+        List<Entry> pending = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (!entry.acked) {
+                pending.add(entry);
+            }
+        }
+        return pending;
+    }
+
+    public synchronized void ack(long id) {
+        Entry entry = entries.get(id);
+        if (entry == null || entry.acked) {
+            return;
+        }
+        entry.acked = true;
+        append("ack", id, null);
+        deleteLocalCopy(entry);
+        releaseGrant(entry);
+        ackedLines++;
+        if (ackedLines >= COMPACT_AFTER_ACKS) {
+            compact();
+        }
+    }
+
+    private void deleteLocalCopy(Entry entry) {
+        String local = entry.data.optString("localUri", null);
+        if (local != null) {
+            String path = Uri.parse(local).getPath();
+            if (path != null && !new File(path).delete()) {
+                Log.w(TAG, "Could not delete " + path);
+            }
+        }
+    }
+
+    // An entry without a local copy was kept readable by a persisted grant. The system caps
+    // how many an app may hold, so each one is handed back once its share is processed.
+    private void releaseGrant(Entry entry) {
+        if (entry.data.has("localUri")) {
+            return;
+        }
+        try {
+            context.getContentResolver().releasePersistableUriPermission(
+                Uri.parse(entry.data.optString("uri")), Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        } catch (SecurityException e) {
+            // Never persisted (the provider refused and the copy failed), or already released
+            Log.d(TAG, "No persisted grant to release for " + entry.id);
+        }
+    }
+
+    private void append(String op, long id, JSONObject fields) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(queueFile, true), StandardCharsets.UTF_8)) {
+            JSONObject record = fields != null ? new JSONObject(fields.toString()) : new JSONObject();
+            record.put("op", op);
+            record.put("id", id);
+            writer.write(record.toString());
+            writer.write('\n');
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Failed to append " + op + " for " + id, e);
+        }
+    }
+
+    private void load() {
+        if (!queueFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(queueFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    apply(new JSONObject(line));
+                } catch (JSONException e) {
+                    // A torn last line from a crash mid-write; everything before it is intact
+                    Log.w(TAG, "Skipping unreadable inbox line");
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to read share inbox", e);
+        }
+        terminateTornLine();
+    }
+
+    // Make sure the next append starts on its own line if the last write was cut short
+    private void terminateTornLine() {
+        try (RandomAccessFile file = new RandomAccessFile(queueFile, "rw")) {
+            long length = file.length();
+            if (length > 0) {
+                file.seek(length - 1);
+                if (file.read() != '\n') {
+                    file.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to repair share inbox", e);
+        }
+    }
+
+    private void apply(JSONObject record) throws JSONException {
+        long id = record.getLong("id");
+        nextId = Math.max(nextId, id + 1);
+        String op = record.getString("op");
+        record.remove("op");
+        Entry entry = entries.get(id);
+        switch (op) {
+            case "add":
+                entries.put(id, new Entry(id, record));
+                break;
+            case "update":
+                if (entry != null) {
+                    for (Iterator<String> keys = record.keys(); keys.hasNext(); ) {
+                        String key = keys.next();
+                        entry.data.put(key, record.get(key));
+                    }
+                }
+                break;
+            case "ack":
+                if (entry != null) {
+                    entry.acked = true;
+                    ackedLines++;
+                }
+                break;
+            case "seq":
+                // Only carries the last used id across compaction
+                break;
+            default:
+                Log.w(TAG, "Unknown inbox op " + op);
+        }
+    }
+
+    // Rewrites the queue with only the pending entries, then swaps it in atomically
+    private void compact() {
+        File temp = new File(directory, QUEUE_FILE + ".tmp");
+        List<Entry> pending = pending();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            // Ids are never reused, even when every entry has been acknowledged
+            writer.write(new JSONObject().put("op", "seq").put("id", nextId - 1).toString());
+            writer.write('\n');
+            for (Entry entry : pending) {
+                JSONObject record = new JSONObject(entry.data.toString());
+                record.put("op", "add");
+                writer.write(record.toString());
+                writer.write('\n');
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Failed to compact share inbox", e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(queueFile)) {
+            Log.e(TAG, "Failed to replace share inbox file");
+            temp.delete();
+            return;
+        }
+        entries.clear();
+        for (Entry entry : pending) {
+            entries.put(entry.id, entry);
+        }
+        ackedLines = 0;
+    }
+}
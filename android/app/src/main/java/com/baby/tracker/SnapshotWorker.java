@@ -0,0 +1,90 @@
+package com.baby.tracker;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.service.quicksettings.TileService;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import org.json.JSONException;
+
+import java.util.concurrent.TimeUnit;
+
+// Rebuilds the ReminderSnapshot the widget and tile render from. Changes are batched:
+// the first request after a quiet period schedules one run a few seconds out and
+// requests until then ride along, so a boot reschedule or a medication sync costs one
+// registry read, one preference write and one widget update rather than one per alarm.
+public class SnapshotWorker extends Worker {
+    private static final String TAG = "SnapshotWorker";
+    private static final String WORK_NAME = "reminder-snapshot";
+    private static final String PREFS_NAME = "ReminderSnapshot";
+    private static final String KEY_SNAPSHOT = "snapshot";
+    private static final long DEBOUNCE_MS = 5000;
+    static final int UPCOMING_LIMIT = 3;
+
+    // elapsedRealtime of the last request in this process
+    private static volatile long lastRequest;
+
+    public SnapshotWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    public static void requestUpdate(Context context) {
+        lastRequest = SystemClock.elapsedRealtime();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SnapshotWorker.class)
+            .setInitialDelay(DEBOUNCE_MS, TimeUnit.MILLISECONDS)
+            .build();
+        // KEEP: while a run is pending, further requests are already covered by it
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    // Empty until the first run
+    public static ReminderSnapshot read(Context context) {
+        String json = prefs(context).getString(KEY_SNAPSHOT, null);
+        if (json == null) {
+            return ReminderSnapshot.empty();
+        }
+        try {
+            return ReminderSnapshot.fromJson(json);
+        } catch (JSONException e) {
+            Log.e(TAG, "Error parsing snapshot", e);
+            return ReminderSnapshot.empty();
+        }
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        long started;
+        do {
+            // A request that arrives while this run is going is dropped by KEEP, so go again
+            started = SystemClock.elapsedRealtime();
+            ReminderSnapshot snapshot = new AlarmScheduler(context).buildSnapshot(UPCOMING_LIMIT);
+            try {
+                prefs(context).edit().putString(KEY_SNAPSHOT, snapshot.toJson()).commit();
+            } catch (JSONException e) {
+                Log.e(TAG, "Error saving snapshot", e);
+                return Result.failure();
+            }
+        } while (lastRequest >= started && !isStopped());
+
+        ReminderWidgetProvider.updateAll(context);
+        // The tile re-reads the snapshot next time it is listening
+        TileService.requestListeningState(context, new ComponentName(context, ReminderTileService.class));
+        Log.d(TAG, "Snapshot updated");
+        return Result.success();
+    }
+}
@@ -0,0 +1,59 @@
+package com.baby.tracker;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+// Startup markers: trace sections that show up in Perfetto / systrace captures of
+// the app, and the time from process start to the first frame, logged and
+// reported by getModelStatus so it can be compared between builds.
+public class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    private static volatile long firstFrameMs = -1;
+
+    public static void begin(String section) {
+        Trace.beginSection(section);
+    }
+
+    public static void end() {
+        Trace.endSection();
+    }
+
+    public static long sinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+
+    // Millis from process start to the first frame, -1 until drawn
+    public static long getFirstFrameMs() {
+        return firstFrameMs;
+    }
+
+    // Records the first frame of view's window and then runs action on the main thread
+    public static void onFirstFrame(View view, Runnable action) {
+        ViewTreeObserver.OnDrawListener listener = new ViewTreeObserver.OnDrawListener() {
+            private boolean drawn;
+
+            @Override
+            public void onDraw() {
+                if (drawn) {
+                    return;
+                }
+                drawn = true;
+                if (firstFrameMs < 0) {
+                    firstFrameMs = sinceProcessStart();
+                    Log.i(TAG, "First frame drawn " + firstFrameMs + "ms after process start");
+                }
+                // Listeners cannot be removed while the tree is dispatching onDraw
+                view.post(() -> {
+                    view.getViewTreeObserver().removeOnDrawListener(this);
+                    action.run();
+                });
+            }
+        };
+        view.getViewTreeObserver().addOnDrawListener(listener);
+    }
+}
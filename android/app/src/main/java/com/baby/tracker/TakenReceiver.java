@@ -0,0 +1,40 @@
+package com.baby.tracker;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TakenReceiver extends BroadcastReceiver {
+    private static final String TAG = "TakenReceiver";
+    // One at a time, so two quick taps record in the order they were made
+    private static final ExecutorService doseExecutor = Executors.newSingleThreadExecutor();
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        Log.d(TAG, "Taken action triggered");
+
+        int reminderId = intent.getIntExtra("reminderId", 0);
+        // Set on a snoozed copy's notification, whose own id is not the reminder's
+        int originalId = intent.getIntExtra("originalId", reminderId);
+        String title = intent.getStringExtra("title");
+        String type = intent.getStringExtra("type");
+
+        // Record the dose natively and confirm it in the notification; the app is not
+        // started, and picks the dose up from ReminderDatabase the next time it opens.
+        // The SQLite write stays off the main thread, with the broadcast held open until it lands.
+        Context appContext = context.getApplicationContext();
+        PendingResult result = goAsync();
+        doseExecutor.execute(() -> {
+            try {
+                long doseId = new AlarmScheduler(appContext).markTaken(reminderId, originalId, type, title);
+                Log.d(TAG, "Dose " + doseId + " recorded for " + originalId);
+            } finally {
+                result.finish();
+            }
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.baby.tracker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Splits long text into chunks that can be annotated independently, cutting at
+// paragraph, line or sentence boundaries so that a date is not split across two
+// chunks. Chunks keep their offsets into the original text for merging results.
+public class TextChunker {
+
+    public static class Chunk {
+        public final int start;
+        public final int end;
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+
+    // Chunks of at most maxChunkChars covering text up to maxTotalChars; anything after
+    // that is left out. Whitespace between chunks is skipped.
+    public static List<Chunk> split(String text, int maxChunkChars, int maxTotalChars) {
+        if (maxChunkChars <= 0) {
+            throw new IllegalArgumentException("maxChunkChars must be positive");
+        }
+        int limit = text.length();
+        if (limit > maxTotalChars) {
+            limit = breakBefore(text, Math.max(0, maxTotalChars - maxChunkChars), maxTotalChars);
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        int start = 0;
+        while (true) {
+            while (start < limit && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+            if (start >= limit) {
+                return chunks;
+            }
+            int end = Math.min(limit, start + maxChunkChars);
+            if (end < limit) {
+                end = breakBefore(text, start, end);
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+    }
+
+    // Where to end a chunk of text[start, end): the last paragraph break, else line break,
+    // else sentence end, else space in the second half of the range. A hard cut if none.
+    static int breakBefore(String text, int start, int end) {
+        int min = start + (end - start) / 2;
+        int paragraph = text.lastIndexOf("\n\n", end - 2);
+        if (paragraph >= min) {
+            return paragraph + 2;
+        }
+        int line = text.lastIndexOf('\n', end - 1);
+        if (line >= min) {
+            return line + 1;
+        }
+        for (int i = end - 2; i >= min; i--) {
+            char c = text.charAt(i);
+            if ((c == '.' || c == '!' || c == '?') && Character.isWhitespace(text.charAt(i + 1))) {
+                return i + 1;
+            }
+        }
+        for (int i = end - 1; i >= min; i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        // Never leave half a surrogate pair at either side
+        if (end > start + 1 && Character.isHighSurrogate(text.charAt(end - 1))) {
+            return end - 1;
+        }
+        return end;
+    }
+}
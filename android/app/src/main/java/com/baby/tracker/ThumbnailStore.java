@@ -0,0 +1,203 @@
+package com.baby.tracker;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Thumbnails of stored photos at a few fixed sizes, as JPEG bytes: an LRU in memory
+// bounded by bytes, then a disk cache under cacheDir, then a subsampled decode of the
+// photo. Keys include the source's size and modification time, so a replaced photo
+// is never served stale.
+public class ThumbnailStore {
+    private static final String TAG = "ThumbnailStore";
+    private static final String CACHE_DIRECTORY = "thumbnails";
+    // PhotoIngestPlugin and storage.ts already write a thumbnail this size next to each photo
+    private static final int INGEST_THUMBNAIL_SIZE = 200;
+    private static final String INGEST_THUMBNAIL_SUFFIX = "_thumb.jpg";
+    // Requested sizes round up to one of these so grids at different densities share entries
+    private static final int[] SIZES = {INGEST_THUMBNAIL_SIZE, 400, 800, 1600};
+    private static final long MAX_DISK_BYTES = 64L * 1024 * 1024;
+    // Trimming lists the directory, so only do it every so many writes
+    private static final int TRIM_EVERY_WRITES = 32;
+
+    public static class Thumbnail {
+        public final byte[] data;
+        public final String etag;
+        public final long lastModified;
+
+        Thumbnail(byte[] data, String etag, long lastModified) {
+            this.data = data;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static ThumbnailStore instance;
+
+    private final File cacheDir;
+    private final LruCache<String, Thumbnail> memory;
+    private final AtomicInteger writesSinceTrim = new AtomicInteger();
+
+    public static synchronized ThumbnailStore get(Context context) {
+        if (instance == null) {
+            instance = new ThumbnailStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ThumbnailStore(Context context) {
+        cacheDir = new File(context.getCacheDir(), CACHE_DIRECTORY);
+        // About 1/32 of the heap: a few hundred grid-sized JPEGs
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 32);
+        memory = new LruCache<String, Thumbnail>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Thumbnail value) {
+                return value.data.length;
+            }
+        };
+    }
+
+    public static int bucketFor(int requested) {
+        for (int size : SIZES) {
+            if (requested <= size) {
+                return size;
+            }
+        }
+        return SIZES[SIZES.length - 1];
+    }
+
+    // Null if the source is missing or can't be decoded
+    public Thumbnail get(File source, int requestedSize) {
+        if (!source.isFile()) {
+            return null;
+        }
+        int size = bucketFor(requestedSize);
+        String key = keyFor(source, size);
+        Thumbnail cached = memory.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        File cacheFile = new File(cacheDir, key + ".jpg");
+        byte[] data = readIfExists(cacheFile);
+        if (data != null) {
+            // Keeps recently used entries out of the next trim
+            cacheFile.setLastModified(System.currentTimeMillis());
+        } else {
+            data = load(source, size);
+            if (data == null) {
+                return null;
+            }
+            writeToDisk(cacheFile, data);
+        }
+
+        Thumbnail thumbnail = new Thumbnail(data, "\"" + key + "\"", source.lastModified());
+        memory.put(key, thumbnail);
+        return thumbnail;
+    }
+
+    // The ingest thumbnail already is the smallest size; anything else is decoded from the photo
+    private static byte[] load(File source, int size) {
+        if (size == INGEST_THUMBNAIL_SIZE && !source.getName().endsWith(INGEST_THUMBNAIL_SUFFIX)) {
+            String name = source.getName();
+            int dot = name.lastIndexOf('.');
+            File ingested = new File(source.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + INGEST_THUMBNAIL_SUFFIX);
+            byte[] data = readIfExists(ingested);
+            if (data != null) {
+                return data;
+            }
+        }
+        return MediaFiles.encodeThumbnail(source, size);
+    }
+
+    private static String keyFor(File source, int size) {
+        MessageDigest digest = MediaFiles.sha256();
+        String identity = source.getAbsolutePath() + "|" + source.length() + "|" + source.lastModified() + "|" + size;
+        digest.update(identity.getBytes(StandardCharsets.UTF_8));
+        // 16 bytes of the hash are plenty to tell cache entries apart
+        return MediaFiles.toHex(Arrays.copyOf(digest.digest(), 16));
+    }
+
+    private static byte[] readIfExists(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        // java.nio.file needs API 26
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] data = new byte[(int) file.length()];
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    throw new IOException("Truncated read of " + file);
+                }
+                read += n;
+            }
+            return data;
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read " + file, e);
+            return null;
+        }
+    }
+
+    // Written to a temp file and renamed, so a concurrent reader never sees half a JPEG
+    private void writeToDisk(File cacheFile, byte[] data) {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            return;
+        }
+        File temp = new File(cacheDir, cacheFile.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(data);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not cache thumbnail", e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(cacheFile)) {
+            temp.delete();
+        }
+        if (writesSinceTrim.incrementAndGet() >= TRIM_EVERY_WRITES) {
+            writesSinceTrim.set(0);
+            trimDisk();
+        }
+    }
+
+    // Drops the least recently used files until the cache fits
+    private void trimDisk() {
+        File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        // Read once: hits keep touching lastModified while this runs
+        long[][] byAge = new long[files.length][];
+        for (int i = 0; i < files.length; i++) {
+            byAge[i] = new long[]{files[i].lastModified(), i};
+            total += files[i].length();
+        }
+        if (total <= MAX_DISK_BYTES) {
+            return;
+        }
+        Arrays.sort(byAge, (a, b) -> Long.compare(a[0], b[0]));
+        for (long[] entry : byAge) {
+            if (total <= MAX_DISK_BYTES) {
+                break;
+            }
+            File file = files[(int) entry[1]];
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+        Log.d(TAG, "Trimmed thumbnail cache to " + total + " bytes");
+    }
+}
@@ -0,0 +1,124 @@
+package com.baby.tracker;
+
+import android.net.Uri;
+import android.util.Log;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+import android.webkit.WebView;
+
+import com.getcapacitor.Bridge;
+import com.getcapacitor.BridgeWebViewClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Serves thumbnails of files in app storage to the WebView at
+// <app origin>/_thumb_/<path under filesDir>?size=<px>, so image grids get small JPEGs
+// from ThumbnailStore instead of whole photos as base64 through the bridge.
+// Everything else goes to Capacitor's local server as before.
+public class ThumbnailWebViewClient extends BridgeWebViewClient {
+    private static final String TAG = "ThumbnailWebViewClient";
+    public static final String PATH_PREFIX = "/_thumb_/";
+    private static final int DEFAULT_SIZE = 200;
+    private static final int MIN_SIZE = 16;
+    private static final DateTimeFormatter HTTP_DATE =
+        DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
+    private final String host;
+    private final File filesDir;
+    private final ThumbnailStore store;
+
+    public ThumbnailWebViewClient(Bridge bridge) {
+        super(bridge);
+        this.host = Uri.parse(bridge.getLocalUrl()).getHost();
+        this.filesDir = bridge.getContext().getFilesDir();
+        this.store = ThumbnailStore.get(bridge.getContext());
+    }
+
+    @Override
+    public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+        Uri url = request.getUrl();
+        String path = url.getPath();
+        if (path != null && path.startsWith(PATH_PREFIX) && host != null && host.equals(url.getHost())) {
+            return serveThumbnail(url, path.substring(PATH_PREFIX.length()), request.getRequestHeaders());
+        }
+        return super.shouldInterceptRequest(view, request);
+    }
+
+    // Runs on the WebView's network thread, so decoding here does not block the UI
+    private WebResourceResponse serveThumbnail(Uri url, String relativePath, Map<String, String> requestHeaders) {
+        File source = resolve(relativePath);
+        ThumbnailStore.Thumbnail thumbnail = source != null ? store.get(source, requestedSize(url)) : null;
+        Map<String, String> headers = new HashMap<>();
+        if (thumbnail == null) {
+            return new WebResourceResponse("text/plain", "utf-8", 404, "Not Found", headers, empty());
+        }
+
+        // WebResourceResponse cannot carry a 3xx, so a matching If-None-Match still gets the
+        // bytes; they come from memory and the validators let the page cache them
+        long total = thumbnail.data.length;
+        headers.put("Accept-Ranges", "bytes");
+        headers.put("Cache-Control", "private, max-age=86400");
+        headers.put("ETag", thumbnail.etag);
+        headers.put("Last-Modified", HTTP_DATE.format(Instant.ofEpochMilli(thumbnail.lastModified)));
+
+        HttpRange range = HttpRange.parse(header(requestHeaders, "Range"), total);
+        if (range == HttpRange.UNSATISFIABLE) {
+            headers.put("Content-Range", range.contentRange(total));
+            return new WebResourceResponse("image/jpeg", null, 416, "Range Not Satisfiable", headers, empty());
+        }
+        if (range != null) {
+            headers.put("Content-Range", range.contentRange(total));
+            headers.put("Content-Length", String.valueOf(range.length()));
+            return new WebResourceResponse("image/jpeg", null, 206, "Partial Content", headers,
+                new ByteArrayInputStream(thumbnail.data, (int) range.start, (int) range.length()));
+        }
+        headers.put("Content-Length", String.valueOf(total));
+        return new WebResourceResponse("image/jpeg", null, 200, "OK", headers, new ByteArrayInputStream(thumbnail.data));
+    }
+
+    // Only files inside filesDir; "..", symlinks and the like resolve outside and are refused
+    private File resolve(String relativePath) {
+        try {
+            File root = filesDir.getCanonicalFile();
+            File file = new File(root, relativePath).getCanonicalFile();
+            return file.getPath().startsWith(root.getPath() + File.separator) ? file : null;
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot resolve " + relativePath, e);
+            return null;
+        }
+    }
+
+    private static int requestedSize(Uri url) {
+        try {
+            String size = url.getQueryParameter("size");
+            return size != null ? Math.max(MIN_SIZE, Integer.parseInt(size)) : DEFAULT_SIZE;
+        } catch (NumberFormatException e) {
+            return DEFAULT_SIZE;
+        }
+    }
+
+    private static String header(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static InputStream empty() {
+        return new ByteArrayInputStream(new byte[0]);
+    }
+}
@@ -0,0 +1,259 @@
+package com.baby.tracker;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TiledTextRecognizer {
+    private static final String TAG = "TiledTextRecognizer";
+
+    // Tile geometry, in source pixels
+    static final int TILE_HEIGHT = 2048;
+    static final int TILE_OVERLAP = 160;
+    // ML Kit gains nothing from wider input; wider images are subsampled on decode
+    static final int MAX_TILE_WIDTH = 2048;
+    // Two tiles in flight keeps memory bounded to ~2 decoded tiles
+    private static final int PARALLELISM = 2;
+
+    private final TextRecognizer recognizer;
+    private final ContentResolver contentResolver;
+
+    public TiledTextRecognizer(TextRecognizer recognizer, ContentResolver contentResolver) {
+        this.recognizer = recognizer;
+        this.contentResolver = contentResolver;
+    }
+
+    public static class RecognizedBlock {
+        public final Text.TextBlock block;
+        // In source image coordinates
+        public final Rect boundingBox;
+
+        RecognizedBlock(Text.TextBlock block, Rect boundingBox) {
+            this.block = block;
+            this.boundingBox = boundingBox;
+        }
+    }
+
+    public static class Result {
+        public final String text;
+        public final List<RecognizedBlock> blocks;
+        public final int tileCount;
+
+        Result(String text, List<RecognizedBlock> blocks, int tileCount) {
+            this.text = text;
+            this.blocks = blocks;
+            this.tileCount = tileCount;
+        }
+    }
+
+    // Whether an image of this size should go through the tiled path on its own
+    public static boolean shouldTile(int width, int height) {
+        return height > TILE_HEIGHT && height > width * 2;
+    }
+
+    public static int[] readImageSize(ContentResolver contentResolver, Uri uri) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            if (in == null) {
+                throw new IOException("Unable to open " + uri);
+            }
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unable to decode image bounds");
+        }
+        return new int[]{options.outWidth, options.outHeight};
+    }
+
+    // Split [top, bottom) into overlapping horizontal bands. Returns {top, bottom} pairs.
+    static List<int[]> computeTiles(int top, int bottom, int tileHeight, int overlap) {
+        List<int[]> tiles = new ArrayList<>();
+        int step = Math.max(1, tileHeight - overlap);
+        int y = top;
+        while (true) {
+            int end = Math.min(bottom, y + tileHeight);
+            tiles.add(new int[]{y, end});
+            if (end >= bottom) {
+                break;
+            }
+            y += step;
+        }
+        return tiles;
+    }
+
+    static int sampleSizeForWidth(int width) {
+        int sampleSize = 1;
+        while (width / sampleSize > MAX_TILE_WIDTH) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // Must be called off the main thread: blocks on recognition of every tile.
+    public Result recognize(Uri uri, Rect crop, boolean tiled) throws Exception {
+        BitmapRegionDecoder decoder;
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            if (in == null) {
+                throw new IOException("Unable to open " + uri);
+            }
+            decoder = BitmapRegionDecoder.newInstance(in, false);
+        }
+        if (decoder == null) {
+            throw new IOException("Unsupported image format for region decoding");
+        }
+
+        try {
+            Rect region = new Rect(0, 0, decoder.getWidth(), decoder.getHeight());
+            if (crop != null && !region.intersect(crop)) {
+                throw new IllegalArgumentException("Crop rectangle is outside the image");
+            }
+
+            List<int[]> tiles = tiled
+                ? computeTiles(region.top, region.bottom, TILE_HEIGHT, TILE_OVERLAP)
+                : Collections.singletonList(new int[]{region.top, region.bottom});
+            int sampleSize = sampleSizeForWidth(region.width());
+
+            Log.d(TAG, "Recognizing " + region.toShortString() + " in " + tiles.size() + " tile(s), sample " + sampleSize);
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(PARALLELISM, tiles.size()));
+            try {
+                List<Future<List<RecognizedBlock>>> futures = new ArrayList<>();
+                for (int[] tile : tiles) {
+                    final Rect tileRect = new Rect(region.left, tile[0], region.right, tile[1]);
+                    futures.add(executor.submit(() -> recognizeTile(decoder, tileRect, sampleSize)));
+                }
+
+                List<List<RecognizedBlock>> perTile = new ArrayList<>();
+                for (Future<List<RecognizedBlock>> future : futures) {
+                    perTile.add(future.get());
+                }
+                List<RecognizedBlock> merged = mergeTiles(perTile);
+                return new Result(joinText(merged), merged, tiles.size());
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    private List<RecognizedBlock> recognizeTile(BitmapRegionDecoder decoder, Rect tileRect, int sampleSize) throws Exception {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        Bitmap bitmap;
+        // BitmapRegionDecoder is not safe for concurrent decodes
+        synchronized (decoder) {
+            bitmap = decoder.decodeRegion(tileRect, options);
+        }
+        if (bitmap == null) {
+            return Collections.emptyList();
+        }
+
+        try {
+            Text visionText = Tasks.await(recognizer.process(InputImage.fromBitmap(bitmap, 0)));
+            List<RecognizedBlock> blocks = new ArrayList<>();
+            for (Text.TextBlock block : visionText.getTextBlocks()) {
+                Rect box = block.getBoundingBox();
+                Rect mapped = null;
+                if (box != null) {
+                    // Map tile coordinates back into source image coordinates
+                    mapped = new Rect(
+                        tileRect.left + box.left * sampleSize,
+                        tileRect.top + box.top * sampleSize,
+                        tileRect.left + box.right * sampleSize,
+                        tileRect.top + box.bottom * sampleSize
+                    );
+                }
+                blocks.add(new RecognizedBlock(block, mapped));
+            }
+            return blocks;
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    // Drop blocks that were read twice inside the overlap band, then order top-to-bottom, left-to-right.
+    static List<RecognizedBlock> mergeTiles(List<List<RecognizedBlock>> perTile) {
+        List<RecognizedBlock> merged = new ArrayList<>();
+        for (List<RecognizedBlock> tileBlocks : perTile) {
+            for (RecognizedBlock candidate : tileBlocks) {
+                if (!isDuplicate(candidate, merged)) {
+                    merged.add(candidate);
+                }
+            }
+        }
+        Collections.sort(merged, (a, b) -> {
+            if (a.boundingBox == null || b.boundingBox == null) {
+                // Blocks without geometry keep their place at the end
+                return Boolean.compare(a.boundingBox == null, b.boundingBox == null);
+            }
+            if (a.boundingBox.top != b.boundingBox.top) {
+                return Integer.compare(a.boundingBox.top, b.boundingBox.top);
+            }
+            return Integer.compare(a.boundingBox.left, b.boundingBox.left);
+        });
+        return merged;
+    }
+
+    private static boolean isDuplicate(RecognizedBlock candidate, List<RecognizedBlock> existing) {
+        if (candidate.boundingBox == null) {
+            return false;
+        }
+        for (RecognizedBlock other : existing) {
+            if (other.boundingBox == null) {
+                continue;
+            }
+            Rect intersection = new Rect();
+            if (!intersection.setIntersect(candidate.boundingBox, other.boundingBox)) {
+                continue;
+            }
+            long overlapArea = (long) intersection.width() * intersection.height();
+            long smallerArea = Math.min(
+                (long) candidate.boundingBox.width() * candidate.boundingBox.height(),
+                (long) other.boundingBox.width() * other.boundingBox.height()
+            );
+            // A block cut by a tile edge is shorter than its full copy; keep the larger one
+            if (smallerArea > 0 && overlapArea * 2 >= smallerArea) {
+                if (area(candidate.boundingBox) > area(other.boundingBox)) {
+                    existing.set(existing.indexOf(other), candidate);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long area(Rect rect) {
+        return (long) rect.width() * rect.height();
+    }
+
+    private static String joinText(List<RecognizedBlock> blocks) {
+        StringBuilder text = new StringBuilder();
+        for (RecognizedBlock recognized : blocks) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(recognized.block.getText());
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,395 @@
+package com.baby.tracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Finds every time mention in a text in one left-to-right scan: "9:30 PM", "9 30 pm",
+// "9pm", "14:30", "9–11 AM", "10:00 to 11:30", "noon", "midnight".
+// Plain Java so it can be tested and benchmarked off-device.
+public class TimeExtractor {
+
+    public static class TimeMention {
+        public final int start;
+        public final int end;
+        public final int hour;
+        public final int minute;
+        // -1 unless the mention is a range
+        public final int endHour;
+        public final int endMinute;
+
+        TimeMention(int start, int end, int hour, int minute, int endHour, int endMinute) {
+            this.start = start;
+            this.end = end;
+            this.hour = hour;
+            this.minute = minute;
+            this.endHour = endHour;
+            this.endMinute = endMinute;
+        }
+
+        public boolean isRange() {
+            return endHour >= 0;
+        }
+
+        @Override
+        public String toString() {
+            String time = String.format(Locale.ROOT, "%02d:%02d", hour, minute);
+            if (isRange()) {
+                time += String.format(Locale.ROOT, "-%02d:%02d", endHour, endMinute);
+            }
+            return time;
+        }
+    }
+
+    private static final int NO_MERIDIEM = 0;
+    private static final int AM = 1;
+    private static final int PM = 2;
+
+    // A clock reading before validation, as written in the text
+    private static class RawClock {
+        int start;
+        int end;
+        int hour;
+        int minute;
+        boolean hasMinutes;
+        boolean dotSeparated;
+        int meridiem = NO_MERIDIEM;
+        boolean named;
+    }
+
+    private final CharSequence text;
+    private final int length;
+    private int pos;
+    // The previous word was "at", "time", "from" or "by"
+    private boolean timeCue;
+
+    private TimeExtractor(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    public static List<TimeMention> extract(CharSequence text) {
+        return new TimeExtractor(text).scan();
+    }
+
+    private List<TimeMention> scan() {
+        List<TimeMention> mentions = new ArrayList<>();
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (!Character.isLetterOrDigit(c)) {
+                pos++;
+                continue;
+            }
+
+            int tokenStart = pos;
+            TimeMention mention = readMention();
+            if (mention != null) {
+                mentions.add(mention);
+                pos = mention.end;
+                timeCue = false;
+            } else {
+                pos = tokenStart;
+                skipToken();
+            }
+        }
+        return mentions;
+    }
+
+    private TimeMention readMention() {
+        int start = pos;
+        RawClock first = readClock();
+        if (first == null) {
+            return null;
+        }
+        pos = first.end;
+
+        // Range: "9–11 AM", "9:00 - 10:30", "10 to 11am", "9am until noon"
+        int afterFirst = pos;
+        if (readRangeConnector()) {
+            RawClock second = readClock();
+            if (second != null && resolve(second, null, true)) {
+                RawClock firstResolved = copy(first);
+                if (resolve(firstResolved, second, true)) {
+                    return new TimeMention(start, second.end,
+                            firstResolved.hour, firstResolved.minute, second.hour, second.minute);
+                }
+            }
+        }
+        pos = afterFirst;
+
+        if (!resolve(first, null, false)) {
+            return null;
+        }
+        return new TimeMention(start, first.end, first.hour, first.minute, -1, -1);
+    }
+
+    // Reads a clock at pos without judging whether it is a plausible time
+    private RawClock readClock() {
+        RawClock clock = new RawClock();
+        clock.start = pos;
+
+        if (Character.isLetter(charAt(pos))) {
+            int wordEnd = wordEnd(pos);
+            String word = lower(pos, wordEnd);
+            if (word.equals("noon") || word.equals("midday")) {
+                clock.hour = 12;
+            } else if (word.equals("midnight")) {
+                clock.hour = 0;
+            } else {
+                return null;
+            }
+            clock.named = true;
+            clock.hasMinutes = true;
+            clock.end = wordEnd;
+            return clock;
+        }
+
+        int digitsEnd = digitsEnd(pos);
+        int digitCount = digitsEnd - pos;
+        if (digitCount < 1 || digitCount > 2 || (Character.isLetter(charAt(digitsEnd)) && !startsMeridiem(digitsEnd))) {
+            return null;
+        }
+        clock.hour = parse(pos, digitsEnd);
+        int p = digitsEnd;
+
+        char sep = charAt(p);
+        if ((sep == ':' || sep == '.') && digitsEnd(p + 1) - (p + 1) == 2) {
+            int minuteEnd = p + 3;
+            char next = charAt(minuteEnd);
+            // "12.05.2025" and "10:30/11" are not times
+            if (sep == '.' && (next == '.' || next == '/') && Character.isDigit(charAt(minuteEnd + 1))) {
+                return null;
+            }
+            clock.minute = parse(p + 1, minuteEnd);
+            clock.hasMinutes = true;
+            clock.dotSeparated = sep == '.';
+            p = minuteEnd;
+            // Seconds are accepted and ignored
+            if (sep == ':' && charAt(p) == ':' && digitsEnd(p + 1) - (p + 1) == 2) {
+                p += 3;
+            }
+        } else if (sep == ' ' && digitsEnd(p + 1) - (p + 1) == 2) {
+            // "9 30 PM" only counts when a meridiem follows
+            int minuteEnd = p + 3;
+            int meridiemStart = skipSpaces(minuteEnd);
+            if (readMeridiem(meridiemStart) > 0) {
+                clock.minute = parse(p + 1, minuteEnd);
+                clock.hasMinutes = true;
+                p = minuteEnd;
+            }
+        }
+
+        if (Character.isDigit(charAt(p))) {
+            return null;
+        }
+        clock.end = p;
+
+        int meridiemStart = skipSpaces(p);
+        int meridiemEnd = readMeridiem(meridiemStart);
+        if (meridiemEnd > 0) {
+            char m = Character.toLowerCase(charAt(meridiemStart));
+            clock.meridiem = m == 'a' ? AM : PM;
+            clock.end = meridiemEnd;
+        }
+        return clock;
+    }
+
+    // Validates and converts a clock to 24h, borrowing the meridiem of the range end when needed
+    private boolean resolve(RawClock clock, RawClock rangeEnd, boolean inRange) {
+        if (clock.named) {
+            return true;
+        }
+        int meridiem = clock.meridiem;
+        if (meridiem == NO_MERIDIEM && rangeEnd != null && rangeEnd.meridiem != NO_MERIDIEM) {
+            meridiem = rangeEnd.meridiem;
+            // "11–1 PM" runs from 11 AM; rangeEnd is already in 24h
+            if (meridiem == PM && clock.hour < 12 && clock.hour + 12 > rangeEnd.hour) {
+                meridiem = AM;
+            }
+        }
+
+        if (meridiem != NO_MERIDIEM) {
+            if (clock.hour < 1 || clock.hour > 12 || clock.minute > 59) {
+                return false;
+            }
+            if (meridiem == PM && clock.hour < 12) {
+                clock.hour += 12;
+            } else if (meridiem == AM && clock.hour == 12) {
+                clock.hour = 0;
+            }
+            return true;
+        }
+
+        // Without AM/PM only clock-style readings count; "9.30" additionally needs a cue like "at"
+        if (!clock.hasMinutes || clock.hour > 23 || clock.minute > 59) {
+            return false;
+        }
+        if (clock.dotSeparated && !timeCue && !inRange) {
+            return false;
+        }
+        return true;
+    }
+
+    private boolean readRangeConnector() {
+        int p = skipSpaces(pos);
+        char c = charAt(p);
+        if (c == '-' || c == '\u2013' || c == '\u2014') {
+            p++;
+        } else if (Character.isLetter(c)) {
+            int wordEnd = wordEnd(p);
+            String word = lower(p, wordEnd);
+            if (!word.equals("to") && !word.equals("until") && !word.equals("till")) {
+                return false;
+            }
+            p = wordEnd;
+        } else {
+            return false;
+        }
+        p = skipSpaces(p);
+        if (!Character.isLetterOrDigit(charAt(p))) {
+            return false;
+        }
+        pos = p;
+        return true;
+    }
+
+    // Returns the end of an "am"/"pm"/"a.m."/"p.m." token at p, or -1
+    private int readMeridiem(int p) {
+        char c = Character.toLowerCase(charAt(p));
+        if (c != 'a' && c != 'p') {
+            return -1;
+        }
+        int q = p + 1;
+        boolean dotted = charAt(q) == '.';
+        if (dotted) {
+            q++;
+        }
+        if (Character.toLowerCase(charAt(q)) != 'm') {
+            return -1;
+        }
+        q++;
+        // The closing dot of "a.m." belongs to the token, a full stop after "AM" does not
+        if (dotted && charAt(q) == '.') {
+            q++;
+        }
+        if (Character.isLetterOrDigit(charAt(q))) {
+            return -1;
+        }
+        return q;
+    }
+
+    private boolean startsMeridiem(int p) {
+        return readMeridiem(p) > 0;
+    }
+
+    // Skips a word, or a run of digits and the separators inside it (dates, phone numbers)
+    private void skipToken() {
+        if (Character.isLetter(charAt(pos))) {
+            int wordEnd = wordEnd(pos);
+            String word = lower(pos, wordEnd);
+            timeCue = word.equals("at") || word.equals("time") || word.equals("from") || word.equals("by");
+            pos = wordEnd;
+            return;
+        }
+        timeCue = false;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (Character.isLetterOrDigit(c)) {
+                pos++;
+            } else if ((c == ':' || c == '.' || c == '/' || c == '-') && Character.isDigit(charAt(pos + 1))) {
+                pos++;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private char charAt(int p) {
+        return p >= 0 && p < length ? text.charAt(p) : '\0';
+    }
+
+    private int digitsEnd(int p) {
+        while (p < length && Character.isDigit(text.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private int wordEnd(int p) {
+        while (p < length && Character.isLetterOrDigit(text.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private int skipSpaces(int p) {
+        while (p < length && (text.charAt(p) == ' ' || text.charAt(p) == '\t')) {
+            p++;
+        }
+        return p;
+    }
+
+    private int parse(int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private String lower(int from, int to) {
+        return text.subSequence(from, to).toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static RawClock copy(RawClock clock) {
+        RawClock copy = new RawClock();
+        copy.start = clock.start;
+        copy.end = clock.end;
+        copy.hour = clock.hour;
+        copy.minute = clock.minute;
+        copy.hasMinutes = clock.hasMinutes;
+        copy.dotSeparated = clock.dotSeparated;
+        copy.meridiem = clock.meridiem;
+        copy.named = clock.named;
+        return copy;
+    }
+
+    // For each date span {start, end}, the index of the time mention closest to it, or -1.
+    // Every time is first given to its nearest date, and a date that wins several keeps the closest.
+    public static int[] assignToDates(List<TimeMention> times, int[][] dateSpans) {
+        int[] assigned = new int[dateSpans.length];
+        int[] assignedDistance = new int[dateSpans.length];
+        for (int d = 0; d < dateSpans.length; d++) {
+            assigned[d] = -1;
+            assignedDistance[d] = Integer.MAX_VALUE;
+        }
+
+        for (int t = 0; t < times.size(); t++) {
+            TimeMention time = times.get(t);
+            int nearest = -1;
+            int nearestDistance = Integer.MAX_VALUE;
+            for (int d = 0; d < dateSpans.length; d++) {
+                int distance = distance(time.start, time.end, dateSpans[d][0], dateSpans[d][1]);
+                if (distance < nearestDistance) {
+                    nearest = d;
+                    nearestDistance = distance;
+                }
+            }
+            if (nearest >= 0 && nearestDistance < assignedDistance[nearest]) {
+                assigned[nearest] = t;
+                assignedDistance[nearest] = nearestDistance;
+            }
+        }
+        return assigned;
+    }
+
+    private static int distance(int start1, int end1, int start2, int end2) {
+        if (end1 <= start2) {
+            return start2 - end1;
+        }
+        if (end2 <= start1) {
+            return start1 - end2;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,131 @@
+package com.baby.tracker;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognizer;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// OCR for shared videos and screen recordings. Frames are sampled at a fixed interval
+// at reduced resolution, and a frame is only recognized when its dHash differs from
+// the last recognized one, so a recording that holds still on a page costs one OCR
+// pass per page rather than one per sample. Lines are merged in first-seen order.
+public class VideoTextExtractor {
+    private static final String TAG = "VideoTextExtractor";
+
+    static final long DEFAULT_INTERVAL_MS = 1000;
+    static final int DEFAULT_MAX_FRAMES = 60;
+    // Enough for phone-sized text; full 1080p+ frames only cost decode time
+    static final int DEFAULT_MAX_DIMENSION = 1600;
+
+    public static class Result {
+        public final String text;
+        public final long durationMs;
+        public final int framesSampled;
+        public final int framesRecognized;
+
+        Result(String text, long durationMs, int framesSampled, int framesRecognized) {
+            this.text = text;
+            this.durationMs = durationMs;
+            this.framesSampled = framesSampled;
+            this.framesRecognized = framesRecognized;
+        }
+    }
+
+    private final TextRecognizer recognizer;
+    private final Context context;
+
+    public VideoTextExtractor(TextRecognizer recognizer, Context context) {
+        this.recognizer = recognizer;
+        this.context = context;
+    }
+
+    // Samples every intervalMs, stretched so that no more than maxFrames are taken
+    public Result extract(Uri uri, long intervalMs, int maxFrames, int maxDimension) throws Exception {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(context, uri);
+            long durationMs = parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION));
+            long step = Math.max(intervalMs, durationMs / Math.max(1, maxFrames));
+
+            Set<String> lines = new LinkedHashSet<>();
+            long lastHash = 0;
+            boolean hasLast = false;
+            int sampled = 0;
+            int recognized = 0;
+            for (long at = 0; at <= durationMs && sampled < maxFrames; at += step) {
+                Bitmap frame = frameAt(retriever, at * 1000, maxDimension);
+                if (frame == null) {
+                    continue;
+                }
+                sampled++;
+                try {
+                    long hash = MediaFiles.perceptualHash(frame);
+                    if (hasLast && ImageHashes.isNearDuplicate(hash, lastHash)) {
+                        continue;
+                    }
+                    lastHash = hash;
+                    hasLast = true;
+                    recognized++;
+                    Text text = Tasks.await(recognizer.process(InputImage.fromBitmap(frame, 0)));
+                    for (Text.TextBlock block : text.getTextBlocks()) {
+                        for (Text.Line line : block.getLines()) {
+                            String trimmed = line.getText().trim();
+                            if (!trimmed.isEmpty()) {
+                                lines.add(trimmed);
+                            }
+                        }
+                    }
+                } finally {
+                    frame.recycle();
+                }
+            }
+            Log.d(TAG, "Recognized " + recognized + " of " + sampled + " sampled frame(s) over " + durationMs + "ms");
+            return new Result(String.join("\n", lines), durationMs, sampled, recognized);
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                Log.w(TAG, "Error releasing MediaMetadataRetriever", e);
+            }
+        }
+    }
+
+    // OPTION_CLOSEST rather than CLOSEST_SYNC: screen recordings can go seconds between
+    // key frames, and snapping to them would keep returning the same picture
+    private static Bitmap frameAt(MediaMetadataRetriever retriever, long timeUs, int maxDimension) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            // Decodes straight to the smaller size, keeping the aspect ratio
+            return retriever.getScaledFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST, maxDimension, maxDimension);
+        }
+        Bitmap frame = retriever.getFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST);
+        if (frame == null) {
+            return null;
+        }
+        float scale = (float) maxDimension / Math.max(frame.getWidth(), frame.getHeight());
+        if (scale >= 1) {
+            return frame;
+        }
+        Bitmap scaled = Bitmap.createScaledBitmap(frame,
+            Math.round(frame.getWidth() * scale), Math.round(frame.getHeight() * scale), true);
+        frame.recycle();
+        return scaled;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.baby.tracker;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// AlarmScheduler's bookkeeping of active alarms at different registry sizes:
+// saving one alarm the way it does now (map update + serialize) against the
+// parse-scan-serialize of the JSON array it used to do, plus the boot-time load.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlarmRegistryJmh {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int alarmCount;
+
+    private AlarmRegistry registry;
+    private String json;
+    private int next;
+
+    static AlarmRegistry.AlarmInfo alarm(int reminderId) {
+        boolean daily = reminderId % 3 != 0;
+        return new AlarmRegistry.AlarmInfo(
+            reminderId,
+            "Prenatal vitamin " + reminderId,
+            "Take 1 tablet with breakfast",
+            daily ? "medication" : "appointment",
+            reminderId % 24,
+            reminderId * 7 % 60,
+            daily,
+            !daily,
+            reminderId % 5 == 0,
+            daily ? 0 : 1_760_000_000_000L + reminderId * 60_000L);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        registry = new AlarmRegistry();
+        for (int i = 1; i <= alarmCount; i++) {
+            registry.put(alarm(i));
+        }
+        json = registry.toJson();
+    }
+
+    // Replaces ids spread over the whole registry, so legacy scans are not always short
+    private int nextId() {
+        next = (next + 7919) % alarmCount;
+        return next + 1;
+    }
+
+    @Benchmark
+    public String saveAlarm() throws Exception {
+        registry.put(alarm(nextId()));
+        return registry.toJson();
+    }
+
+    @Benchmark
+    public String saveAlarmLegacyScan() throws Exception {
+        int reminderId = nextId();
+        JSONArray alarms = new JSONArray(json);
+        for (int i = 0; i < alarms.length(); i++) {
+            JSONObject existing = alarms.getJSONObject(i);
+            if (existing.getInt("reminderId") == reminderId) {
+                alarms.remove(i);
+                break;
+            }
+        }
+        alarms.put(alarm(reminderId).toJson());
+        return alarms.toString();
+    }
+
+    @Benchmark
+    public String removeAndRestoreAlarm() throws Exception {
+        AlarmRegistry.AlarmInfo removed = registry.remove(nextId());
+        String saved = registry.toJson();
+        registry.put(removed);
+        return saved;
+    }
+
+    @Benchmark
+    public int loadRegistry() throws Exception {
+        return AlarmRegistry.fromJson(json).size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class AlarmRegistryTest {
+
+    private static AlarmRegistry.AlarmInfo daily(int reminderId, String title, int hour, int minute) {
+        return new AlarmRegistry.AlarmInfo(reminderId, title, "body", "medication", hour, minute, true, false, false, 0);
+    }
+
+    @Test
+    public void readsAlarmsSavedBeforeTheRegistry() throws Exception {
+        // Format AlarmScheduler wrote before triggerTime was stored
+        String saved = "[{\"reminderId\":7,\"title\":\"Iron\",\"body\":\"1 tablet\",\"type\":\"medication\","
+            + "\"hour\":8,\"minute\":30,\"isDaily\":true,\"wakeScreen\":false},"
+            + "{\"reminderId\":9,\"title\":\"Scan\",\"body\":\"\",\"type\":\"appointment\","
+            + "\"hour\":0,\"minute\":0,\"isDaily\":false,\"wakeScreen\":true,\"isAlarm\":true}]";
+
+        AlarmRegistry registry = AlarmRegistry.fromJson(saved);
+
+        assertEquals(2, registry.size());
+        AlarmRegistry.AlarmInfo iron = registry.get(7);
+        assertEquals("Iron", iron.title);
+        assertEquals(8, iron.hour);
+        assertEquals(30, iron.minute);
+        assertTrue(iron.isDaily);
+        assertFalse(iron.isAlarm);
+        assertEquals(0, iron.triggerTime);
+        assertTrue(registry.get(9).isAlarm);
+    }
+
+    @Test
+    public void putReplacesByIdAndRoundTrips() throws Exception {
+        AlarmRegistry registry = new AlarmRegistry();
+        registry.put(daily(1, "Folic acid", 8, 0));
+        registry.put(daily(2, "Iron", 13, 0));
+        registry.put(daily(1, "Folic acid", 9, 15));
+
+        assertEquals(2, registry.size());
+        JSONArray array = registry.toJsonArray();
+        // A replaced alarm moves to the end, as it did when the array was edited in place
+        assertEquals(2, array.getJSONObject(0).getInt("reminderId"));
+        JSONObject replaced = array.getJSONObject(1);
+        assertEquals(9, replaced.getInt("hour"));
+        assertFalse(replaced.has("triggerTime"));
+
+        AlarmRegistry copy = AlarmRegistry.fromJson(registry.toJson());
+        assertEquals(registry.toJson(), copy.toJson());
+
+        assertNotNull(registry.remove(2));
+        assertNull(registry.remove(2));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void dedupIndexFollowsPutAndRemove() throws Exception {
+        AlarmRegistry registry = new AlarmRegistry();
+        registry.put(daily(1, "Folic acid", 8, 0));
+
+        assertEquals(1, registry.findDuplicate(daily(2, "folic  ACID!", 8, 0)).reminderId);
+        // Never a duplicate of itself
+        assertNull(registry.findDuplicate(daily(1, "Folic acid", 8, 0)));
+        assertNull(registry.findDuplicate(daily(2, "Folic acid", 8, 5)));
+
+        registry.put(daily(1, "Folic acid", 9, 0));
+        assertNull(registry.findDuplicate(daily(2, "Folic acid", 8, 0)));
+        assertEquals(1, registry.findDuplicate(daily(2, "Folic acid", 9, 0)).reminderId);
+
+        registry.remove(1);
+        assertNull(registry.findDuplicate(daily(2, "Folic acid", 9, 0)));
+
+        // Rebuilt when loading
+        registry.put(daily(3, "Iron", 13, 0));
+        AlarmRegistry loaded = AlarmRegistry.fromJson(registry.toJson());
+        assertEquals(3, loaded.findDuplicate(daily(4, "Iron", 13, 0)).reminderId);
+    }
+
+    @Test
+    public void dedupKeyBucketsOneTimeAlarmsByMinute() {
+        long at = 1_746_090_000_000L; // on a minute boundary
+        AlarmRegistry.AlarmInfo scan = new AlarmRegistry.AlarmInfo(1, "Growth scan", "", "custom", 0, 0, false, true, false, at);
+        AlarmRegistry.AlarmInfo later = new AlarmRegistry.AlarmInfo(2, "Scan growth", "x", "custom", 0, 0, false, false, true, at + 59_999);
+        AlarmRegistry.AlarmInfo nextMinute = new AlarmRegistry.AlarmInfo(3, "Growth scan", "", "custom", 0, 0, false, true, false, at + 60_000);
+
+        assertEquals(AlarmRegistry.dedupKey(scan), AlarmRegistry.dedupKey(later));
+        assertNotEquals(AlarmRegistry.dedupKey(scan), AlarmRegistry.dedupKey(nextMinute));
+        assertEquals("growth scan", AlarmRegistry.titleFingerprint("  Scan -- GROWTH "));
+    }
+}
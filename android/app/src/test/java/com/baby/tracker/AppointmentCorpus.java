@@ -0,0 +1,60 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The appointment texts in src/test/resources/appointment_texts.txt, separated by "---",
+// and the sequential regex loop TimeExtractor replaced, for tests and *Jmh benchmarks.
+class AppointmentCorpus {
+    // The patterns EntityExtractionPlugin used to try one after another
+    private static final Pattern[] LEGACY_PATTERNS = {
+        Pattern.compile("(?i)(\\d{1,2})\\s*[:\\.]?\\s*(\\d{2})\\s*(am|pm)", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("(?i)(\\d{1,2})\\s*(am|pm)", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("(?i)time[:\\s]+(\\d{1,2})\\s*[:\\.]?\\s*(\\d{2})\\s*(am|pm)?", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("(?i)at\\s+(\\d{1,2})\\s*[:\\.]?\\s*(\\d{2})\\s*(am|pm)?", Pattern.CASE_INSENSITIVE)
+    };
+
+    private AppointmentCorpus() {
+    }
+
+    static List<String> load() throws Exception {
+        List<String> texts = new ArrayList<>();
+        try (InputStream in = AppointmentCorpus.class.getClassLoader().getResourceAsStream("appointment_texts.txt")) {
+            assertNotNull("appointment_texts.txt missing from test resources", in);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals("---")) {
+                    texts.add(current.toString().trim());
+                    current.setLength(0);
+                } else {
+                    current.append(line).append('\n');
+                }
+            }
+            if (current.length() > 0) {
+                texts.add(current.toString().trim());
+            }
+        }
+        return texts;
+    }
+
+    // Hour of the first legacy match, -1 if none
+    static int legacyExtract(String text) {
+        for (Pattern pattern : LEGACY_PATTERNS) {
+            Matcher matcher = pattern.matcher(text);
+            if (matcher.find()) {
+                return Integer.parseInt(matcher.group(1));
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,107 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BackupArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File photo(String name, int size, long seed) throws IOException {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        File file = folder.newFile(name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+
+    private File write(File photo) throws IOException {
+        File archive = folder.newFile("backup.zip");
+        try (BackupArchive.Writer writer = new BackupArchive.Writer(new FileOutputStream(archive))) {
+            writer.addText("reminders/active_alarms.json", "[{\"reminderId\":1}]");
+            try (BackupArchive.Writer.TextEntry history = writer.beginText("reminders/history.jsonl")) {
+                for (int i = 0; i < 1000; i++) {
+                    history.writeLine("{\"reminderId\":" + i + "}");
+                }
+            }
+            writer.addFile("files/pregnancy-photos/a.jpg", photo, false);
+            writer.finish(new JSONObject().put("createdAt", 42));
+        }
+        return archive;
+    }
+
+    @Test
+    public void roundTripsTextLinesAndFilesWithTheManifest() throws Exception {
+        File photo = photo("a.jpg", 300_000, 1);
+        File archive = write(photo);
+
+        try (BackupArchive.Reader reader = new BackupArchive.Reader(archive)) {
+            assertEquals(42, reader.manifest.getInt("createdAt"));
+            assertEquals(3, reader.entries().size());
+            assertEquals(photo.length(), reader.entry("files/pregnancy-photos/a.jpg").size);
+
+            assertEquals("[{\"reminderId\":1}]\n", reader.readText("reminders/active_alarms.json"));
+            List<String> lines = new ArrayList<>();
+            reader.forEachLine("reminders/history.jsonl", lines::add);
+            assertEquals(1000, lines.size());
+            assertEquals("{\"reminderId\":999}", lines.get(999));
+
+            File restored = new File(folder.getRoot(), "restore/pregnancy-photos/a.jpg");
+            assertFalse(reader.matches("files/pregnancy-photos/a.jpg", restored));
+            reader.extract("files/pregnancy-photos/a.jpg", restored);
+            assertEquals(BackupArchive.sha256(photo), BackupArchive.sha256(restored));
+            assertTrue(reader.matches("files/pregnancy-photos/a.jpg", restored));
+        }
+    }
+
+    @Test
+    public void corruptedEntryIsRejectedAndNothingIsLeftBehind() throws Exception {
+        File photo = photo("a.jpg", 200_000, 2);
+        File archive = write(photo);
+        // Media is stored uncompressed, so flipping a byte in the middle of the archive
+        // corrupts the photo's data without breaking the zip structure
+        try (RandomAccessFile file = new RandomAccessFile(archive, "rw")) {
+            long at = file.length() / 2;
+            file.seek(at);
+            int b = file.read();
+            file.seek(at);
+            file.write(b ^ 0xFF);
+        }
+
+        File restored = new File(folder.getRoot(), "restore/a.jpg");
+        try (BackupArchive.Reader reader = new BackupArchive.Reader(archive)) {
+            reader.extract("files/pregnancy-photos/a.jpg", restored);
+            fail("Expected a checksum mismatch");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("a.jpg"));
+        }
+        assertFalse(restored.exists());
+        assertFalse(new File(restored.getParentFile(), "a.jpg.restore").exists());
+    }
+
+    @Test(expected = IOException.class)
+    public void zipWithoutManifestIsNotABackup() throws Exception {
+        File archive = folder.newFile("plain.zip");
+        try (java.util.zip.ZipOutputStream zip = new java.util.zip.ZipOutputStream(new FileOutputStream(archive))) {
+            zip.putNextEntry(new java.util.zip.ZipEntry("notes.txt"));
+            zip.write("hello".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        new BackupArchive.Reader(archive).close();
+    }
+}
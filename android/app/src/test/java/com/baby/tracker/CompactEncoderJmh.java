@@ -0,0 +1,160 @@
+package com.baby.tracker;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time per OCR response: the JSON block tree OcrPlugin builds by default against
+// CompactEncoder, for a small receipt (20 blocks) and a long chat screenshot (400).
+// Encode = build + serialize to the bridge string; decode = parse + walk every line and box.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompactEncoderJmh {
+
+    @Param({"20", "400"})
+    public int blockCount;
+
+    private List<Block> blocks;
+    private String json;
+    private String compact;
+
+    static class Block {
+        final List<String> lines;
+        final int[] box;
+
+        Block(List<String> lines, int[] box) {
+            this.lines = lines;
+            this.box = box;
+        }
+    }
+
+    // Lines taken from the appointment corpus, laid out as blocks of up to three lines
+    static List<Block> response(List<String> corpus, int blockCount) {
+        List<String> lines = new ArrayList<>();
+        for (String text : corpus) {
+            lines.addAll(Arrays.asList(text.split("\n")));
+        }
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < blockCount; i++) {
+            List<String> blockLines = new ArrayList<>();
+            for (int j = 0; j <= i % 3; j++) {
+                blockLines.add(lines.get((i * 3 + j) % lines.size()));
+            }
+            int top = 40 + i * 64;
+            blocks.add(new Block(blockLines, new int[]{24, top, 1056, top + 48 * blockLines.size()}));
+        }
+        return blocks;
+    }
+
+    // Same shape as OcrPlugin.blockToJson
+    static String encodeJson(List<Block> blocks) throws Exception {
+        JSONObject result = new JSONObject();
+        result.put("success", true);
+        JSONArray array = new JSONArray();
+        for (Block block : blocks) {
+            JSONObject blockObj = new JSONObject();
+            blockObj.put("text", String.join("\n", block.lines));
+            JSONObject bbox = new JSONObject();
+            bbox.put("left", block.box[0]);
+            bbox.put("top", block.box[1]);
+            bbox.put("right", block.box[2]);
+            bbox.put("bottom", block.box[3]);
+            blockObj.put("boundingBox", bbox);
+            JSONArray lines = new JSONArray();
+            for (String line : block.lines) {
+                lines.put(new JSONObject().put("text", line));
+            }
+            blockObj.put("lines", lines);
+            array.put(blockObj);
+        }
+        result.put("blocks", array);
+        return result.toString();
+    }
+
+    static String encodeCompact(List<Block> blocks) throws Exception {
+        JSONObject result = new JSONObject();
+        result.put("success", true);
+        CompactEncoder encoder = new CompactEncoder();
+        for (Block block : blocks) {
+            encoder.addBlock(block.lines, true, block.box[0], block.box[1], block.box[2], block.box[3]);
+        }
+        encoder.writeTo(result);
+        return result.toString();
+    }
+
+    static long decodeJson(String payload) throws Exception {
+        long sink = 0;
+        JSONArray blocks = new JSONObject(payload).getJSONArray("blocks");
+        for (int i = 0; i < blocks.length(); i++) {
+            JSONObject block = blocks.getJSONObject(i);
+            sink += block.getJSONObject("boundingBox").getInt("bottom");
+            JSONArray lines = block.getJSONArray("lines");
+            for (int j = 0; j < lines.length(); j++) {
+                sink += lines.getJSONObject(j).getString("text").length();
+            }
+        }
+        return sink;
+    }
+
+    static long decodeCompact(String payload) throws Exception {
+        long sink = 0;
+        JSONObject result = new JSONObject(payload);
+        int[] geometry = CompactEncoder.unpackInts(result.getString("geometry"));
+        for (int i = 0; i < result.getInt("blockCount"); i++) {
+            sink += geometry[i * CompactEncoder.INTS_PER_BLOCK + 4];
+        }
+        for (List<String> lines : CompactEncoder.decodeLines(result)) {
+            for (String line : lines) {
+                sink += line.length();
+            }
+        }
+        return sink;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        blocks = response(AppointmentCorpus.load(), blockCount);
+        json = encodeJson(blocks);
+        compact = encodeCompact(blocks);
+    }
+
+    @Benchmark
+    public String encodeJsonTree() throws Exception {
+        return encodeJson(blocks);
+    }
+
+    @Benchmark
+    public long decodeJsonTree() throws Exception {
+        return decodeJson(json);
+    }
+
+    @Benchmark
+    public String encodeCompactPayload() throws Exception {
+        return encodeCompact(blocks);
+    }
+
+    @Benchmark
+    public long decodeCompactPayload() throws Exception {
+        return decodeCompact(compact);
+    }
+}
@@ -0,0 +1,71 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+public class CompactEncoderTest {
+
+    @Test
+    public void base64MatchesTheJdkEncoder() {
+        for (String sample : new String[]{"", "a", "ab", "abc", "abcd", "Appointment 14:30 – room 2"}) {
+            byte[] bytes = sample.getBytes(StandardCharsets.UTF_8);
+            String encoded = CompactEncoder.base64(bytes);
+            assertEquals(Base64.getEncoder().encodeToString(bytes), encoded);
+            assertArrayEquals(bytes, CompactEncoder.decodeBase64(encoded));
+        }
+    }
+
+    @Test
+    public void packsIntsLittleEndian() {
+        int[] values = {1, -1, 256, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        String packed = CompactEncoder.packInts(values, values.length);
+        byte[] bytes = Base64.getDecoder().decode(packed);
+        assertEquals(20, bytes.length);
+        assertEquals(1, bytes[0]);
+        assertEquals(0, bytes[1]);
+        assertArrayEquals(values, CompactEncoder.unpackInts(packed));
+    }
+
+    @Test
+    public void roundTripsBlocksAndGeometry() throws Exception {
+        CompactEncoder encoder = new CompactEncoder();
+        encoder.addBlock(Arrays.asList("Dr. Smith", "Tue 14 May 10:30"), true, 10, 20, 300, 80);
+        encoder.addBlock(Arrays.asList(""), false, 0, 0, 0, 0);
+        encoder.addBlock(Arrays.asList("Room 4"), true, 12, 90, 120, 110);
+
+        JSONObject result = new JSONObject();
+        encoder.writeTo(result);
+        // Survives the trip through a JSON string like the bridge does
+        JSONObject parsed = new JSONObject(result.toString());
+
+        assertEquals(CompactEncoder.FORMAT, parsed.getString("format"));
+        assertEquals(3, parsed.getInt("blockCount"));
+        List<List<String>> blocks = CompactEncoder.decodeLines(parsed);
+        assertEquals(Arrays.asList("Dr. Smith", "Tue 14 May 10:30"), blocks.get(0));
+        assertEquals(Arrays.asList(""), blocks.get(1));
+        assertEquals(Arrays.asList("Room 4"), blocks.get(2));
+
+        int[] geometry = CompactEncoder.unpackInts(parsed.getString("geometry"));
+        assertArrayEquals(new int[]{2, 10, 20, 300, 80, 1, -1, -1, -1, -1, 1, 12, 90, 120, 110}, geometry);
+    }
+
+    @Test
+    public void compactPayloadCarriesTheSameBlocksInFewerBytes() throws Exception {
+        List<String> corpus = AppointmentCorpus.load();
+        for (int blockCount : new int[]{20, 400}) {
+            List<CompactEncoderJmh.Block> blocks = CompactEncoderJmh.response(corpus, blockCount);
+            String json = CompactEncoderJmh.encodeJson(blocks);
+            String compact = CompactEncoderJmh.encodeCompact(blocks);
+
+            assertEquals(CompactEncoderJmh.decodeJson(json), CompactEncoderJmh.decodeCompact(compact));
+            assertTrue(compact.getBytes(StandardCharsets.UTF_8).length < json.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.baby.tracker;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// EntityExtractionPlugin's plain-Java paths over the appointment corpus: the time
+// pass it runs on every text (and the sequential regex loop it replaced), the offline
+// date/contact rules, and building the JSON result it sends over the bridge. Each op
+// covers the whole corpus.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExtractionJmh {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    private List<String> corpus;
+    private List<OfflineEntityExtractor.Result> results;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        corpus = AppointmentCorpus.load();
+        results = new ArrayList<>();
+        for (String text : corpus) {
+            results.add(OfflineEntityExtractor.extract(text, TODAY, ZONE, true));
+        }
+    }
+
+    @Benchmark
+    public int extractTimes() {
+        int found = 0;
+        for (String text : corpus) {
+            found += TimeExtractor.extract(text).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int sequentialRegexTimes() {
+        int found = 0;
+        for (String text : corpus) {
+            found += AppointmentCorpus.legacyExtract(text) >= 0 ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int prefilter() {
+        int worthSending = 0;
+        for (String text : corpus) {
+            worthSending += OfflineEntityExtractor.hasDateLikeTokens(text) ? 1 : 0;
+        }
+        return worthSending;
+    }
+
+    @Benchmark
+    public int extractOffline() {
+        int found = 0;
+        for (String text : corpus) {
+            found += OfflineEntityExtractor.extract(text, TODAY, ZONE, true).dates.size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long serializeResults() throws Exception {
+        long bytes = 0;
+        for (int i = 0; i < corpus.size(); i++) {
+            bytes += toJson(corpus.get(i), results.get(i)).toString().length();
+        }
+        return bytes;
+    }
+
+    // Same shape as EntityExtractionPlugin.offlineResult
+    private static JSONObject toJson(String text, OfflineEntityExtractor.Result extracted) throws Exception {
+        JSONObject result = new JSONObject();
+        result.put("success", true);
+        result.put("source", "rules");
+
+        JSONArray dates = new JSONArray();
+        for (OfflineEntityExtractor.Match match : extracted.dates) {
+            JSONObject entityObj = matchToJson(match);
+            entityObj.put("timestamp", match.timestamp);
+            if (match.endTimestamp >= 0) {
+                entityObj.put("endTimestamp", match.endTimestamp);
+            }
+            entityObj.put("granularity", match.hasTime ? 2 : 3);
+            dates.put(entityObj);
+        }
+        result.put("dates", dates);
+        result.put("addresses", new JSONArray());
+        result.put("phones", matchesToJson(extracted.phones));
+        result.put("emails", matchesToJson(extracted.emails));
+        result.put("urls", matchesToJson(extracted.urls));
+
+        JSONArray times = new JSONArray();
+        for (TimeExtractor.TimeMention time : extracted.times) {
+            JSONObject timeObj = new JSONObject();
+            timeObj.put("text", text.substring(time.start, time.end));
+            timeObj.put("start", time.start);
+            timeObj.put("end", time.end);
+            timeObj.put("hour", time.hour);
+            timeObj.put("minute", time.minute);
+            if (time.isRange()) {
+                timeObj.put("endHour", time.endHour);
+                timeObj.put("endMinute", time.endMinute);
+            }
+            timeObj.put("formatted", time.toString());
+            times.put(timeObj);
+        }
+        result.put("times", times);
+        return result;
+    }
+
+    private static JSONObject matchToJson(OfflineEntityExtractor.Match match) throws Exception {
+        JSONObject entityObj = new JSONObject();
+        entityObj.put("text", match.text);
+        entityObj.put("start", match.start);
+        entityObj.put("end", match.end);
+        return entityObj;
+    }
+
+    private static JSONArray matchesToJson(List<OfflineEntityExtractor.Match> matches) throws Exception {
+        JSONArray array = new JSONArray();
+        for (OfflineEntityExtractor.Match match : matches) {
+            array.put(matchToJson(match));
+        }
+        return array;
+    }
+}
@@ -0,0 +1,51 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class HttpRangeTest {
+
+    @Test
+    public void missingOrUnsupportedHeadersServeTheWholeResource() {
+        assertNull(HttpRange.parse(null, 1000));
+        assertNull(HttpRange.parse("items=0-10", 1000));
+        assertNull(HttpRange.parse("bytes=0-10, 20-30", 1000));
+        assertNull(HttpRange.parse("bytes=abc-", 1000));
+    }
+
+    @Test
+    public void resolvesBoundedOpenAndSuffixRanges() {
+        HttpRange bounded = HttpRange.parse("bytes=100-199", 1000);
+        assertEquals(100, bounded.start);
+        assertEquals(199, bounded.end);
+        assertEquals(100, bounded.length());
+        assertEquals("bytes 100-199/1000", bounded.contentRange(1000));
+
+        HttpRange open = HttpRange.parse("bytes=900-", 1000);
+        assertEquals(900, open.start);
+        assertEquals(999, open.end);
+
+        HttpRange suffix = HttpRange.parse("bytes=-300", 1000);
+        assertEquals(700, suffix.start);
+        assertEquals(999, suffix.end);
+    }
+
+    @Test
+    public void clampsTheEndAndTheSuffixToTheResource() {
+        HttpRange range = HttpRange.parse("bytes=500-5000", 1000);
+        assertEquals(999, range.end);
+
+        HttpRange suffix = HttpRange.parse("bytes=-5000", 1000);
+        assertEquals(0, suffix.start);
+        assertEquals(1000, suffix.length());
+    }
+
+    @Test
+    public void rangesPastTheEndAreUnsatisfiable() {
+        assertSame(HttpRange.UNSATISFIABLE, HttpRange.parse("bytes=1000-", 1000));
+        assertSame(HttpRange.UNSATISFIABLE, HttpRange.parse("bytes=20-10", 1000));
+        assertSame(HttpRange.UNSATISFIABLE, HttpRange.parse("bytes=-0", 1000));
+        assertEquals("bytes */1000", HttpRange.UNSATISFIABLE.contentRange(1000));
+    }
+}
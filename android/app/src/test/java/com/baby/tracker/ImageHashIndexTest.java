@@ -0,0 +1,67 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ImageHashIndexTest {
+    private static final long CONFIRMATION = 0x5a3c_96e1_0ff0_c3a5L;
+
+    @Test
+    public void findsTheClosestEntryWithinTheThreshold() {
+        ImageHashIndex<String> index = new ImageHashIndex<>(8);
+        index.put("content://a", CONFIRMATION, "Scan on 12 May at 10:30");
+        index.put("content://b", CONFIRMATION ^ 0b1111_0000, "Scan on 12 May at 10:30 (cropped)");
+
+        // Two bits from b, six from a
+        ImageHashIndex.Match<String> match = index.findNearDuplicate(CONFIRMATION ^ 0b1111_0011);
+        assertNotNull(match);
+        assertEquals("content://b", match.entry.key);
+        assertEquals(2, match.distance);
+
+        assertNull(index.findNearDuplicate(~CONFIRMATION));
+        assertNull(new ImageHashIndex<String>(8).findNearDuplicate(CONFIRMATION));
+    }
+
+    @Test
+    public void thresholdIsInclusive() {
+        ImageHashIndex<String> index = new ImageHashIndex<>(8);
+        index.put("a", 0L, "text");
+        long atThreshold = (1L << ImageHashes.NEAR_DUPLICATE_DISTANCE) - 1;
+        assertNotNull(index.findNearDuplicate(atThreshold));
+        assertNull(index.findNearDuplicate(atThreshold << 1 | 1));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsed() {
+        ImageHashIndex<String> index = new ImageHashIndex<>(2);
+        index.put("first", 0L, "1");
+        index.put("second", -1L, "2");
+        // A hit on first makes second the eldest
+        assertEquals("first", index.findNearDuplicate(0L).entry.key);
+        index.put("third", 0x00ff_00ff_00ff_00ffL, "3");
+
+        assertEquals(2, index.size());
+        assertNull(index.findNearDuplicate(-1L));
+        assertEquals("first", index.findNearDuplicate(1L).entry.key);
+    }
+
+    @Test
+    public void putReplacesBySameKey() {
+        ImageHashIndex<String> index = new ImageHashIndex<>(4);
+        index.put("a", 0L, "old");
+        index.put("a", -1L, "new");
+        assertEquals(1, index.size());
+        assertNull(index.findNearDuplicate(0L));
+        assertEquals("new", index.findNearDuplicate(-1L).entry.value);
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        ImageHashIndex<String> index = new ImageHashIndex<>(4);
+        index.put("a", 0L, "text");
+        index.clear();
+        assertEquals(0, index.size());
+        assertNull(index.findNearDuplicate(0L));
+    }
+}
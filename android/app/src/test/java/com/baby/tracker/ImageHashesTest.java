@@ -0,0 +1,73 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ImageHashesTest {
+    private static final int W = ImageHashes.DHASH_WIDTH;
+    private static final int H = ImageHashes.DHASH_HEIGHT;
+
+    private static int gray(int level) {
+        int v = Math.max(0, Math.min(255, level));
+        return 0xff000000 | (v << 16) | (v << 8) | v;
+    }
+
+    // Dark text-like bands on a light background, shifted down by offset rows
+    private static int[] page(int offset) {
+        int[] pixels = new int[W * H];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                boolean ink = ((y + offset) % 3 == 0) && (x * 7 + y * 3) % 5 < 2;
+                pixels[y * W + x] = gray(ink ? 40 : 230 - x * 2);
+            }
+        }
+        return pixels;
+    }
+
+    @Test
+    public void setsOneBitPerBrighterLeftNeighbour() {
+        int[] fallingRamp = new int[W * H];
+        for (int i = 0; i < fallingRamp.length; i++) {
+            fallingRamp[i] = gray(255 - (i % W) * 20);
+        }
+        assertEquals(-1L, ImageHashes.dHash(fallingRamp));
+
+        int[] flat = new int[W * H];
+        java.util.Arrays.fill(flat, gray(128));
+        assertEquals(0L, ImageHashes.dHash(flat));
+    }
+
+    @Test
+    public void smallBrightnessChangesAreNearDuplicates() {
+        int[] original = page(0);
+        int[] recompressed = original.clone();
+        for (int i = 0; i < recompressed.length; i++) {
+            // Uniform brightening plus a little noise, as after JPEG re-encoding
+            int level = (recompressed[i] & 0xff) + 12 + (i % 3);
+            recompressed[i] = gray(level);
+        }
+        long a = ImageHashes.dHash(original);
+        long b = ImageHashes.dHash(recompressed);
+        assertTrue(ImageHashes.distance(a, b) + " bits apart", ImageHashes.isNearDuplicate(a, b));
+    }
+
+    @Test
+    public void scrolledContentIsDistinct() {
+        long top = ImageHashes.dHash(page(0));
+        long scrolled = ImageHashes.dHash(page(1));
+        assertFalse(ImageHashes.distance(top, scrolled) + " bits apart", ImageHashes.isNearDuplicate(top, scrolled));
+    }
+
+    @Test
+    public void luminanceWeighsGreenMost() {
+        assertTrue(ImageHashes.luminance(0xff00ff00) > ImageHashes.luminance(0xffff0000));
+        assertTrue(ImageHashes.luminance(0xffff0000) > ImageHashes.luminance(0xff0000ff));
+        assertEquals(255, ImageHashes.luminance(0xffffffff));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWrongSampleSize() {
+        ImageHashes.dHash(new int[16]);
+    }
+}
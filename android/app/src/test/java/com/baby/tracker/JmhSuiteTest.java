@@ -0,0 +1,48 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Collection;
+
+// Runs the *Jmh benchmarks. Skipped unless -DrunBenchmarks=true, which
+// ./gradlew testDebugUnitTest -PrunBenchmarks sets; the results JSON can be
+// diffed between commits.
+//   -Pbenchmarks=<regex>      only matching benchmarks, e.g. AlarmRegistryJmh
+//   -PbenchmarkForks=0        run in the test JVM (quicker, noisier)
+public class JmhSuiteTest {
+
+    @Test
+    public void runBenchmarks() throws Exception {
+        assumeTrue("Benchmarks run with -DrunBenchmarks=true", Boolean.getBoolean("runBenchmarks"));
+
+        String resultPath = System.getProperty("benchmarkResults", "build/reports/jmh/results.json");
+        File resultFile = new File(resultPath);
+        File resultDir = resultFile.getParentFile();
+        if (resultDir != null) {
+            resultDir.mkdirs();
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(System.getProperty("benchmarks", "com\\.baby\\.tracker\\..*Jmh"))
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile.getAbsolutePath())
+            .shouldFailOnError(true);
+        String forks = System.getProperty("benchmarkForks");
+        if (forks != null) {
+            options.forks(Integer.parseInt(forks));
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        assertFalse("No benchmarks matched", results.isEmpty());
+        System.out.println("JMH results written to " + resultFile.getAbsolutePath());
+    }
+}
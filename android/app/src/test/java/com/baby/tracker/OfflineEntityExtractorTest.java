@@ -0,0 +1,97 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+public class OfflineEntityExtractorTest {
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+
+    private static OfflineEntityExtractor.Result extract(String text) {
+        return OfflineEntityExtractor.extract(text, TODAY, ZONE, true);
+    }
+
+    private static long millis(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void combinesDatesWithTheirNearestTime() {
+        OfflineEntityExtractor.Result result = extract(
+            "Growth scan rescheduled: previously 03/10/2025 10:00, now 06/10/2025 at 11:15 am.");
+
+        assertEquals(2, result.dates.size());
+        assertEquals(millis(2025, 10, 3, 10, 0), result.dates.get(0).timestamp);
+        assertEquals(millis(2025, 10, 6, 11, 15), result.dates.get(1).timestamp);
+        assertTrue(result.dates.get(1).hasTime);
+    }
+
+    @Test
+    public void parsesWrittenDates() {
+        OfflineEntityExtractor.Result result = extract(
+            "Tuesday, March 11, 2025 at 10:30 AM. Follow-up on 2nd of May, then 2025-06-03 14:00.");
+
+        assertEquals(3, result.dates.size());
+        assertEquals("March 11, 2025", result.dates.get(0).text);
+        assertEquals(millis(2025, 3, 11, 10, 30), result.dates.get(0).timestamp);
+        assertEquals(millis(2025, 5, 2, 0, 0), result.dates.get(1).timestamp);
+        assertFalse(result.dates.get(1).hasTime);
+        assertEquals(millis(2025, 6, 3, 14, 0), result.dates.get(2).timestamp);
+    }
+
+    @Test
+    public void dateWithoutYearRollsForward() {
+        OfflineEntityExtractor.Result result = extract("Scan on 12 Feb");
+        assertEquals(millis(2026, 2, 12, 0, 0), result.dates.get(0).timestamp);
+    }
+
+    @Test
+    public void rangesProduceEndTimestamp() {
+        OfflineEntityExtractor.Result result = extract("Ultrasound Thursday 19th June between 11-1 PM.");
+        assertEquals(millis(2025, 6, 19, 11, 0), result.dates.get(0).timestamp);
+        assertEquals(millis(2025, 6, 19, 13, 0), result.dates.get(0).endTimestamp);
+    }
+
+    @Test
+    public void monthFirstWhenRequested() {
+        OfflineEntityExtractor.Result result = OfflineEntityExtractor.extract("Due 04/05/2025", TODAY, ZONE, false);
+        assertEquals(millis(2025, 4, 5, 0, 0), result.dates.get(0).timestamp);
+    }
+
+    @Test
+    public void rejectsImpossibleDates() {
+        assertEquals(0, extract("Batch 31/02/2025").dates.size());
+    }
+
+    @Test
+    public void findsContactDetails() {
+        OfflineEntityExtractor.Result result = extract(
+            "Call 555-201-3344 or 01632 960 123, email midwife@clinic.example.org, "
+                + "or visit https://clinic.example.org/visit/88231. Room 12, 28 weeks.");
+
+        assertEquals(2, result.phones.size());
+        assertEquals("555-201-3344", result.phones.get(0).text);
+        assertEquals("01632 960 123", result.phones.get(1).text);
+        assertEquals("midwife@clinic.example.org", result.emails.get(0).text);
+        assertEquals("https://clinic.example.org/visit/88231", result.urls.get(0).text);
+    }
+
+    @Test
+    public void datesAreNotPhoneNumbers() {
+        assertEquals(0, extract("When: 2025-06-03 14:00").phones.size());
+    }
+
+    @Test
+    public void prefilterRecognizesDateLikeText() {
+        assertTrue(OfflineEntityExtractor.hasDateLikeTokens("See you on 14/04"));
+        assertTrue(OfflineEntityExtractor.hasDateLikeTokens("OB follow-up: Nov 3"));
+        assertTrue(OfflineEntityExtractor.hasDateLikeTokens("Come back tomorrow"));
+        assertFalse(OfflineEntityExtractor.hasDateLikeTokens("Take two tablets with water after meals"));
+    }
+}
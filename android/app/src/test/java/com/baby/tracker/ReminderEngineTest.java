@@ -0,0 +1,387 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public class ReminderEngineTest {
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    private static long at(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static ReminderSimulation simulation(long start) {
+        return new ReminderSimulation(Instant.ofEpochMilli(start), ZONE);
+    }
+
+    @Test
+    public void nextDailyTriggerRollsOverAndFollowsDst() {
+        Instant morning = Instant.ofEpochMilli(at(2025, 3, 8, 7, 0));
+
+        // Still ahead today
+        assertEquals(at(2025, 3, 8, 8, 30), ReminderEngine.nextDailyTrigger(morning, ZONE, 8, 30));
+        // Exactly now counts as passed
+        assertEquals(at(2025, 3, 9, 7, 0), ReminderEngine.nextDailyTrigger(morning, ZONE, 7, 0));
+        // Tomorrow is the switch to daylight time: still 06:00 local, only 22 hours later
+        long trigger = ReminderEngine.nextDailyTrigger(morning, ZONE, 6, 0);
+        assertEquals(at(2025, 3, 9, 6, 0), trigger);
+        assertEquals(22 * 3_600_000L, trigger - morning.toEpochMilli());
+        // 02:30 does not exist on the 9th; it fires at 03:30 that day instead of being skipped
+        assertEquals(at(2025, 3, 9, 3, 30), ReminderEngine.nextDailyTrigger(morning, ZONE, 2, 30));
+    }
+
+    @Test
+    public void dailyReminderFiresOncePerDayForSixMonths() {
+        long start = at(2025, 1, 1, 12, 0);
+        long end = at(2025, 7, 1, 0, 0);
+        ReminderSimulation sim = simulation(start);
+        sim.engine.scheduleDaily(1, "Prenatal vitamin", "1 tablet", "medication", 8, 30, false);
+        sim.engine.scheduleDaily(2, "Iron", "With dinner", "medication", 19, 0, true);
+
+        int fired = sim.runUntil(end);
+
+        // Jan 2 - Jun 30 for the vitamin, Jan 1 - Jun 30 for iron
+        assertEquals(180 + 181, fired);
+        for (ReminderSimulation.Event event : sim.eventsOf(ReminderEngine.EVENT_FIRED)) {
+            LocalTime local = Instant.ofEpochMilli(event.at).atZone(ZONE).toLocalTime();
+            assertEquals(event.reminderId == 1 ? LocalTime.of(8, 30) : LocalTime.of(19, 0), local);
+        }
+        // Still armed, once each, for tomorrow
+        assertEquals(2, sim.alarmManager.pending.size());
+        assertEquals(at(2025, 7, 1, 8, 30), sim.alarmManager.pending.get(1).triggerTime);
+        assertEquals(2, sim.engine.activeAlarms().size());
+    }
+
+    @Test
+    public void oneTimeReminderFiresOnceAndLeavesTheRegistry() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 9, 0));
+        assertNotNull(sim.engine.scheduleOneTime(7, "Growth scan", "City Hospital", "appointment",
+            at(2025, 5, 3, 10, 0), false, false));
+
+        assertEquals(1, sim.runUntil(at(2025, 6, 1, 0, 0)));
+        assertTrue(sim.alarmManager.pending.isEmpty());
+        assertTrue(sim.engine.activeAlarms().isEmpty());
+    }
+
+    @Test
+    public void oneTimeReminderNeedsExactAlarmPermission() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 9, 0));
+        sim.alarmManager.exactAllowed = false;
+
+        assertNull(sim.engine.scheduleOneTime(7, "Growth scan", "", "appointment",
+            at(2025, 5, 3, 10, 0), false, false));
+        assertTrue(sim.engine.activeAlarms().isEmpty());
+
+        // Daily reminders still go in, as inexact alarms
+        sim.engine.scheduleDaily(1, "Vitamin", "", "medication", 8, 0, false);
+        assertFalse(sim.alarmManager.pending.get(1).exact);
+    }
+
+    @Test
+    public void bootReschedulesDailyAndFutureOneTimeAlarms() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 9, 0));
+        sim.engine.scheduleDaily(1, "Vitamin", "", "medication", 8, 0, false);
+        sim.engine.scheduleOneTime(2, "Scan", "", "appointment", at(2025, 5, 1, 14, 0), true, false);
+        sim.engine.scheduleOneTime(3, "Midwife", "", "appointment", at(2025, 5, 10, 11, 0), false, true);
+
+        // Off from noon to 15:00: the scan passed while the phone was off
+        sim.reboot(at(2025, 5, 1, 15, 0));
+
+        assertEquals(2, sim.alarmManager.pending.size());
+        assertEquals(at(2025, 5, 2, 8, 0), sim.alarmManager.pending.get(1).triggerTime);
+        ReminderSimulation.Pending midwife = sim.alarmManager.pending.get(3);
+        assertEquals(at(2025, 5, 10, 11, 0), midwife.triggerTime);
+        assertTrue(midwife.alarm.isAlarm);
+        assertTrue(midwife.alarm.wakeScreen);
+        assertNull(sim.engine.activeAlarms().stream().filter(a -> a.reminderId == 2).findAny().orElse(null));
+
+        // The persisted registry agrees after a second reboot
+        sim.reboot(at(2025, 5, 1, 16, 0));
+        assertEquals(2, sim.engine.activeAlarms().size());
+    }
+
+    @Test
+    public void snoozeArmsACopyTenMinutesLaterWithoutTouchingTheDailyAlarm() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        sim.engine.scheduleDaily(1, "Vitamin", "1 tablet", "medication", 8, 0, false);
+        sim.runUntil(at(2025, 5, 1, 8, 0));
+
+        long snoozed = sim.engine.snooze(1, "Vitamin", "1 tablet", "medication");
+
+        assertEquals(at(2025, 5, 1, 8, 10), snoozed);
+        ReminderSimulation.Pending copy = sim.alarmManager.pending.get(1 + ReminderEngine.SNOOZE_ID_OFFSET);
+        assertEquals(snoozed, copy.triggerTime);
+        assertFalse(copy.alarm.isDaily);
+        assertEquals(at(2025, 5, 2, 8, 0), sim.alarmManager.pending.get(1).triggerTime);
+        // The snoozed copy is not a saved reminder of its own
+        assertEquals(1, sim.engine.activeAlarms().size());
+
+        assertEquals(1, sim.runUntil(at(2025, 5, 1, 9, 0)));
+        assertEquals(1, sim.engine.activeAlarms().size());
+    }
+
+    @Test
+    public void takenConfirmsInPlaceAndDropsThePendingSnooze() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        sim.engine.scheduleDaily(1, "Vitamin", "1 tablet", "medication", 8, 0, false);
+        sim.runUntil(at(2025, 5, 1, 8, 0));
+        sim.engine.snooze(1, "Vitamin", "1 tablet", "medication");
+        sim.runUntil(at(2025, 5, 1, 8, 5));
+
+        long takenAt = sim.engine.onTaken(1, "medication", "Vitamin");
+
+        assertEquals(at(2025, 5, 1, 8, 5), takenAt);
+        assertEquals(Long.valueOf(takenAt), sim.notificationManager.taken.get(1));
+        assertFalse(sim.notificationManager.showing.containsKey(1));
+        assertNull(sim.alarmManager.pending.get(1 + ReminderEngine.SNOOZE_ID_OFFSET));
+        assertEquals(1, sim.eventsOf(ReminderEngine.EVENT_TAKEN).size());
+        // Tomorrow's dose is still armed and asks again
+        assertEquals(1, sim.runUntil(at(2025, 5, 2, 8, 0)));
+        assertTrue(sim.notificationManager.showing.containsKey(1));
+        assertFalse(sim.notificationManager.taken.containsKey(1));
+    }
+
+    @Test
+    public void takenFromTheSnoozedNotificationCountsForTheOriginalReminder() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        sim.engine.scheduleDaily(1, "Vitamin", "1 tablet", "medication", 8, 0, false);
+        sim.runUntil(at(2025, 5, 1, 8, 0));
+        sim.engine.snooze(1, "Vitamin", "1 tablet", "medication");
+        sim.runUntil(at(2025, 5, 1, 8, 10));
+        int snoozedId = 1 + ReminderEngine.SNOOZE_ID_OFFSET;
+        assertTrue(sim.notificationManager.showing.containsKey(snoozedId));
+
+        // NotificationReceiver hands the copy's originalId to the Taken action
+        int originalId = sim.notificationManager.showing.get(snoozedId).originalId;
+        long takenAt = sim.engine.onTaken(snoozedId, originalId, "medication", "Vitamin");
+
+        assertEquals(1, originalId);
+        // The snoozed notification is the one confirmed; the dose belongs to reminder 1
+        assertEquals(Long.valueOf(takenAt), sim.notificationManager.taken.get(snoozedId));
+        assertFalse(sim.notificationManager.showing.containsKey(snoozedId));
+        List<ReminderSimulation.Event> taken = sim.eventsOf(ReminderEngine.EVENT_TAKEN);
+        assertEquals(1, taken.size());
+        assertEquals(1, taken.get(0).reminderId);
+        assertEquals(1, sim.engine.activeAlarms().size());
+        assertEquals(1, sim.runUntil(at(2025, 5, 2, 8, 0)));
+    }
+
+    @Test
+    public void takenUnderALargeIdIsNotMistakenForASnoozedCopy() {
+        // JS hands out ids from Date.now(), well past the snooze offset
+        int id = (int) 1_746_086_400_123L;
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        sim.engine.scheduleDaily(id, "Vitamin", "1 tablet", "medication", 8, 0, false);
+        sim.runUntil(at(2025, 5, 1, 8, 0));
+        int originalId = sim.notificationManager.showing.get(id).originalId;
+
+        sim.engine.onTaken(id, originalId, "medication", "Vitamin");
+
+        assertEquals(id, originalId);
+        assertEquals(id, sim.eventsOf(ReminderEngine.EVENT_TAKEN).get(0).reminderId);
+        // The reminder's own alarm for tomorrow is left alone
+        assertTrue(sim.alarmManager.pending.containsKey(id));
+        assertEquals(1, sim.runUntil(at(2025, 5, 2, 8, 0)));
+    }
+
+    @Test
+    public void snoozingTheSnoozedNotificationRearmsTheSameCopy() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        sim.engine.scheduleDaily(1, "Vitamin", "1 tablet", "medication", 8, 0, false);
+        sim.runUntil(at(2025, 5, 1, 8, 0));
+        sim.engine.snooze(1, "Vitamin", "1 tablet", "medication");
+        sim.runUntil(at(2025, 5, 1, 8, 10));
+        int snoozedId = 1 + ReminderEngine.SNOOZE_ID_OFFSET;
+        int originalId = sim.notificationManager.showing.get(snoozedId).originalId;
+
+        sim.engine.snooze(snoozedId, originalId, "Vitamin", "1 tablet", "medication");
+
+        assertFalse(sim.notificationManager.showing.containsKey(snoozedId));
+        assertEquals(1, sim.alarmManager.pending.get(snoozedId).alarm.originalId);
+        assertEquals(2, sim.alarmManager.pending.size());
+        for (ReminderSimulation.Event snoozed : sim.eventsOf(ReminderEngine.EVENT_SNOOZED)) {
+            assertEquals(1, snoozed.reminderId);
+        }
+    }
+
+    @Test
+    public void restoreArmsOnlyWhatIsMissingInOneSave() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 9, 0));
+        sim.engine.scheduleDaily(1, "Vitamin", "", "medication", 8, 0, false);
+        int savesBefore = sim.store.saves;
+        int logWritesBefore = sim.logWrites;
+
+        List<AlarmRegistry.AlarmInfo> backup = java.util.Arrays.asList(
+            // Already here, under its own id and as a duplicate under another
+            new AlarmRegistry.AlarmInfo(1, "Vitamin", "", "medication", 8, 0, true, false, false, 0),
+            new AlarmRegistry.AlarmInfo(9, "vitamin", "", "medication", 8, 0, true, false, false, 0),
+            new AlarmRegistry.AlarmInfo(2, "Iron", "", "medication", 18, 0, true, false, false, 0),
+            new AlarmRegistry.AlarmInfo(3, "Growth scan", "", "custom", 0, 0, false, true, false, at(2025, 5, 3, 10, 0)),
+            // Passed while the backup sat on the old phone
+            new AlarmRegistry.AlarmInfo(4, "Old scan", "", "custom", 0, 0, false, true, false, at(2025, 4, 1, 10, 0))
+        );
+
+        assertEquals(2, sim.engine.restore(backup));
+
+        assertEquals(3, sim.engine.activeAlarms().size());
+        assertEquals(at(2025, 5, 1, 18, 0), sim.alarmManager.pending.get(2).triggerTime);
+        assertEquals(at(2025, 5, 3, 10, 0), sim.alarmManager.pending.get(3).triggerTime);
+        assertNull(sim.alarmManager.pending.get(9));
+        assertEquals(savesBefore + 1, sim.store.saves);
+        assertEquals(logWritesBefore + 1, sim.logWrites);
+
+        // Restoring the same backup again changes nothing
+        assertEquals(0, sim.engine.restore(backup));
+        assertEquals(savesBefore + 1, sim.store.saves);
+    }
+
+    @Test
+    public void reimportedAppointmentIsRejectedOrMergedIntoTheExistingOne() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 9, 0));
+        long scan = at(2025, 5, 3, 10, 0);
+        ReminderEngine.Scheduled first = sim.engine.scheduleOneTime(100, "Growth scan", "", "custom", scan, true, false);
+        assertEquals(ReminderEngine.ACTION_CREATED, first.action);
+        int setsAfterFirst = sim.alarmManager.sets;
+        int savesAfterFirst = sim.store.saves;
+
+        // Same card imported again under a new id, title cased and worded differently, 20 seconds off
+        ReminderEngine.Scheduled again = sim.engine.scheduleOneTime(200, "scan: GROWTH", "", "custom", scan + 20_000, true, false);
+        assertEquals(ReminderEngine.ACTION_REJECTED, again.action);
+        assertEquals(100, again.reminderId);
+        assertEquals(scan, again.triggerTime);
+        assertEquals(setsAfterFirst, sim.alarmManager.sets);
+        assertEquals(savesAfterFirst, sim.store.saves);
+
+        // This time as an alarm with a note: the existing reminder takes both
+        ReminderEngine.Scheduled louder = sim.engine.scheduleOneTime(300, "Growth scan", "City Hospital", "custom", scan, true, true);
+        assertEquals(ReminderEngine.ACTION_MERGED, louder.action);
+        assertEquals(100, louder.reminderId);
+        assertEquals(1, sim.alarmManager.pending.size());
+        ReminderSimulation.Pending pending = sim.alarmManager.pending.get(100);
+        assertTrue(pending.alarm.isAlarm);
+        assertEquals("City Hospital", pending.alarm.body);
+        assertEquals(1, sim.engine.activeAlarms().size());
+
+        // A different time or type is a different reminder
+        assertEquals(ReminderEngine.ACTION_CREATED,
+            sim.engine.scheduleOneTime(400, "Growth scan", "", "custom", scan + 3_600_000, true, false).action);
+        assertEquals(ReminderEngine.ACTION_CREATED,
+            sim.engine.scheduleOneTime(500, "Growth scan", "", "appointment", scan, true, false).action);
+        assertEquals(3, sim.alarmManager.pending.size());
+    }
+
+    @Test
+    public void reminderRescheduledOntoAnotherOnesSlotDropsItsOldAlarm() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        sim.engine.scheduleDaily(1, "Iron", "1 tablet", "medication", 8, 0, false);
+        sim.engine.scheduleDaily(2, "Iron", "1 tablet", "medication", 20, 0, false);
+        assertEquals(2, sim.alarmManager.pending.size());
+
+        // Reminder 2 moved to 08:00, where reminder 1 already asks for the same thing
+        ReminderEngine.Scheduled moved = sim.engine.scheduleDaily(2, "Iron", "1 tablet", "medication", 8, 0, false);
+
+        assertEquals(ReminderEngine.ACTION_REJECTED, moved.action);
+        assertEquals(1, moved.reminderId);
+        assertNull(sim.alarmManager.pending.get(2));
+        assertEquals(1, sim.engine.activeAlarms().size());
+        assertEquals(1, sim.engine.activeAlarms().get(0).reminderId);
+        // Only reminder 1's 08:00 fires; nothing is left at the old 20:00
+        assertEquals(1, sim.runUntil(at(2025, 5, 1, 21, 0)));
+
+        // The same move as an alarm is merged into reminder 1 instead
+        sim.engine.scheduleDaily(3, "Walk", "", "exercise", 18, 0, false);
+        sim.engine.scheduleDaily(4, "Walk", "", "exercise", 19, 0, false);
+        ReminderEngine.Scheduled louder = sim.engine.scheduleDaily(4, "Walk", "", "exercise", 18, 0, true);
+        assertEquals(ReminderEngine.ACTION_MERGED, louder.action);
+        assertEquals(3, louder.reminderId);
+        assertNull(sim.alarmManager.pending.get(4));
+        assertTrue(sim.alarmManager.pending.get(3).alarm.isAlarm);
+        assertEquals(2, sim.engine.activeAlarms().size());
+    }
+
+    @Test
+    public void customRemindersAtTheSameTimeWithDifferentTextAreBothArmed() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 9, 0));
+        // The settings screen gives every custom reminder the same title; the text is the body
+        assertEquals(ReminderEngine.ACTION_CREATED,
+            sim.engine.scheduleDaily(1, "Custom Reminder", "Drink water", "custom", 12, 0, false).action);
+        assertEquals(ReminderEngine.ACTION_CREATED,
+            sim.engine.scheduleDaily(2, "Custom Reminder", "Call doctor", "custom", 12, 0, false).action);
+        assertEquals(2, sim.alarmManager.pending.size());
+
+        // The same text again under a new id is still a duplicate
+        ReminderEngine.Scheduled again = sim.engine.scheduleDaily(3, "Custom Reminder", "drink WATER", "custom", 12, 0, false);
+        assertEquals(ReminderEngine.ACTION_REJECTED, again.action);
+        assertEquals(1, again.reminderId);
+        assertEquals(2, sim.alarmManager.pending.size());
+    }
+
+    @Test
+    public void medicationSyncUnderNewIdsDoesNotStackDailyAlarms() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        assertEquals(ReminderEngine.ACTION_CREATED,
+            sim.engine.scheduleDaily(1, "Iron", "1 tablet", "medication", 8, 0, false).action);
+        assertEquals(ReminderEngine.ACTION_UPDATED,
+            sim.engine.scheduleDaily(1, "Iron", "1 tablet", "medication", 8, 0, false).action);
+        // A sync that regenerated ids
+        assertEquals(ReminderEngine.ACTION_REJECTED,
+            sim.engine.scheduleDaily(11, "Iron", "1 tablet", "medication", 8, 0, false).action);
+        assertEquals(1, sim.alarmManager.pending.size());
+
+        // Moving the original frees its old slot for a new reminder
+        sim.engine.scheduleDaily(1, "Iron", "1 tablet", "medication", 9, 0, false);
+        assertEquals(ReminderEngine.ACTION_CREATED,
+            sim.engine.scheduleDaily(12, "Iron", "1 tablet", "medication", 8, 0, false).action);
+        assertEquals(2, sim.runUntil(at(2025, 5, 1, 10, 0)));
+
+        // Duplicates are still caught after a reboot reloads the registry
+        sim.reboot(at(2025, 5, 1, 12, 0));
+        assertEquals(ReminderEngine.ACTION_REJECTED,
+            sim.engine.scheduleDaily(13, "iron", "", "medication", 9, 0, false).action);
+    }
+
+    @Test
+    public void cancelDisarmsAndForgets() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        sim.engine.scheduleDaily(1, "Vitamin", "", "medication", 8, 0, false);
+        sim.engine.scheduleDaily(2, "Iron", "", "medication", 19, 0, false);
+
+        sim.engine.cancel(1);
+        assertNull(sim.alarmManager.pending.get(1));
+        assertEquals(1, sim.engine.activeAlarms().size());
+
+        sim.engine.cancelAll();
+        assertTrue(sim.alarmManager.pending.isEmpty());
+        assertTrue(sim.engine.activeAlarms().isEmpty());
+        assertEquals("[]", sim.store.json);
+
+        List<ReminderSimulation.Event> cancelled = sim.eventsOf(ReminderEngine.EVENT_CANCELLED);
+        assertEquals(2, cancelled.size());
+    }
+
+    @Test
+    public void timeZoneChangeAppliesToTheNextSchedule() {
+        ReminderSimulation sim = simulation(at(2025, 5, 1, 7, 0));
+        sim.engine.scheduleDaily(1, "Vitamin", "", "medication", 8, 0, false);
+        sim.runUntil(at(2025, 5, 1, 8, 0));
+
+        // The next AlarmScheduler gets a clock in the new zone
+        ZoneId london = ZoneId.of("Europe/London");
+        ReminderEngine engine = new ReminderEngine(sim.clock.withZone(london), sim.store, sim.alarmManager,
+            sim.notificationManager, (reminderId, type, title, event, triggerTime) -> { });
+        engine.scheduleDaily(1, "Vitamin", "", "medication", 8, 0, false);
+
+        ZonedDateTime next = Instant.ofEpochMilli(sim.alarmManager.pending.get(1).triggerTime).atZone(london);
+        assertEquals(LocalTime.of(8, 0), next.toLocalTime());
+        assertEquals(LocalDate.of(2025, 5, 2), next.toLocalDate());
+    }
+}
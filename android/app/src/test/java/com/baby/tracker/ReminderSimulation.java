@@ -0,0 +1,258 @@
+package com.baby.tracker;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A ReminderEngine wired to a simulated clock, an in-memory store and fake
+// AlarmManager and NotificationManager, with the system's side of the loop:
+// advancing the clock fires due alarms through onFired just as NotificationReceiver
+// would. Every fake counts its calls, so the IPC and write cost of a run can be read off.
+class ReminderSimulation {
+
+    static class SimulatedClock extends Clock {
+        private final ZoneId zone;
+        private long millis;
+
+        SimulatedClock(Instant start, ZoneId zone) {
+            this.millis = start.toEpochMilli();
+            this.zone = zone;
+        }
+
+        void set(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new SimulatedClock(Instant.ofEpochMilli(millis), zone);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    // Keeps the serialized registry, like SharedPreferences, so a reboot can reload it
+    static class MemoryStore implements ReminderEngine.AlarmStore {
+        String json = "[]";
+        int saves;
+
+        @Override
+        public AlarmRegistry load() {
+            try {
+                return AlarmRegistry.fromJson(json);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @Override
+        public void save(AlarmRegistry registry) {
+            try {
+                json = registry.toJson();
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            saves++;
+        }
+    }
+
+    static class Pending {
+        final AlarmRegistry.AlarmInfo alarm;
+        final long triggerTime;
+        final boolean exact;
+
+        Pending(AlarmRegistry.AlarmInfo alarm, long triggerTime, boolean exact) {
+            this.alarm = alarm;
+            this.triggerTime = triggerTime;
+            this.exact = exact;
+        }
+    }
+
+    static class FakeAlarmManager implements ReminderEngine.AlarmSink {
+        final Map<Integer, Pending> pending = new HashMap<>();
+        boolean exactAllowed = true;
+        int sets;
+        int cancels;
+
+        @Override
+        public boolean canScheduleExact() {
+            return exactAllowed;
+        }
+
+        @Override
+        public void set(int requestCode, AlarmRegistry.AlarmInfo alarm, long triggerTime, boolean exact) {
+            sets++;
+            pending.put(requestCode, new Pending(alarm, triggerTime, exact));
+        }
+
+        @Override
+        public void cancel(int requestCode) {
+            cancels++;
+            pending.remove(requestCode);
+        }
+
+        // AlarmManager forgets everything on reboot
+        void reboot() {
+            pending.clear();
+        }
+
+        Map.Entry<Integer, Pending> next() {
+            Map.Entry<Integer, Pending> next = null;
+            for (Map.Entry<Integer, Pending> entry : pending.entrySet()) {
+                if (next == null || entry.getValue().triggerTime < next.getValue().triggerTime) {
+                    next = entry;
+                }
+            }
+            return next;
+        }
+    }
+
+    static class FakeNotificationManager implements ReminderEngine.NotificationSink {
+        final Map<Integer, AlarmRegistry.AlarmInfo> showing = new HashMap<>();
+        // reminderId -> time taken, for notifications replaced by a confirmation
+        final Map<Integer, Long> taken = new HashMap<>();
+        int notifies;
+        int cancels;
+
+        @Override
+        public void show(AlarmRegistry.AlarmInfo alarm) {
+            notifies++;
+            showing.put(alarm.reminderId, alarm);
+            taken.remove(alarm.reminderId);
+        }
+
+        @Override
+        public void showTaken(int reminderId, String title, long takenAt) {
+            notifies++;
+            showing.remove(reminderId);
+            taken.put(reminderId, takenAt);
+        }
+
+        @Override
+        public void cancel(int reminderId) {
+            cancels++;
+            showing.remove(reminderId);
+            taken.remove(reminderId);
+        }
+    }
+
+    static class Event {
+        final int reminderId;
+        final String event;
+        final long at;
+        final long triggerTime;
+
+        Event(int reminderId, String event, long at, long triggerTime) {
+            this.reminderId = reminderId;
+            this.event = event;
+            this.at = at;
+            this.triggerTime = triggerTime;
+        }
+    }
+
+    final SimulatedClock clock;
+    final MemoryStore store = new MemoryStore();
+    final FakeAlarmManager alarmManager = new FakeAlarmManager();
+    final FakeNotificationManager notificationManager = new FakeNotificationManager();
+    final List<Event> events = new ArrayList<>();
+    // History commits: one per logged event, or one per batch
+    int logWrites;
+    long peakHeapBytes;
+    private boolean inBatch;
+    ReminderEngine engine;
+
+    ReminderSimulation(Instant start, ZoneId zone) {
+        clock = new SimulatedClock(start, zone);
+        engine = newEngine();
+    }
+
+    private ReminderEngine newEngine() {
+        return new ReminderEngine(clock, store, alarmManager, notificationManager, new ReminderEngine.EventLog() {
+            @Override
+            public void log(int reminderId, String type, String title, String event, long triggerTime) {
+                events.add(new Event(reminderId, event, clock.millis(), triggerTime));
+                if (events.size() % 64 == 0) {
+                    sampleHeap();
+                }
+                if (!inBatch) {
+                    logWrites++;
+                }
+            }
+
+            @Override
+            public void batch(Runnable writes) {
+                inBatch = true;
+                try {
+                    writes.run();
+                } finally {
+                    inBatch = false;
+                }
+                logWrites++;
+            }
+        });
+    }
+
+    // Fires every alarm due up to the given time, in trigger order. Returns how many fired.
+    int runUntil(long until) {
+        int fired = 0;
+        Map.Entry<Integer, Pending> next;
+        while ((next = alarmManager.next()) != null && next.getValue().triggerTime <= until) {
+            alarmManager.pending.remove(next.getKey());
+            clock.set(Math.max(clock.millis(), next.getValue().triggerTime));
+            engine.onFired(next.getValue().alarm);
+            fired++;
+        }
+        clock.set(Math.max(clock.millis(), until));
+        return fired;
+    }
+
+    // Process death and BootReceiver: a fresh engine reading the persisted registry
+    void reboot(long at) {
+        alarmManager.reboot();
+        clock.set(at);
+        engine = newEngine();
+        engine.rescheduleAll();
+    }
+
+    void sampleHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        peakHeapBytes = Math.max(peakHeapBytes, runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    // Binder calls to system_server: every AlarmManager and NotificationManager call
+    int ipcCalls() {
+        return alarmManager.sets + alarmManager.cancels + notificationManager.notifies + notificationManager.cancels;
+    }
+
+    // SharedPreferences commits plus history commits
+    int persistenceWrites() {
+        return store.saves + logWrites;
+    }
+
+    List<Event> eventsOf(String event) {
+        List<Event> matching = new ArrayList<>();
+        for (Event e : events) {
+            if (e.event.equals(event)) {
+                matching.add(e);
+            }
+        }
+        return matching;
+    }
+}
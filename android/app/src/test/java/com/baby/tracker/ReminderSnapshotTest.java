@@ -0,0 +1,138 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+public class ReminderSnapshotTest {
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    private static long at(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static Clock clockAt(long millis) {
+        return Clock.fixed(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    private static AlarmRegistry.AlarmInfo daily(int id, String title, String type, int hour, int minute) {
+        return new AlarmRegistry.AlarmInfo(id, title, "", type, hour, minute, true, false, false, 0);
+    }
+
+    private static AlarmRegistry.AlarmInfo oneTime(int id, String title, long triggerTime) {
+        return new AlarmRegistry.AlarmInfo(id, title, "", "custom", 0, 0, false, true, false, triggerTime);
+    }
+
+    @Test
+    public void upcomingIsSoonestFirstAndLimited() {
+        long now = at(2025, 5, 1, 12, 0);
+        List<AlarmRegistry.AlarmInfo> alarms = Arrays.asList(
+            daily(1, "Morning vitamin", "medication", 8, 0),
+            daily(2, "Iron", "medication", 18, 0),
+            oneTime(3, "Growth scan", at(2025, 5, 1, 15, 30)),
+            oneTime(4, "Old scan", at(2025, 4, 30, 10, 0)),
+            daily(5, "Walk", "exercise", 17, 0)
+        );
+
+        ReminderSnapshot snapshot = ReminderSnapshot.build(alarms, clockAt(now), 3, 0);
+
+        assertEquals(3, snapshot.upcoming.size());
+        assertEquals(3, snapshot.upcoming.get(0).reminderId);
+        assertEquals(5, snapshot.upcoming.get(1).reminderId);
+        assertEquals(2, snapshot.upcoming.get(2).reminderId);
+        assertEquals(at(2025, 5, 1, 18, 0), snapshot.upcoming.get(2).triggerTime);
+    }
+
+    @Test
+    public void appointmentsAreMergedIntoUpcomingAndPastOnesDropped() {
+        long now = at(2025, 5, 1, 12, 0);
+        List<AlarmRegistry.AlarmInfo> alarms = Arrays.asList(daily(1, "Iron", "medication", 18, 0));
+        List<ReminderSnapshot.Appointment> appointments = Arrays.asList(
+            new ReminderSnapshot.Appointment(7, 0, "Blood test", at(2025, 5, 1, 9, 0)),
+            new ReminderSnapshot.Appointment(8, 0, "Growth scan", at(2025, 5, 1, 15, 30))
+        );
+
+        ReminderSnapshot snapshot = ReminderSnapshot.build(alarms, appointments, clockAt(now), 5, 0);
+
+        assertEquals(2, snapshot.upcoming.size());
+        assertEquals(8, snapshot.upcoming.get(0).reminderId);
+        assertEquals("Growth scan", snapshot.upcoming.get(0).title);
+        assertEquals(ReminderSnapshot.TYPE_APPOINTMENT, snapshot.upcoming.get(0).type);
+        assertEquals(1, snapshot.upcoming.get(1).reminderId);
+    }
+
+    @Test
+    public void importedAppointmentIsListedOnceThroughItsAlarm() {
+        long now = at(2025, 5, 1, 12, 0);
+        long scan = at(2025, 5, 1, 15, 30);
+        // ImageToReminderService arms a one-time alarm and saves an appointment pointing at it
+        List<AlarmRegistry.AlarmInfo> alarms = Arrays.asList(oneTime(1700, "Growth scan", scan));
+        List<ReminderSnapshot.Appointment> appointments = Arrays.asList(
+            new ReminderSnapshot.Appointment(8, 1700, "Growth scan", scan),
+            new ReminderSnapshot.Appointment(9, 0, "Midwife", at(2025, 5, 2, 10, 0))
+        );
+
+        ReminderSnapshot snapshot = ReminderSnapshot.build(alarms, appointments, clockAt(now), 3, 0);
+
+        assertEquals(2, snapshot.upcoming.size());
+        assertEquals(1700, snapshot.upcoming.get(0).reminderId);
+        assertEquals(9, snapshot.upcoming.get(1).reminderId);
+    }
+
+    @Test
+    public void dosesDueCountsDailyMedicationsWhoseTimeHasCome() {
+        List<AlarmRegistry.AlarmInfo> alarms = Arrays.asList(
+            daily(1, "Morning vitamin", "medication", 8, 0),
+            daily(2, "Iron", "medication", 18, 0),
+            daily(5, "Walk", "exercise", 7, 0)
+        );
+
+        ReminderSnapshot snapshot = ReminderSnapshot.build(alarms, clockAt(at(2025, 5, 1, 8, 0)), 5, 1);
+
+        assertEquals(1, snapshot.dosesDue);
+        assertEquals(1, snapshot.dosesTaken);
+        assertTrue(snapshot.isFor(LocalDate.of(2025, 5, 1)));
+        assertFalse(snapshot.isFor(LocalDate.of(2025, 5, 2)));
+    }
+
+    @Test
+    public void upcomingAfterDropsItemsThatPassedSinceTheSnapshot() {
+        List<AlarmRegistry.AlarmInfo> alarms = Arrays.asList(
+            oneTime(3, "Growth scan", at(2025, 5, 1, 15, 30)),
+            daily(2, "Iron", "medication", 18, 0)
+        );
+        ReminderSnapshot snapshot = ReminderSnapshot.build(alarms, clockAt(at(2025, 5, 1, 12, 0)), 5, 0);
+
+        List<ReminderSnapshot.Item> ahead = snapshot.upcomingAfter(at(2025, 5, 1, 16, 0));
+
+        assertEquals(1, ahead.size());
+        assertEquals(2, ahead.get(0).reminderId);
+    }
+
+    @Test
+    public void roundTripsThroughJson() throws Exception {
+        List<AlarmRegistry.AlarmInfo> alarms = Arrays.asList(
+            daily(1, "Morning vitamin", "medication", 8, 0),
+            oneTime(3, "Growth scan", at(2025, 5, 1, 15, 30))
+        );
+        ReminderSnapshot snapshot = ReminderSnapshot.build(alarms, clockAt(at(2025, 5, 1, 12, 0)), 5, 1);
+
+        ReminderSnapshot copy = ReminderSnapshot.fromJson(snapshot.toJson());
+
+        assertEquals(snapshot.computedAt, copy.computedAt);
+        assertEquals("2025-05-01", copy.day);
+        assertEquals(1, copy.dosesDue);
+        assertEquals(1, copy.dosesTaken);
+        assertEquals(2, copy.upcoming.size());
+        assertEquals("Growth scan", copy.upcoming.get(0).title);
+        assertEquals(at(2025, 5, 2, 8, 0), copy.upcoming.get(1).triggerTime);
+    }
+}
@@ -0,0 +1,160 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Load scenarios for the reminder receivers, replayed through ReminderEngine against
+// the fakes in ReminderSimulation. Populations come from a fixed seed so runs compare.
+// Each scenario prints IPC calls, persistence writes, peak heap and wall time.
+public class ReminderStormSimulatorTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/London");
+    private static final long SEED = 20250501L;
+    private static final String[] TYPES = {"medication", "appointment", "exercise", "custom"};
+
+    private static long at(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static class Counters {
+        final int ipc;
+        final int writes;
+        final int saves;
+        final long started;
+
+        Counters(ReminderSimulation sim) {
+            ipc = sim.ipcCalls();
+            writes = sim.persistenceWrites();
+            saves = sim.store.saves;
+            System.gc();
+            sim.peakHeapBytes = 0;
+            sim.sampleHeap();
+            started = System.nanoTime();
+        }
+
+        void report(String scenario, ReminderSimulation sim, int operations) {
+            long elapsed = System.nanoTime() - started;
+            sim.sampleHeap();
+            System.out.println(String.format(Locale.ROOT,
+                "%s: %d ops, %d IPC calls, %d persistence writes (%d registry saves), "
+                    + "peak heap %.1f MB, %.1f ms (%.1f us/op)",
+                scenario, operations, sim.ipcCalls() - ipc, sim.persistenceWrites() - writes, sim.store.saves - saves,
+                sim.peakHeapBytes / 1e6, elapsed / 1e6, elapsed / 1e3 / Math.max(1, operations)));
+        }
+    }
+
+    // The registry as the app would have persisted it: count reminders, dailyShare of them
+    // daily at random times and the rest one-time within 90 days either side of around
+    private static int populate(ReminderSimulation sim, int count, double dailyShare, long around, Random random) {
+        AlarmRegistry registry = new AlarmRegistry();
+        int daily = 0;
+        for (int id = 1; id <= count; id++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            String title = type + " reminder " + id;
+            boolean isAlarm = random.nextInt(10) == 0;
+            if (random.nextDouble() < dailyShare) {
+                registry.put(new AlarmRegistry.AlarmInfo(id, title, "Daily " + type, type,
+                    random.nextInt(24), random.nextInt(12) * 5, true, isAlarm, isAlarm, 0));
+                daily++;
+            } else {
+                long offset = (long) ((random.nextDouble() * 2 - 1) * 90 * 24 * 3_600_000L);
+                boolean wakeScreen = random.nextBoolean() || isAlarm;
+                registry.put(new AlarmRegistry.AlarmInfo(id, title, "Appointment", type,
+                    0, 0, false, wakeScreen, isAlarm, around + offset));
+            }
+        }
+        sim.store.save(registry);
+        return daily;
+    }
+
+    @Test
+    public void clockJumpFiresTwoHundredRemindersInOneMinute() {
+        ReminderSimulation sim = new ReminderSimulation(Instant.ofEpochMilli(at(2025, 5, 1, 7, 0)), ZONE);
+        Random random = new Random(SEED);
+        // 200 reminders at 08:00 plus background load elsewhere in the day
+        for (int id = 1; id <= 200; id++) {
+            sim.engine.scheduleDaily(id, "Morning reminder " + id, "Take with water", "medication", 8, 0, id % 10 == 0);
+        }
+        for (int id = 201; id <= 400; id++) {
+            sim.engine.scheduleDaily(id, "Reminder " + id, "", "custom", 12 + random.nextInt(10), random.nextInt(60), false);
+        }
+
+        // The network time correction moves the clock from 07:00 to 08:00:30 in one step
+        Counters fire = new Counters(sim);
+        sim.clock.set(at(2025, 5, 1, 8, 0) + 30_000);
+        int fired = sim.runUntil(sim.clock.millis());
+        fire.report("Clock jump storm", sim, fired);
+
+        assertEquals(200, fired);
+        assertEquals(200, sim.notificationManager.showing.size());
+        for (int id = 1; id <= 200; id++) {
+            assertEquals(at(2025, 5, 2, 8, 0), sim.alarmManager.pending.get(id).triggerTime);
+        }
+        // Per fire: notify + re-arm, one registry save and history written on fire and re-arm
+        assertEquals(2 * fired, sim.ipcCalls() - fire.ipc);
+        assertEquals(3 * fired, sim.persistenceWrites() - fire.writes);
+
+        // Half of them get snoozed from the notification shade
+        Counters snooze = new Counters(sim);
+        for (int id = 1; id <= 200; id += 2) {
+            AlarmRegistry.AlarmInfo alarm = sim.notificationManager.showing.get(id);
+            sim.engine.snooze(id, alarm.title, alarm.body, alarm.type);
+        }
+        int snoozedFired = sim.runUntil(sim.clock.millis() + ReminderEngine.SNOOZE_DURATION);
+        snooze.report("Snooze storm", sim, 100 + snoozedFired);
+
+        assertEquals(100, snoozedFired);
+        // Snoozed copies are not saved reminders, so firing them writes no registry
+        assertEquals(400, sim.engine.activeAlarms().size());
+        assertEquals(100, sim.notificationManager.showing.keySet().stream()
+            .filter(id -> id > ReminderEngine.SNOOZE_ID_OFFSET).count());
+    }
+
+    @Test
+    public void bootReschedulesFiveThousandAlarmsWithOneWriteEach() {
+        long bootTime = at(2025, 4, 1, 9, 0);
+        ReminderSimulation sim = new ReminderSimulation(Instant.ofEpochMilli(bootTime), ZONE);
+        int daily = populate(sim, 5_000, 0.7, bootTime, new Random(SEED));
+        int oneTime = 5_000 - daily;
+
+        // About half of the one-time reminders went past while the phone was off
+        int stillAhead = 0;
+        for (AlarmRegistry.AlarmInfo alarm : sim.store.load().list()) {
+            if (!alarm.isDaily && alarm.triggerTime > bootTime) {
+                stillAhead++;
+            }
+        }
+        assertTrue(stillAhead > 0 && stillAhead < oneTime);
+
+        Counters boot = new Counters(sim);
+        sim.reboot(bootTime);
+        boot.report("Boot reschedule", sim, 5_000);
+
+        assertEquals(daily + stillAhead, sim.alarmManager.pending.size());
+        assertEquals(daily + stillAhead, sim.engine.activeAlarms().size());
+        // One AlarmManager call per armed alarm, but one registry save and one history commit for the lot
+        assertEquals(daily + stillAhead, sim.ipcCalls() - boot.ipc);
+        assertEquals(1, sim.store.saves - boot.saves);
+        assertEquals(2, sim.persistenceWrites() - boot.writes);
+
+        List<Long> triggers = new ArrayList<>();
+        for (ReminderSimulation.Pending pending : sim.alarmManager.pending.values()) {
+            assertTrue(pending.triggerTime > bootTime);
+            if (pending.alarm.isDaily) {
+                triggers.add(pending.triggerTime);
+            }
+        }
+        // Daily alarms all land within the next day
+        for (long trigger : triggers) {
+            assertTrue(trigger <= bootTime + 24 * 3_600_000L);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class TextChunkerTest {
+
+    private static String join(String text, List<TextChunker.Chunk> chunks) {
+        StringBuilder joined = new StringBuilder();
+        for (TextChunker.Chunk chunk : chunks) {
+            joined.append(text, chunk.start, chunk.end).append('|');
+        }
+        return joined.toString();
+    }
+
+    @Test
+    public void shortTextIsOneChunk() {
+        List<TextChunker.Chunk> chunks = TextChunker.split("  Scan on 12 May at 10:30  ", 100, 1000);
+        assertEquals(1, chunks.size());
+        assertEquals(2, chunks.get(0).start);
+        assertEquals(27, chunks.get(0).end);
+        assertTrue(TextChunker.split(" \n ", 100, 1000).isEmpty());
+    }
+
+    @Test
+    public void prefersParagraphsThenLinesThenSentences() {
+        String text = "Antenatal clinic, City Hospital.\n\nScan on 12 May 2025 at 10:30.\nArrive early. Bring notes.";
+        assertEquals("Antenatal clinic, City Hospital.\n\n|Scan on 12 May 2025 at 10:30.\n|Arrive early. Bring notes.|",
+            join(text, TextChunker.split(text, 40, 1000)));
+
+        // A break in the first half of the range would make tiny chunks, so a later sentence end wins
+        String early = "Letter.\n\nYour scan is on 12 May 2025 at 10:30. Please arrive early.";
+        assertEquals("Letter.\n\nYour scan is on 12 May 2025 at 10:30.|Please arrive early.|",
+            join(early, TextChunker.split(early, 60, 1000)));
+
+        String sentences = "Your scan is on 12 May 2025 at 10:30. Please arrive 15 minutes early.";
+        assertEquals("Your scan is on 12 May 2025 at 10:30.|Please arrive 15 minutes early.|",
+            join(sentences, TextChunker.split(sentences, 50, 1000)));
+    }
+
+    @Test
+    public void fallsBackToSpacesAndThenHardCuts() {
+        String words = "appointment reminder for the midwife";
+        for (TextChunker.Chunk chunk : TextChunker.split(words, 16, 1000)) {
+            assertTrue(chunk.length() <= 16);
+            assertTrue(chunk.end == words.length() || words.charAt(chunk.end - 1) == ' ');
+        }
+        assertEquals("abcd|efgh|ij|", join("abcdefghij", TextChunker.split("abcdefghij", 4, 1000)));
+    }
+
+    @Test
+    public void chunksCoverTheTextInOrderWithinTheCap() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            text.append("Line ").append(i).append(": follow-up on ").append(1 + i % 28).append(" June.\n");
+            if (i % 7 == 0) {
+                text.append('\n');
+            }
+        }
+        String s = text.toString();
+        List<TextChunker.Chunk> chunks = TextChunker.split(s, 2000, 10_000);
+
+        int previousEnd = 0;
+        for (TextChunker.Chunk chunk : chunks) {
+            assertTrue(chunk.start >= previousEnd);
+            assertTrue(s.substring(previousEnd, chunk.start).trim().isEmpty());
+            assertTrue(chunk.length() <= 2000);
+            previousEnd = chunk.end;
+        }
+        // Stops at a line break at or before the cap
+        assertTrue(previousEnd <= 10_000);
+        assertTrue(previousEnd > 10_000 - 2000);
+        assertEquals('\n', s.charAt(previousEnd - 1));
+    }
+
+    @Test
+    public void doesNotSplitSurrogatePairs() {
+        String text = "ab😀cd";
+        List<TextChunker.Chunk> chunks = TextChunker.split(text, 3, 1000);
+        assertEquals("ab|😀c|d|", join(text, chunks));
+    }
+}
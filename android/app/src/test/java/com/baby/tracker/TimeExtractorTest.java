@@ -0,0 +1,101 @@
+package com.baby.tracker;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class TimeExtractorTest {
+
+    private static String times(String text) {
+        return TimeExtractor.extract(text).toString();
+    }
+
+    @Test
+    public void twelveHourFormats() {
+        assertEquals("[21:30]", times("Appointment at 9:30 PM"));
+        assertEquals("[21:30]", times("Appointment at 9 30 PM"));
+        assertEquals("[21:30]", times("Appointment at 9.30pm"));
+        assertEquals("[09:00]", times("Arrive by 9am"));
+        assertEquals("[00:15]", times("12:15 a.m."));
+        assertEquals("[12:00]", times("12 PM"));
+    }
+
+    @Test
+    public void twentyFourHourFormats() {
+        assertEquals("[14:00]", times("When: 2025-06-03 14:00"));
+        assertEquals("[16:45]", times("on August 4th at 16:45."));
+        assertEquals("[09:15]", times("Time: 9.15"));
+    }
+
+    @Test
+    public void namedTimes() {
+        assertEquals("[12:00, 00:00]", times("Lunch at noon, fast from midnight"));
+    }
+
+    @Test
+    public void ranges() {
+        assertEquals("[08:00-11:00]", times("Test runs 8\u201311 AM"));
+        assertEquals("[11:00-13:00]", times("between 11-1 PM"));
+        assertEquals("[10:00-11:30]", times("10:00 to 11:30"));
+        assertEquals("[09:00-12:00]", times("walk-in 9am until noon"));
+        assertEquals("[18:30-20:30]", times("6.30pm-8.30pm"));
+    }
+
+    @Test
+    public void ignoresDatesPricesAndPhoneNumbers() {
+        assertEquals("[]", times("Date: 14/04/2025"));
+        assertEquals("[]", times("on 21.07.2025"));
+        assertEquals("[]", times("Cost $12.50 per session"));
+        assertEquals("[]", times("call 555-201-3344 or 01632 960 123"));
+        assertEquals("[]", times("Ref 2025-0912, room 12, 28 weeks"));
+    }
+
+    @Test
+    public void findsEveryMentionWithSpans() {
+        String text = "previously 03/10/2025 10:00, now 06/10/2025 at 11:15 am";
+        List<TimeExtractor.TimeMention> mentions = TimeExtractor.extract(text);
+        assertEquals(2, mentions.size());
+        assertEquals("10:00", text.substring(mentions.get(0).start, mentions.get(0).end));
+        assertEquals("11:15 am", text.substring(mentions.get(1).start, mentions.get(1).end));
+    }
+
+    @Test
+    public void assignsEachDateItsNearestTime() {
+        String text = "previously 03/10/2025 10:00, now 06/10/2025 at 11:15 am";
+        List<TimeExtractor.TimeMention> mentions = TimeExtractor.extract(text);
+        int firstDate = text.indexOf("03/10/2025");
+        int secondDate = text.indexOf("06/10/2025");
+        int[][] dateSpans = {
+            {firstDate, firstDate + 10},
+            {secondDate, secondDate + 10},
+        };
+
+        int[] assigned = TimeExtractor.assignToDates(mentions, dateSpans);
+        assertArrayEquals(new int[]{0, 1}, assigned);
+    }
+
+    @Test
+    public void dateWithoutNearbyTimeStaysUnassigned() {
+        String text = "Scan on 5 May at 9am. Results on 20 May.";
+        List<TimeExtractor.TimeMention> mentions = TimeExtractor.extract(text);
+        int[][] dateSpans = {
+            {text.indexOf("5 May"), text.indexOf("5 May") + 5},
+            {text.indexOf("20 May"), text.indexOf("20 May") + 6},
+        };
+
+        assertArrayEquals(new int[]{0, -1}, TimeExtractor.assignToDates(mentions, dateSpans));
+    }
+
+    @Test
+    public void singlePassFindsATimeWhereverTheSequentialRegexesDid() throws Exception {
+        List<String> corpus = AppointmentCorpus.load();
+        assertTrue(corpus.size() >= 20);
+        for (String text : corpus) {
+            if (AppointmentCorpus.legacyExtract(text) >= 0) {
+                assertFalse(text, TimeExtractor.extract(text).isEmpty());
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.baby.tracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+// Next-trigger computation for daily alarms, run once per alarm on every
+// schedule and for the whole registry after a reboot, and the fire-and-re-arm
+// loop built on it
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TriggerTimeJmh {
+    // Jan 2 - Jun 30 for the 08:30 reminder, Jan 1 - Jun 30 for the 19:00 one
+    private static final int REPLAY_FIRES = 180 + 181;
+
+    @Param({"UTC", "America/New_York", "Asia/Kolkata"})
+    public String zoneId;
+
+    private ZoneId zone;
+    // Walks an hour at a time through a year, crossing both DST changes
+    private long now;
+    private int slot;
+    // Local noon on Jan 1 to midnight on Jul 1, so every zone replays the same fires
+    private long replayStart;
+    private long replayEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        zone = ZoneId.of(zoneId);
+        now = 1_735_689_600_000L;
+        replayStart = LocalDateTime.of(2025, 1, 1, 12, 0).atZone(zone).toInstant().toEpochMilli();
+        replayEnd = LocalDate.of(2025, 7, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    @Benchmark
+    public long nextDailyTrigger() {
+        slot = (slot + 1) % (24 * 365);
+        return ReminderEngine.nextDailyTrigger(Instant.ofEpochMilli(now + slot * 3_600_000L), zone, slot % 24, slot * 7 % 60);
+    }
+
+    // Boot-time reschedule of a day's worth of medication slots
+    @Benchmark
+    public long rescheduleDay() {
+        long sum = 0;
+        for (int hour = 0; hour < 24; hour++) {
+            sum += ReminderEngine.nextDailyTrigger(Instant.ofEpochMilli(now), zone, hour, 30);
+        }
+        return sum;
+    }
+
+    // Six months of two daily reminders firing and re-arming through ReminderEngine,
+    // registry saves included; reported per fire
+    @Benchmark
+    @OperationsPerInvocation(REPLAY_FIRES)
+    public int replaySixMonths() {
+        ReminderSimulation sim = new ReminderSimulation(Instant.ofEpochMilli(replayStart), zone);
+        sim.engine.scheduleDaily(1, "Prenatal vitamin", "1 tablet", "medication", 8, 30, false);
+        sim.engine.scheduleDaily(2, "Iron", "With dinner", "medication", 19, 0, true);
+        return sim.runUntil(replayEnd);
+    }
+}
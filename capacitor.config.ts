@@ -3,7 +3,13 @@ import type { CapacitorConfig } from '@capacitor/cli';
 const config: CapacitorConfig = {
   appId: 'com.baby.tracker',
   appName: 'Pregnancy Tracker',
-  webDir: 'dist'
+  webDir: 'dist',
+  plugins: {
+    ImageSharePlugin: {
+      // Run OCR on shared images in the background before the UI opens them
+      prerunOcr: true
+    }
+  }
 };
 
 export default config;
@@ -139,13 +139,17 @@ function App() {
         // Initialize photo storage
         await storageService.initializeStorage();
 
-        // Check for shared images
-        const pendingIntent = await ImageSharePlugin.checkPendingIntent();
-        if (pendingIntent.hasImage || pendingIntent.hasImages) {
-          setShowImageProcessor(true);
-        }
+        // Give the alarm receivers an up-to-date native copy of medications and appointments
+        dbHelpers.syncNativeReminderStore().catch(error => {
+          console.error('Failed to sync native reminder store:', error);
+        });
+
+        // Doses marked taken from a notification while the app was closed
+        dbHelpers.syncNativeDoses().catch(error => {
+          console.error('Failed to sync doses taken from notifications:', error);
+        });
 
-        // Listen for shared images
+        // Listen for shared images; registered first so a text file still being read natively is not missed
         ImageSharePlugin.addListener('sharedImage', () => {
           setShowImageProcessor(true);
         });
@@ -155,6 +159,15 @@ function App() {
         ImageSharePlugin.addListener('sharedImages', () => {
           setShowImageProcessor(true);
         });
+        ImageSharePlugin.addListener('sharedText', () => {
+          setShowImageProcessor(true);
+        });
+
+        // Check for shared images. Only peek: SharedImageProcessor takes the payload when it mounts
+        const pendingIntent = await ImageSharePlugin.checkPendingIntent({ peek: true });
+        if (pendingIntent.hasImage || pendingIntent.hasImages || pendingIntent.hasText) {
+          setShowImageProcessor(true);
+        }
 
         setInitialized(true);
         console.log('App initialized successfully');
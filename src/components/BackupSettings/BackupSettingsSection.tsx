@@ -0,0 +1,127 @@
+import React, { useEffect, useState } from 'react';
+import { Capacitor } from '@capacitor/core';
+import {
+    Typography,
+    Button,
+    Divider,
+    Stack,
+    Alert,
+    LinearProgress,
+} from '@mui/material';
+import BackupIcon from '@mui/icons-material/Backup';
+import RestoreIcon from '@mui/icons-material/Restore';
+import BackupPlugin from '../../plugins/backup-plugin';
+import type { BackupProgress } from '../../plugins/backup-plugin';
+import { backupService } from '../../services/backup';
+
+const BackupSettingsSection: React.FC = () => {
+    const [busy, setBusy] = useState(false);
+    const [progress, setProgress] = useState<BackupProgress | null>(null);
+    const [message, setMessage] = useState<{ severity: 'success' | 'error'; text: string } | null>(null);
+
+    useEffect(() => {
+        if (!Capacitor.isNativePlatform()) {
+            return;
+        }
+        const handle = BackupPlugin.addListener('backupProgress', setProgress);
+        return () => {
+            handle.then(h => h.remove());
+        };
+    }, []);
+
+    const run = async (action: () => Promise<string | null>) => {
+        setBusy(true);
+        setMessage(null);
+        setProgress(null);
+        try {
+            const text = await action();
+            if (text) {
+                setMessage({ severity: 'success', text });
+            }
+        } catch (error) {
+            setMessage({ severity: 'error', text: String(error) });
+        } finally {
+            setBusy(false);
+            setProgress(null);
+        }
+    };
+
+    const handleBackup = () => run(async () => {
+        const result = await backupService.createBackup();
+        return result.cancelled ? null : `Backup saved (${result.entries} items).`;
+    });
+
+    const handleRestore = () => run(async () => {
+        const result = await backupService.restoreBackup();
+        return result.cancelled ? null
+            : `Restored ${result.filesRestored} files (${result.filesSkipped} already present), `
+                + `${result.alarmsArmed} reminders and ${result.dosesAdded} doses.`;
+    });
+
+    if (!Capacitor.isNativePlatform()) {
+        return null;
+    }
+
+    return (
+        <>
+            <Typography variant="h5" fontWeight={700} gutterBottom>
+                💾 Backup & Restore
+            </Typography>
+            <Divider sx={{ mb: 2 }} />
+
+            <Typography variant="body2" color="text.secondary" sx={{ mb: 3, lineHeight: 1.6 }}>
+                Save your reminders, history, photos and files to a single file you can keep or move to a new phone.
+                Restoring skips anything already on this device.
+            </Typography>
+
+            <Stack direction="row" spacing={2} flexWrap="wrap">
+                <Button
+                    variant="contained"
+                    startIcon={<BackupIcon />}
+                    disabled={busy}
+                    onClick={handleBackup}
+                    sx={{
+                        flex: 1,
+                        minWidth: 150,
+                        borderRadius: 2,
+                        textTransform: 'none',
+                        fontWeight: 600,
+                    }}
+                >
+                    Create Backup
+                </Button>
+                <Button
+                    variant="outlined"
+                    startIcon={<RestoreIcon />}
+                    disabled={busy}
+                    onClick={handleRestore}
+                    sx={{
+                        flex: 1,
+                        minWidth: 150,
+                        borderRadius: 2,
+                        textTransform: 'none',
+                        fontWeight: 600,
+                    }}
+                >
+                    Restore Backup
+                </Button>
+            </Stack>
+
+            {busy && (
+                <LinearProgress
+                    variant={progress ? 'determinate' : 'indeterminate'}
+                    value={progress && progress.total > 0 ? (progress.done / progress.total) * 100 : 0}
+                    sx={{ mt: 2, borderRadius: 1 }}
+                />
+            )}
+
+            {message && (
+                <Alert severity={message.severity} sx={{ mt: 2, borderRadius: 2 }}>
+                    {message.text}
+                </Alert>
+            )}
+        </>
+    );
+};
+
+export default BackupSettingsSection;
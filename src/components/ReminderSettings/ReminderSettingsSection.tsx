@@ -276,6 +276,15 @@ const ReminderSettingsSection: React.FC = () => {
                 isAlarm: customReminder.isAlarm,
             });
 
+            // The same text at the same time is already scheduled, so no second entry is added
+            if (result.action === 'merged' || result.action === 'rejected') {
+                console.log(`Custom reminder ${result.action} into existing reminder ${result.reminderId}`);
+                alert(`You already have "${customReminder.title}" at ${customReminder.time}`);
+                setNewCustomReminder({ title: '', time: '12:00', isAlarm: false });
+                setShowAddCustom(false);
+                return;
+            }
+
             if (result.success) {
                 customReminder.notificationId = result.reminderId;
             }
@@ -319,7 +328,14 @@ const ReminderSettingsSection: React.FC = () => {
                         isAlarm: reminder.isAlarm,
                     });
 
-                    if (result.success) {
+                    // The other reminder's id is never stored here: cancelling this entry later
+                    // would silence that one. The entry stays off and unlinked instead.
+                    if (result.action === 'merged' || result.action === 'rejected') {
+                        console.log(`Custom reminder ${result.action} into existing reminder ${result.reminderId}`);
+                        alert(`"${reminder.title}" at ${reminder.time} is already covered by another reminder`);
+                        reminder.enabled = false;
+                        reminder.notificationId = undefined;
+                    } else if (result.success) {
                         reminder.notificationId = result.reminderId;
                     }
                 } catch (error) {
@@ -366,7 +382,13 @@ const ReminderSettingsSection: React.FC = () => {
                     isAlarm: isAlarm,
                 });
 
-                if (result.success) {
+                // As in the toggle: switched off and unlinked rather than pointed at the other reminder
+                if (result.action === 'merged' || result.action === 'rejected') {
+                    console.log(`Custom reminder ${result.action} into existing reminder ${result.reminderId}`);
+                    alert(`"${updatedReminder.title}" at ${updatedReminder.time} is already covered by another reminder`);
+                    updatedReminder.enabled = false;
+                    updatedReminder.notificationId = undefined;
+                } else if (result.success) {
                     updatedReminder.notificationId = result.reminderId;
                 }
             } catch (error) {
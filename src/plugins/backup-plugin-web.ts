@@ -0,0 +1,12 @@
+import { WebPlugin } from '@capacitor/core';
+import type { BackupPluginInterface, CreateBackupResult, RestoreBackupResult } from './backup-plugin';
+
+export class BackupPluginWeb extends WebPlugin implements BackupPluginInterface {
+    async createBackup(): Promise<CreateBackupResult> {
+        throw this.unavailable('Backup not available in web browser');
+    }
+
+    async restoreBackup(): Promise<RestoreBackupResult> {
+        throw this.unavailable('Backup not available in web browser');
+    }
+}
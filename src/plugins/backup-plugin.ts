@@ -0,0 +1,65 @@
+import { registerPlugin } from '@capacitor/core';
+import type { PluginListenerHandle } from '@capacitor/core';
+
+export interface CreateBackupOptions {
+    /** Writable document to save to; without it the system file picker asks where */
+    uri?: string;
+    /** JSON stored in the backup alongside the native state, returned on restore */
+    appData?: string;
+}
+
+export interface CreateBackupResult {
+    /** True when the file picker was dismissed; nothing was written */
+    cancelled?: boolean;
+    uri?: string;
+    entries?: number;
+    uncompressedBytes?: number;
+    durationMs?: number;
+}
+
+export interface RestoreBackupResult {
+    /** True when the file picker was dismissed; nothing was restored */
+    cancelled?: boolean;
+    /** Photos and files written; those already present and identical are skipped */
+    filesRestored?: number;
+    filesSkipped?: number;
+    /** Reminder history and dose log rows not already on this device */
+    historyAdded?: number;
+    dosesAdded?: number;
+    /** Alarms re-armed; past one-time alarms and ones already registered are left out */
+    alarmsArmed?: number;
+    appData?: string;
+    durationMs?: number;
+}
+
+export interface BackupProgress {
+    phase: 'files' | 'alarms';
+    done: number;
+    total: number;
+}
+
+export interface BackupPluginInterface {
+    /**
+     * Stream the alarm registry, reminder history, dose log, photos and files into a zip
+     */
+    createBackup(options?: CreateBackupOptions): Promise<CreateBackupResult>;
+
+    /**
+     * Restore a backup written by createBackup, skipping whatever this device already has
+     */
+    restoreBackup(options?: { uri?: string }): Promise<RestoreBackupResult>;
+
+    /**
+     * Listen for progress while a backup or restore runs
+     */
+    addListener(
+        eventName: 'backupProgress',
+        listenerFunc: (data: BackupProgress) => void
+    ): Promise<PluginListenerHandle>;
+}
+
+const BackupPlugin = registerPlugin<BackupPluginInterface>('BackupPlugin', {
+    web: () => import('./backup-plugin-web').then(m => new m.BackupPluginWeb()),
+});
+
+export default BackupPlugin;
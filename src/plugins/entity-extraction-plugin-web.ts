@@ -1,8 +1,8 @@
 import { WebPlugin } from '@capacitor/core';
-import type { EntityExtractionPluginInterface, EntityExtractionResult } from './entity-extraction-plugin';
+import type { EntityExtractionPluginInterface, EntityExtractionResult, ExtractEntitiesOptions, ModelStatus } from './entity-extraction-plugin';
 
 export class EntityExtractionPluginWeb extends WebPlugin implements EntityExtractionPluginInterface {
-    async extractEntities(options: { text: string }): Promise<EntityExtractionResult> {
+    async extractEntities(options: ExtractEntitiesOptions): Promise<EntityExtractionResult> {
         console.log('Entity extraction not available on web', options);
         return {
             success: false,
@@ -21,4 +21,16 @@ export class EntityExtractionPluginWeb extends WebPlugin implements EntityExtrac
             message: 'Model download is only available on native platforms'
         };
     }
+
+    async getModelStatus(): Promise<ModelStatus> {
+        return {
+            textRecognizerReady: false,
+            entityModelReady: false,
+            firstFrameMs: -1,
+            warmUpScheduledAtMs: -1,
+            textWarmUpMs: -1,
+            entityWarmUpMs: -1,
+            firstExtractionMs: -1
+        };
+    }
 }
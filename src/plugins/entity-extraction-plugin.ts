@@ -8,10 +8,19 @@ export interface ExtractedEntity {
 
 export interface ExtractedDate extends ExtractedEntity {
     timestamp: number;
+    endTimestamp?: number; // Set when the nearest time was a range, e.g. "9–11 AM"
     granularity: number;
     formatted: string;
 }
 
+export interface ExtractedTime extends ExtractedEntity {
+    hour: number;
+    minute: number;
+    endHour?: number;
+    endMinute?: number;
+    formatted: string;
+}
+
 export interface EntityExtractionResult {
     success: boolean;
     dates: ExtractedDate[];
@@ -19,19 +28,49 @@ export interface EntityExtractionResult {
     phones: ExtractedEntity[];
     emails: ExtractedEntity[];
     urls: ExtractedEntity[];
+    times?: ExtractedTime[];
+    source?: 'mlkit' | 'rules'; // 'rules' when the offline extractor produced the result
+    fallbackReason?: string;
+    /** Chunks the text was annotated in by ML Kit */
+    chunkCount?: number;
+    /** The text was longer than ML Kit is given per call; dates past that point come from the rules */
+    truncated?: boolean;
     error?: string;
 }
 
+export interface ExtractEntitiesOptions {
+    text: string;
+    /**
+     * Skip ML Kit when the text has nothing date-like (addresses are then not extracted)
+     */
+    prefilter?: boolean;
+}
+
+export interface ModelStatus {
+    textRecognizerReady: boolean;
+    entityModelReady: boolean;
+    firstFrameMs: number; // ms after process start, -1 until the first frame is drawn
+    warmUpScheduledAtMs: number; // ms after process start, -1 if not scheduled
+    textWarmUpMs: number;
+    entityWarmUpMs: number;
+    firstExtractionMs: number;
+}
+
 export interface EntityExtractionPluginInterface {
     /**
      * Extract entities (dates, addresses, phones, etc.) from text
      */
-    extractEntities(options: { text: string }): Promise<EntityExtractionResult>;
+    extractEntities(options: ExtractEntitiesOptions): Promise<EntityExtractionResult>;
 
     /**
      * Download the ML model if not already available
      */
     downloadModel(): Promise<{ success: boolean; message: string }>;
+
+    /**
+     * Readiness and warm-up timings of the shared ML Kit models
+     */
+    getModelStatus(): Promise<ModelStatus>;
 }
 
 const EntityExtractionPlugin = registerPlugin<EntityExtractionPluginInterface>(
@@ -1,8 +1,26 @@
 import { WebPlugin } from '@capacitor/core';
-import type { ImageSharePluginInterface, PendingIntentResult } from './image-share-plugin';
+import type { FileShareData, ImageSharePluginInterface, InboxItem, PendingIntentResult } from './image-share-plugin';
 
 export class ImageSharePluginWeb extends WebPlugin implements ImageSharePluginInterface {
     async checkPendingIntent(): Promise<PendingIntentResult> {
         return { hasImage: false };
     }
+
+    async drainInbox(): Promise<{ items: InboxItem[] }> {
+        return { items: [] };
+    }
+
+    async ackInbox(): Promise<void> {
+        // Nothing is queued on web
+    }
+
+    async getFileMetadata(options: { uri: string; inboxId?: number }): Promise<FileShareData> {
+        return {
+            imageUri: options.uri,
+            inboxId: options.inboxId,
+            mimeType: 'application/octet-stream',
+            timestamp: '0',
+            resolved: true
+        };
+    }
 }
@@ -6,6 +6,31 @@ export interface FileShareData {
     mimeType: string;
     timestamp: string;
     name?: string;
+    /** Size in bytes */
+    size?: number;
+    width?: number;
+    height?: number;
+    /** Videos only */
+    durationMs?: number;
+    /** Id of the share in the native inbox; pass to ackInbox once handled */
+    inboxId?: number;
+    /** False while name, timestamp and size are still being looked up natively */
+    resolved?: boolean;
+}
+
+export interface FileMetadataEvent {
+    index: number;
+    total: number;
+    file: FileShareData;
+}
+
+export interface InboxItem extends FileShareData {
+    inboxId: number;
+    /** The URI originally shared; imageUri may point at the app's own copy */
+    originalUri: string;
+    receivedAt: number;
+    /** Text recognised by the background worker, if it has run */
+    ocrText?: string;
 }
 
 export interface ImageShareData extends FileShareData {}
@@ -15,22 +40,56 @@ export interface ImagesShareData {
     files: FileShareData[];
 }
 
+export interface SharedTextData {
+    /** EXTRA_TEXT, or the contents of a shared text/* file */
+    text: string;
+    /** EXTRA_SUBJECT, e.g. an email subject */
+    subject?: string;
+    mimeType: string;
+    /** The text was cut off at 64K characters */
+    truncated?: boolean;
+}
+
 export interface PendingIntentResult {
     hasImage?: boolean;
     imageUri?: string;
     mimeType?: string;
     timestamp?: string;
     name?: string;
+    inboxId?: number;
+    /** False when the single file's metadata is still being looked up natively */
+    resolved?: boolean;
     hasImages?: boolean;
     imageUris?: string[];
     files?: FileShareData[];
+    hasText?: boolean;
+    text?: string;
+    subject?: string;
+    truncated?: boolean;
 }
 
 export interface ImageSharePluginInterface {
     /**
-     * Check if there's a pending shared image from app launch
+     * Check if there's a pending shared image from app launch. The payload is handed over
+     * once; with peek only the has* flags come back and the payload stays pending.
+     */
+    checkPendingIntent(options?: { peek?: boolean }): Promise<PendingIntentResult>;
+
+    /**
+     * Shares that have not been acknowledged yet, oldest first. Survives process death.
+     */
+    drainInbox(): Promise<{ items: InboxItem[] }>;
+
+    /**
+     * Remove handled shares from the inbox
      */
-    checkPendingIntent(): Promise<PendingIntentResult>;
+    ackInbox(options: { ids: number[] }): Promise<void>;
+
+    /**
+     * Get the metadata of a shared file, resolving it natively if it isn't cached yet.
+     * inboxId is passed back on the result so it can still be acked.
+     */
+    getFileMetadata(options: { uri: string; inboxId?: number }): Promise<FileShareData>;
 
     /**
      * Listen for shared images
@@ -48,6 +107,22 @@ export interface ImageSharePluginInterface {
         listenerFunc: (data: ImagesShareData) => void
     ): Promise<PluginListenerHandle>;
 
+    /**
+     * Listen for metadata of multi-file shares as it is resolved in the background
+     */
+    addListener(
+        eventName: 'sharedFileMetadata',
+        listenerFunc: (data: FileMetadataEvent) => void
+    ): Promise<PluginListenerHandle>;
+
+    /**
+     * Listen for shared text (messages, email bodies, text files)
+     */
+    addListener(
+        eventName: 'sharedText',
+        listenerFunc: (data: SharedTextData) => void
+    ): Promise<PluginListenerHandle>;
+
     /**
      * Listen for viewed images
      */
@@ -1,5 +1,5 @@
 import { WebPlugin } from '@capacitor/core';
-import type { OcrPluginInterface, OcrResult } from './ocr-plugin';
+import type { LiveScanResult, OcrPluginInterface, OcrResult, PdfOcrResult, ScanImageOptions, ScanPdfOptions, ScanVideoOptions, VideoOcrResult } from './ocr-plugin';
 
 export class OcrPluginWeb extends WebPlugin implements OcrPluginInterface {
     async scanTextFromCamera(): Promise<OcrResult> {
@@ -11,6 +11,15 @@ export class OcrPluginWeb extends WebPlugin implements OcrPluginInterface {
         };
     }
 
+    async scanTextLive(): Promise<LiveScanResult> {
+        console.log('Web: scanTextLive not implemented');
+        return {
+            success: false,
+            text: '',
+            error: 'OCR not available in web browser'
+        };
+    }
+
     async scanTextFromGallery(): Promise<OcrResult> {
         console.log('Web: scanTextFromGallery not implemented');
         return {
@@ -20,7 +29,7 @@ export class OcrPluginWeb extends WebPlugin implements OcrPluginInterface {
         };
     }
 
-    async scanTextFromImage(options: { imagePath: string }): Promise<OcrResult> {
+    async scanTextFromImage(options: ScanImageOptions): Promise<OcrResult> {
         console.log('Web: scanTextFromImage not implemented', options);
         return {
             success: false,
@@ -29,6 +38,24 @@ export class OcrPluginWeb extends WebPlugin implements OcrPluginInterface {
         };
     }
 
+    async scanTextFromPdf(options: ScanPdfOptions): Promise<PdfOcrResult> {
+        console.log('Web: scanTextFromPdf not implemented', options);
+        return {
+            success: false,
+            text: '',
+            error: 'OCR not available in web browser'
+        };
+    }
+
+    async scanTextFromVideo(options: ScanVideoOptions): Promise<VideoOcrResult> {
+        console.log('Web: scanTextFromVideo not implemented', options);
+        return {
+            success: false,
+            text: '',
+            error: 'OCR not available in web browser'
+        };
+    }
+
     async checkAvailability(): Promise<{ available: boolean }> {
         return { available: false };
     }
@@ -1,10 +1,122 @@
 import { registerPlugin } from '@capacitor/core';
+import type { PluginListenerHandle } from '@capacitor/core';
 
 export interface OcrResult {
     success: boolean;
     text: string;
     blocks?: TextBlock[];
+    tileCount?: number;
     error?: string;
+    /** Set when the result was requested with format: 'compact'; use decodeCompactBlocks */
+    format?: 'compact';
+    blockCount?: number;
+    lines?: string;
+    geometry?: string;
+    /** Set when dedupe found a near-identical image; the result is that image's */
+    duplicateOf?: string;
+    /** Bits between the two perceptual hashes, out of 64 */
+    hashDistance?: number;
+}
+
+export interface LiveScanResult extends OcrResult {
+    detectedDate?: string;
+    detectedTime?: string;
+    stable?: boolean;
+    framesAnalyzed?: number;
+    elapsedMs?: number;
+}
+
+export interface CropRect {
+    left: number;
+    top: number;
+    width: number;
+    height: number;
+}
+
+export interface ScanImageOptions {
+    imagePath: string;
+    /**
+     * Only recognize this region of the image (source pixel coordinates)
+     */
+    crop?: CropRect;
+    /**
+     * Recognize in overlapping horizontal tiles. Defaults to automatic for very tall images.
+     */
+    tiled?: boolean;
+    /**
+     * 'compact' returns blocks packed into a line string and a base64 int32 geometry
+     * buffer instead of a JSON tree; much smaller for text-heavy images
+     */
+    format?: 'json' | 'compact';
+    /**
+     * Reuse the result of a near-identical image recognized earlier in the same batch instead
+     * of running recognition again (perceptual hash match). Ignored with crop.
+     */
+    dedupe?: boolean;
+    /**
+     * With dedupe, the batch the image belongs to; a new batch id forgets earlier images
+     */
+    batchId?: string;
+}
+
+export interface ScanPdfOptions {
+    path: string;
+    /**
+     * Stop after this many pages. Defaults to 50.
+     */
+    maxPages?: number;
+    /**
+     * Stop after the first page that mentions a date from today on. Defaults to true.
+     */
+    stopOnDates?: boolean;
+    /**
+     * Longest side of the rendered page bitmap in pixels. Defaults to 2048.
+     */
+    maxDimension?: number;
+}
+
+export interface PdfOcrResult extends OcrResult {
+    pageCount?: number;
+    pagesProcessed?: number;
+    /**
+     * Not every page was read, because of stopOnDates or maxPages
+     */
+    stoppedEarly?: boolean;
+}
+
+export interface PdfPageText {
+    pageIndex: number;
+    pageCount: number;
+    text: string;
+    /**
+     * The page mentions a date from today on
+     */
+    hasDates: boolean;
+}
+
+export interface ScanVideoOptions {
+    path: string;
+    /**
+     * Time between sampled frames. Defaults to 1000 ms; stretched for long videos to stay within maxFrames.
+     */
+    intervalMs?: number;
+    /**
+     * Most frames to sample. Defaults to 60.
+     */
+    maxFrames?: number;
+    /**
+     * Longest side of the sampled frames in pixels. Defaults to 1600.
+     */
+    maxDimension?: number;
+}
+
+export interface VideoOcrResult extends OcrResult {
+    durationMs?: number;
+    framesSampled?: number;
+    /**
+     * Sampled frames that differed enough from the last recognized one to be scanned
+     */
+    framesRecognized?: number;
 }
 
 export interface TextBlock {
@@ -28,6 +140,11 @@ export interface OcrPluginInterface {
      */
     scanTextFromCamera(): Promise<OcrResult>;
 
+    /**
+     * Scan the live camera preview until a date/time reads the same across consecutive frames
+     */
+    scanTextLive(options?: { stableFrames?: number }): Promise<LiveScanResult>;
+
     /**
      * Pick an image from gallery and scan text
      */
@@ -36,12 +153,66 @@ export interface OcrPluginInterface {
     /**
      * Scan text from a specific image path
      */
-    scanTextFromImage(options: { imagePath: string }): Promise<OcrResult>;
+    scanTextFromImage(options: ScanImageOptions): Promise<OcrResult>;
+
+    /**
+     * Render a PDF page by page and scan each one, reporting pages through pdfPageText as they finish
+     */
+    scanTextFromPdf(options: ScanPdfOptions): Promise<PdfOcrResult>;
+
+    /**
+     * Sample frames of a video, skipping near-duplicates, and return the merged distinct lines
+     */
+    scanTextFromVideo(options: ScanVideoOptions): Promise<VideoOcrResult>;
 
     /**
      * Check if ML Kit is available on device
      */
     checkAvailability(): Promise<{ available: boolean }>;
+
+    /**
+     * Listen for the text of each PDF page while scanTextFromPdf runs
+     */
+    addListener(
+        eventName: 'pdfPageText',
+        listenerFunc: (data: PdfPageText) => void
+    ): Promise<PluginListenerHandle>;
+}
+
+/**
+ * Rebuild TextBlocks from a compact result. Geometry holds 5 little-endian
+ * int32s per block: lineCount, left, top, right, bottom (left -1 = no box).
+ */
+export function decodeCompactBlocks(result: OcrResult): TextBlock[] {
+    if (result.format !== 'compact' || !result.geometry || result.blockCount === undefined) {
+        return result.blocks ?? [];
+    }
+    const bytes = Uint8Array.from(atob(result.geometry), c => c.charCodeAt(0));
+    const geometry = new DataView(bytes.buffer);
+    const allLines = (result.lines ?? '').split('\n');
+    const blocks: TextBlock[] = [];
+    let nextLine = 0;
+    for (let i = 0; i < result.blockCount; i++) {
+        const offset = i * 20;
+        const lineCount = geometry.getInt32(offset, true);
+        const lines = allLines.slice(nextLine, nextLine + lineCount);
+        nextLine += lineCount;
+        const block: TextBlock = {
+            text: lines.join('\n'),
+            lines: lines.map(text => ({ text })),
+        };
+        const left = geometry.getInt32(offset + 4, true);
+        if (left !== -1) {
+            block.boundingBox = {
+                left,
+                top: geometry.getInt32(offset + 8, true),
+                right: geometry.getInt32(offset + 12, true),
+                bottom: geometry.getInt32(offset + 16, true),
+            };
+        }
+        blocks.push(block);
+    }
+    return blocks;
 }
 
 const OcrPlugin = registerPlugin<OcrPluginInterface>('OcrPlugin', {
@@ -0,0 +1,8 @@
+import { WebPlugin } from '@capacitor/core';
+import type { IngestPhotoResult, PhotoIngestPluginInterface } from './photo-ingest-plugin';
+
+export class PhotoIngestPluginWeb extends WebPlugin implements PhotoIngestPluginInterface {
+    async ingestPhoto(): Promise<IngestPhotoResult> {
+        throw this.unavailable('Photo ingest not available in web browser');
+    }
+}
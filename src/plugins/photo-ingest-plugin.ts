@@ -0,0 +1,40 @@
+import { registerPlugin } from '@capacitor/core';
+
+export interface IngestPhotoOptions {
+    /** content:// or file:// URI of the photo */
+    uri: string;
+    photoId: string;
+    /** Directory under Directory.Data, defaults to 'pregnancy-photos' */
+    directory?: string;
+    /** Longest edge of the thumbnail in pixels, defaults to 200 */
+    thumbnailSize?: number;
+}
+
+export interface IngestPhotoResult {
+    /** Path relative to Directory.Data */
+    filepath: string;
+    thumbnail?: string;
+    /** SHA-256 of the photo bytes */
+    hash: string;
+    size: number;
+    width: number;
+    height: number;
+    mimeType?: string;
+    /** True when the same bytes were already stored */
+    duplicate: boolean;
+    /** Path of the earlier copy when duplicate is true */
+    duplicateOf?: string;
+}
+
+export interface PhotoIngestPluginInterface {
+    /**
+     * Copy a photo from a URI into app storage, create its thumbnail and hash it natively
+     */
+    ingestPhoto(options: IngestPhotoOptions): Promise<IngestPhotoResult>;
+}
+
+const PhotoIngestPlugin = registerPlugin<PhotoIngestPluginInterface>('PhotoIngestPlugin', {
+    web: () => import('./photo-ingest-plugin-web').then(m => new m.PhotoIngestPluginWeb()),
+});
+
+export default PhotoIngestPlugin;
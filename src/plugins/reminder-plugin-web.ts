@@ -1,5 +1,5 @@
 import { WebPlugin } from '@capacitor/core';
-import type { ReminderPluginInterface } from './reminder-plugin';
+import type { ReminderPluginInterface, ScheduleResult } from './reminder-plugin';
 
 export class ReminderPluginWeb extends WebPlugin implements ReminderPluginInterface {
     async scheduleDailyReminder(options: {
@@ -9,7 +9,7 @@ export class ReminderPluginWeb extends WebPlugin implements ReminderPluginInterf
         type: 'medication' | 'exercise' | 'custom';
         reminderId: number;
         isAlarm?: boolean;
-    }): Promise<{ success: boolean; reminderId: number }> {
+    }): Promise<ScheduleResult> {
         console.log('Web: scheduleDailyReminder not implemented', options);
         return { success: false, reminderId: options.reminderId };
     }
@@ -22,7 +22,7 @@ export class ReminderPluginWeb extends WebPlugin implements ReminderPluginInterf
         reminderId: number;
         wakeScreen?: boolean;
         isAlarm?: boolean;
-    }): Promise<{ success: boolean; reminderId: number }> {
+    }): Promise<ScheduleResult> {
         console.log('Web: scheduleOneTimeReminder not implemented', options);
         return { success: false, reminderId: options.reminderId };
     }
@@ -9,8 +9,21 @@ export interface ScheduleDailyOptions {
     isAlarm?: boolean; // If true, plays loud alarm sound continuously
 }
 
+export interface ScheduleResult {
+    success: boolean;
+    /** The id the reminder is armed under; an existing reminder's id when merged or rejected */
+    reminderId: number;
+    /**
+     * created/updated: armed under the given id (updated when it was already scheduled).
+     * merged: a reminder with the same time, type and title existed under another id and took over the changes.
+     * rejected: such a reminder existed and nothing changed, so nothing new was armed.
+     */
+    action?: 'created' | 'updated' | 'merged' | 'rejected';
+    triggerTime?: number;
+}
+
 export interface ReminderPluginInterface {
-    scheduleDailyReminder(options: ScheduleDailyOptions): Promise<{ success: boolean; reminderId: number }>;
+    scheduleDailyReminder(options: ScheduleDailyOptions): Promise<ScheduleResult>;
 
     scheduleOneTimeReminder(options: {
         title: string;
@@ -20,7 +33,7 @@ export interface ReminderPluginInterface {
         reminderId: number;
         wakeScreen?: boolean;
         isAlarm?: boolean;
-    }): Promise<{ success: boolean; reminderId: number }>;
+    }): Promise<ScheduleResult>;
 
     cancelReminder(options: { reminderId: number }): Promise<{ success: boolean }>;
 
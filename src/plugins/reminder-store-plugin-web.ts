@@ -0,0 +1,21 @@
+import { WebPlugin } from '@capacitor/core';
+import type { NativeDose, ReminderStorePluginInterface, WriteBatchOptions } from './reminder-store-plugin';
+
+// On web IndexedDB is the only store, so writes are dropped and reads come back empty
+export class ReminderStorePluginWeb extends WebPlugin implements ReminderStorePluginInterface {
+    async writeBatch(options: WriteBatchOptions): Promise<{ written: number }> {
+        return { written: options.ops.length };
+    }
+
+    async queryRange<T>(): Promise<{ rows: T[] }> {
+        return { rows: [] };
+    }
+
+    async getUnsyncedDoses(): Promise<{ doses: NativeDose[] }> {
+        return { doses: [] };
+    }
+
+    async markDosesSynced(): Promise<{ updated: number }> {
+        return { updated: 0 };
+    }
+}
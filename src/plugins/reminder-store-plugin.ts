@@ -0,0 +1,74 @@
+import { registerPlugin } from '@capacitor/core';
+
+export type ReminderStoreTable = 'medications' | 'appointments';
+
+export type ReminderStoreOp =
+    | { op: 'put'; table: ReminderStoreTable; record: { id: number } & Record<string, unknown> }
+    | { op: 'delete'; table: ReminderStoreTable; id: number };
+
+export interface WriteBatchOptions {
+    ops: ReminderStoreOp[];
+    /** Tables to empty before applying ops, in the same transaction */
+    clear?: ReminderStoreTable[];
+}
+
+export interface QueryRangeOptions {
+    table: ReminderStoreTable | 'reminder_history';
+    /**
+     * Inclusive bounds: yyyy-MM-dd for appointments and medications,
+     * epoch millis for reminder_history
+     */
+    from?: string | number;
+    to?: string | number;
+    limit?: number;
+}
+
+export interface ReminderHistoryEntry {
+    id: number;
+    reminderId: number;
+    type?: string;
+    title?: string;
+    event: 'scheduled' | 'fired' | 'snoozed' | 'dismissed' | 'cancelled' | 'taken';
+    eventTime: number;
+    triggerTime?: number;
+}
+
+/** A dose marked taken from a medication notification, recorded without opening the app */
+export interface NativeDose {
+    id: number;
+    reminderId: number;
+    type?: string;
+    title?: string;
+    /** Epoch millis */
+    takenAt: number;
+    synced: boolean;
+}
+
+export interface ReminderStorePluginInterface {
+    /**
+     * Apply puts and deletes to the native store in a single transaction
+     */
+    writeBatch(options: WriteBatchOptions): Promise<{ written: number }>;
+
+    /**
+     * Indexed range read: appointments by date, medications active in the range,
+     * reminder history by event time (newest first)
+     */
+    queryRange<T = Record<string, unknown>>(options: QueryRangeOptions): Promise<{ rows: T[] }>;
+
+    /**
+     * Doses marked taken from a notification that have not been marked synced, oldest first
+     */
+    getUnsyncedDoses(options?: { limit?: number }): Promise<{ doses: NativeDose[] }>;
+
+    /**
+     * Flag doses as copied into IndexedDB so they are not returned again
+     */
+    markDosesSynced(options: { ids: number[] }): Promise<{ updated: number }>;
+}
+
+const ReminderStorePlugin = registerPlugin<ReminderStorePluginInterface>('ReminderStorePlugin', {
+    web: () => import('./reminder-store-plugin-web').then(m => new m.ReminderStorePluginWeb()),
+});
+
+export default ReminderStorePlugin;
@@ -1128,9 +1128,9 @@ const FilePreview: React.FC<{ attachment: FileAttachment }> = ({ attachment }) =
         const loadImage = async () => {
             try {
                 const path = attachment.thumbnail || attachment.filepath;
-                // Use readFile to get base64 data URL which works in web browsers
-                const dataUrl = await storageService.readFile(path, attachment.type);
-                setImageUrl(dataUrl);
+                // Served natively from the thumbnail cache; a data URL on web
+                const url = await storageService.getPhotoThumbnailUrl(path, 60, attachment.type);
+                setImageUrl(url);
             } catch (error) {
                 console.error('Failed to load image:', error);
             }
@@ -1164,9 +1164,13 @@ const FullImagePreview: React.FC<{ attachment: FileAttachment }> = ({ attachment
         const loadImage = async () => {
             try {
                 setLoading(true);
-                // Use readFile to get base64 data URL which works in web browsers
-                const dataUrl = await storageService.readFile(attachment.filepath, attachment.type);
-                setImageUrl(dataUrl);
+                // Screen-sized on native rather than the original as base64
+                const url = await storageService.getPhotoThumbnailUrl(
+                    attachment.filepath,
+                    Math.max(window.innerWidth, window.innerHeight),
+                    attachment.type
+                );
+                setImageUrl(url);
             } catch (error) {
                 console.error('Failed to load full image:', error);
             } finally {
@@ -1,11 +1,13 @@
 import React, { useState, useEffect } from 'react';
 import { useLiveQuery } from 'dexie-react-hooks';
+import { Capacitor } from '@capacitor/core';
 import { format, parseISO } from 'date-fns';
 import { dbHelpers } from '../../services/database';
 import { validatePregnancyConfig, getLMPDate, calculatePregnancyStatus } from '../../services/pregnancy-calculator';
 import type { PregnancyConfig } from '../../types';
 import ReminderSettingsSection from '../../components/ReminderSettings/ReminderSettingsSection';
 import OcrSettingsSection from '../../components/OcrSettings/OcrSettingsSection';
+import BackupSettingsSection from '../../components/BackupSettings/BackupSettingsSection';
 import { useTheme, type Theme } from '../../context/ThemeContext';
 import {
     Container,
@@ -238,6 +240,13 @@ const SettingsScreen: React.FC = () => {
                 <OcrSettingsSection />
             </Paper>
 
+            {/* Backup & Restore */}
+            {Capacitor.isNativePlatform() && (
+                <Paper elevation={2} sx={{ p: 3, mb: 3, borderRadius: 3 }}>
+                    <BackupSettingsSection />
+                </Paper>
+            )}
+
             {/* About Section */}
             <Paper elevation={2} sx={{ p: 3, mb: 3, borderRadius: 3 }}>
                 <Typography variant="h5" fontWeight={700} gutterBottom>
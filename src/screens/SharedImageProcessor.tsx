@@ -6,8 +6,8 @@ import {
 } from '@mui/material';
 import ImageToReminderService from '../services/ImageToReminderService';
 import ImageSharePlugin from '../plugins/image-share-plugin';
-import type { FileShareData } from '../plugins/image-share-plugin';
-import type { ReminderSuggestion } from '../services/ImageToReminderService';
+import type { FileShareData, InboxItem, SharedTextData } from '../plugins/image-share-plugin';
+import type { ProcessedImageResult, ReminderSuggestion } from '../services/ImageToReminderService';
 import { format } from 'date-fns';
 import { Capacitor } from '@capacitor/core';
 import { dbHelpers } from '../services/database';
@@ -18,6 +18,8 @@ interface SharedImageProcessorProps {
     onComplete?: () => void;
 }
 
+type SharedFile = FileShareData & { ocrText?: string };
+
 interface EnhancedSuggestion extends ReminderSuggestion {
     needsTimeConfirmation?: boolean;
     confirmedTime?: string;
@@ -27,10 +29,13 @@ interface EnhancedSuggestion extends ReminderSuggestion {
 const SharedImageProcessor: React.FC<SharedImageProcessorProps> = ({ onComplete }) => {
     const [processing, setProcessing] = useState(false);
     const [imageUri, setImageUri] = useState<string | null>(null);
+    const [sharedText, setSharedText] = useState<string | null>(null);
     const [extractedText, setExtractedText] = useState<string>('');
     const [suggestions, setSuggestions] = useState<EnhancedSuggestion[]>([]);
     const [error, setError] = useState<string | null>(null);
     const [creatingReminder, setCreatingReminder] = useState<number | null>(null);
+    // Shares left in the inbox by an earlier session, waiting for the user to process or discard them
+    const [leftovers, setLeftovers] = useState<InboxItem[]>([]);
 
     // Confirmation dialog state
     const [confirmDialogOpen, setConfirmDialogOpen] = useState(false);
@@ -50,11 +55,28 @@ const SharedImageProcessor: React.FC<SharedImageProcessorProps> = ({ onComplete
                     imageUri: result.imageUri,
                     mimeType: result.mimeType || 'image/jpeg',
                     timestamp: result.timestamp || String(Date.now()),
-                    name: result.name
+                    name: result.name,
+                    inboxId: result.inboxId,
+                    resolved: result.resolved
                 });
             } else if (result.hasImages && result.files && result.files.length > 0) {
                 setImageUri(result.files[0].imageUri);
-                processSharedImage(result.files[0]);
+                processSharedFiles(result.files);
+            } else if (result.hasText && result.text) {
+                processSharedText({
+                    text: result.text,
+                    subject: result.subject,
+                    mimeType: result.mimeType || 'text/plain',
+                    truncated: result.truncated
+                });
+            } else {
+                // Shares received before the app was killed are still waiting in the inbox;
+                // the user decides whether to process them now
+                ImageSharePlugin.drainInbox().then(({ items }) => {
+                    if (items.length > 0) {
+                        setLeftovers(items);
+                    }
+                });
             }
         });
 
@@ -76,156 +98,281 @@ const SharedImageProcessor: React.FC<SharedImageProcessorProps> = ({ onComplete
         const sharedImagesListener = ImageSharePlugin.addListener('sharedImages', (data) => {
             if (data.files && data.files.length > 0) {
                 setImageUri(data.files[0].imageUri);
-                processSharedImage(data.files[0]);
+                processSharedFiles(data.files);
+            }
+        });
+
+        const sharedTextListener = ImageSharePlugin.addListener('sharedText', (data) => {
+            if (data.text) {
+                processSharedText(data);
             }
         });
 
         return () => {
+            sharedTextListener.then(h => h.remove());
             sharedImageListener.then(h => h.remove());
             viewImageListener.then(h => h.remove());
             sharedImagesListener.then(h => h.remove());
         };
     }, []);
 
-    const processSharedImage = async (data: FileShareData) => {
+    // Shares arrive before their metadata; fetch it for each file as we reach it
+    const withMetadata = async (file: SharedFile): Promise<SharedFile> => {
+        if (file.resolved !== false) {
+            return file;
+        }
+        try {
+            return { ...file, ...await ImageSharePlugin.getFileMetadata({ uri: file.imageUri, inboxId: file.inboxId }) };
+        } catch (e) {
+            console.error('Failed to resolve shared file metadata:', e);
+            return file;
+        }
+    };
+
+    const processSharedImage = (data: SharedFile) => processSharedFiles([data]);
+
+    // Every file is saved to the timeline and scanned, and the dates from all of them are
+    // suggested together. Inbox entries are acked only once the whole batch is done, since
+    // acking deletes the retained copy that OCR may be reading.
+    const processSharedFiles = async (files: SharedFile[]) => {
         setProcessing(true);
         setError(null);
         setSuggestions([]);
         setExtractedText('');
 
+        const handled: number[] = [];
+        const results: ProcessedImageResult[] = [];
+        const images: { uri: string; ocrText?: string }[] = [];
+        let savedDocuments = 0;
+        let documentWeek: number | undefined;
         try {
-            // Step 1: Automatically add every shared item to Timeline
-            try {
-                const url = Capacitor.convertFileSrc(data.imageUri);
-                const response = await fetch(url);
-                const blob = await response.blob();
-
-                const isImage = data.mimeType && data.mimeType.startsWith('image/');
-                const fileName = data.name || (isImage ? 'shared_image.jpg' : 'shared_file.bin');
-
-                const fileObj = new File([blob], fileName, { type: data.mimeType || 'application/octet-stream' });
-                const base64Data = await storageService.fileToBase64(fileObj);
-                const photoId = crypto.randomUUID();
-
-                let saveResult;
-                // For images we use savePhoto to ensure thumbnail is generated properly for UI
-                if (isImage) {
-                    saveResult = await storageService.savePhoto(base64Data, photoId);
-                } else {
-                    saveResult = await storageService.saveFile(base64Data, photoId, fileName, data.mimeType || '');
-                }
-
-                let dateStr = new Date().toISOString().split('T')[0];
-                if (data.timestamp && data.timestamp !== '0') {
-                    dateStr = new Date(parseInt(data.timestamp)).toISOString().split('T')[0];
-                }
-
-                let targetWeek: number | undefined = undefined;
+            for (const file of files) {
+                const data = await withMetadata(file);
                 try {
-                    const config = await dbHelpers.getPregnancyConfig();
-                    if (config) {
-                        console.log(`[Timeline Logic] Found pregnancy config. Reference Date: ${config.referenceDate}, Week ${config.referenceWeeks}`);
-                        console.log(`[Timeline Logic] Extracted intent date: ${dateStr} from payload timestamp: ${data.timestamp}`);
-                        const computedElapsedWeeks = getPregnancyWeekForDate(config, new Date(dateStr)).weeks;
-                        targetWeek = computedElapsedWeeks + 1; // 1-indexed to match UI display
-                        console.log(`[Timeline Logic] getPregnancyWeekForDate calculated Week: ${targetWeek}`);
-
-                        if (targetWeek < 1 || targetWeek > 42) {
-                            console.log(`[Timeline Logic] Week ${targetWeek} is out of canonical bounds (1-42). Offloading to bucket 99.`);
-                            targetWeek = 99; // Indicates external/out-of-scope memories bucket
+                    // Step 1: Automatically add every shared item to Timeline
+                    let week: number | undefined;
+                    try {
+                        week = await saveToTimeline(data);
+                        // Saved, so once scanned it no longer needs to be kept in the inbox
+                        if (data.inboxId !== undefined) {
+                            handled.push(data.inboxId);
                         }
+                    } catch (timelineErr) {
+                        console.error('Failed to add to timeline automatically:', timelineErr);
+                    }
+
+                    // Step 2: Skip OCR for non-images; PDFs are scanned page by page and videos frame by frame
+                    const isPdf = data.mimeType === 'application/pdf';
+                    const isVideo = !!data.mimeType && data.mimeType.startsWith('video/');
+                    if (data.mimeType && !data.mimeType.startsWith('image/') && !isPdf && !isVideo) {
+                        savedDocuments++;
+                        documentWeek = week;
+                        continue;
+                    }
+
+                    if (isPdf) {
+                        results.push(await ImageToReminderService.processPdf(data.imageUri, page =>
+                            setExtractedText(`Reading page ${page.pageIndex + 1} of ${page.pageCount}...`)));
+                    } else if (isVideo) {
+                        results.push(await ImageToReminderService.processVideo(data.imageUri));
                     } else {
-                        console.log(`[Timeline Logic] Could not find any saved pregnancy config in DB.`);
+                        images.push({ uri: data.imageUri, ocrText: data.ocrText });
                     }
-                } catch (e) {
-                    console.error("Error calculating week automatically:", e);
+                } catch (fileErr) {
+                    console.error('Failed to process shared file:', data.imageUri, fileErr);
                 }
+            }
 
-                await dbHelpers.addMilestone({
-                    type: 'custom',
-                    title: 'Shared ' + (isImage ? 'Image' : 'File'),
-                    date: dateStr,
-                    week: targetWeek,
-                    notes: data.name,
-                    photoIds: isImage ? [photoId] : [], // Keep backwards compatibility for photo UI
-                    attachments: [{
-                        id: photoId,
-                        name: fileName,
-                        type: data.mimeType || 'application/octet-stream',
-                        size: blob.size,
-                        filepath: saveResult.filepath,
-                        thumbnail: saveResult.thumbnail,
-                        uploadedAt: new Date().toISOString()
-                    }],
-                    createdAt: new Date().toISOString(),
-                    updatedAt: new Date().toISOString()
-                });
-            } catch (timelineErr) {
-                console.error('Failed to add to timeline automatically:', timelineErr);
+            // Images go through together so near-identical screenshots in the share are recognised once
+            if (images.length > 0) {
+                results.push(...await ImageToReminderService.processMultipleImages(images));
             }
 
-            // Step 2: Skip OCR for non-images
-            if (data.mimeType && !data.mimeType.startsWith('image/')) {
-                // To fetch the week info safely since it's local scope of the try block
-                let targetWeekObj = undefined;
-                const config = await dbHelpers.getPregnancyConfig();
-                if (config) {
-                    let docDateStr = new Date().toISOString().split('T')[0];
-                    if (data.timestamp && data.timestamp !== '0') docDateStr = new Date(parseInt(data.timestamp)).toISOString().split('T')[0];
+            if (results.length === 0) {
+                if (savedDocuments === 0) {
+                    setError('Failed to process the shared files');
+                } else if (savedDocuments > 1) {
+                    setExtractedText(`${savedDocuments} documents saved to Timeline!\nYou can view them in the Memory tab.`);
+                } else {
+                    const weekText = documentWeek === 99 ? "External Memories" : `Week ${documentWeek}`;
+                    setExtractedText(documentWeek
+                        ? `Document successfully securely saved to Timeline (${weekText})!\nYou can view it in the Memory tab.`
+                        : `Document successfully saved to Timeline!\nYou can view it in the Memory tab.`
+                    );
+                }
+                return;
+            }
 
-                    const computedElapsed = getPregnancyWeekForDate(config, new Date(docDateStr)).weeks;
-                    targetWeekObj = computedElapsed + 1;
-                    console.log(`[Timeline Logic DOC] Processed raw timestamp: ${data.timestamp} to Date: ${docDateStr}. Calculated Week: ${targetWeekObj}`);
+            showResult(combineResults(results), files.length > 1 ? 'shared files' : 'image');
+        } catch (err) {
+            console.error('Error processing image:', err);
+            setError(err instanceof Error ? err.message : 'Unknown error');
+        } finally {
+            if (handled.length > 0) {
+                ImageSharePlugin.ackInbox({ ids: handled }).catch(ackErr =>
+                    console.error('Failed to ack shared files:', ackErr));
+            }
+            setProcessing(false);
+        }
+    };
 
-                    if (targetWeekObj < 1 || targetWeekObj > 42) targetWeekObj = 99;
-                }
+    // Saves the shared file as a timeline milestone and returns the pregnancy week it went under
+    const saveToTimeline = async (data: SharedFile): Promise<number | undefined> => {
+        const isImage = data.mimeType && data.mimeType.startsWith('image/');
+        const fileName = data.name || (isImage ? 'shared_image.jpg' : 'shared_file.bin');
+        const photoId = crypto.randomUUID();
+
+        let saveResult;
+        let fileSize: number;
+        // Images are copied and thumbnailed natively straight from the shared URI
+        if (isImage) {
+            saveResult = await storageService.ingestPhotoFromUri(data.imageUri, photoId);
+            fileSize = saveResult.size;
+        } else {
+            const url = Capacitor.convertFileSrc(data.imageUri);
+            const response = await fetch(url);
+            const blob = await response.blob();
+            const fileObj = new File([blob], fileName, { type: data.mimeType || 'application/octet-stream' });
+            const base64Data = await storageService.fileToBase64(fileObj);
+            saveResult = await storageService.saveFile(base64Data, photoId, fileName, data.mimeType || '');
+            fileSize = blob.size;
+        }
 
-                const weekText = targetWeekObj === 99 ? "External Memories" : `Week ${targetWeekObj}`;
+        let dateStr = new Date().toISOString().split('T')[0];
+        if (data.timestamp && data.timestamp !== '0') {
+            dateStr = new Date(parseInt(data.timestamp)).toISOString().split('T')[0];
+        }
 
-                setExtractedText(targetWeekObj
-                    ? `Document successfully securely saved to Timeline (${weekText})!\nYou can view it in the Memory tab.`
-                    : `Document successfully saved to Timeline!\nYou can view it in the Memory tab.`
-                );
-                setProcessing(false);
-                return;
+        let targetWeek: number | undefined = undefined;
+        try {
+            const config = await dbHelpers.getPregnancyConfig();
+            if (config) {
+                console.log(`[Timeline Logic] Found pregnancy config. Reference Date: ${config.referenceDate}, Week ${config.referenceWeeks}`);
+                console.log(`[Timeline Logic] Extracted intent date: ${dateStr} from payload timestamp: ${data.timestamp}`);
+                const computedElapsedWeeks = getPregnancyWeekForDate(config, new Date(dateStr)).weeks;
+                targetWeek = computedElapsedWeeks + 1; // 1-indexed to match UI display
+                console.log(`[Timeline Logic] getPregnancyWeekForDate calculated Week: ${targetWeek}`);
+
+                if (targetWeek < 1 || targetWeek > 42) {
+                    console.log(`[Timeline Logic] Week ${targetWeek} is out of canonical bounds (1-42). Offloading to bucket 99.`);
+                    targetWeek = 99; // Indicates external/out-of-scope memories bucket
+                }
+            } else {
+                console.log(`[Timeline Logic] Could not find any saved pregnancy config in DB.`);
             }
+        } catch (e) {
+            console.error("Error calculating week automatically:", e);
+        }
 
-            const result = await ImageToReminderService.processImage(data.imageUri);
+        await dbHelpers.addMilestone({
+            type: 'custom',
+            title: 'Shared ' + (isImage ? 'Image' : 'File'),
+            date: dateStr,
+            week: targetWeek,
+            notes: data.name,
+            photoIds: isImage ? [photoId] : [], // Keep backwards compatibility for photo UI
+            attachments: [{
+                id: photoId,
+                name: fileName,
+                type: data.mimeType || 'application/octet-stream',
+                size: fileSize,
+                filepath: saveResult.filepath,
+                thumbnail: saveResult.thumbnail,
+                uploadedAt: new Date().toISOString()
+            }],
+            createdAt: new Date().toISOString(),
+            updatedAt: new Date().toISOString()
+        });
+        return targetWeek;
+    };
 
-            if (!result.success) {
-                setError(result.error || 'Failed to process image');
-                return;
+    // One result for a batch: texts joined, each date's offsets moved to where its text now starts
+    const combineResults = (results: ProcessedImageResult[]): ProcessedImageResult => {
+        // Near-duplicates repeat text already included from the image they match
+        const succeeded = results.filter(result => result.success && !result.duplicateOf);
+        if (succeeded.length === 0) {
+            return results[0];
+        }
+        let text = '';
+        const dates: ProcessedImageResult['dates'] = [];
+        for (const result of succeeded) {
+            if (text) {
+                text += '\n\n';
             }
+            const offset = text.length;
+            dates.push(...result.dates.map(date => ({ ...date, start: date.start + offset, end: date.end + offset })));
+            text += result.text;
+        }
+        return { success: true, text, dates };
+    };
 
-            setExtractedText(result.text);
+    const handleProcessLeftovers = () => {
+        const items = leftovers;
+        setLeftovers([]);
+        setImageUri(items[0].imageUri);
+        processSharedFiles(items);
+    };
 
-            // Generate reminder suggestions
-            const reminderSuggestions = ImageToReminderService.generateReminderSuggestions(
-                result.text,
-                result.dates
-            );
+    const handleDiscardLeftovers = async () => {
+        const ids = leftovers.map(item => item.inboxId);
+        setLeftovers([]);
+        try {
+            await ImageSharePlugin.ackInbox({ ids });
+        } catch (err) {
+            console.error('Failed to discard shared files:', err);
+        }
+        onComplete?.();
+    };
 
-            // Check if times need confirmation (no AM/PM or ambiguous)
-            const enhancedSuggestions: EnhancedSuggestion[] = reminderSuggestions.map(suggestion => {
-                // Check if time seems ambiguous (e.g., extracted as 12-hour without AM/PM clarification)
-                const needsConfirmation = suggestion.originalText.toLowerCase().includes(':') &&
-                    !suggestion.originalText.toLowerCase().includes('am') &&
-                    !suggestion.originalText.toLowerCase().includes('pm');
+    // Shows the extracted text and the reminders suggested from its dates
+    const showResult = (result: ProcessedImageResult, source: string) => {
+        if (!result.success) {
+            setError(result.error || `Failed to process ${source}`);
+            return;
+        }
 
-                return {
-                    ...suggestion,
-                    needsTimeConfirmation: needsConfirmation,
-                    reminderType: 'notification'
-                };
-            });
+        setExtractedText(result.text);
+
+        // Generate reminder suggestions
+        const reminderSuggestions = ImageToReminderService.generateReminderSuggestions(
+            result.text,
+            result.dates
+        );
+
+        // Check if times need confirmation (no AM/PM or ambiguous)
+        const enhancedSuggestions: EnhancedSuggestion[] = reminderSuggestions.map(suggestion => {
+            // Check if time seems ambiguous (e.g., extracted as 12-hour without AM/PM clarification)
+            const needsConfirmation = suggestion.originalText.toLowerCase().includes(':') &&
+                !suggestion.originalText.toLowerCase().includes('am') &&
+                !suggestion.originalText.toLowerCase().includes('pm');
+
+            return {
+                ...suggestion,
+                needsTimeConfirmation: needsConfirmation,
+                reminderType: 'notification'
+            };
+        });
 
-            setSuggestions(enhancedSuggestions);
+        setSuggestions(enhancedSuggestions);
 
-            if (enhancedSuggestions.length === 0) {
-                setError('No dates or events found in the image');
-            }
+        if (enhancedSuggestions.length === 0) {
+            setError(`No dates or events found in the ${source}`);
+        }
+    };
+
+    // Shared messages and text files skip the timeline and OCR and go straight to entity extraction
+    const processSharedText = async (data: SharedTextData) => {
+        const text = [data.subject, data.text].filter(Boolean).join('\n\n');
+        setSharedText(text);
+        setProcessing(true);
+        setError(null);
+        setSuggestions([]);
+        setExtractedText('');
+
+        try {
+            showResult(await ImageToReminderService.processText(text), 'text');
         } catch (err) {
-            console.error('Error processing image:', err);
+            console.error('Error processing text:', err);
             setError(err instanceof Error ? err.message : 'Unknown error');
         } finally {
             setProcessing(false);
@@ -286,14 +433,14 @@ const SharedImageProcessor: React.FC<SharedImageProcessorProps> = ({ onComplete
         }
     };
 
-    if (!imageUri && !processing && suggestions.length === 0) {
+    if (!imageUri && sharedText === null && !processing && suggestions.length === 0 && leftovers.length === 0) {
         return null;
     }
 
     return (
         <>
             <Dialog
-                open={imageUri !== null || processing || suggestions.length > 0}
+                open={imageUri !== null || sharedText !== null || processing || suggestions.length > 0 || leftovers.length > 0}
                 onClose={onComplete}
                 maxWidth="md"
                 fullWidth
@@ -326,6 +473,27 @@ const SharedImageProcessor: React.FC<SharedImageProcessorProps> = ({ onComplete
                 </DialogTitle>
 
                 <DialogContent sx={{ pt: 3, pb: 2 }}>
+                    {leftovers.length > 0 && !processing && (
+                        <Alert
+                            severity="info"
+                            sx={{ mb: 2, borderRadius: 2 }}
+                            action={
+                                <Stack direction="row" spacing={1}>
+                                    <Button color="inherit" size="small" onClick={handleDiscardLeftovers}>
+                                        Discard
+                                    </Button>
+                                    <Button color="inherit" size="small" variant="outlined" onClick={handleProcessLeftovers}>
+                                        Process
+                                    </Button>
+                                </Stack>
+                            }
+                        >
+                            {leftovers.length === 1
+                                ? `A shared ${leftovers[0].name ? `file (${leftovers[0].name})` : 'file'} from earlier has not been processed yet.`
+                                : `${leftovers.length} shared files from earlier have not been processed yet.`}
+                        </Alert>
+                    )}
+
                     {processing && (
                         <Box sx={{
                             display: 'flex',
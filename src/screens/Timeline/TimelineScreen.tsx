@@ -207,22 +207,10 @@ const PhotoPreview: React.FC<{ photoId: string }> = ({ photoId }) => {
         const loadPhoto = async () => {
             setError(false);
             try {
-                // Try to load thumbnail first for performance (if it exists)
-                try {
-                    const thumbUri = await storageService.readPhoto(`pregnancy-photos/${photoId}_thumb.jpg`);
-                    if (isMounted) {
-                        setSrc(thumbUri);
-                        return; // Successfully loaded thumbnail
-                    }
-                } catch (e) {
-                    // unexpected, maybe thumbnail doesn't exist yet
-                }
-
-                // If no thumb or failed, load original
-                const uri = await storageService.readPhoto(`pregnancy-photos/${photoId}.jpg`);
+                // Grid-sized on native; the native side uses the stored thumbnail when it has one
+                const uri = await storageService.getPhotoThumbnailUrl(`pregnancy-photos/${photoId}.jpg`, 60);
                 if (isMounted) {
                     setSrc(uri);
-                    setFullSrc(uri); // It's already the full one
                 }
             } catch (e) {
                 console.error(`Failed to load photo ${photoId}`, e);
@@ -237,7 +225,8 @@ const PhotoPreview: React.FC<{ photoId: string }> = ({ photoId }) => {
         setIsOpen(true);
         // Load full res if not already loaded
         if (!fullSrc) {
-            storageService.readPhoto(`pregnancy-photos/${photoId}.jpg`)
+            // Screen-sized rather than the original resolution
+            storageService.getPhotoThumbnailUrl(`pregnancy-photos/${photoId}.jpg`, Math.max(window.innerWidth, window.innerHeight))
                 .then(uri => setFullSrc(uri))
                 .catch(e => console.error("Failed to load full res", e));
         }
@@ -2,12 +2,15 @@ import OcrPlugin from '../plugins/ocr-plugin';
 import EntityExtractionPlugin from '../plugins/entity-extraction-plugin';
 import ReminderPlugin from '../plugins/reminder-plugin';
 import type { ExtractedDate } from '../plugins/entity-extraction-plugin';
+import type { OcrResult, PdfPageText } from '../plugins/ocr-plugin';
 
 export interface ProcessedImageResult {
     success: boolean;
     text: string;
     dates: ExtractedDate[];
     error?: string;
+    /** The image was a near-duplicate of this one; its dates were already returned for it */
+    duplicateOf?: string;
 }
 
 export interface ReminderSuggestion {
@@ -21,12 +24,26 @@ export interface ReminderSuggestion {
 class ImageToReminderService {
     /**
      * Process an image: OCR -> Entity Extraction -> Return suggestions
+     * @param ocrText text already recognised in the background (share inbox); skips OCR when present
+     * @param batchId skip near-duplicates of images processed earlier in this batch; they come back without dates
      */
-    async processImage(imageUri: string): Promise<ProcessedImageResult> {
+    async processImage(imageUri: string, ocrText?: string, batchId?: string): Promise<ProcessedImageResult> {
         try {
             // Step 1: Extract text from image using OCR
             console.log('Processing image:', imageUri);
-            const ocrResult = await OcrPlugin.scanTextFromImage({ imagePath: imageUri });
+            const ocrResult: OcrResult = ocrText
+                ? { success: true, text: ocrText }
+                : await OcrPlugin.scanTextFromImage({ imagePath: imageUri, format: 'compact', dedupe: !!batchId, batchId });
+
+            if (ocrResult.duplicateOf) {
+                console.log(`Skipping ${imageUri}, near-duplicate of ${ocrResult.duplicateOf}`);
+                return {
+                    success: true,
+                    text: ocrResult.text,
+                    dates: [],
+                    duplicateOf: ocrResult.duplicateOf
+                };
+            }
             
             if (!ocrResult.success || !ocrResult.text) {
                 return {
@@ -40,14 +57,33 @@ class ImageToReminderService {
             console.log('OCR extracted text:', ocrResult.text);
 
             // Step 2: Extract entities (dates, times, etc.) from the text
-            const entityResult = await EntityExtractionPlugin.extractEntities({ 
-                text: ocrResult.text 
+            return await this.processText(ocrResult.text);
+        } catch (error) {
+            console.error('Error processing image:', error);
+            return {
+                success: false,
+                text: '',
+                dates: [],
+                error: error instanceof Error ? error.message : 'Unknown error'
+            };
+        }
+    }
+
+    /**
+     * Extract dates from text that needs no OCR (shared messages and text files)
+     */
+    async processText(text: string): Promise<ProcessedImageResult> {
+        try {
+            // Only dates matter here, so let the native side skip ML Kit for date-free text
+            const entityResult = await EntityExtractionPlugin.extractEntities({
+                text,
+                prefilter: true
             });
 
             if (!entityResult.success) {
                 return {
                     success: false,
-                    text: ocrResult.text,
+                    text,
                     dates: [],
                     error: 'Failed to extract entities from text'
                 };
@@ -57,11 +93,73 @@ class ImageToReminderService {
 
             return {
                 success: true,
-                text: ocrResult.text,
+                text,
                 dates: entityResult.dates,
             };
         } catch (error) {
-            console.error('Error processing image:', error);
+            console.error('Error processing text:', error);
+            return {
+                success: false,
+                text,
+                dates: [],
+                error: error instanceof Error ? error.message : 'Unknown error'
+            };
+        }
+    }
+
+    /**
+     * Process a PDF: pages are scanned one at a time natively, stopping at the first page
+     * with an upcoming date, then the text goes through the same entity extraction as images
+     * @param onPage called with each page's text as soon as it is recognised
+     */
+    async processPdf(pdfUri: string, onPage?: (page: PdfPageText) => void): Promise<ProcessedImageResult> {
+        const listener = onPage ? await OcrPlugin.addListener('pdfPageText', onPage) : undefined;
+        try {
+            console.log('Processing PDF:', pdfUri);
+            const pdfResult = await OcrPlugin.scanTextFromPdf({ path: pdfUri });
+            if (!pdfResult.success || !pdfResult.text) {
+                return {
+                    success: false,
+                    text: '',
+                    dates: [],
+                    error: pdfResult.error || 'Failed to extract text from PDF'
+                };
+            }
+            console.log(`PDF scanned ${pdfResult.pagesProcessed} of ${pdfResult.pageCount} page(s)`);
+            return await this.processImage(pdfUri, pdfResult.text);
+        } catch (error) {
+            console.error('Error processing PDF:', error);
+            return {
+                success: false,
+                text: '',
+                dates: [],
+                error: error instanceof Error ? error.message : 'Unknown error'
+            };
+        } finally {
+            await listener?.remove();
+        }
+    }
+
+    /**
+     * Process a video or screen recording: distinct frames are scanned natively and their
+     * lines merged, then the text goes through the same entity extraction as images
+     */
+    async processVideo(videoUri: string): Promise<ProcessedImageResult> {
+        try {
+            console.log('Processing video:', videoUri);
+            const videoResult = await OcrPlugin.scanTextFromVideo({ path: videoUri });
+            if (!videoResult.success || !videoResult.text) {
+                return {
+                    success: false,
+                    text: '',
+                    dates: [],
+                    error: videoResult.error || 'Failed to extract text from video'
+                };
+            }
+            console.log(`Video scanned ${videoResult.framesRecognized} of ${videoResult.framesSampled} sampled frame(s)`);
+            return await this.processText(videoResult.text);
+        } catch (error) {
+            console.error('Error processing video:', error);
             return {
                 success: false,
                 text: '',
@@ -163,9 +261,22 @@ class ImageToReminderService {
                 return false;
             }
 
+            const { dbHelpers } = await import('./database');
+
+            // The same reminder was already scheduled (e.g. the card was imported before). Its
+            // appointment may since have been deleted while the alarm stayed, so it is only
+            // skipped when it still exists; otherwise it is saved against the existing alarm.
+            let notificationId = reminderId;
+            if (result.action === 'merged' || result.action === 'rejected') {
+                console.log(`Reminder ${result.action} into existing reminder ${result.reminderId}`);
+                notificationId = result.reminderId;
+                if (await dbHelpers.getAppointmentByNotificationId(notificationId)) {
+                    return true;
+                }
+            }
+
             // Save to database as an appointment
             console.log('Saving to database...');
-            const { dbHelpers } = await import('./database');
             const appointmentDate = new Date(suggestion.dateTime);
             
             const appointmentData = {
@@ -176,7 +287,7 @@ class ImageToReminderService {
                 notes: suggestion.body,
                 reminderMinutes: 0, // Already scheduled
                 reminderEnabled: true,
-                notificationId: reminderId,
+                notificationId,
                 createdAt: new Date().toISOString(),
                 updatedAt: new Date().toISOString()
             };
@@ -194,13 +305,16 @@ class ImageToReminderService {
     }
 
     /**
-     * Process multiple images
+     * Process the images of one share. Near-identical ones (the same confirmation screenshotted
+     * twice) are recognised once natively; the copies come back with duplicateOf and no dates,
+     * so they do not produce duplicate reminders. Images from other shares are never matched.
      */
-    async processMultipleImages(imageUris: string[]): Promise<ProcessedImageResult[]> {
+    async processMultipleImages(images: { uri: string; ocrText?: string }[]): Promise<ProcessedImageResult[]> {
+        const batchId = crypto.randomUUID();
         const results: ProcessedImageResult[] = [];
         
-        for (const uri of imageUris) {
-            const result = await this.processImage(uri);
+        for (const image of images) {
+            const result = await this.processImage(image.uri, image.ocrText, batchId);
             results.push(result);
         }
         
@@ -0,0 +1,68 @@
+import BackupPlugin from '../plugins/backup-plugin';
+import type { CreateBackupResult, RestoreBackupResult } from '../plugins/backup-plugin';
+import { db, dbHelpers } from './database';
+
+const APP_DATA_VERSION = 1;
+
+// doseLogs is left out: it is a copy of the native dose log, which the backup holds
+// itself and which syncNativeDoses copies back after a restore
+const BACKED_UP_TABLES = [
+    'pregnancyConfig',
+    'milestones',
+    'calendarEntries',
+    'appointments',
+    'medications',
+    'photos',
+    'reminderSettings',
+    'dietPreferences',
+    'dailyDietPlans',
+    'waterLogs',
+    'weightLogs',
+] as const;
+
+interface AppData {
+    version: number;
+    tables: Record<string, unknown[]>;
+}
+
+/**
+ * Backup and restore of everything on the device: the native side streams the alarms,
+ * reminder history, dose log, photos and files into a zip, and IndexedDB rides along
+ * as appData
+ */
+export const backupService = {
+    async createBackup(): Promise<CreateBackupResult> {
+        const tables: Record<string, unknown[]> = {};
+        for (const name of BACKED_UP_TABLES) {
+            tables[name] = await db.table(name).toArray();
+        }
+        const appData: AppData = { version: APP_DATA_VERSION, tables };
+        return BackupPlugin.createBackup({ appData: JSON.stringify(appData) });
+    },
+
+    /**
+     * Restore a backup. Rows are put by primary key, so restoring over existing data
+     * updates it rather than duplicating it.
+     */
+    async restoreBackup(): Promise<RestoreBackupResult> {
+        const result = await BackupPlugin.restoreBackup();
+        if (result.cancelled) {
+            return result;
+        }
+        if (result.appData) {
+            const appData = JSON.parse(result.appData) as AppData;
+            if (appData.version > APP_DATA_VERSION) {
+                throw new Error(`Backup app data version ${appData.version} is newer than this app`);
+            }
+            const names = BACKED_UP_TABLES.filter(name => appData.tables[name]);
+            await db.transaction('rw', names.map(name => db.table(name)), async () => {
+                for (const name of names) {
+                    await db.table(name).bulkPut(appData.tables[name]);
+                }
+            });
+            await dbHelpers.syncNativeReminderStore();
+        }
+        await dbHelpers.syncNativeDoses();
+        return result;
+    },
+};
@@ -1,4 +1,8 @@
 import Dexie, { type Table } from 'dexie';
+import { Capacitor } from '@capacitor/core';
+import { format } from 'date-fns';
+import ReminderStorePlugin from '../plugins/reminder-store-plugin';
+import type { ReminderHistoryEntry, ReminderStoreOp, ReminderStoreTable } from '../plugins/reminder-store-plugin';
 import type {
     PregnancyConfig,
     Milestone,
@@ -11,6 +15,7 @@ import type {
     DailyDietPlan,
     WaterLog,
     WeightLog,
+    DoseLog,
 } from '../types';
 
 export class PregnancyDatabase extends Dexie {
@@ -25,6 +30,7 @@ export class PregnancyDatabase extends Dexie {
     dailyDietPlans!: Table<DailyDietPlan, number>;
     waterLogs!: Table<WaterLog, number>;
     weightLogs!: Table<WeightLog, number>;
+    doseLogs!: Table<DoseLog, number>;
 
     constructor() {
         super('PregnancyTrackerDB');
@@ -45,12 +51,34 @@ export class PregnancyDatabase extends Dexie {
             waterLogs: '++id, date, createdAt',
             weightLogs: '++id, date',
         });
+
+        this.version(5).stores({
+            doseLogs: '++id, &nativeId, date, reminderId',
+        });
     }
 }
 
 // Create singleton instance
 export const db = new PregnancyDatabase();
 
+// Keep the native reminder store (read by alarm receivers) in step with IndexedDB.
+// Failures are logged only; the next full sync repairs the native copy.
+const mirrorToNative = (ops: ReminderStoreOp[]) => {
+    if (!Capacitor.isNativePlatform() || ops.length === 0) {
+        return;
+    }
+    ReminderStorePlugin.writeBatch({ ops }).catch(error => {
+        console.error('Failed to mirror to native reminder store:', error);
+    });
+};
+
+const mirrorRecord = async (table: ReminderStoreTable, id: number) => {
+    const record = table === 'appointments' ? await db.appointments.get(id) : await db.medications.get(id);
+    mirrorToNative(record
+        ? [{ op: 'put', table, record: { ...record, id } }]
+        : [{ op: 'delete', table, id }]);
+};
+
 // Database helper functions
 export const dbHelpers = {
     // Pregnancy Config
@@ -160,8 +188,15 @@ export const dbHelpers = {
         return await db.appointments.orderBy('date').toArray();
     },
 
+    // The appointment whose native reminder has this id; notificationId is not indexed, but the table is small
+    async getAppointmentByNotificationId(notificationId: number): Promise<Appointment | undefined> {
+        return await db.appointments.filter(appointment => appointment.notificationId === notificationId).first();
+    },
+
     async addAppointment(appointment: Omit<Appointment, 'id'>): Promise<number> {
-        return await db.appointments.add(appointment as Appointment);
+        const id = await db.appointments.add(appointment as Appointment);
+        await mirrorRecord('appointments', id);
+        return id;
     },
 
     async updateAppointment(id: number, updates: Partial<Appointment>): Promise<void> {
@@ -169,10 +204,12 @@ export const dbHelpers = {
             ...updates,
             updatedAt: new Date().toISOString(),
         });
+        await mirrorRecord('appointments', id);
     },
 
     async deleteAppointment(id: number): Promise<void> {
         await db.appointments.delete(id);
+        mirrorToNative([{ op: 'delete', table: 'appointments', id }]);
     },
 
     // Medications
@@ -190,7 +227,9 @@ export const dbHelpers = {
     },
 
     async addMedication(medication: Omit<Medication, 'id'>): Promise<number> {
-        return await db.medications.add(medication as Medication);
+        const id = await db.medications.add(medication as Medication);
+        await mirrorRecord('medications', id);
+        return id;
     },
 
     async updateMedication(id: number, updates: Partial<Medication>): Promise<void> {
@@ -198,10 +237,78 @@ export const dbHelpers = {
             ...updates,
             updatedAt: new Date().toISOString(),
         });
+        await mirrorRecord('medications', id);
     },
 
     async deleteMedication(id: number): Promise<void> {
         await db.medications.delete(id);
+        mirrorToNative([{ op: 'delete', table: 'medications', id }]);
+    },
+
+    /**
+     * Replace the native reminder store's medications and appointments with the
+     * IndexedDB contents in one transaction
+     */
+    async syncNativeReminderStore(): Promise<void> {
+        if (!Capacitor.isNativePlatform()) {
+            return;
+        }
+        const [medications, appointments] = await Promise.all([
+            db.medications.toArray(),
+            db.appointments.toArray(),
+        ]);
+        const ops: ReminderStoreOp[] = [
+            ...medications.map(record => ({ op: 'put' as const, table: 'medications' as const, record: { ...record, id: record.id! } })),
+            ...appointments.map(record => ({ op: 'put' as const, table: 'appointments' as const, record: { ...record, id: record.id! } })),
+        ];
+        await ReminderStorePlugin.writeBatch({ ops, clear: ['medications', 'appointments'] });
+    },
+
+    /**
+     * Reminder events recorded natively (scheduled, fired, snoozed, dismissed, cancelled), newest first
+     */
+    async getReminderHistory(from?: number, to?: number, limit = 100): Promise<ReminderHistoryEntry[]> {
+        const { rows } = await ReminderStorePlugin.queryRange<ReminderHistoryEntry>({
+            table: 'reminder_history',
+            from,
+            to,
+            limit,
+        });
+        return rows;
+    },
+
+    /**
+     * Copy doses marked taken from a notification into IndexedDB. The native rows are
+     * only flagged synced after the copy commits, and nativeId is unique, so an
+     * interrupted sync is simply repeated. Returns the number of new doses.
+     */
+    async syncNativeDoses(): Promise<number> {
+        if (!Capacitor.isNativePlatform()) {
+            return 0;
+        }
+        let added = 0;
+        for (;;) {
+            const { doses } = await ReminderStorePlugin.getUnsyncedDoses({ limit: 200 });
+            if (doses.length === 0) {
+                return added;
+            }
+            const known = new Set((await db.doseLogs.where('nativeId').anyOf(doses.map(d => d.id)).toArray())
+                .map(log => log.nativeId));
+            const fresh = doses.filter(dose => !known.has(dose.id)).map(dose => ({
+                nativeId: dose.id,
+                reminderId: dose.reminderId,
+                title: dose.title,
+                date: format(dose.takenAt, 'yyyy-MM-dd'),
+                takenAt: new Date(dose.takenAt).toISOString(),
+            }));
+            await db.doseLogs.bulkAdd(fresh as DoseLog[]);
+            await ReminderStorePlugin.markDosesSynced({ ids: doses.map(d => d.id) });
+            added += fresh.length;
+        }
+    },
+
+    async getDoseLogs(date: string): Promise<DoseLog[]> {
+        return await db.doseLogs.where('date').equals(date).sortBy('takenAt');
     },
 
     // Photos
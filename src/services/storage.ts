@@ -1,4 +1,6 @@
 import { Filesystem, Directory } from '@capacitor/filesystem';
+import { Capacitor } from '@capacitor/core';
+import PhotoIngestPlugin from '../plugins/photo-ingest-plugin';
 
 /**
  * Storage service for managing photos using Capacitor Filesystem
@@ -66,6 +68,26 @@ export const storageService = {
         return { filepath, thumbnail };
     },
 
+    /**
+     * Save a photo straight from a content/file URI.
+     * On native the copy, thumbnail and hash happen in PhotoIngestPlugin so no
+     * base64 crosses the bridge; on web it falls back to savePhoto.
+     */
+    async ingestPhotoFromUri(
+        uri: string,
+        photoId: string
+    ): Promise<{ filepath: string; thumbnail?: string; size: number; hash?: string; duplicate?: boolean }> {
+        if (Capacitor.isNativePlatform()) {
+            return PhotoIngestPlugin.ingestPhoto({ uri, photoId, directory: PHOTO_DIRECTORY });
+        }
+
+        const response = await fetch(Capacitor.convertFileSrc(uri));
+        const blob = await response.blob();
+        const base64Data = await this.fileToBase64(new File([blob], `${photoId}.jpg`, { type: blob.type }));
+        const saved = await this.savePhoto(base64Data, photoId);
+        return { ...saved, size: blob.size };
+    },
+
     /**
      * Read a photo and return as base64
      */
@@ -77,6 +99,28 @@ export const storageService = {
         return `data:image/jpeg;base64,${result.data}`;
     },
 
+    /**
+     * URL of a thumbnail of an image in app storage whose longest edge covers `size`
+     * CSS pixels. On native it is served by the app's WebView from a native memory and
+     * disk cache, so nothing is read into the JS heap; on web it falls back to a data URL.
+     */
+    async getPhotoThumbnailUrl(filepath: string, size = 200, mimeType = 'image/jpeg'): Promise<string> {
+        if (Capacitor.isNativePlatform()) {
+            const pixels = Math.round(size * (window.devicePixelRatio || 1));
+            return `${window.location.origin}/_thumb_/${encodeURI(filepath)}?size=${pixels}`;
+        }
+        // Photos saved with a thumbnail have a 200px copy next to them
+        const thumbnailPath = filepath.replace(/\.jpg$/, '_thumb.jpg');
+        if (size <= 200 && thumbnailPath !== filepath && !filepath.endsWith('_thumb.jpg')) {
+            try {
+                return await this.readFile(thumbnailPath, 'image/jpeg');
+            } catch (error) {
+                // No thumbnail was written; use the original
+            }
+        }
+        return this.readFile(filepath, mimeType);
+    },
+
     /**
      * Delete a photo
      */
@@ -199,6 +199,15 @@ export interface WaterLog {
     timestamp: string; // ISO
 }
 
+export interface DoseLog {
+    id?: number;
+    nativeId: number; // Row id in the native dose log, so a repeated sync stores it once
+    reminderId: number;
+    title?: string;
+    date: string; // YYYY-MM-DD
+    takenAt: string; // ISO
+}
+
 export interface WeightLog {
     id?: number;
     date: string; // YYYY-MM-DD